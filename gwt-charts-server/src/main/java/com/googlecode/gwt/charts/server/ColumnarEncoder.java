@@ -0,0 +1,302 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.server;
+
+import com.googlecode.gwt.charts.client.ColumnType;
+import com.googlecode.gwt.charts.shared.ColumnarTable;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encodes a {@link ColumnarTable} in a compact columnar JSON format, decoded on the client by
+ * {@link com.googlecode.gwt.charts.client.ColumnarDecoder}. Compared to the row oriented DataTable JSON, cells are not
+ * wrapped in objects and numbers are not written as text:
+ * <ul>
+ * <li>number, boolean and time of day columns are written as a base64 block of little-endian Float64 values, with NaN
+ * for null;</li>
+ * <li>date and datetime columns without nulls, whose consecutive values differ by whole milliseconds that fit in 32
+ * bits, are written as a start value followed by a base64 block of Int32 deltas, other date columns as Float64
+ * values;</li>
+ * <li>string columns are written as a dictionary of distinct values and an array of indexes into it, -1 for null.</li>
+ * </ul>
+ * Formatted values and all properties are kept. A payload has the form:
+ * 
+ * <pre>
+ * {"format":"columnar","version":1,"rows":3,"p":{...},"cols":[
+ *   {"type":"datetime","label":"Time","enc":"delta","start":1356998400000,"data":"AAAAAGDqAABg6gAA"},
+ *   {"type":"number","label":"Load","enc":"f64","data":"...","f":["1.5","2","3.25"]},
+ *   {"type":"string","label":"Host","enc":"dict","dict":["a","b"],"data":[0,1,0],"cp":{"2":{"style":"bold"}}}]}
+ * </pre>
+ * 
+ * This class runs in a plain JVM and doesn't need the GWT libraries.
+ */
+public class ColumnarEncoder {
+	/**
+	 * The value of the "format" member of every payload.
+	 */
+	public static final String FORMAT = "columnar";
+
+	/**
+	 * The version of the format written by this encoder.
+	 */
+	public static final int VERSION = 1;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final char[] BASE64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+	/**
+	 * Streams base64 text to a writer, three bytes at a time.
+	 */
+	private static class Base64Writer {
+		private final Writer writer;
+		private int buffer;
+		private int count;
+
+		private Base64Writer(Writer writer) {
+			this.writer = writer;
+		}
+
+		private void finish() throws IOException {
+			if (count == 1) {
+				writer.write(BASE64[buffer >> 2 & 0x3f]);
+				writer.write(BASE64[buffer << 4 & 0x3f]);
+				writer.write("==");
+			} else if (count == 2) {
+				writer.write(BASE64[buffer >> 10 & 0x3f]);
+				writer.write(BASE64[buffer >> 4 & 0x3f]);
+				writer.write(BASE64[buffer << 2 & 0x3f]);
+				writer.write('=');
+			}
+			count = 0;
+			buffer = 0;
+		}
+
+		private void writeByte(int b) throws IOException {
+			buffer = buffer << 8 | b & 0xff;
+			if (++count == 3) {
+				writer.write(BASE64[buffer >> 18 & 0x3f]);
+				writer.write(BASE64[buffer >> 12 & 0x3f]);
+				writer.write(BASE64[buffer >> 6 & 0x3f]);
+				writer.write(BASE64[buffer & 0x3f]);
+				count = 0;
+				buffer = 0;
+			}
+		}
+
+		private void writeInt(int value) throws IOException {
+			for (int k = 0; k < 4; k++) {
+				writeByte(value >> 8 * k);
+			}
+		}
+
+		private void writeLong(long value) throws IOException {
+			for (int k = 0; k < 8; k++) {
+				writeByte((int) (value >> 8 * k));
+			}
+		}
+	}
+
+	/**
+	 * Encodes a table and returns the payload.
+	 * 
+	 * @param table the table to encode
+	 * @return the encoded payload
+	 */
+	public static String encode(ColumnarTable table) {
+		StringWriter writer = new StringWriter();
+		try {
+			encode(table, writer);
+		} catch (IOException e) {
+			// StringWriter does not throw
+			throw new IllegalStateException(e);
+		}
+		return writer.toString();
+	}
+
+	/**
+	 * Encodes a table as UTF-8 to a stream, which is flushed but not closed.
+	 * 
+	 * @param table the table to encode
+	 * @param out the stream to write to
+	 * @throws IOException if writing fails
+	 */
+	public static void encode(ColumnarTable table, OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, UTF_8));
+		encode(table, writer);
+		writer.flush();
+	}
+
+	/**
+	 * Encodes a table to a writer, which should be buffered.
+	 * 
+	 * @param table the table to encode
+	 * @param writer the writer to write to
+	 * @throws IOException if writing fails
+	 */
+	public static void encode(ColumnarTable table, Writer writer) throws IOException {
+		writer.write("{\"format\":\"" + FORMAT + "\",\"version\":" + VERSION + ",\"rows\":");
+		writer.write(Integer.toString(table.getNumberOfRows()));
+		if (table.getTableProperties() != null) {
+			writer.write(",\"p\":");
+			DataTableJsonWriter.appendProperties(writer, table.getTableProperties());
+		}
+		writer.write(",\"cols\":[");
+		for (int j = 0; j < table.getNumberOfColumns(); j++) {
+			if (j > 0) {
+				writer.write(',');
+			}
+			writeColumn(table, j, writer);
+		}
+		writer.write("]}");
+	}
+
+	private static boolean isDeltaEncodable(double[] millis) {
+		for (int i = 0; i < millis.length; i++) {
+			if (millis[i] != Math.rint(millis[i])) {
+				// Also rejects NaN and infinite values
+				return false;
+			}
+			if (i > 0) {
+				double delta = millis[i] - millis[i - 1];
+				if (delta < Integer.MIN_VALUE || delta > Integer.MAX_VALUE) {
+					return false;
+				}
+			}
+		}
+		return millis.length > 0;
+	}
+
+	private static void writeColumn(ColumnarTable table, int columnIndex, Writer writer) throws IOException {
+		ColumnType type = table.getColumnType(columnIndex);
+		writer.write("{\"type\":\"");
+		writer.write(type.getName());
+		writer.write('"');
+		writeString(writer, "label", table.getColumnLabel(columnIndex));
+		writeString(writer, "id", table.getColumnId(columnIndex));
+		if (table.getColumnRole(columnIndex) != null) {
+			writeString(writer, "role", table.getColumnRole(columnIndex).getName());
+		}
+		writeString(writer, "pattern", table.getColumnPattern(columnIndex));
+		if (table.getColumnProperties(columnIndex) != null) {
+			writer.write(",\"p\":");
+			DataTableJsonWriter.appendProperties(writer, table.getColumnProperties(columnIndex));
+		}
+
+		if (type == ColumnType.STRING) {
+			writeDictionary(table.getStrings(columnIndex), writer);
+		} else {
+			double[] numbers = table.getNumbers(columnIndex);
+			if ((type == ColumnType.DATE || type == ColumnType.DATETIME) && isDeltaEncodable(numbers)) {
+				writeDeltas(numbers, writer);
+			} else {
+				writeFloat64(numbers, writer);
+			}
+		}
+
+		String[] formattedValues = table.getFormattedValues(columnIndex);
+		if (formattedValues != null) {
+			writer.write(",\"f\":[");
+			for (int i = 0; i < formattedValues.length; i++) {
+				if (i > 0) {
+					writer.write(',');
+				}
+				if (formattedValues[i] == null) {
+					writer.write("null");
+				} else {
+					DataTableJsonWriter.quote(writer, formattedValues[i]);
+				}
+			}
+			writer.write(']');
+		}
+		Map<Integer, Map<String, String>> cellProperties = table.getCellProperties(columnIndex);
+		if (cellProperties != null && !cellProperties.isEmpty()) {
+			writer.write(",\"cp\":{");
+			boolean first = true;
+			for (Map.Entry<Integer, Map<String, String>> entry : cellProperties.entrySet()) {
+				if (!first) {
+					writer.write(',');
+				}
+				first = false;
+				writer.write('"');
+				writer.write(entry.getKey().toString());
+				writer.write("\":");
+				DataTableJsonWriter.appendProperties(writer, entry.getValue());
+			}
+			writer.write('}');
+		}
+		writer.write('}');
+	}
+
+	private static void writeDeltas(double[] millis, Writer writer) throws IOException {
+		writer.write(",\"enc\":\"delta\",\"start\":");
+		writer.write(Long.toString((long) millis[0]));
+		writer.write(",\"data\":\"");
+		Base64Writer base64 = new Base64Writer(writer);
+		double previous = millis[0];
+		for (int i = 0; i < millis.length; i++) {
+			base64.writeInt((int) (millis[i] - previous));
+			previous = millis[i];
+		}
+		base64.finish();
+		writer.write('"');
+	}
+
+	private static void writeDictionary(String[] values, Writer writer) throws IOException {
+		Map<String, Integer> indexes = new HashMap<String, Integer>();
+		writer.write(",\"enc\":\"dict\",\"dict\":[");
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null && !indexes.containsKey(values[i])) {
+				if (!indexes.isEmpty()) {
+					writer.write(',');
+				}
+				indexes.put(values[i], indexes.size());
+				DataTableJsonWriter.quote(writer, values[i]);
+			}
+		}
+		writer.write("],\"data\":[");
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) {
+				writer.write(',');
+			}
+			writer.write(values[i] == null ? "-1" : indexes.get(values[i]).toString());
+		}
+		writer.write(']');
+	}
+
+	private static void writeFloat64(double[] values, Writer writer) throws IOException {
+		writer.write(",\"enc\":\"f64\",\"data\":\"");
+		Base64Writer base64 = new Base64Writer(writer);
+		for (int i = 0; i < values.length; i++) {
+			base64.writeLong(Double.doubleToLongBits(values[i]));
+		}
+		base64.finish();
+		writer.write('"');
+	}
+
+	private static void writeString(Writer writer, String name, String value) throws IOException {
+		if (value != null) {
+			writer.write(",\"");
+			writer.write(name);
+			writer.write("\":");
+			DataTableJsonWriter.quote(writer, value);
+		}
+	}
+}
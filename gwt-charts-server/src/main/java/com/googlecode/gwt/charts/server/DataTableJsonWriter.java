@@ -0,0 +1,535 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.server;
+
+import com.googlecode.gwt.charts.client.ColumnType;
+import com.googlecode.gwt.charts.client.RoleType;
+import com.googlecode.gwt.charts.shared.ColumnarTable;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Writes DataTable JSON, as accepted by {@link com.googlecode.gwt.charts.client.DataTable#create(String)}, straight to
+ * a stream. Nothing is kept per row, so tables of any size are written in constant memory.<br>
+ * Columns are declared first, then rows are written one cell at a time:
+ * 
+ * <pre>
+ * DataTableJsonWriter json = new DataTableJsonWriter(response.getOutputStream());
+ * json.addColumn(ColumnType.DATETIME, "Time");
+ * json.addColumn(ColumnType.NUMBER, "Load");
+ * for (Sample sample : samples) {
+ * 	json.beginRow().valueMillis(sample.getTime()).value(sample.getLoad()).endRow();
+ * }
+ * json.close();
+ * </pre>
+ * 
+ * Dates are written in the <code>Date(year, month, day, ...)</code> form, which the browser reads as local time, so the
+ * writer splits them in the time zone set with {@link #setTimeZone(TimeZone)}, UTC by default.<br>
+ * This class runs in a plain JVM and doesn't need the GWT libraries.
+ */
+public class DataTableJsonWriter implements Closeable, Flushable {
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final Writer writer;
+	private final List<ColumnType> columnTypes = new ArrayList<ColumnType>();
+	private final StringBuilder columns = new StringBuilder();
+	private final Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+	private boolean started;
+	private boolean inRow;
+	private int rowCount;
+	private int cellCount;
+
+	/**
+	 * Creates a writer encoding the JSON as UTF-8.
+	 * 
+	 * @param out the stream to write to
+	 */
+	public DataTableJsonWriter(OutputStream out) {
+		this(new BufferedWriter(new OutputStreamWriter(out, UTF_8)));
+	}
+
+	/**
+	 * Creates a writer. The writer should be buffered.
+	 * 
+	 * @param writer the writer to write to
+	 */
+	public DataTableJsonWriter(Writer writer) {
+		this.writer = writer;
+	}
+
+	/**
+	 * Declares a column. All columns must be declared before the first row.
+	 * 
+	 * @param type the column type
+	 * @param label the column label, or null
+	 * @return this writer
+	 */
+	public DataTableJsonWriter addColumn(ColumnType type, String label) {
+		return addColumn(type, label, null, null, null, null);
+	}
+
+	/**
+	 * Declares a column. All columns must be declared before the first row.
+	 * 
+	 * @param type the column type
+	 * @param label the column label, or null
+	 * @param id the column id, or null
+	 * @param role the column role, or null
+	 * @param pattern the column format pattern, or null
+	 * @param properties the column properties, or null
+	 * @return this writer
+	 */
+	public DataTableJsonWriter addColumn(ColumnType type, String label, String id, RoleType role, String pattern,
+			Map<String, String> properties) {
+		if (started) {
+			throw new IllegalStateException("Columns must be declared before the first row");
+		}
+		if (!columnTypes.isEmpty()) {
+			columns.append(',');
+		}
+		columnTypes.add(type);
+		columns.append("{\"type\":\"").append(type.getName()).append('"');
+		if (label != null) {
+			columns.append(",\"label\":");
+			quote(columns, label);
+		}
+		if (id != null) {
+			columns.append(",\"id\":");
+			quote(columns, id);
+		}
+		if (role != null) {
+			columns.append(",\"role\":\"").append(role.getName()).append('"');
+		}
+		if (pattern != null) {
+			columns.append(",\"pattern\":");
+			quote(columns, pattern);
+		}
+		if (properties != null) {
+			columns.append(",\"p\":");
+			appendProperties(columns, properties);
+		}
+		columns.append('}');
+		return this;
+	}
+
+	/**
+	 * Starts a new row. The rows are written after the columns, which can no longer be changed.
+	 * 
+	 * @return this writer
+	 * @throws IOException if writing fails
+	 */
+	public DataTableJsonWriter beginRow() throws IOException {
+		if (inRow) {
+			throw new IllegalStateException("Previous row was not ended");
+		}
+		if (rowCount < 0) {
+			throw new IllegalStateException("Table was already finished");
+		}
+		start();
+		writer.write(rowCount == 0 ? "{\"c\":[" : ",{\"c\":[");
+		inRow = true;
+		cellCount = 0;
+		return this;
+	}
+
+	/**
+	 * Ends the table and closes the underlying stream.
+	 * 
+	 * @throws IOException if writing fails
+	 */
+	@Override
+	public void close() throws IOException {
+		finish();
+		writer.close();
+	}
+
+	/**
+	 * Ends the current row, which must have a cell for each column.
+	 * 
+	 * @return this writer
+	 * @throws IOException if writing fails
+	 */
+	public DataTableJsonWriter endRow() throws IOException {
+		if (!inRow) {
+			throw new IllegalStateException("No row was started");
+		}
+		if (cellCount != columnTypes.size()) {
+			throw new IllegalStateException("Row has " + cellCount + " cells, expected " + columnTypes.size());
+		}
+		writer.write("]}");
+		inRow = false;
+		rowCount++;
+		return this;
+	}
+
+	/**
+	 * Ends the table, without closing the underlying stream. Nothing can be written afterwards.
+	 * 
+	 * @throws IOException if writing fails
+	 */
+	public void finish() throws IOException {
+		if (inRow) {
+			throw new IllegalStateException("Last row was not ended");
+		}
+		start();
+		if (rowCount >= 0) {
+			writer.write("]}");
+			rowCount = -1;
+		}
+		writer.flush();
+	}
+
+	@Override
+	public void flush() throws IOException {
+		writer.flush();
+	}
+
+	/**
+	 * Sets the time zone used to write date and datetime values, which should be the one of the browser.
+	 * 
+	 * @param timeZone the time zone
+	 */
+	public void setTimeZone(TimeZone timeZone) {
+		calendar.setTimeZone(timeZone);
+	}
+
+	/**
+	 * Writes a boolean cell.
+	 * 
+	 * @param value the cell value
+	 * @return this writer
+	 * @throws IOException if writing fails
+	 */
+	public DataTableJsonWriter value(boolean value) throws IOException {
+		return value(value, null);
+	}
+
+	/**
+	 * Writes a boolean cell with a formatted value.
+	 * 
+	 * @param value the cell value
+	 * @param formattedValue the formatted value, or null
+	 * @return this writer
+	 * @throws IOException if writing fails
+	 */
+	public DataTableJsonWriter value(boolean value, String formattedValue) throws IOException {
+		beginCell();
+		writer.write(value ? "true" : "false");
+		endCell(formattedValue, null);
+		return this;
+	}
+
+	/**
+	 * Writes a number cell, or a date, datetime or time of day cell for those column types as in
+	 * {@link #valueMillis(double)}.
+	 * 
+	 * @param value the cell value, NaN for null
+	 * @return this writer
+	 * @throws IOException if writing fails
+	 */
+	public DataTableJsonWriter value(double value) throws IOException {
+		return value(value, null);
+	}
+
+	/**
+	 * Writes a number cell with a formatted value, or a date, datetime or time of day cell for those column types as in
+	 * {@link #valueMillis(double)}.
+	 * 
+	 * @param value the cell value, NaN for null
+	 * @param formattedValue the formatted value, or null
+	 * @return this writer
+	 * @throws IOException if writing fails
+	 */
+	public DataTableJsonWriter value(double value, String formattedValue) throws IOException {
+		beginCell();
+		writeNumber(columnTypes.get(cellCount), value);
+		endCell(formattedValue, null);
+		return this;
+	}
+
+	/**
+	 * Writes a string cell.
+	 * 
+	 * @param value the cell value, or null
+	 * @return this writer
+	 * @throws IOException if writing fails
+	 */
+	public DataTableJsonWriter value(String value) throws IOException {
+		return value(value, null);
+	}
+
+	/**
+	 * Writes a string cell with a formatted value.
+	 * 
+	 * @param value the cell value, or null
+	 * @param formattedValue the formatted value, or null
+	 * @return this writer
+	 * @throws IOException if writing fails
+	 */
+	public DataTableJsonWriter value(String value, String formattedValue) throws IOException {
+		beginCell();
+		if (value == null) {
+			writer.write("null");
+		} else {
+			quote(writer, value);
+		}
+		endCell(formattedValue, null);
+		return this;
+	}
+
+	/**
+	 * Writes a date or datetime cell from milliseconds since the epoch, or a time of day cell from milliseconds since
+	 * midnight.
+	 * 
+	 * @param millis the cell value, NaN for null
+	 * @return this writer
+	 * @throws IOException if writing fails
+	 */
+	public DataTableJsonWriter valueMillis(double millis) throws IOException {
+		return value(millis, null);
+	}
+
+	/**
+	 * Writes a null cell.
+	 * 
+	 * @return this writer
+	 * @throws IOException if writing fails
+	 */
+	public DataTableJsonWriter valueNull() throws IOException {
+		return value(Double.NaN, null);
+	}
+
+	/**
+	 * Writes a whole columnar table, including formatted values and properties, and ends the table. Columns must not
+	 * have been declared on this writer.
+	 * 
+	 * @param table the table to write
+	 * @throws IOException if writing fails
+	 * @throws IllegalStateException if columns were already declared or rows written
+	 */
+	public void write(ColumnarTable table) throws IOException {
+		if (!columnTypes.isEmpty() || started) {
+			throw new IllegalStateException("Columns were already declared on this writer");
+		}
+		int columnCount = table.getNumberOfColumns();
+		for (int j = 0; j < columnCount; j++) {
+			addColumn(table.getColumnType(j), table.getColumnLabel(j), table.getColumnId(j), table.getColumnRole(j),
+					table.getColumnPattern(j), table.getColumnProperties(j));
+		}
+		Object[] values = new Object[columnCount];
+		String[][] formattedValues = new String[columnCount][];
+		List<Map<Integer, Map<String, String>>> cellProperties = new ArrayList<Map<Integer, Map<String, String>>>();
+		for (int j = 0; j < columnCount; j++) {
+			values[j] = table.getColumnType(j) == ColumnType.STRING ? table.getStrings(j) : table.getNumbers(j);
+			formattedValues[j] = table.getFormattedValues(j);
+			cellProperties.add(table.getCellProperties(j));
+		}
+		if (table.getTableProperties() != null) {
+			start(table.getTableProperties());
+		}
+		for (int i = 0; i < table.getNumberOfRows(); i++) {
+			beginRow();
+			for (int j = 0; j < columnCount; j++) {
+				beginCell();
+				if (values[j] instanceof String[]) {
+					String value = ((String[]) values[j])[i];
+					if (value == null) {
+						writer.write("null");
+					} else {
+						quote(writer, value);
+					}
+				} else {
+					writeNumber(columnTypes.get(j), ((double[]) values[j])[i]);
+				}
+				Map<Integer, Map<String, String>> properties = cellProperties.get(j);
+				endCell(formattedValues[j] == null ? null : formattedValues[j][i],
+						properties == null ? null : properties.get(i));
+			}
+			endRow();
+		}
+		finish();
+	}
+
+	static void appendProperties(Appendable out, Map<String, String> properties) throws IOException {
+		out.append('{');
+		boolean first = true;
+		for (Map.Entry<String, String> entry : properties.entrySet()) {
+			if (!first) {
+				out.append(',');
+			}
+			first = false;
+			quote(out, entry.getKey());
+			out.append(':');
+			if (entry.getValue() == null) {
+				out.append("null");
+			} else {
+				quote(out, entry.getValue());
+			}
+		}
+		out.append('}');
+	}
+
+	private static void appendProperties(StringBuilder out, Map<String, String> properties) {
+		try {
+			appendProperties((Appendable) out, properties);
+		} catch (IOException e) {
+			// StringBuilder does not throw
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void beginCell() throws IOException {
+		if (!inRow) {
+			throw new IllegalStateException("No row was started");
+		}
+		if (cellCount >= columnTypes.size()) {
+			throw new IllegalStateException("Row already has a cell for all " + columnTypes.size() + " columns");
+		}
+		writer.write(cellCount == 0 ? "{\"v\":" : ",{\"v\":");
+	}
+
+	private void endCell(String formattedValue, Map<String, String> properties) throws IOException {
+		if (formattedValue != null) {
+			writer.write(",\"f\":");
+			quote(writer, formattedValue);
+		}
+		if (properties != null) {
+			writer.write(",\"p\":");
+			appendProperties(writer, properties);
+		}
+		writer.write('}');
+		cellCount++;
+	}
+
+	private void start() throws IOException {
+		start(null);
+	}
+
+	private void start(Map<String, String> tableProperties) throws IOException {
+		if (started) {
+			return;
+		}
+		started = true;
+		writer.write("{\"cols\":[");
+		writer.append(columns);
+		writer.write(']');
+		if (tableProperties != null) {
+			writer.write(",\"p\":");
+			appendProperties(writer, tableProperties);
+		}
+		writer.write(",\"rows\":[");
+	}
+
+	private void writeNumber(ColumnType type, double value) throws IOException {
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			writer.write("null");
+		} else if (type == ColumnType.DATE || type == ColumnType.DATETIME) {
+			calendar.setTimeInMillis((long) value);
+			writer.write("\"Date(");
+			writer.write(Integer.toString(calendar.get(Calendar.YEAR)));
+			writer.write(',');
+			writer.write(Integer.toString(calendar.get(Calendar.MONTH)));
+			writer.write(',');
+			writer.write(Integer.toString(calendar.get(Calendar.DAY_OF_MONTH)));
+			if (type == ColumnType.DATETIME) {
+				writer.write(',');
+				writer.write(Integer.toString(calendar.get(Calendar.HOUR_OF_DAY)));
+				writer.write(',');
+				writer.write(Integer.toString(calendar.get(Calendar.MINUTE)));
+				writer.write(',');
+				writer.write(Integer.toString(calendar.get(Calendar.SECOND)));
+				writer.write(',');
+				writer.write(Integer.toString(calendar.get(Calendar.MILLISECOND)));
+			}
+			writer.write(")\"");
+		} else if (type == ColumnType.TIMEOFDAY) {
+			long millis = (long) value;
+			writer.write('[');
+			writer.write(Long.toString(millis / 3600000));
+			writer.write(',');
+			writer.write(Long.toString(millis / 60000 % 60));
+			writer.write(',');
+			writer.write(Long.toString(millis / 1000 % 60));
+			writer.write(',');
+			writer.write(Long.toString(millis % 1000));
+			writer.write(']');
+		} else if (type == ColumnType.BOOLEAN) {
+			writer.write(value != 0 ? "true" : "false");
+		} else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+			// Integral values without a fraction or exponent
+			writer.write(Long.toString((long) value));
+		} else {
+			writer.write(Double.toString(value));
+		}
+	}
+
+	static void quote(Appendable out, String value) throws IOException {
+		out.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '"':
+					out.append("\\\"");
+					break;
+				case '\\':
+					out.append("\\\\");
+					break;
+				case '\n':
+					out.append("\\n");
+					break;
+				case '\r':
+					out.append("\\r");
+					break;
+				case '\t':
+					out.append("\\t");
+					break;
+				case '<':
+					// Keeps "</script>" out of JSON embedded in a page
+					out.append("\\u003c");
+					break;
+				default:
+					if (c < 0x20) {
+						out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xf]);
+					} else if (c == '\u2028' || c == '\u2029') {
+						// Line separators are valid in JSON but not in JavaScript strings
+						out.append(c == '\u2028' ? "\\u2028" : "\\u2029");
+					} else {
+						out.append(c);
+					}
+			}
+		}
+		out.append('"');
+	}
+
+	private static void quote(StringBuilder out, String value) {
+		try {
+			quote((Appendable) out, value);
+		} catch (IOException e) {
+			// StringBuilder does not throw
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.server;
+
+import com.googlecode.gwt.charts.client.JsniScript;
+import com.googlecode.gwt.charts.shared.ColumnarTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the same time series in the columnar format and as DataTable JSON, gzipped or not, and reads both on the
+ * client side in Rhino: the columnar payload with the script of
+ * {@link com.googlecode.gwt.charts.client.ColumnarDecoder}, the JSON with JSON.parse. The write benchmarks return the
+ * payload size in bytes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class ColumnarEncoderBenchmark {
+	@Param({ "100000", "500000" })
+	public int rows;
+
+	private ColumnarTable table;
+	private String columnarPayload;
+	private String jsonPayload;
+	private JsniScript script;
+
+	@Benchmark
+	public long columnar() throws IOException {
+		SampleTables.CountingOutputStream out = new SampleTables.CountingOutputStream();
+		ColumnarEncoder.encode(table, out);
+		return out.getCount();
+	}
+
+	@Benchmark
+	public Object columnarDecode() {
+		return script.call("decodeColumnsOnly", columnarPayload);
+	}
+
+	@Benchmark
+	public long columnarGzip() throws IOException {
+		SampleTables.CountingOutputStream out = new SampleTables.CountingOutputStream();
+		GZIPOutputStream gzip = new GZIPOutputStream(out);
+		ColumnarEncoder.encode(table, gzip);
+		gzip.close();
+		return out.getCount();
+	}
+
+	@Benchmark
+	public long json() throws IOException {
+		SampleTables.CountingOutputStream out = new SampleTables.CountingOutputStream();
+		new DataTableJsonWriter(out).write(table);
+		return out.getCount();
+	}
+
+	@Benchmark
+	public long jsonGzip() throws IOException {
+		SampleTables.CountingOutputStream out = new SampleTables.CountingOutputStream();
+		GZIPOutputStream gzip = new GZIPOutputStream(out);
+		new DataTableJsonWriter(gzip).write(table);
+		gzip.close();
+		return out.getCount();
+	}
+
+	@Benchmark
+	public Object jsonParse() {
+		return script.call("parseOnly", jsonPayload);
+	}
+
+	@Setup
+	public void setUp() throws IOException {
+		table = SampleTables.timeSeries(rows);
+		columnarPayload = ColumnarEncoder.encode(table);
+		StringWriter json = new StringWriter();
+		new DataTableJsonWriter(json).write(table);
+		jsonPayload = json.toString();
+		script = new JsniScript();
+		script.define("com.googlecode.gwt.charts.client.ColumnarDecoder", "decodeColumns");
+		script.define("com.googlecode.gwt.charts.client.ColumnarDecoder", "startColumns");
+		script.define("com.googlecode.gwt.charts.client.ColumnarDecoder", "decodeNextColumn");
+		script.eval("function decodeColumnsOnly(text) {"
+				+ "  return decodeColumns(JSON.parse(text)) != null;"
+				+ "}"
+				+ "function parseOnly(text) {"
+				+ "  return JSON.parse(text) != null;"
+				+ "}");
+	}
+
+	@TearDown
+	public void tearDown() {
+		script.close();
+	}
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import com.googlecode.gwt.charts.client.ColumnType;
+import com.googlecode.gwt.charts.client.JsniScript;
+import com.googlecode.gwt.charts.client.RoleType;
+import com.googlecode.gwt.charts.shared.ColumnarTable;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * Encodes tables and decodes them with the script of {@link com.googlecode.gwt.charts.client.ColumnarDecoder}.
+ */
+public class ColumnarEncoderTest {
+	private static JsniScript script;
+
+	@BeforeClass
+	public static void setUpScript() {
+		script = new JsniScript();
+		script.define("com.googlecode.gwt.charts.client.ColumnarDecoder", "decodeColumns");
+		script.define("com.googlecode.gwt.charts.client.ColumnarDecoder", "startColumns");
+		script.define("com.googlecode.gwt.charts.client.ColumnarDecoder", "decodeNextColumn");
+		script.define("com.googlecode.gwt.charts.client.ColumnarDecoder", "isDecoded");
+		// Typed arrays are turned into plain arrays so that the result can be read back as JSON, NaN becoming null
+		script.eval("function decodeToJson(text) {"
+				+ "  var decoded = decodeColumns(JSON.parse(text));"
+				+ "  if (decoded == null) {"
+				+ "    return null;"
+				+ "  }"
+				+ "  for (var j = 0; j < decoded.values.length; j++) {"
+				+ "    decoded.values[j] = Array.prototype.slice.call(decoded.values[j]);"
+				+ "  }"
+				+ "  return JSON.stringify(decoded);"
+				+ "}"
+				// Lists the number of decoded columns after each step, -1 for a column that can't be decoded
+				+ "function decodeSteps(text) {"
+				+ "  var payload = JSON.parse(text);"
+				+ "  var columns = startColumns(payload);"
+				+ "  var steps = [];"
+				+ "  while (!isDecoded(payload, columns)) {"
+				+ "    if (!decodeNextColumn(payload, columns)) {"
+				+ "      steps.push(-1);"
+				+ "      break;"
+				+ "    }"
+				+ "    steps.push(columns.values.length);"
+				+ "  }"
+				+ "  return steps.join(',');"
+				+ "}");
+	}
+
+	@AfterClass
+	public static void tearDownScript() {
+		script.close();
+	}
+
+	@Test
+	public void testBase64Tails() {
+		for (int rowCount = 1; rowCount <= 4; rowCount++) {
+			ColumnarTable table = new ColumnarTable();
+			table.addColumn(ColumnType.DATETIME, null);
+			table.addColumn(ColumnType.NUMBER, null);
+			table.addRows(rowCount);
+			for (int i = 0; i < rowCount; i++) {
+				table.setMillis(i, 0, SampleTables.START_MILLIS - i * 7001L);
+				table.setNumber(i, 1, i * 1.25 - 1);
+			}
+			JsonObject decoded = decode(ColumnarEncoder.encode(table));
+			assertEquals(rowCount, decoded.get("rows").getAsInt());
+			assertNumbers(table.getNumbers(0), values(decoded, 0));
+			assertNumbers(table.getNumbers(1), values(decoded, 1));
+		}
+	}
+
+	@Test
+	public void testColumnByColumn() {
+		String payload = ColumnarEncoder.encode(SampleTables.timeSeries(10));
+		assertEquals("1,2,3", script.call("decodeSteps", payload));
+		assertEquals("-1", script.call("decodeSteps", payload.replace("\"rows\":10", "\"rows\":11")));
+		assertNull(script.eval("startColumns({rows: 1, cols: []})"));
+	}
+
+	@Test
+	public void testDateEncodings() {
+		ColumnarTable table = new ColumnarTable();
+		table.addColumn(ColumnType.DATETIME, "Regular");
+		table.addColumn(ColumnType.DATETIME, "Null");
+		table.addColumn(ColumnType.DATE, "Fraction");
+		table.addRows(3);
+		for (int i = 0; i < 3; i++) {
+			table.setMillis(i, 0, SampleTables.START_MILLIS + i * 1000L);
+			table.setMillis(i, 1, i == 1 ? Double.NaN : SampleTables.START_MILLIS);
+			table.setMillis(i, 2, SampleTables.START_MILLIS + i + 0.5);
+		}
+		String payload = ColumnarEncoder.encode(table);
+		JsonArray cols = JsonParser.parseString(payload).getAsJsonObject().getAsJsonArray("cols");
+		assertEquals("delta", cols.get(0).getAsJsonObject().get("enc").getAsString());
+		assertEquals("f64", cols.get(1).getAsJsonObject().get("enc").getAsString());
+		assertEquals("f64", cols.get(2).getAsJsonObject().get("enc").getAsString());
+		JsonObject decoded = decode(payload);
+		for (int j = 0; j < 3; j++) {
+			assertNumbers(table.getNumbers(j), values(decoded, j));
+		}
+	}
+
+	@Test
+	public void testEveryColumnType() {
+		ColumnarTable table = new ColumnarTable(2);
+		table.addColumn(ColumnType.DATETIME, "Time", "time");
+		table.addColumn(ColumnType.DATE, "Day");
+		table.addColumn(ColumnType.NUMBER, "Load");
+		table.addColumn(ColumnType.STRING, "Host </script> ");
+		table.addColumn(ColumnType.BOOLEAN, "Up");
+		table.addColumn(ColumnType.TIMEOFDAY, "Shift");
+		table.addColumn(ColumnType.STRING, "Note");
+		table.setColumnRole(6, RoleType.ANNOTATION);
+		table.setColumnPattern(2, "#.##");
+		table.setColumnProperty(2, "style", "bold");
+		table.setTableProperty("source", "test");
+		String[] hosts = { "a", null, "b", "a", "é中" };
+		table.addRows(hosts.length);
+		for (int i = 0; i < hosts.length; i++) {
+			table.setMillis(i, 0, SampleTables.START_MILLIS + i * 60000L);
+			table.setMillis(i, 1, i == 3 ? Double.NaN : SampleTables.START_MILLIS + i * 86400000L);
+			table.setNumber(i, 2, i == 1 ? Double.NaN : Math.PI * (i - 2) * 1e10);
+			table.setString(i, 3, hosts[i]);
+			table.setBoolean(i, 4, i % 2 == 0);
+			table.setMillis(i, 5, i * 3723004L);
+		}
+		table.setFormattedValue(0, 2, "-6.28e10");
+		table.setCellProperty(2, 3, "className", "warn");
+		table.setString(4, 6, "last");
+
+		JsonObject decoded = decode(ColumnarEncoder.encode(table));
+		assertEquals("test", decoded.getAsJsonObject("p").get("source").getAsString());
+		JsonArray cols = decoded.getAsJsonArray("cols");
+		assertEquals(table.getNumberOfColumns(), cols.size());
+		for (int j = 0; j < table.getNumberOfColumns(); j++) {
+			JsonObject col = cols.get(j).getAsJsonObject();
+			assertEquals(table.getColumnType(j).getName(), col.get("type").getAsString());
+			assertEquals(table.getColumnLabel(j), col.get("label").getAsString());
+			if (table.getColumnType(j) == ColumnType.STRING) {
+				assertStrings(table.getStrings(j), values(decoded, j));
+			} else {
+				assertNumbers(table.getNumbers(j), values(decoded, j));
+			}
+		}
+		assertEquals("time", cols.get(0).getAsJsonObject().get("id").getAsString());
+		assertEquals("#.##", cols.get(2).getAsJsonObject().get("pattern").getAsString());
+		assertEquals("bold", cols.get(2).getAsJsonObject().getAsJsonObject("p").get("style").getAsString());
+		assertEquals("annotation", cols.get(6).getAsJsonObject().get("role").getAsString());
+		JsonArray formattedValues = decoded.getAsJsonArray("f").get(2).getAsJsonArray();
+		assertEquals("-6.28e10", formattedValues.get(0).getAsString());
+		assertTrue(formattedValues.get(1).isJsonNull());
+		assertTrue(decoded.getAsJsonArray("f").get(3).isJsonNull());
+		assertEquals("warn", decoded.getAsJsonArray("cp").get(3).getAsJsonObject().getAsJsonObject("2")
+				.get("className").getAsString());
+	}
+
+	@Test
+	public void testPayloadSize() throws IOException {
+		ColumnarTable table = SampleTables.timeSeries(100000);
+		StringWriter json = new StringWriter();
+		new DataTableJsonWriter(json).write(table);
+		long jsonSize = json.toString().length();
+		long columnarSize = ColumnarEncoder.encode(table).length();
+		// Numeric time series are the case the format is for, so hold it to its promise
+		assertTrue(jsonSize + " vs " + columnarSize, columnarSize * 3 <= jsonSize);
+	}
+
+	@Test
+	public void testTruncatedPayload() {
+		ColumnarTable table = SampleTables.timeSeries(10);
+		String payload = ColumnarEncoder.encode(table).replace("\"rows\":10", "\"rows\":11");
+		assertNull(script.call("decodeToJson", payload));
+	}
+
+	private static void assertNumbers(double[] expected, JsonArray actual) {
+		assertEquals(expected.length, actual.size());
+		for (int i = 0; i < expected.length; i++) {
+			if (Double.isNaN(expected[i])) {
+				assertTrue("Row " + i, actual.get(i).isJsonNull());
+			} else {
+				assertEquals("Row " + i, expected[i], actual.get(i).getAsDouble(), 0);
+			}
+		}
+	}
+
+	private static void assertStrings(String[] expected, JsonArray actual) {
+		assertEquals(expected.length, actual.size());
+		for (int i = 0; i < expected.length; i++) {
+			JsonElement value = actual.get(i);
+			assertEquals("Row " + i, expected[i], value.isJsonNull() ? null : value.getAsString());
+		}
+	}
+
+	private static JsonObject decode(String payload) {
+		Object json = script.call("decodeToJson", payload);
+		return JsonParser.parseString((String) json).getAsJsonObject();
+	}
+
+	private static JsonArray values(JsonObject decoded, int columnIndex) {
+		return decoded.getAsJsonArray("values").get(columnIndex).getAsJsonArray();
+	}
+}
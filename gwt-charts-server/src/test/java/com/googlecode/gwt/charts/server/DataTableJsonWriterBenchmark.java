@@ -0,0 +1,154 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import com.googlecode.gwt.charts.client.ColumnType;
+import com.googlecode.gwt.charts.shared.ColumnarTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the same time series as DataTable JSON with {@link DataTableJsonWriter} and by building a Jackson or Gson tree
+ * first, the way a general purpose JSON library is usually used for this format. Run with <code>-prof gc</code> to
+ * compare the allocation per table as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class DataTableJsonWriterBenchmark {
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	@Param({ "100000", "500000" })
+	public int rows;
+
+	private ColumnarTable table;
+	private ObjectMapper mapper;
+	private Gson gson;
+	private Calendar calendar;
+
+	@Benchmark
+	public long gsonTree() throws IOException {
+		JsonObject root = new JsonObject();
+		JsonArray cols = new JsonArray();
+		for (int j = 0; j < table.getNumberOfColumns(); j++) {
+			JsonObject col = new JsonObject();
+			col.addProperty("type", table.getColumnType(j).getName());
+			col.addProperty("label", table.getColumnLabel(j));
+			cols.add(col);
+		}
+		root.add("cols", cols);
+		JsonArray rowArray = new JsonArray();
+		for (int i = 0; i < table.getNumberOfRows(); i++) {
+			JsonArray cells = new JsonArray();
+			JsonObject time = new JsonObject();
+			time.addProperty("v", dateLiteral(table.getMillis(i, 0)));
+			cells.add(time);
+			JsonObject load = new JsonObject();
+			load.addProperty("v", table.getNumber(i, 1));
+			cells.add(load);
+			JsonObject host = new JsonObject();
+			host.addProperty("v", table.getString(i, 2));
+			cells.add(host);
+			JsonObject row = new JsonObject();
+			row.add("c", cells);
+			rowArray.add(row);
+		}
+		root.add("rows", rowArray);
+		SampleTables.CountingOutputStream out = new SampleTables.CountingOutputStream();
+		Writer writer = new OutputStreamWriter(out, UTF_8);
+		gson.toJson(root, writer);
+		writer.flush();
+		return out.getCount();
+	}
+
+	@Benchmark
+	public long jacksonTree() throws IOException {
+		JsonNodeFactory nodes = mapper.getNodeFactory();
+		ObjectNode root = nodes.objectNode();
+		ArrayNode cols = root.putArray("cols");
+		for (int j = 0; j < table.getNumberOfColumns(); j++) {
+			cols.addObject().put("type", table.getColumnType(j).getName()).put("label", table.getColumnLabel(j));
+		}
+		ArrayNode rowArray = root.putArray("rows");
+		for (int i = 0; i < table.getNumberOfRows(); i++) {
+			ArrayNode cells = rowArray.addObject().putArray("c");
+			cells.addObject().put("v", dateLiteral(table.getMillis(i, 0)));
+			cells.addObject().put("v", table.getNumber(i, 1));
+			cells.addObject().put("v", table.getString(i, 2));
+		}
+		SampleTables.CountingOutputStream out = new SampleTables.CountingOutputStream();
+		mapper.writeValue(out, root);
+		return out.getCount();
+	}
+
+	@Setup
+	public void setUp() {
+		table = SampleTables.timeSeries(rows);
+		mapper = new ObjectMapper();
+		gson = new Gson();
+		calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+	}
+
+	@Benchmark
+	public long streamingCells() throws IOException {
+		SampleTables.CountingOutputStream out = new SampleTables.CountingOutputStream();
+		DataTableJsonWriter json = new DataTableJsonWriter(out);
+		json.addColumn(ColumnType.DATETIME, "Time");
+		json.addColumn(ColumnType.NUMBER, "Load");
+		json.addColumn(ColumnType.STRING, "Host");
+		for (int i = 0; i < table.getNumberOfRows(); i++) {
+			json.beginRow().valueMillis(table.getMillis(i, 0)).value(table.getNumber(i, 1))
+					.value(table.getString(i, 2)).endRow();
+		}
+		json.close();
+		return out.getCount();
+	}
+
+	@Benchmark
+	public long streamingTable() throws IOException {
+		SampleTables.CountingOutputStream out = new SampleTables.CountingOutputStream();
+		new DataTableJsonWriter(out).write(table);
+		return out.getCount();
+	}
+
+	private String dateLiteral(double millis) {
+		calendar.setTimeInMillis((long) millis);
+		return "Date(" + calendar.get(Calendar.YEAR) + "," + calendar.get(Calendar.MONTH) + ","
+				+ calendar.get(Calendar.DAY_OF_MONTH) + "," + calendar.get(Calendar.HOUR_OF_DAY) + ","
+				+ calendar.get(Calendar.MINUTE) + "," + calendar.get(Calendar.SECOND) + ","
+				+ calendar.get(Calendar.MILLISECOND) + ")";
+	}
+}
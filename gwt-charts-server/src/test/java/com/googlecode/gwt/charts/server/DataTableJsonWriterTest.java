@@ -0,0 +1,139 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import com.googlecode.gwt.charts.client.ColumnType;
+import com.googlecode.gwt.charts.shared.ColumnarTable;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.TimeZone;
+
+public class DataTableJsonWriterTest {
+	// 2013-01-02 03:04:05.006 UTC
+	private static final long MILLIS = 1357095845006L;
+
+	@Test(expected = IllegalStateException.class)
+	public void testBeginRowAfterFinish() throws IOException {
+		DataTableJsonWriter json = new DataTableJsonWriter(new StringWriter());
+		json.addColumn(ColumnType.NUMBER, null);
+		json.finish();
+		json.beginRow();
+	}
+
+	@Test
+	public void testCells() throws IOException {
+		StringWriter out = new StringWriter();
+		DataTableJsonWriter json = new DataTableJsonWriter(out);
+		json.addColumn(ColumnType.STRING, "Name");
+		json.addColumn(ColumnType.NUMBER, "Value");
+		json.addColumn(ColumnType.DATETIME, null);
+		json.beginRow().value("a").value(1.5, "1.50").valueMillis(MILLIS).endRow();
+		json.beginRow().valueNull().value(2).valueMillis(Double.NaN).endRow();
+		json.close();
+		assertEquals("{\"cols\":[{\"type\":\"string\",\"label\":\"Name\"},{\"type\":\"number\",\"label\":\"Value\"},"
+				+ "{\"type\":\"datetime\"}],\"rows\":["
+				+ "{\"c\":[{\"v\":\"a\"},{\"v\":1.5,\"f\":\"1.50\"},{\"v\":\"Date(2013,0,2,3,4,5,6)\"}]},"
+				+ "{\"c\":[{\"v\":null},{\"v\":2},{\"v\":null}]}]}", out.toString());
+	}
+
+	@Test
+	public void testDateTypes() throws IOException {
+		StringWriter out = new StringWriter();
+		DataTableJsonWriter json = new DataTableJsonWriter(out);
+		json.addColumn(ColumnType.DATE, null);
+		json.addColumn(ColumnType.DATETIME, null);
+		json.addColumn(ColumnType.TIMEOFDAY, null);
+		json.addColumn(ColumnType.BOOLEAN, null);
+		json.setTimeZone(TimeZone.getTimeZone("GMT+01:00"));
+		json.beginRow().valueMillis(MILLIS).valueMillis(MILLIS).valueMillis(3723004).value(true).endRow();
+		json.finish();
+		assertEquals("{\"cols\":[{\"type\":\"date\"},{\"type\":\"datetime\"},{\"type\":\"timeofday\"},"
+				+ "{\"type\":\"boolean\"}],\"rows\":["
+				+ "{\"c\":[{\"v\":\"Date(2013,0,2)\"},{\"v\":\"Date(2013,0,2,4,4,5,6)\"},{\"v\":[1,2,3,4]},{\"v\":true}]}]}",
+				out.toString());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testEndRowWithMissingCells() throws IOException {
+		DataTableJsonWriter json = new DataTableJsonWriter(new StringWriter());
+		json.addColumn(ColumnType.NUMBER, null);
+		json.addColumn(ColumnType.NUMBER, null);
+		json.beginRow().value(1).endRow();
+	}
+
+	@Test
+	public void testEscaping() throws IOException {
+		String value = "</script>\u2028\u2029\"\\\n\u0001é";
+		StringWriter out = new StringWriter();
+		DataTableJsonWriter json = new DataTableJsonWriter(out);
+		json.addColumn(ColumnType.STRING, null);
+		json.beginRow().value(value).endRow();
+		json.finish();
+		String text = out.toString();
+		assertTrue(text, text.contains("\"\\u003c/script>\\u2028\\u2029\\\"\\\\\\n\\u0001é\""));
+		JsonObject parsed = JsonParser.parseString(text).getAsJsonObject();
+		assertEquals(value, parsed.getAsJsonArray("rows").get(0).getAsJsonObject().getAsJsonArray("c").get(0)
+				.getAsJsonObject().get("v").getAsString());
+	}
+
+	@Test
+	public void testRowsAreStreamed() throws IOException {
+		SampleTables.CountingOutputStream out = new SampleTables.CountingOutputStream();
+		DataTableJsonWriter json = new DataTableJsonWriter(out);
+		json.addColumn(ColumnType.DATETIME, "Time");
+		json.addColumn(ColumnType.NUMBER, "Load");
+		for (int i = 0; i < 500000; i++) {
+			json.beginRow().valueMillis(SampleTables.START_MILLIS + i * 1000L).value(i % 100 / 4.0).endRow();
+		}
+		long written = out.getCount();
+		json.finish();
+		// Only the writer buffer was still held when the last row was ended
+		assertTrue(out.getCount() - written < 16384);
+		assertTrue(written > 500000 * 50L);
+	}
+	@Test
+	public void testWriteTable() throws IOException {
+		ColumnarTable table = new ColumnarTable();
+		table.addColumn(ColumnType.STRING, "Host", "host");
+		table.setColumnProperty(0, "style", "x");
+		table.addColumn(ColumnType.NUMBER, "Load");
+		table.addRows(2);
+		table.setString(0, 0, "a");
+		table.setNumber(0, 1, 0.5);
+		table.setFormattedValue(0, 1, "50%");
+		table.setCellProperty(1, 0, "className", "warn");
+		table.setTableProperty("source", "test");
+		StringWriter out = new StringWriter();
+		new DataTableJsonWriter(out).write(table);
+		assertEquals("{\"cols\":[{\"type\":\"string\",\"label\":\"Host\",\"id\":\"host\",\"p\":{\"style\":\"x\"}},"
+				+ "{\"type\":\"number\",\"label\":\"Load\"}],\"p\":{\"source\":\"test\"},\"rows\":["
+				+ "{\"c\":[{\"v\":\"a\"},{\"v\":0.5,\"f\":\"50%\"}]},"
+				+ "{\"c\":[{\"v\":null,\"p\":{\"className\":\"warn\"}},{\"v\":null}]}]}", out.toString());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testWriteTableAfterColumns() throws IOException {
+		DataTableJsonWriter json = new DataTableJsonWriter(new StringWriter());
+		json.addColumn(ColumnType.NUMBER, null);
+		json.write(SampleTables.timeSeries(1));
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.server;
+
+import com.googlecode.gwt.charts.client.ColumnType;
+import com.googlecode.gwt.charts.shared.ColumnarTable;
+
+import java.io.OutputStream;
+
+/**
+ * Tables shared by the tests and benchmarks.
+ */
+public class SampleTables {
+
+	/**
+	 * The first sample time, 2013-01-01 00:00:00 UTC.
+	 */
+	public static final long START_MILLIS = 1356998400000L;
+
+	/**
+	 * An output stream that discards what is written and counts the bytes.
+	 */
+	public static class CountingOutputStream extends OutputStream {
+		private long count;
+
+		public long getCount() {
+			return count;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+	}
+
+	/**
+	 * Creates a monitoring time series: one sample per second with a datetime, a load number and a host name out of 8.
+	 * 
+	 * @param rowCount the number of rows
+	 * @return a new table
+	 */
+	public static ColumnarTable timeSeries(int rowCount) {
+		ColumnarTable table = new ColumnarTable(rowCount);
+		table.addColumn(ColumnType.DATETIME, "Time");
+		table.addColumn(ColumnType.NUMBER, "Load");
+		table.addColumn(ColumnType.STRING, "Host");
+		table.addRows(rowCount);
+		double[] times = new double[rowCount];
+		double[] loads = new double[rowCount];
+		String[] hosts = new String[rowCount];
+		for (int i = 0; i < rowCount; i++) {
+			times[i] = START_MILLIS + i * 1000L;
+			loads[i] = Math.round(Math.abs(Math.sin(i / 60.0)) * 10000) / 100.0;
+			hosts[i] = "host-" + i % 8;
+		}
+		table.setNumbers(0, times);
+		table.setNumbers(1, loads);
+		table.setStrings(2, hosts);
+		return table;
+	}
+
+	private SampleTables() {
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.shared;
+
+import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.server.rpc.SerializationPolicy;
+import com.google.gwt.user.server.rpc.impl.ServerSerializationStreamWriter;
+
+import com.googlecode.gwt.charts.server.SampleTables;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a GWT-RPC response holding a time series, as a {@link ColumnarTable} and as the lists of boxed cells that
+ * services used before.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ColumnarTableSerializerBenchmark {
+	@Param({ "100000" })
+	public int rows;
+
+	private ColumnarTable table;
+	private List<List<Object>> rowLists;
+	private SerializationPolicy policy;
+
+	@Benchmark
+	public int columnarTable() throws SerializationException {
+		return serialize(table);
+	}
+
+	@Benchmark
+	public int listOfRows() throws SerializationException {
+		return serialize(rowLists);
+	}
+
+	@Setup
+	public void setUp() {
+		table = SampleTables.timeSeries(rows);
+		rowLists = new ArrayList<List<Object>>();
+		for (int i = 0; i < rows; i++) {
+			List<Object> row = new ArrayList<Object>();
+			row.add(new Date((long) table.getMillis(i, 0)));
+			row.add(table.getNumber(i, 1));
+			row.add(table.getString(i, 2));
+			rowLists.add(row);
+		}
+		policy = new SerializationPolicy() {
+			@Override
+			public boolean shouldDeserializeFields(Class<?> clazz) {
+				return true;
+			}
+
+			@Override
+			public boolean shouldSerializeFields(Class<?> clazz) {
+				return true;
+			}
+
+			@Override
+			public void validateDeserialize(Class<?> clazz) {
+			}
+
+			@Override
+			public void validateSerialize(Class<?> clazz) {
+			}
+		};
+	}
+
+	private int serialize(Object value) throws SerializationException {
+		ServerSerializationStreamWriter writer = new ServerSerializationStreamWriter(policy);
+		writer.prepareToWrite();
+		writer.writeObject(value);
+		return writer.toString().length();
+	}
+}
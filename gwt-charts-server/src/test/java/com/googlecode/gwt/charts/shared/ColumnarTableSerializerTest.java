@@ -0,0 +1,268 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.shared;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.client.rpc.SerializationStreamReader;
+import com.google.gwt.user.client.rpc.SerializationStreamWriter;
+import com.google.gwt.user.server.rpc.SerializationPolicy;
+import com.google.gwt.user.server.rpc.impl.ServerSerializationStreamWriter;
+
+import com.googlecode.gwt.charts.client.ColumnType;
+import com.googlecode.gwt.charts.client.RoleType;
+import com.googlecode.gwt.charts.server.SampleTables;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Sends tables through {@link ColumnarTable_CustomFieldSerializer}, and compares the GWT-RPC payload of a table with
+ * the one of the same rows as lists of objects.
+ */
+public class ColumnarTableSerializerTest {
+	private static final Object NULL = new Object();
+
+	/**
+	 * A stream that keeps the written values in memory, to be read back in the same order.
+	 */
+	private static class QueueStream implements SerializationStreamReader, SerializationStreamWriter {
+		private final Deque<Object> values = new ArrayDeque<Object>();
+
+		@Override
+		public boolean readBoolean() {
+			return (Boolean) values.remove();
+		}
+
+		@Override
+		public byte readByte() {
+			return (Byte) values.remove();
+		}
+
+		@Override
+		public char readChar() {
+			return (Character) values.remove();
+		}
+
+		@Override
+		public double readDouble() {
+			return (Double) values.remove();
+		}
+
+		@Override
+		public float readFloat() {
+			return (Float) values.remove();
+		}
+
+		@Override
+		public int readInt() {
+			return (Integer) values.remove();
+		}
+
+		@Override
+		public long readLong() {
+			return (Long) values.remove();
+		}
+
+		@Override
+		public Object readObject() throws SerializationException {
+			throw new SerializationException("Objects are not expected in a table");
+		}
+
+		@Override
+		public short readShort() {
+			return (Short) values.remove();
+		}
+
+		@Override
+		public String readString() {
+			Object value = values.remove();
+			return value == NULL ? null : (String) value;
+		}
+
+		@Override
+		public void writeBoolean(boolean value) {
+			values.add(value);
+		}
+
+		@Override
+		public void writeByte(byte value) {
+			values.add(value);
+		}
+
+		@Override
+		public void writeChar(char value) {
+			values.add(value);
+		}
+
+		@Override
+		public void writeDouble(double value) {
+			values.add(value);
+		}
+
+		@Override
+		public void writeFloat(float value) {
+			values.add(value);
+		}
+
+		@Override
+		public void writeInt(int value) {
+			values.add(value);
+		}
+
+		@Override
+		public void writeLong(long value) {
+			values.add(value);
+		}
+
+		@Override
+		public void writeObject(Object value) throws SerializationException {
+			throw new SerializationException("Objects are not expected in a table");
+		}
+
+		@Override
+		public void writeShort(short value) {
+			values.add(value);
+		}
+
+		@Override
+		public void writeString(String value) {
+			values.add(value == null ? NULL : value);
+		}
+	}
+
+	/**
+	 * Lets any class through, as a policy file generated for the service would for the types it uses.
+	 */
+	private static class OpenPolicy extends SerializationPolicy {
+		@Override
+		public boolean shouldDeserializeFields(Class<?> clazz) {
+			return true;
+		}
+
+		@Override
+		public boolean shouldSerializeFields(Class<?> clazz) {
+			return true;
+		}
+
+		@Override
+		public void validateDeserialize(Class<?> clazz) {
+		}
+
+		@Override
+		public void validateSerialize(Class<?> clazz) {
+		}
+	}
+
+	@Test
+	public void testPayloadSize() throws SerializationException {
+		int rowCount = 100000;
+		ColumnarTable table = SampleTables.timeSeries(rowCount);
+		List<List<Object>> rows = new ArrayList<List<Object>>();
+		for (int i = 0; i < rowCount; i++) {
+			List<Object> row = new ArrayList<Object>();
+			row.add(new Date((long) table.getMillis(i, 0)));
+			row.add(table.getNumber(i, 1));
+			row.add(table.getString(i, 2));
+			rows.add(row);
+		}
+		assertTrue(serialize(table).length() < serialize(rows).length());
+	}
+
+	@Test
+	public void testJavaSerialization() throws IOException, ClassNotFoundException {
+		ColumnarTable table = createTable();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(table);
+		out.close();
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		assertSameTable(table, (ColumnarTable) in.readObject());
+	}
+
+	@Test
+	public void testRoundTrip() throws SerializationException {
+		ColumnarTable table = createTable();
+		QueueStream stream = new QueueStream();
+		ColumnarTable_CustomFieldSerializer.serialize(stream, table);
+		ColumnarTable copy = ColumnarTable_CustomFieldSerializer.instantiate(stream);
+		ColumnarTable_CustomFieldSerializer.deserialize(stream, copy);
+		assertTrue(stream.values.isEmpty());
+		assertSameTable(table, copy);
+	}
+
+	private static void assertSameTable(ColumnarTable table, ColumnarTable copy) {
+		assertEquals(table.getNumberOfRows(), copy.getNumberOfRows());
+		assertEquals(table.getNumberOfColumns(), copy.getNumberOfColumns());
+		for (int j = 0; j < table.getNumberOfColumns(); j++) {
+			assertEquals(table.getColumnType(j), copy.getColumnType(j));
+			assertEquals(table.getColumnLabel(j), copy.getColumnLabel(j));
+			assertEquals(table.getColumnId(j), copy.getColumnId(j));
+			assertEquals(table.getColumnRole(j), copy.getColumnRole(j));
+			assertEquals(table.getColumnPattern(j), copy.getColumnPattern(j));
+			assertEquals(table.getColumnProperties(j), copy.getColumnProperties(j));
+			assertEquals(table.getCellProperties(j), copy.getCellProperties(j));
+			assertArrayEquals(table.getFormattedValues(j), copy.getFormattedValues(j));
+			if (table.getColumnType(j) == ColumnType.STRING) {
+				assertArrayEquals(table.getStrings(j), copy.getStrings(j));
+			} else {
+				assertArrayEquals(table.getNumbers(j), copy.getNumbers(j), 0);
+			}
+		}
+		assertEquals(table.getTableProperties(), copy.getTableProperties());
+		assertNull(copy.getFormattedValues(0));
+		assertEquals("0.7", copy.getFormattedValue(2, 1));
+	}
+
+	private static ColumnarTable createTable() {
+		ColumnarTable table = new ColumnarTable(2);
+		table.addColumn(ColumnType.DATETIME, "Time", "time");
+		table.addColumn(ColumnType.NUMBER, "Load");
+		table.addColumn(ColumnType.STRING, "Host");
+		table.addColumn(ColumnType.STRING, null);
+		table.setColumnRole(3, RoleType.TOOLTIP);
+		table.setColumnPattern(1, "#.#");
+		table.setColumnProperty(1, "style", "bold");
+		table.setTableProperty("source", "test");
+		table.addRows(3);
+		for (int i = 0; i < 3; i++) {
+			table.setMillis(i, 0, SampleTables.START_MILLIS + i * 1000L);
+			table.setNumber(i, 1, i == 1 ? Double.NaN : i / 3.0);
+			table.setString(i, 2, i == 2 ? null : "host-" + i);
+		}
+		table.setFormattedValue(2, 1, "0.7");
+		table.setCellProperty(1, 2, "className", "warn");
+		return table;
+	}
+
+	private static String serialize(Object value) throws SerializationException {
+		ServerSerializationStreamWriter writer = new ServerSerializationStreamWriter(new OpenPolicy());
+		writer.prepareToWrite();
+		writer.writeObject(value);
+		return writer.toString();
+	}
+}
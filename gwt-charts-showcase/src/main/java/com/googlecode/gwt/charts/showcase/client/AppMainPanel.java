@@ -41,6 +41,7 @@ import com.googlecode.gwt.charts.showcase.client.others.IntervalExample;
 import com.googlecode.gwt.charts.showcase.client.others.MapExample;
 import com.googlecode.gwt.charts.showcase.client.others.OrgChartExample;
 import com.googlecode.gwt.charts.showcase.client.others.SankeyExample;
+import com.googlecode.gwt.charts.showcase.client.others.StreamingExample;
 import com.googlecode.gwt.charts.showcase.client.others.TableExample;
 import com.googlecode.gwt.charts.showcase.client.others.TimelineExample;
 import com.googlecode.gwt.charts.showcase.client.others.TreeMapExample;
@@ -129,6 +130,7 @@ public class AppMainPanel extends Composite implements ValueChangeHandler<String
 			sideMenu.add("Scatter", "diffscatter");
 			sideMenu.add("Other Charts");
 			sideMenu.add("Interval", "interval");
+			sideMenu.add("Streaming", "streaming");
 			sideMenu.add("Controls");
 			sideMenu.add("Category Filter", "categoryfilter");
 			sideMenu.add("Chart Range Filter", "chartrangefilter");
@@ -194,6 +196,8 @@ public class AppMainPanel extends Composite implements ValueChangeHandler<String
 			widget = new OrgChartExample();
 		} else if (key.equals("sankey")) {
 			widget = new SankeyExample();
+		} else if (key.equals("streaming")) {
+			widget = new StreamingExample();
 		} else if (key.equals("table")) {
 			widget = new TableExample();
 		} else if (key.equals("timeline")) {
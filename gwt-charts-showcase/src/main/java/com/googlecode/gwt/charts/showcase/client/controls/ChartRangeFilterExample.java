@@ -2,12 +2,14 @@ package com.googlecode.gwt.charts.showcase.client.controls;
 
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.user.client.ui.DockLayoutPanel;
-import com.googlecode.gwt.charts.client.ChartLoader;
-import com.googlecode.gwt.charts.client.ChartPackage;
+import com.google.gwt.user.client.ui.Label;
+import com.googlecode.gwt.charts.client.AsyncChartFactory;
 import com.googlecode.gwt.charts.client.ChartType;
 import com.googlecode.gwt.charts.client.ChartWrapper;
 import com.googlecode.gwt.charts.client.ColumnType;
 import com.googlecode.gwt.charts.client.DataTable;
+import com.googlecode.gwt.charts.client.controls.ControlsCallback;
+import com.googlecode.gwt.charts.client.controls.ControlsCreator;
 import com.googlecode.gwt.charts.client.controls.Dashboard;
 import com.googlecode.gwt.charts.client.controls.filter.ChartRangeFilter;
 import com.googlecode.gwt.charts.client.controls.filter.ChartRangeFilterOptions;
@@ -31,12 +33,22 @@ public class ChartRangeFilterExample extends DockLayoutPanel {
 	}
 
 	private void initialize() {
-		ChartLoader chartLoader = new ChartLoader(ChartPackage.CONTROLS);
-		chartLoader.loadApi(new Runnable() {
+		AsyncChartFactory.createControls(new ControlsCreator<Dashboard>() {
 
 			@Override
-			public void run() {
-				addNorth(getDashboardWidget(), 0);
+			public Dashboard create() {
+				return getDashboardWidget();
+			}
+		}, new ControlsCallback<Dashboard>() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				add(new Label(reason.getMessage()));
+			}
+
+			@Override
+			public void onSuccess(Dashboard chart) {
+				addNorth(chart, 0);
 				addSouth(getNumberRangeFilter(), 100);
 				add(getLineChart());
 				draw();
@@ -2,12 +2,14 @@ package com.googlecode.gwt.charts.showcase.client.corechart;
 
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.user.client.ui.DockLayoutPanel;
-import com.googlecode.gwt.charts.client.ChartLoader;
-import com.googlecode.gwt.charts.client.ChartPackage;
+import com.google.gwt.user.client.ui.Label;
+import com.googlecode.gwt.charts.client.AsyncChartFactory;
 import com.googlecode.gwt.charts.client.ColumnType;
 import com.googlecode.gwt.charts.client.DataTable;
 import com.googlecode.gwt.charts.client.corechart.BubbleChart;
 import com.googlecode.gwt.charts.client.corechart.BubbleChartOptions;
+import com.googlecode.gwt.charts.client.corechart.CoreChartCallback;
+import com.googlecode.gwt.charts.client.corechart.CoreChartCreator;
 import com.googlecode.gwt.charts.client.options.HAxis;
 import com.googlecode.gwt.charts.client.options.VAxis;
 
@@ -20,13 +22,23 @@ public class BubbleChartExample extends DockLayoutPanel {
 	}
 
 	private void initialize() {
-		ChartLoader chartLoader = new ChartLoader(ChartPackage.CORECHART);
-		chartLoader.loadApi(new Runnable() {
+		AsyncChartFactory.createCoreChart(new CoreChartCreator<BubbleChart>() {
 
 			@Override
-			public void run() {
-				// Create and attach the chart
-				chart = new BubbleChart();
+			public BubbleChart create() {
+				return new BubbleChart();
+			}
+		}, new CoreChartCallback<BubbleChart>() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				add(new Label(reason.getMessage()));
+			}
+
+			@Override
+			public void onSuccess(BubbleChart result) {
+				// Attach the chart
+				chart = result;
 				add(chart);
 				draw();
 			}
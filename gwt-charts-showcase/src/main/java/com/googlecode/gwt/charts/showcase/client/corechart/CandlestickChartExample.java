@@ -4,11 +4,13 @@ import com.google.gwt.core.client.JsArrayMixed;
 import com.google.gwt.core.client.JsonUtils;
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.user.client.ui.DockLayoutPanel;
-import com.googlecode.gwt.charts.client.ChartLoader;
-import com.googlecode.gwt.charts.client.ChartPackage;
+import com.google.gwt.user.client.ui.Label;
+import com.googlecode.gwt.charts.client.AsyncChartFactory;
 import com.googlecode.gwt.charts.client.DataTable;
 import com.googlecode.gwt.charts.client.corechart.CandlestickChart;
 import com.googlecode.gwt.charts.client.corechart.CandlestickChartOptions;
+import com.googlecode.gwt.charts.client.corechart.CoreChartCallback;
+import com.googlecode.gwt.charts.client.corechart.CoreChartCreator;
 import com.googlecode.gwt.charts.client.options.BackgroundColor;
 import com.googlecode.gwt.charts.client.options.Legend;
 import com.googlecode.gwt.charts.client.options.LegendPosition;
@@ -23,13 +25,23 @@ public class CandlestickChartExample extends DockLayoutPanel {
 	}
 
 	private void initialize() {
-		ChartLoader chartLoader = new ChartLoader(ChartPackage.CORECHART);
-		chartLoader.loadApi(new Runnable() {
+		AsyncChartFactory.createCoreChart(new CoreChartCreator<CandlestickChart>() {
 
 			@Override
-			public void run() {
-				// Create and attach the chart
-				chart = new CandlestickChart();
+			public CandlestickChart create() {
+				return new CandlestickChart();
+			}
+		}, new CoreChartCallback<CandlestickChart>() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				add(new Label(reason.getMessage()));
+			}
+
+			@Override
+			public void onSuccess(CandlestickChart result) {
+				// Attach the chart
+				chart = result;
 				add(chart);
 				draw();
 			}
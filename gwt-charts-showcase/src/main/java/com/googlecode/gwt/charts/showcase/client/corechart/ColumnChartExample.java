@@ -2,12 +2,14 @@ package com.googlecode.gwt.charts.showcase.client.corechart;
 
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.user.client.ui.DockLayoutPanel;
-import com.googlecode.gwt.charts.client.ChartLoader;
-import com.googlecode.gwt.charts.client.ChartPackage;
+import com.google.gwt.user.client.ui.Label;
+import com.googlecode.gwt.charts.client.AsyncChartFactory;
 import com.googlecode.gwt.charts.client.ColumnType;
 import com.googlecode.gwt.charts.client.DataTable;
 import com.googlecode.gwt.charts.client.corechart.ColumnChart;
 import com.googlecode.gwt.charts.client.corechart.ColumnChartOptions;
+import com.googlecode.gwt.charts.client.corechart.CoreChartCallback;
+import com.googlecode.gwt.charts.client.corechart.CoreChartCreator;
 import com.googlecode.gwt.charts.client.options.HAxis;
 import com.googlecode.gwt.charts.client.options.VAxis;
 
@@ -20,13 +22,23 @@ public class ColumnChartExample extends DockLayoutPanel {
 	}
 
 	private void initialize() {
-		ChartLoader chartLoader = new ChartLoader(ChartPackage.CORECHART);
-		chartLoader.loadApi(new Runnable() {
+		AsyncChartFactory.createCoreChart(new CoreChartCreator<ColumnChart>() {
 
 			@Override
-			public void run() {
-				// Create and attach the chart
-				chart = new ColumnChart();
+			public ColumnChart create() {
+				return new ColumnChart();
+			}
+		}, new CoreChartCallback<ColumnChart>() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				add(new Label(reason.getMessage()));
+			}
+
+			@Override
+			public void onSuccess(ColumnChart result) {
+				// Attach the chart
+				chart = result;
 				add(chart);
 				draw();
 			}
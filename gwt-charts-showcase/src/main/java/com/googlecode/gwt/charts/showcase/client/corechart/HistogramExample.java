@@ -2,9 +2,11 @@ package com.googlecode.gwt.charts.showcase.client.corechart;
 
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.user.client.ui.DockLayoutPanel;
-import com.googlecode.gwt.charts.client.ChartLoader;
-import com.googlecode.gwt.charts.client.ChartPackage;
+import com.google.gwt.user.client.ui.Label;
+import com.googlecode.gwt.charts.client.AsyncChartFactory;
 import com.googlecode.gwt.charts.client.DataTable;
+import com.googlecode.gwt.charts.client.corechart.CoreChartCallback;
+import com.googlecode.gwt.charts.client.corechart.CoreChartCreator;
 import com.googlecode.gwt.charts.client.corechart.Histogram;
 import com.googlecode.gwt.charts.client.corechart.HistogramOptions;
 import com.googlecode.gwt.charts.client.options.Legend;
@@ -20,13 +22,23 @@ public class HistogramExample extends DockLayoutPanel {
 	}
 
 	private void initialize() {
-		ChartLoader chartLoader = new ChartLoader(ChartPackage.CORECHART);
-		chartLoader.loadApi(new Runnable() {
+		AsyncChartFactory.createCoreChart(new CoreChartCreator<Histogram>() {
 
 			@Override
-			public void run() {
-				// Create and attach the chart
-				chart = new Histogram();
+			public Histogram create() {
+				return new Histogram();
+			}
+		}, new CoreChartCallback<Histogram>() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				add(new Label(reason.getMessage()));
+			}
+
+			@Override
+			public void onSuccess(Histogram result) {
+				// Attach the chart
+				chart = result;
 				add(chart);
 				draw();
 			}
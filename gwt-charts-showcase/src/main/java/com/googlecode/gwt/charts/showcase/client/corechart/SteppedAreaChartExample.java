@@ -2,10 +2,12 @@ package com.googlecode.gwt.charts.showcase.client.corechart;
 
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.user.client.ui.DockLayoutPanel;
-import com.googlecode.gwt.charts.client.ChartLoader;
-import com.googlecode.gwt.charts.client.ChartPackage;
+import com.google.gwt.user.client.ui.Label;
+import com.googlecode.gwt.charts.client.AsyncChartFactory;
 import com.googlecode.gwt.charts.client.ColumnType;
 import com.googlecode.gwt.charts.client.DataTable;
+import com.googlecode.gwt.charts.client.corechart.CoreChartCallback;
+import com.googlecode.gwt.charts.client.corechart.CoreChartCreator;
 import com.googlecode.gwt.charts.client.corechart.SteppedAreaChart;
 import com.googlecode.gwt.charts.client.corechart.SteppedAreaChartOptions;
 import com.googlecode.gwt.charts.client.options.VAxis;
@@ -19,13 +21,23 @@ public class SteppedAreaChartExample extends DockLayoutPanel {
 	}
 
 	private void initialize() {
-		ChartLoader chartLoader = new ChartLoader(ChartPackage.CORECHART);
-		chartLoader.loadApi(new Runnable() {
+		AsyncChartFactory.createCoreChart(new CoreChartCreator<SteppedAreaChart>() {
 
 			@Override
-			public void run() {
-				// Create and attach the chart
-				chart = new SteppedAreaChart();
+			public SteppedAreaChart create() {
+				return new SteppedAreaChart();
+			}
+		}, new CoreChartCallback<SteppedAreaChart>() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				add(new Label(reason.getMessage()));
+			}
+
+			@Override
+			public void onSuccess(SteppedAreaChart result) {
+				// Attach the chart
+				chart = result;
 				add(chart);
 				draw();
 			}
@@ -2,11 +2,13 @@ package com.googlecode.gwt.charts.showcase.client.diffchart;
 
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.user.client.ui.DockLayoutPanel;
-import com.googlecode.gwt.charts.client.ChartLoader;
-import com.googlecode.gwt.charts.client.ChartPackage;
+import com.google.gwt.user.client.ui.Label;
+import com.googlecode.gwt.charts.client.AsyncChartFactory;
 import com.googlecode.gwt.charts.client.ColumnType;
 import com.googlecode.gwt.charts.client.DataTable;
 import com.googlecode.gwt.charts.client.corechart.BarChart;
+import com.googlecode.gwt.charts.client.corechart.CoreChartCallback;
+import com.googlecode.gwt.charts.client.corechart.CoreChartCreator;
 
 public class DiffBarChartExample extends DockLayoutPanel {
 	private BarChart chart;
@@ -17,13 +19,23 @@ public class DiffBarChartExample extends DockLayoutPanel {
 	}
 
 	private void initialize() {
-		ChartLoader chartLoader = new ChartLoader(ChartPackage.CORECHART);
-		chartLoader.loadApi(new Runnable() {
+		AsyncChartFactory.createCoreChart(new CoreChartCreator<BarChart>() {
 
 			@Override
-			public void run() {
-				// Create and attach the chart
-				chart = new BarChart();
+			public BarChart create() {
+				return new BarChart();
+			}
+		}, new CoreChartCallback<BarChart>() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				add(new Label(reason.getMessage()));
+			}
+
+			@Override
+			public void onSuccess(BarChart result) {
+				// Attach the chart
+				chart = result;
 				add(chart);
 				draw();
 			}
@@ -2,10 +2,12 @@ package com.googlecode.gwt.charts.showcase.client.diffchart;
 
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.user.client.ui.DockLayoutPanel;
-import com.googlecode.gwt.charts.client.ChartLoader;
-import com.googlecode.gwt.charts.client.ChartPackage;
+import com.google.gwt.user.client.ui.Label;
+import com.googlecode.gwt.charts.client.AsyncChartFactory;
 import com.googlecode.gwt.charts.client.ColumnType;
 import com.googlecode.gwt.charts.client.DataTable;
+import com.googlecode.gwt.charts.client.corechart.CoreChartCallback;
+import com.googlecode.gwt.charts.client.corechart.CoreChartCreator;
 import com.googlecode.gwt.charts.client.corechart.PieChart;
 
 public class DiffPieChartExample extends DockLayoutPanel {
@@ -17,13 +19,23 @@ public class DiffPieChartExample extends DockLayoutPanel {
 	}
 
 	private void initialize() {
-		ChartLoader chartLoader = new ChartLoader(ChartPackage.CORECHART);
-		chartLoader.loadApi(new Runnable() {
+		AsyncChartFactory.createCoreChart(new CoreChartCreator<PieChart>() {
 
 			@Override
-			public void run() {
-				// Create and attach the chart
-				chart = new PieChart();
+			public PieChart create() {
+				return new PieChart();
+			}
+		}, new CoreChartCallback<PieChart>() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				add(new Label(reason.getMessage()));
+			}
+
+			@Override
+			public void onSuccess(PieChart result) {
+				// Attach the chart
+				chart = result;
 				add(chart);
 				draw();
 			}
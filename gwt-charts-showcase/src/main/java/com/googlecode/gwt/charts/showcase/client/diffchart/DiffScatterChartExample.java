@@ -2,9 +2,11 @@ package com.googlecode.gwt.charts.showcase.client.diffchart;
 
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.user.client.ui.DockLayoutPanel;
-import com.googlecode.gwt.charts.client.ChartLoader;
-import com.googlecode.gwt.charts.client.ChartPackage;
+import com.google.gwt.user.client.ui.Label;
+import com.googlecode.gwt.charts.client.AsyncChartFactory;
 import com.googlecode.gwt.charts.client.DataTable;
+import com.googlecode.gwt.charts.client.corechart.CoreChartCallback;
+import com.googlecode.gwt.charts.client.corechart.CoreChartCreator;
 import com.googlecode.gwt.charts.client.corechart.ScatterChart;
 import com.googlecode.gwt.charts.client.util.ChartHelper;
 
@@ -17,13 +19,23 @@ public class DiffScatterChartExample extends DockLayoutPanel {
 	}
 
 	private void initialize() {
-		ChartLoader chartLoader = new ChartLoader(ChartPackage.CORECHART);
-		chartLoader.loadApi(new Runnable() {
+		AsyncChartFactory.createCoreChart(new CoreChartCreator<ScatterChart>() {
 
 			@Override
-			public void run() {
-				// Create and attach the chart
-				chart = new ScatterChart();
+			public ScatterChart create() {
+				return new ScatterChart();
+			}
+		}, new CoreChartCallback<ScatterChart>() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				add(new Label(reason.getMessage()));
+			}
+
+			@Override
+			public void onSuccess(ScatterChart result) {
+				// Attach the chart
+				chart = result;
 				add(chart);
 				draw();
 			}
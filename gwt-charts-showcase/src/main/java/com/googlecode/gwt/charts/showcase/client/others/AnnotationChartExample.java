@@ -2,11 +2,13 @@ package com.googlecode.gwt.charts.showcase.client.others;
 
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.user.client.ui.DockLayoutPanel;
-import com.googlecode.gwt.charts.client.ChartLoader;
-import com.googlecode.gwt.charts.client.ChartPackage;
+import com.google.gwt.user.client.ui.Label;
+import com.googlecode.gwt.charts.client.AsyncChartFactory;
 import com.googlecode.gwt.charts.client.ColumnType;
 import com.googlecode.gwt.charts.client.DataTable;
 import com.googlecode.gwt.charts.client.annotationchart.AnnotationChart;
+import com.googlecode.gwt.charts.client.annotationchart.AnnotationChartCallback;
+import com.googlecode.gwt.charts.client.annotationchart.AnnotationChartCreator;
 import com.googlecode.gwt.charts.client.annotationchart.AnnotationChartOptions;
 import com.googlecode.gwt.charts.showcase.client.util.DateUtils;
 
@@ -19,13 +21,23 @@ public class AnnotationChartExample extends DockLayoutPanel {
 	}
 
 	private void initialize() {
-		ChartLoader chartLoader = new ChartLoader(ChartPackage.ANNOTATIONCHART);
-		chartLoader.loadApi(new Runnable() {
+		AsyncChartFactory.createAnnotationChart(new AnnotationChartCreator<AnnotationChart>() {
 
 			@Override
-			public void run() {
-				// Create and attach the chart
-				chart = new AnnotationChart();
+			public AnnotationChart create() {
+				return new AnnotationChart();
+			}
+		}, new AnnotationChartCallback<AnnotationChart>() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				add(new Label(reason.getMessage()));
+			}
+
+			@Override
+			public void onSuccess(AnnotationChart result) {
+				// Attach the chart
+				chart = result;
 				add(chart);
 				draw();
 			}
@@ -2,11 +2,13 @@ package com.googlecode.gwt.charts.showcase.client.others;
 
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.user.client.ui.DockLayoutPanel;
-import com.googlecode.gwt.charts.client.ChartLoader;
-import com.googlecode.gwt.charts.client.ChartPackage;
+import com.google.gwt.user.client.ui.Label;
+import com.googlecode.gwt.charts.client.AsyncChartFactory;
 import com.googlecode.gwt.charts.client.ColumnType;
 import com.googlecode.gwt.charts.client.DataTable;
 import com.googlecode.gwt.charts.client.calendar.Calendar;
+import com.googlecode.gwt.charts.client.calendar.CalendarCallback;
+import com.googlecode.gwt.charts.client.calendar.CalendarCreator;
 import com.googlecode.gwt.charts.client.calendar.CalendarOptions;
 import com.googlecode.gwt.charts.showcase.client.util.DateUtils;
 
@@ -19,13 +21,23 @@ public class CalendarExample extends DockLayoutPanel {
 	}
 
 	private void initialize() {
-		ChartLoader chartLoader = new ChartLoader(ChartPackage.CALENDAR);
-		chartLoader.loadApi(new Runnable() {
+		AsyncChartFactory.createCalendar(new CalendarCreator<Calendar>() {
 
 			@Override
-			public void run() {
-				// Create and attach the chart
-				chart = new Calendar();
+			public Calendar create() {
+				return new Calendar();
+			}
+		}, new CalendarCallback<Calendar>() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				add(new Label(reason.getMessage()));
+			}
+
+			@Override
+			public void onSuccess(Calendar result) {
+				// Attach the chart
+				chart = result;
 				add(chart);
 				draw();
 			}
@@ -2,11 +2,13 @@ package com.googlecode.gwt.charts.showcase.client.others;
 
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.user.client.ui.DockLayoutPanel;
-import com.googlecode.gwt.charts.client.ChartLoader;
-import com.googlecode.gwt.charts.client.ChartPackage;
+import com.google.gwt.user.client.ui.Label;
+import com.googlecode.gwt.charts.client.AsyncChartFactory;
 import com.googlecode.gwt.charts.client.ColumnType;
 import com.googlecode.gwt.charts.client.DataTable;
 import com.googlecode.gwt.charts.client.gauge.Gauge;
+import com.googlecode.gwt.charts.client.gauge.GaugeCallback;
+import com.googlecode.gwt.charts.client.gauge.GaugeCreator;
 import com.googlecode.gwt.charts.client.gauge.GaugeOptions;
 
 public class GaugeExample extends DockLayoutPanel {
@@ -18,13 +20,23 @@ public class GaugeExample extends DockLayoutPanel {
 	}
 
 	private void initialize() {
-		ChartLoader chartLoader = new ChartLoader(ChartPackage.GAUGE);
-		chartLoader.loadApi(new Runnable() {
+		AsyncChartFactory.createGauge(new GaugeCreator<Gauge>() {
 
 			@Override
-			public void run() {
-				// Create and attach the chart
-				gauge = new Gauge();
+			public Gauge create() {
+				return new Gauge();
+			}
+		}, new GaugeCallback<Gauge>() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				add(new Label(reason.getMessage()));
+			}
+
+			@Override
+			public void onSuccess(Gauge chart) {
+				// Attach the chart
+				gauge = chart;
 				add(gauge);
 				draw();
 			}
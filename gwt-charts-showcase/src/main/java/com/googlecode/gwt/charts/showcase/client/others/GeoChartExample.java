@@ -2,12 +2,14 @@ package com.googlecode.gwt.charts.showcase.client.others;
 
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.user.client.ui.DockLayoutPanel;
-import com.googlecode.gwt.charts.client.ChartLoader;
-import com.googlecode.gwt.charts.client.ChartPackage;
+import com.google.gwt.user.client.ui.Label;
+import com.googlecode.gwt.charts.client.AsyncChartFactory;
 import com.googlecode.gwt.charts.client.ColumnType;
 import com.googlecode.gwt.charts.client.DataTable;
 import com.googlecode.gwt.charts.client.geochart.GeoChart;
+import com.googlecode.gwt.charts.client.geochart.GeoChartCallback;
 import com.googlecode.gwt.charts.client.geochart.GeoChartColorAxis;
+import com.googlecode.gwt.charts.client.geochart.GeoChartCreator;
 import com.googlecode.gwt.charts.client.geochart.GeoChartOptions;
 
 public class GeoChartExample extends DockLayoutPanel {
@@ -19,13 +21,23 @@ public class GeoChartExample extends DockLayoutPanel {
 	}
 
 	private void initialize() {
-		ChartLoader chartLoader = new ChartLoader(ChartPackage.GEOCHART);
-		chartLoader.loadApi(new Runnable() {
+		AsyncChartFactory.createGeoChart(new GeoChartCreator<GeoChart>() {
 
 			@Override
-			public void run() {
-				// Create and attach the chart
-				geoChart = new GeoChart();
+			public GeoChart create() {
+				return new GeoChart();
+			}
+		}, new GeoChartCallback<GeoChart>() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				add(new Label(reason.getMessage()));
+			}
+
+			@Override
+			public void onSuccess(GeoChart chart) {
+				// Attach the chart
+				geoChart = chart;
 				add(geoChart);
 				draw();
 			}
@@ -2,12 +2,14 @@ package com.googlecode.gwt.charts.showcase.client.others;
 
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.user.client.ui.DockLayoutPanel;
-import com.googlecode.gwt.charts.client.ChartLoader;
-import com.googlecode.gwt.charts.client.ChartPackage;
+import com.google.gwt.user.client.ui.Label;
+import com.googlecode.gwt.charts.client.AsyncChartFactory;
 import com.googlecode.gwt.charts.client.ColumnType;
 import com.googlecode.gwt.charts.client.DataColumn;
 import com.googlecode.gwt.charts.client.DataTable;
 import com.googlecode.gwt.charts.client.RoleType;
+import com.googlecode.gwt.charts.client.corechart.CoreChartCallback;
+import com.googlecode.gwt.charts.client.corechart.CoreChartCreator;
 import com.googlecode.gwt.charts.client.corechart.LineChart;
 import com.googlecode.gwt.charts.client.corechart.LineChartOptions;
 import com.googlecode.gwt.charts.client.options.CurveType;
@@ -25,13 +27,23 @@ public class IntervalExample extends DockLayoutPanel {
 	}
 
 	private void initialize() {
-		ChartLoader chartLoader = new ChartLoader(ChartPackage.CORECHART);
-		chartLoader.loadApi(new Runnable() {
+		AsyncChartFactory.createCoreChart(new CoreChartCreator<LineChart>() {
 
 			@Override
-			public void run() {
-				// Create and attach the chart
-				chart = new LineChart();
+			public LineChart create() {
+				return new LineChart();
+			}
+		}, new CoreChartCallback<LineChart>() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				add(new Label(reason.getMessage()));
+			}
+
+			@Override
+			public void onSuccess(LineChart result) {
+				// Attach the chart
+				chart = result;
 				add(chart);
 				draw();
 			}
@@ -2,10 +2,12 @@ package com.googlecode.gwt.charts.showcase.client.others;
 
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.user.client.ui.DockLayoutPanel;
-import com.googlecode.gwt.charts.client.ChartLoader;
-import com.googlecode.gwt.charts.client.ChartPackage;
+import com.google.gwt.user.client.ui.Label;
+import com.googlecode.gwt.charts.client.AsyncChartFactory;
 import com.googlecode.gwt.charts.client.DataTable;
 import com.googlecode.gwt.charts.client.map.Map;
+import com.googlecode.gwt.charts.client.map.MapCallback;
+import com.googlecode.gwt.charts.client.map.MapCreator;
 import com.googlecode.gwt.charts.client.map.MapOptions;
 import com.googlecode.gwt.charts.client.util.ChartHelper;
 
@@ -18,13 +20,23 @@ public class MapExample extends DockLayoutPanel {
 	}
 
 	private void initialize() {
-		ChartLoader chartLoader = new ChartLoader(ChartPackage.MAP);
-		chartLoader.loadApi(new Runnable() {
+		AsyncChartFactory.createMap(new MapCreator<Map>() {
 
 			@Override
-			public void run() {
-				// Create and attach the chart
-				chart = new Map();
+			public Map create() {
+				return new Map();
+			}
+		}, new MapCallback<Map>() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				add(new Label(reason.getMessage()));
+			}
+
+			@Override
+			public void onSuccess(Map result) {
+				// Attach the chart
+				chart = result;
 				add(chart);
 				draw();
 			}
@@ -2,12 +2,14 @@ package com.googlecode.gwt.charts.showcase.client.others;
 
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.user.client.ui.DockLayoutPanel;
-import com.googlecode.gwt.charts.client.ChartLoader;
-import com.googlecode.gwt.charts.client.ChartPackage;
+import com.google.gwt.user.client.ui.Label;
+import com.googlecode.gwt.charts.client.AsyncChartFactory;
 import com.googlecode.gwt.charts.client.ColumnType;
 import com.googlecode.gwt.charts.client.DataTable;
 import com.googlecode.gwt.charts.client.format.PatternFormat;
 import com.googlecode.gwt.charts.client.orgchart.OrgChart;
+import com.googlecode.gwt.charts.client.orgchart.OrgChartCallback;
+import com.googlecode.gwt.charts.client.orgchart.OrgChartCreator;
 import com.googlecode.gwt.charts.client.orgchart.OrgChartOptions;
 
 public class OrgChartExample extends DockLayoutPanel {
@@ -19,13 +21,23 @@ public class OrgChartExample extends DockLayoutPanel {
 	}
 
 	private void initialize() {
-		ChartLoader chartLoader = new ChartLoader(ChartPackage.ORGCHART);
-		chartLoader.loadApi(new Runnable() {
+		AsyncChartFactory.createOrgChart(new OrgChartCreator<OrgChart>() {
 
 			@Override
-			public void run() {
-				// Create and attach the chart
-				chart = new OrgChart();
+			public OrgChart create() {
+				return new OrgChart();
+			}
+		}, new OrgChartCallback<OrgChart>() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				add(new Label(reason.getMessage()));
+			}
+
+			@Override
+			public void onSuccess(OrgChart result) {
+				// Attach the chart
+				chart = result;
 				add(chart);
 				draw();
 			}
@@ -5,12 +5,14 @@ import com.google.gwt.core.client.JsArray;
 import com.google.gwt.core.client.JsArrayMixed;
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.user.client.ui.DockLayoutPanel;
-import com.googlecode.gwt.charts.client.ChartLoader;
-import com.googlecode.gwt.charts.client.ChartPackage;
+import com.google.gwt.user.client.ui.Label;
+import com.googlecode.gwt.charts.client.AsyncChartFactory;
 import com.googlecode.gwt.charts.client.ColumnType;
 import com.googlecode.gwt.charts.client.DataTable;
 import com.googlecode.gwt.charts.client.options.TextStyle;
 import com.googlecode.gwt.charts.client.sankey.Sankey;
+import com.googlecode.gwt.charts.client.sankey.SankeyCallback;
+import com.googlecode.gwt.charts.client.sankey.SankeyCreator;
 import com.googlecode.gwt.charts.client.sankey.SankeyNode;
 import com.googlecode.gwt.charts.client.sankey.SankeyOptions;
 import com.googlecode.gwt.charts.client.util.ArrayHelper;
@@ -24,13 +26,23 @@ public class SankeyExample extends DockLayoutPanel {
 	}
 
 	private void initialize() {
-		ChartLoader chartLoader = new ChartLoader(ChartPackage.SANKEY);
-		chartLoader.loadApi(new Runnable() {
+		AsyncChartFactory.createSankey(new SankeyCreator<Sankey>() {
 
 			@Override
-			public void run() {
-				// Create and attach the chart
-				sankey = new Sankey();
+			public Sankey create() {
+				return new Sankey();
+			}
+		}, new SankeyCallback<Sankey>() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				add(new Label(reason.getMessage()));
+			}
+
+			@Override
+			public void onSuccess(Sankey chart) {
+				// Attach the chart
+				sankey = chart;
 				add(sankey);
 				draw();
 			}
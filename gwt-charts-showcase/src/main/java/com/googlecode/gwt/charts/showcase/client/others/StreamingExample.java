@@ -0,0 +1,134 @@
+package com.googlecode.gwt.charts.showcase.client.others;
+
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.i18n.client.NumberFormat;
+import com.google.gwt.user.client.Timer;
+import com.google.gwt.user.client.ui.DockLayoutPanel;
+import com.google.gwt.user.client.ui.Label;
+import com.googlecode.gwt.charts.client.AsyncChartFactory;
+import com.googlecode.gwt.charts.client.ColumnType;
+import com.googlecode.gwt.charts.client.DataTable;
+import com.googlecode.gwt.charts.client.DataView;
+import com.googlecode.gwt.charts.client.WindowedDataTable;
+import com.googlecode.gwt.charts.client.corechart.CoreChartCallback;
+import com.googlecode.gwt.charts.client.corechart.CoreChartCreator;
+import com.googlecode.gwt.charts.client.corechart.LineChart;
+import com.googlecode.gwt.charts.client.corechart.LineChartOptions;
+import com.googlecode.gwt.charts.client.options.HAxis;
+import com.googlecode.gwt.charts.client.options.VAxis;
+
+public class StreamingExample extends DockLayoutPanel {
+	private static final int WINDOW_ROWS = 100000;
+	private static final int APPEND_INTERVAL = 100;
+	private static final int APPENDS_PER_DRAW = 10;
+
+	private LineChart chart;
+	private Label status;
+	private WindowedDataTable window;
+	private Timer timer;
+	private double time;
+	private int appends;
+	private int draws;
+	private double appendMillis;
+	private double viewMillis;
+	private double drawMillis;
+
+	public StreamingExample() {
+		super(Unit.PX);
+		initialize();
+	}
+
+	@Override
+	protected void onUnload() {
+		super.onUnload();
+		if (timer != null) {
+			timer.cancel();
+		}
+	}
+
+	private void initialize() {
+		AsyncChartFactory.createCoreChart(new CoreChartCreator<LineChart>() {
+
+			@Override
+			public LineChart create() {
+				return new LineChart();
+			}
+		}, new CoreChartCallback<LineChart>() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				add(new Label(reason.getMessage()));
+			}
+
+			@Override
+			public void onSuccess(LineChart result) {
+				// Attach the chart
+				status = new Label();
+				addNorth(status, 30);
+				chart = result;
+				add(chart);
+				start();
+			}
+		});
+	}
+
+	private void start() {
+		// Prepare a window of the last 100,000 samples, filled with past samples
+		DataTable dataTable = DataTable.create();
+		dataTable.addColumn(ColumnType.DATETIME, "Time");
+		dataTable.addColumn(ColumnType.NUMBER, "Load");
+		window = new WindowedDataTable(dataTable, WINDOW_ROWS);
+		time = Duration.currentTimeMillis() - WINDOW_ROWS * APPEND_INTERVAL;
+		for (int i = 0; i < WINDOW_ROWS; i++) {
+			append();
+		}
+
+		// Append a sample 10 times per second and draw the window once per second
+		timer = new Timer() {
+
+			@Override
+			public void run() {
+				update();
+			}
+		};
+		timer.scheduleRepeating(APPEND_INTERVAL);
+	}
+
+	private void append() {
+		window.append(time, 50 + 40 * Math.sin(time / 600000) + 10 * Math.random());
+		time += APPEND_INTERVAL;
+	}
+
+	private void update() {
+		double start = Duration.currentTimeMillis();
+		append();
+		appendMillis += Duration.currentTimeMillis() - start;
+		appends++;
+		if (appends % APPENDS_PER_DRAW != 0) {
+			return;
+		}
+
+		// The view shows the rows of the window, the evicted rows stay in the table until enough of them are waiting
+		start = Duration.currentTimeMillis();
+		DataView dataView = window.getDataView();
+		viewMillis += Duration.currentTimeMillis() - start;
+
+		// Set options
+		LineChartOptions options = LineChartOptions.create();
+		options.setTitle("Load over the last " + window.getNumberOfRows() + " samples");
+		options.setHAxis(HAxis.create("Time"));
+		options.setVAxis(VAxis.create("Load"));
+
+		// Draw the chart
+		start = Duration.currentTimeMillis();
+		chart.draw(dataView, options);
+		drawMillis += Duration.currentTimeMillis() - start;
+		draws++;
+
+		NumberFormat format = NumberFormat.getFormat("0.000");
+		status.setText("Average per append: " + format.format(appendMillis / appends)
+				+ " ms, preparing the view per draw: " + format.format(viewMillis / draws)
+				+ " ms, drawing: " + format.format(drawMillis / draws) + " ms");
+	}
+}
@@ -2,11 +2,13 @@ package com.googlecode.gwt.charts.showcase.client.others;
 
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.user.client.ui.DockLayoutPanel;
-import com.googlecode.gwt.charts.client.ChartLoader;
-import com.googlecode.gwt.charts.client.ChartPackage;
+import com.google.gwt.user.client.ui.Label;
+import com.googlecode.gwt.charts.client.AsyncChartFactory;
 import com.googlecode.gwt.charts.client.ColumnType;
 import com.googlecode.gwt.charts.client.DataTable;
 import com.googlecode.gwt.charts.client.table.Table;
+import com.googlecode.gwt.charts.client.table.TableCallback;
+import com.googlecode.gwt.charts.client.table.TableCreator;
 import com.googlecode.gwt.charts.client.table.TableOptions;
 
 public class TableExample extends DockLayoutPanel {
@@ -18,13 +20,23 @@ public class TableExample extends DockLayoutPanel {
 	}
 
 	private void initialize() {
-		ChartLoader chartLoader = new ChartLoader(ChartPackage.TABLE);
-		chartLoader.loadApi(new Runnable() {
+		AsyncChartFactory.createTable(new TableCreator<Table>() {
 
 			@Override
-			public void run() {
-				// Create and attach the chart
-				table = new Table();
+			public Table create() {
+				return new Table();
+			}
+		}, new TableCallback<Table>() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				add(new Label(reason.getMessage()));
+			}
+
+			@Override
+			public void onSuccess(Table chart) {
+				// Attach the chart
+				table = chart;
 				add(table);
 				draw();
 			}
@@ -2,12 +2,14 @@ package com.googlecode.gwt.charts.showcase.client.others;
 
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.user.client.ui.DockLayoutPanel;
-import com.googlecode.gwt.charts.client.ChartLoader;
-import com.googlecode.gwt.charts.client.ChartPackage;
+import com.google.gwt.user.client.ui.Label;
+import com.googlecode.gwt.charts.client.AsyncChartFactory;
 import com.googlecode.gwt.charts.client.ColumnType;
 import com.googlecode.gwt.charts.client.DataTable;
 import com.googlecode.gwt.charts.client.format.PatternFormat;
 import com.googlecode.gwt.charts.client.timeline.Timeline;
+import com.googlecode.gwt.charts.client.timeline.TimelineCallback;
+import com.googlecode.gwt.charts.client.timeline.TimelineCreator;
 import com.googlecode.gwt.charts.client.timeline.TimelineOptions;
 import com.googlecode.gwt.charts.showcase.client.util.DateUtils;
 
@@ -20,13 +22,23 @@ public class TimelineExample extends DockLayoutPanel {
 	}
 
 	private void initialize() {
-		ChartLoader chartLoader = new ChartLoader(ChartPackage.TIMELINE);
-		chartLoader.loadApi(new Runnable() {
+		AsyncChartFactory.createTimeline(new TimelineCreator<Timeline>() {
 
 			@Override
-			public void run() {
-				// Create and attach the chart
-				timeline = new Timeline();
+			public Timeline create() {
+				return new Timeline();
+			}
+		}, new TimelineCallback<Timeline>() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				add(new Label(reason.getMessage()));
+			}
+
+			@Override
+			public void onSuccess(Timeline chart) {
+				// Attach the chart
+				timeline = chart;
 				add(timeline);
 				draw();
 			}
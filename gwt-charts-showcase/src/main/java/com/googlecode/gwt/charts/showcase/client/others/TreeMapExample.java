@@ -5,11 +5,13 @@ import com.google.gwt.core.client.JsArrayMixed;
 import com.google.gwt.core.client.JsonUtils;
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.user.client.ui.DockLayoutPanel;
-import com.googlecode.gwt.charts.client.ChartLoader;
-import com.googlecode.gwt.charts.client.ChartPackage;
+import com.google.gwt.user.client.ui.Label;
+import com.googlecode.gwt.charts.client.AsyncChartFactory;
 import com.googlecode.gwt.charts.client.ColumnType;
 import com.googlecode.gwt.charts.client.DataTable;
 import com.googlecode.gwt.charts.client.treemap.TreeMap;
+import com.googlecode.gwt.charts.client.treemap.TreeMapCallback;
+import com.googlecode.gwt.charts.client.treemap.TreeMapCreator;
 import com.googlecode.gwt.charts.client.treemap.TreeMapOptions;
 
 public class TreeMapExample extends DockLayoutPanel {
@@ -21,13 +23,23 @@ public class TreeMapExample extends DockLayoutPanel {
 	}
 
 	private void initialize() {
-		ChartLoader chartLoader = new ChartLoader(ChartPackage.TREEMAP);
-		chartLoader.loadApi(new Runnable() {
+		AsyncChartFactory.createTreeMap(new TreeMapCreator<TreeMap>() {
 
 			@Override
-			public void run() {
-				// Create and attach the chart
-				treeMap = new TreeMap();
+			public TreeMap create() {
+				return new TreeMap();
+			}
+		}, new TreeMapCallback<TreeMap>() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				add(new Label(reason.getMessage()));
+			}
+
+			@Override
+			public void onSuccess(TreeMap chart) {
+				// Attach the chart
+				treeMap = chart;
 				add(treeMap);
 				draw();
 			}
@@ -0,0 +1,27 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+/**
+ * Failure callback shared by the chart family callbacks of {@link AsyncChartFactory}. Each family declares its own
+ * success method, so the code run on success for one family isn't reachable from the split point of another.
+ */
+public interface AsyncChartCallback {
+
+	/**
+	 * Called when either the code fragment or the chart package could not be loaded.
+	 * 
+	 * @param reason the reason of the failure
+	 */
+	void onFailure(Throwable reason);
+}
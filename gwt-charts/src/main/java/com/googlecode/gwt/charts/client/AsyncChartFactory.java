@@ -0,0 +1,412 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.RunAsyncCallback;
+
+import com.googlecode.gwt.charts.client.annotationchart.AnnotationChartCallback;
+import com.googlecode.gwt.charts.client.annotationchart.AnnotationChartCreator;
+import com.googlecode.gwt.charts.client.calendar.CalendarCallback;
+import com.googlecode.gwt.charts.client.calendar.CalendarCreator;
+import com.googlecode.gwt.charts.client.controls.ControlsCallback;
+import com.googlecode.gwt.charts.client.controls.ControlsCreator;
+import com.googlecode.gwt.charts.client.corechart.CoreChartCallback;
+import com.googlecode.gwt.charts.client.corechart.CoreChartCreator;
+import com.googlecode.gwt.charts.client.gauge.GaugeCallback;
+import com.googlecode.gwt.charts.client.gauge.GaugeCreator;
+import com.googlecode.gwt.charts.client.geochart.GeoChartCallback;
+import com.googlecode.gwt.charts.client.geochart.GeoChartCreator;
+import com.googlecode.gwt.charts.client.map.MapCallback;
+import com.googlecode.gwt.charts.client.map.MapCreator;
+import com.googlecode.gwt.charts.client.orgchart.OrgChartCallback;
+import com.googlecode.gwt.charts.client.orgchart.OrgChartCreator;
+import com.googlecode.gwt.charts.client.sankey.SankeyCallback;
+import com.googlecode.gwt.charts.client.sankey.SankeyCreator;
+import com.googlecode.gwt.charts.client.table.TableCallback;
+import com.googlecode.gwt.charts.client.table.TableCreator;
+import com.googlecode.gwt.charts.client.timeline.TimelineCallback;
+import com.googlecode.gwt.charts.client.timeline.TimelineCreator;
+import com.googlecode.gwt.charts.client.treemap.TreeMapCallback;
+import com.googlecode.gwt.charts.client.treemap.TreeMapCreator;
+
+/**
+ * Creates charts behind one code splitting point per chart family, so the classes of a family are only downloaded
+ * when its first chart is created through this factory. The chart package is loaded in parallel with the code, and
+ * the chart is delivered once both are available.<br>
+ * Every family has its own creator and callback types: a creator or callback shared by several families would make
+ * the code of all of them reachable from each split point and move it to the leftover fragment. Only the code reached
+ * from the creator and the success callback leaves the initial fragment, so the chart and its options must not be
+ * referenced anywhere else.
+ * 
+ * <pre>
+ * AsyncChartFactory.createCoreChart(new CoreChartCreator&lt;PieChart&gt;() {
+ * 	public PieChart create() {
+ * 		return new PieChart();
+ * 	}
+ * }, callback);
+ * </pre>
+ */
+public class AsyncChartFactory {
+
+	/**
+	 * Creates an annotation chart asynchronously, behind the annotationchart split point.
+	 * 
+	 * @param <T> the chart type
+	 * @param creator creates the chart once its code and package are loaded
+	 * @param callback the callback receiving the chart
+	 */
+	public static <T> void createAnnotationChart(final AnnotationChartCreator<T> creator, final AnnotationChartCallback<T> callback) {
+		final AsyncChartRequest request = new AsyncChartRequest(ChartPackage.ANNOTATIONCHART, callback);
+		GWT.runAsync(AnnotationChartCreator.class, new RunAsyncCallback() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				request.fail(reason);
+			}
+
+			@Override
+			public void onSuccess() {
+				request.whenPackageLoaded(new Runnable() {
+
+					@Override
+					public void run() {
+						callback.onSuccess(creator.create());
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Creates a calendar asynchronously, behind the calendar split point.
+	 * 
+	 * @param <T> the chart type
+	 * @param creator creates the chart once its code and package are loaded
+	 * @param callback the callback receiving the chart
+	 */
+	public static <T> void createCalendar(final CalendarCreator<T> creator, final CalendarCallback<T> callback) {
+		final AsyncChartRequest request = new AsyncChartRequest(ChartPackage.CALENDAR, callback);
+		GWT.runAsync(CalendarCreator.class, new RunAsyncCallback() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				request.fail(reason);
+			}
+
+			@Override
+			public void onSuccess() {
+				request.whenPackageLoaded(new Runnable() {
+
+					@Override
+					public void run() {
+						callback.onSuccess(creator.create());
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Creates a dashboard, control or chart wrapper asynchronously, behind the controls split point.
+	 * 
+	 * @param <T> the chart type
+	 * @param creator creates the chart once its code and package are loaded
+	 * @param callback the callback receiving the chart
+	 */
+	public static <T> void createControls(final ControlsCreator<T> creator, final ControlsCallback<T> callback) {
+		final AsyncChartRequest request = new AsyncChartRequest(ChartPackage.CONTROLS, callback);
+		GWT.runAsync(ControlsCreator.class, new RunAsyncCallback() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				request.fail(reason);
+			}
+
+			@Override
+			public void onSuccess() {
+				request.whenPackageLoaded(new Runnable() {
+
+					@Override
+					public void run() {
+						callback.onSuccess(creator.create());
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Creates a core chart asynchronously, behind the corechart split point.
+	 * 
+	 * @param <T> the chart type
+	 * @param creator creates the chart once its code and package are loaded
+	 * @param callback the callback receiving the chart
+	 */
+	public static <T> void createCoreChart(final CoreChartCreator<T> creator, final CoreChartCallback<T> callback) {
+		final AsyncChartRequest request = new AsyncChartRequest(ChartPackage.CORECHART, callback);
+		GWT.runAsync(CoreChartCreator.class, new RunAsyncCallback() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				request.fail(reason);
+			}
+
+			@Override
+			public void onSuccess() {
+				request.whenPackageLoaded(new Runnable() {
+
+					@Override
+					public void run() {
+						callback.onSuccess(creator.create());
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Creates a gauge asynchronously, behind the gauge split point.
+	 * 
+	 * @param <T> the chart type
+	 * @param creator creates the chart once its code and package are loaded
+	 * @param callback the callback receiving the chart
+	 */
+	public static <T> void createGauge(final GaugeCreator<T> creator, final GaugeCallback<T> callback) {
+		final AsyncChartRequest request = new AsyncChartRequest(ChartPackage.GAUGE, callback);
+		GWT.runAsync(GaugeCreator.class, new RunAsyncCallback() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				request.fail(reason);
+			}
+
+			@Override
+			public void onSuccess() {
+				request.whenPackageLoaded(new Runnable() {
+
+					@Override
+					public void run() {
+						callback.onSuccess(creator.create());
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Creates a geo chart asynchronously, behind the geochart split point.
+	 * 
+	 * @param <T> the chart type
+	 * @param creator creates the chart once its code and package are loaded
+	 * @param callback the callback receiving the chart
+	 */
+	public static <T> void createGeoChart(final GeoChartCreator<T> creator, final GeoChartCallback<T> callback) {
+		final AsyncChartRequest request = new AsyncChartRequest(ChartPackage.GEOCHART, callback);
+		GWT.runAsync(GeoChartCreator.class, new RunAsyncCallback() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				request.fail(reason);
+			}
+
+			@Override
+			public void onSuccess() {
+				request.whenPackageLoaded(new Runnable() {
+
+					@Override
+					public void run() {
+						callback.onSuccess(creator.create());
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Creates a map asynchronously, behind the map split point.
+	 * 
+	 * @param <T> the chart type
+	 * @param creator creates the chart once its code and package are loaded
+	 * @param callback the callback receiving the chart
+	 */
+	public static <T> void createMap(final MapCreator<T> creator, final MapCallback<T> callback) {
+		final AsyncChartRequest request = new AsyncChartRequest(ChartPackage.MAP, callback);
+		GWT.runAsync(MapCreator.class, new RunAsyncCallback() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				request.fail(reason);
+			}
+
+			@Override
+			public void onSuccess() {
+				request.whenPackageLoaded(new Runnable() {
+
+					@Override
+					public void run() {
+						callback.onSuccess(creator.create());
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Creates an org chart asynchronously, behind the orgchart split point.
+	 * 
+	 * @param <T> the chart type
+	 * @param creator creates the chart once its code and package are loaded
+	 * @param callback the callback receiving the chart
+	 */
+	public static <T> void createOrgChart(final OrgChartCreator<T> creator, final OrgChartCallback<T> callback) {
+		final AsyncChartRequest request = new AsyncChartRequest(ChartPackage.ORGCHART, callback);
+		GWT.runAsync(OrgChartCreator.class, new RunAsyncCallback() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				request.fail(reason);
+			}
+
+			@Override
+			public void onSuccess() {
+				request.whenPackageLoaded(new Runnable() {
+
+					@Override
+					public void run() {
+						callback.onSuccess(creator.create());
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Creates a sankey asynchronously, behind the sankey split point.
+	 * 
+	 * @param <T> the chart type
+	 * @param creator creates the chart once its code and package are loaded
+	 * @param callback the callback receiving the chart
+	 */
+	public static <T> void createSankey(final SankeyCreator<T> creator, final SankeyCallback<T> callback) {
+		final AsyncChartRequest request = new AsyncChartRequest(ChartPackage.SANKEY, callback);
+		GWT.runAsync(SankeyCreator.class, new RunAsyncCallback() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				request.fail(reason);
+			}
+
+			@Override
+			public void onSuccess() {
+				request.whenPackageLoaded(new Runnable() {
+
+					@Override
+					public void run() {
+						callback.onSuccess(creator.create());
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Creates a table asynchronously, behind the table split point.
+	 * 
+	 * @param <T> the chart type
+	 * @param creator creates the chart once its code and package are loaded
+	 * @param callback the callback receiving the chart
+	 */
+	public static <T> void createTable(final TableCreator<T> creator, final TableCallback<T> callback) {
+		final AsyncChartRequest request = new AsyncChartRequest(ChartPackage.TABLE, callback);
+		GWT.runAsync(TableCreator.class, new RunAsyncCallback() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				request.fail(reason);
+			}
+
+			@Override
+			public void onSuccess() {
+				request.whenPackageLoaded(new Runnable() {
+
+					@Override
+					public void run() {
+						callback.onSuccess(creator.create());
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Creates a timeline asynchronously, behind the timeline split point.
+	 * 
+	 * @param <T> the chart type
+	 * @param creator creates the chart once its code and package are loaded
+	 * @param callback the callback receiving the chart
+	 */
+	public static <T> void createTimeline(final TimelineCreator<T> creator, final TimelineCallback<T> callback) {
+		final AsyncChartRequest request = new AsyncChartRequest(ChartPackage.TIMELINE, callback);
+		GWT.runAsync(TimelineCreator.class, new RunAsyncCallback() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				request.fail(reason);
+			}
+
+			@Override
+			public void onSuccess() {
+				request.whenPackageLoaded(new Runnable() {
+
+					@Override
+					public void run() {
+						callback.onSuccess(creator.create());
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Creates a tree map asynchronously, behind the treemap split point.
+	 * 
+	 * @param <T> the chart type
+	 * @param creator creates the chart once its code and package are loaded
+	 * @param callback the callback receiving the chart
+	 */
+	public static <T> void createTreeMap(final TreeMapCreator<T> creator, final TreeMapCallback<T> callback) {
+		final AsyncChartRequest request = new AsyncChartRequest(ChartPackage.TREEMAP, callback);
+		GWT.runAsync(TreeMapCreator.class, new RunAsyncCallback() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				request.fail(reason);
+			}
+
+			@Override
+			public void onSuccess() {
+				request.whenPackageLoaded(new Runnable() {
+
+					@Override
+					public void run() {
+						callback.onSuccess(creator.create());
+					}
+				});
+			}
+		});
+	}
+
+	private AsyncChartFactory() {
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+import com.googlecode.gwt.charts.client.apiloader.ApiLoaderErrorHandler;
+import com.googlecode.gwt.charts.client.apiloader.ApiLoaderException;
+
+/**
+ * Tracks the two downloads an asynchronously created chart waits on: the code fragment holding the chart classes and
+ * the chart package. The package load is started right away so both downloads run in parallel.<br>
+ * The command creating the chart is only instantiated inside the split point of its family, so it isn't reachable
+ * from the initial fragment or from the split points of other families.
+ */
+class AsyncChartRequest {
+	private final AsyncChartCallback callback;
+	private boolean packageLoaded;
+	private boolean failed;
+	private Runnable pendingCommand;
+
+	/**
+	 * Creates a request and starts loading the chart package.
+	 * 
+	 * @param chartPackage the package the chart belongs to
+	 * @param callback the callback to notify of failures
+	 */
+	AsyncChartRequest(ChartPackage chartPackage, AsyncChartCallback callback) {
+		this.callback = callback;
+		if (ChartLoader.isLoaded(chartPackage)) {
+			packageLoaded = true;
+			return;
+		}
+		ChartLoader.loadPackage(chartPackage, new Runnable() {
+
+			@Override
+			public void run() {
+				onPackageLoaded();
+			}
+		}, new ApiLoaderErrorHandler() {
+
+			@Override
+			public void onError(ApiLoaderException exception) {
+				fail(exception);
+			}
+		});
+	}
+
+	/**
+	 * Reports a failure to the callback. Only the first failure is reported.
+	 * 
+	 * @param reason the reason of the failure
+	 */
+	void fail(Throwable reason) {
+		if (failed) {
+			return;
+		}
+		failed = true;
+		pendingCommand = null;
+		callback.onFailure(reason);
+	}
+
+	/**
+	 * Runs a command once the chart package is loaded, right away if it already is. Called from the split point once
+	 * the code fragment is loaded.
+	 * 
+	 * @param command the command creating the chart
+	 */
+	void whenPackageLoaded(Runnable command) {
+		if (failed) {
+			return;
+		}
+		if (packageLoaded) {
+			command.run();
+		} else {
+			pendingCommand = command;
+		}
+	}
+
+	private void onPackageLoaded() {
+		packageLoaded = true;
+		if (pendingCommand != null) {
+			Runnable command = pendingCommand;
+			pendingCommand = null;
+			command.run();
+		}
+	}
+}
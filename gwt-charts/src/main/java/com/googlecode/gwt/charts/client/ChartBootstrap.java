@@ -0,0 +1,324 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsonUtils;
+import com.google.gwt.http.client.Request;
+import com.google.gwt.http.client.RequestBuilder;
+import com.google.gwt.http.client.RequestCallback;
+import com.google.gwt.http.client.RequestException;
+import com.google.gwt.http.client.Response;
+import com.google.gwt.http.client.URL;
+
+import com.googlecode.gwt.charts.client.apiloader.ApiLoaderErrorHandler;
+import com.googlecode.gwt.charts.client.apiloader.ApiLoaderException;
+import com.googlecode.gwt.charts.client.query.QueryCallback;
+import com.googlecode.gwt.charts.client.query.QueryResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the chart library and the chart data in parallel. Data requests are sent right away, while the library is
+ * still loading, and their raw payload is kept until the library is available. Only then is the DataTable or the
+ * QueryResponse created and handed to the callback.<br>
+ * Data is fetched with XmlHttpRequest, so data sources must be on the same origin or allow cross-origin requests.
+ * 
+ * <pre>
+ * ChartBootstrap bootstrap = new ChartBootstrap(ChartPackage.CORECHART);
+ * bootstrap.fetchDataTable(&quot;data.json&quot;, new DataTableCallback() {
+ * 	public void onSuccess(DataTable dataTable) {
+ * 		chart.draw(dataTable);
+ * 	}
+ * 
+ * 	public void onFailure(Throwable reason) {
+ * 	}
+ * });
+ * </pre>
+ */
+public class ChartBootstrap {
+	private static final String SET_RESPONSE = "setResponse(";
+
+	private final ChartLoader loader;
+	private ApiLoaderErrorHandler errorHandler;
+	private boolean loading;
+	private boolean loaded;
+	private final List<Runnable> pendingCommands = new ArrayList<Runnable>();
+	private final List<ApiLoaderErrorHandler> pendingErrorHandlers = new ArrayList<ApiLoaderErrorHandler>();
+
+	private static native QueryResponse createErrorResponse(String message, String detailedMessage) /*-{
+		return new $wnd.google.visualization.QueryResponse({
+			version : '0.6',
+			status : 'error',
+			errors : [ {
+				reason : 'other',
+				message : message,
+				detailed_message : detailedMessage
+			} ]
+		});
+	}-*/;
+
+	private static native QueryResponse createLoadErrorResponse(String message, String detailedMessage) /*-{
+		// Without the library, the response is a plain object with the methods of a QueryResponse
+		return {
+			getDataTable : function() {
+				return null;
+			},
+			getDetailedMessage : function() {
+				return detailedMessage;
+			},
+			getMessage : function() {
+				return message;
+			},
+			getReasons : function() {
+				return [ 'other' ];
+			},
+			hasWarning : function() {
+				return false;
+			},
+			isError : function() {
+				return true;
+			}
+		};
+	}-*/;
+
+	private static native QueryResponse createQueryResponse(JavaScriptObject responseObject) /*-{
+		return new $wnd.google.visualization.QueryResponse(responseObject);
+	}-*/;
+
+	/**
+	 * Creates a bootstrap that loads the given packages with the default settings of {@link ChartLoader}.
+	 * 
+	 * @param packages the packages to load
+	 */
+	public ChartBootstrap(ChartPackage... packages) {
+		this(new ChartLoader(packages));
+	}
+
+	/**
+	 * Creates a bootstrap that loads the chart library with the given loader.
+	 * 
+	 * @param loader the loader to use
+	 */
+	public ChartBootstrap(ChartLoader loader) {
+		this.loader = loader;
+	}
+
+	/**
+	 * Fetches a DataTable in JSON format, as accepted by {@link DataTable#create(String)}, while the chart library is
+	 * loading.
+	 * 
+	 * @param url the URL of the JSON data
+	 * @param callback the callback receiving the DataTable
+	 */
+	public void fetchDataTable(String url, final DataTableCallback callback) {
+		send(url, new RequestCallback() {
+
+			@Override
+			public void onError(Request request, Throwable exception) {
+				callback.onFailure(exception);
+			}
+
+			@Override
+			public void onResponseReceived(Request request, Response response) {
+				if (response.getStatusCode() != Response.SC_OK) {
+					callback.onFailure(new RequestException("Failed to fetch data: " + response.getStatusCode() + " "
+							+ response.getStatusText()));
+					return;
+				}
+				final String json = response.getText();
+				whenLoaded(new Runnable() {
+
+					@Override
+					public void run() {
+						DataTable dataTable;
+						try {
+							dataTable = DataTable.create(json);
+						} catch (RuntimeException e) {
+							callback.onFailure(e);
+							return;
+						}
+						callback.onSuccess(dataTable);
+					}
+				}, new ApiLoaderErrorHandler() {
+
+					@Override
+					public void onError(ApiLoaderException exception) {
+						callback.onFailure(exception);
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Sends a query to a data source implementing the
+	 * <a href="https://developers.google.com/chart/interactive/docs/dev/implementing_data_source">Chart Tools Datasource
+	 * Protocol</a> while the chart library is loading. Transport errors are reported as an error response, like
+	 * {@link com.googlecode.gwt.charts.client.query.Query#send(QueryCallback)} does, and so is a failure to load the
+	 * chart library, whose response has no DataTable.
+	 * 
+	 * @param dataSourceUrl the data source URL
+	 * @param query the query string, or null to fetch the whole data source
+	 * @param callback the callback receiving the response
+	 */
+	public void fetchQuery(String dataSourceUrl, String query, final QueryCallback callback) {
+		StringBuilder url = new StringBuilder(dataSourceUrl);
+		url.append(dataSourceUrl.indexOf('?') < 0 ? '?' : '&').append("tqx=out:json");
+		if (query != null) {
+			url.append("&tq=").append(URL.encodeQueryString(query));
+		}
+		send(url.toString(), new RequestCallback() {
+
+			@Override
+			public void onError(Request request, Throwable exception) {
+				respondWithError("Request failed", exception.getMessage(), callback);
+			}
+
+			@Override
+			public void onResponseReceived(Request request, Response response) {
+				if (response.getStatusCode() != Response.SC_OK) {
+					respondWithError("Request failed", response.getStatusCode() + " " + response.getStatusText(),
+							callback);
+					return;
+				}
+				final String text = response.getText();
+				whenLoaded(new Runnable() {
+
+					@Override
+					public void run() {
+						QueryResponse queryResponse;
+						try {
+							queryResponse = createQueryResponse(JsonUtils.safeEval(unwrapResponse(text)));
+						} catch (RuntimeException e) {
+							queryResponse = createErrorResponse("Invalid response", e.getMessage());
+						}
+						callback.onResponse(queryResponse);
+					}
+				}, respondOnLoadError(callback));
+			}
+		});
+	}
+
+	/**
+	 * Calls a handler once the chart library is loaded, starting the load if needed.
+	 * 
+	 * @param callback the handler to be called
+	 */
+	public void loadApi(Runnable callback) {
+		whenLoaded(callback, errorHandler);
+	}
+
+	/**
+	 * Sets the handler called if the chart library fails to load while {@link #loadApi(Runnable)} callbacks are
+	 * waiting for it. Data requests report the failure to their own callback.
+	 * 
+	 * @param errorHandler the error handler
+	 */
+	public void setErrorHandler(ApiLoaderErrorHandler errorHandler) {
+		this.errorHandler = errorHandler;
+	}
+
+	private void onApiLoaded() {
+		loaded = true;
+		List<Runnable> commands = new ArrayList<Runnable>(pendingCommands);
+		pendingCommands.clear();
+		pendingErrorHandlers.clear();
+		for (Runnable command : commands) {
+			command.run();
+		}
+	}
+
+	private void onApiError(ApiLoaderException exception) {
+		loading = false;
+		List<ApiLoaderErrorHandler> errorHandlers = new ArrayList<ApiLoaderErrorHandler>(pendingErrorHandlers);
+		pendingCommands.clear();
+		pendingErrorHandlers.clear();
+		for (ApiLoaderErrorHandler handler : errorHandlers) {
+			handler.onError(exception);
+		}
+	}
+
+	private ApiLoaderErrorHandler respondOnLoadError(final QueryCallback callback) {
+		return new ApiLoaderErrorHandler() {
+
+			@Override
+			public void onError(ApiLoaderException exception) {
+				callback.onResponse(createLoadErrorResponse("Chart library failed to load", exception.getMessage()));
+			}
+		};
+	}
+
+	private void respondWithError(final String message, final String detailedMessage, final QueryCallback callback) {
+		whenLoaded(new Runnable() {
+
+			@Override
+			public void run() {
+				callback.onResponse(createErrorResponse(message, detailedMessage));
+			}
+		}, respondOnLoadError(callback));
+	}
+
+	private void send(String url, RequestCallback callback) {
+		startLoading();
+		RequestBuilder requestBuilder = new RequestBuilder(RequestBuilder.GET, url);
+		try {
+			requestBuilder.sendRequest(null, callback);
+		} catch (RequestException e) {
+			callback.onError(null, e);
+		}
+	}
+
+	private void startLoading() {
+		if (loading || loaded) {
+			return;
+		}
+		loading = true;
+		loader.loadApi(new Runnable() {
+
+			@Override
+			public void run() {
+				onApiLoaded();
+			}
+		}, new ApiLoaderErrorHandler() {
+
+			@Override
+			public void onError(ApiLoaderException exception) {
+				onApiError(exception);
+			}
+		});
+	}
+
+	private String unwrapResponse(String text) {
+		// Responses are wrapped in a google.visualization.Query.setResponse() call
+		int start = text.indexOf(SET_RESPONSE);
+		int end = text.lastIndexOf(')');
+		if (start < 0 || end < start) {
+			return text;
+		}
+		return text.substring(start + SET_RESPONSE.length(), end);
+	}
+
+	private void whenLoaded(Runnable command, ApiLoaderErrorHandler onError) {
+		if (loaded) {
+			command.run();
+			return;
+		}
+		pendingCommands.add(command);
+		if (onError != null) {
+			pendingErrorHandlers.add(onError);
+		}
+		startLoading();
+	}
+}
@@ -12,20 +12,162 @@
  */
 package com.googlecode.gwt.charts.client;
 
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.i18n.client.LocaleInfo;
 
 import com.googlecode.gwt.charts.client.apiloader.ApiLoader;
+import com.googlecode.gwt.charts.client.apiloader.ApiLoaderErrorHandler;
+import com.googlecode.gwt.charts.client.apiloader.ApiLoaderException;
 import com.googlecode.gwt.charts.client.apiloader.ApiLoaderOptions;
+import com.googlecode.gwt.charts.client.apiloader.ExceptionHelper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Utility class for loading the Chart Tools API using the Google Ajax Loader.
+ * Packages don't have to be loaded up front: widgets load the package they belong to on their first draw, using the
+ * settings of the default loader.
  */
 public class ChartLoader {
 	private static final String API_VERSION = "current";
 
+	// The loader whose settings are used for packages loaded on demand
+	private static ChartLoader defaultLoader;
+
+	// Packages requested on demand since the last load, null if none
+	private static Set<ChartPackage> pendingPackages;
+	private static List<Runnable> pendingCallbacks;
+	private static List<ApiLoaderErrorHandler> pendingErrorHandlers;
+
+	/**
+	 * Returns the loader whose version, language and location settings are used for packages loaded on demand. This is
+	 * the loader set by {@link #setDefault(ChartLoader)} or else the first loader that called
+	 * {@link #loadApi(Runnable)}.
+	 * 
+	 * @return the default loader, or null if none was used yet
+	 */
+	public static ChartLoader getDefault() {
+		return defaultLoader;
+	}
+
+	/**
+	 * Checks if the given package was already loaded with the settings of the default loader.
+	 * 
+	 * @param chartPackage the package
+	 * @return true if the package is loaded
+	 */
+	public static boolean isLoaded(ChartPackage chartPackage) {
+		ChartLoader loader = defaultLoader != null ? defaultLoader : new ChartLoader();
+		return ApiLoader.get().isLoaded(loader.getVersion(), loader.getLanguage(),
+				Collections.singleton(chartPackage.getName()));
+	}
+
+	/**
+	 * Loads a single package on demand, with the settings of the default loader. Packages requested during the same
+	 * event loop are merged into a single load.
+	 * 
+	 * @param chartPackage the package to load
+	 * @param callback the handler to be called once the package is loaded
+	 * @param errorHandler the handler to be called on failure, can be null
+	 */
+	public static void loadPackage(ChartPackage chartPackage, Runnable callback, ApiLoaderErrorHandler errorHandler) {
+		if (pendingPackages == null) {
+			pendingPackages = new LinkedHashSet<ChartPackage>();
+			pendingCallbacks = new ArrayList<Runnable>();
+			pendingErrorHandlers = new ArrayList<ApiLoaderErrorHandler>();
+			Scheduler.get().scheduleFinally(new Scheduler.ScheduledCommand() {
+
+				@Override
+				public void execute() {
+					loadPendingPackages();
+				}
+			});
+		}
+		pendingPackages.add(chartPackage);
+		pendingCallbacks.add(callback);
+		if (errorHandler != null) {
+			pendingErrorHandlers.add(errorHandler);
+		}
+	}
+
+	/**
+	 * Loads the given packages one at a time, each when the browser is idle and no other load is in progress, so charts
+	 * shown later don't wait for their package. Packages already loaded are skipped, and each load goes through the same
+	 * path as every other load, with the settings of the default loader.
+	 * 
+	 * @param packages the packages to prefetch
+	 * @return a handle for canceling the prefetch
+	 */
+	public static PackagePrefetch prefetch(ChartPackage... packages) {
+		PackagePrefetch prefetch = new PackagePrefetch(packages);
+		prefetch.schedule();
+		return prefetch;
+	}
+
+	/**
+	 * Sets the loader whose version, language and location settings are used for packages loaded on demand.
+	 * 
+	 * @param loader the default loader
+	 */
+	public static void setDefault(ChartLoader loader) {
+		defaultLoader = loader;
+	}
+
+	static ChartLoader createOnDemandLoader(ChartPackage... packages) {
+		ChartLoader loader = new ChartLoader(packages);
+		if (defaultLoader != null) {
+			loader.setVersion(defaultLoader.getVersion());
+			loader.setLanguage(defaultLoader.getLanguage());
+			loader.setBaseUrl(defaultLoader.getBaseUrl());
+			loader.setLoaderUrl(defaultLoader.getLoaderUrl());
+			loader.setScriptCacheUrl(defaultLoader.getScriptCacheUrl(), defaultLoader.getScriptCacheScope());
+		}
+		return loader;
+	}
+
+	static boolean hasPendingPackages() {
+		return pendingPackages != null;
+	}
+
+	private static void loadPendingPackages() {
+		final List<Runnable> callbacks = pendingCallbacks;
+		final List<ApiLoaderErrorHandler> errorHandlers = pendingErrorHandlers;
+		ChartLoader loader = createOnDemandLoader(pendingPackages.toArray(new ChartPackage[pendingPackages.size()]));
+		pendingPackages = null;
+		pendingCallbacks = null;
+		pendingErrorHandlers = null;
+		loader.load(new Runnable() {
+
+			@Override
+			public void run() {
+				// A failing callback must not keep the other merged callbacks from running
+				for (Runnable callback : callbacks) {
+					ExceptionHelper.runProtected(callback);
+				}
+			}
+		}, new ApiLoaderErrorHandler() {
+
+			@Override
+			public void onError(ApiLoaderException exception) {
+				for (ApiLoaderErrorHandler errorHandler : errorHandlers) {
+					errorHandler.onError(exception);
+				}
+			}
+		});
+	}
+
 	private ChartPackage[] packages;
 	private String language;
 	private String version;
+	private String baseUrl;
+	private String loaderUrl;
+	private String scriptCacheUrl;
+	private String scriptCacheScope;
 
 	/**
 	 * Creates a chart loader with the specified packages.
@@ -38,6 +180,15 @@ public class ChartLoader {
 		setVersion(API_VERSION);
 	}
 
+	/**
+	 * Returns the base URL of the chart library.
+	 * 
+	 * @return the base URL, or null for the default location
+	 */
+	public String getBaseUrl() {
+		return baseUrl;
+	}
+
 	/**
 	 * Returns the current language.
 	 * 
@@ -47,6 +198,15 @@ public class ChartLoader {
 		return language;
 	}
 
+	/**
+	 * Returns the loader script URL.
+	 * 
+	 * @return the loader URL, or null if derived from the base URL
+	 */
+	public String getLoaderUrl() {
+		return loaderUrl;
+	}
+
 	/**
 	 * Returns the current packages.
 	 * 
@@ -56,6 +216,24 @@ public class ChartLoader {
 		return packages;
 	}
 
+	/**
+	 * Returns the scope the script cache service worker is registered with.
+	 * 
+	 * @return the scope, or null if the script cache is disabled
+	 */
+	public String getScriptCacheScope() {
+		return scriptCacheScope;
+	}
+
+	/**
+	 * Returns the URL of the service worker caching the chart library scripts.
+	 * 
+	 * @return the service worker URL, or null if the script cache is disabled
+	 */
+	public String getScriptCacheUrl() {
+		return scriptCacheUrl;
+	}
+
 	/**
 	 * Returns the current version.
 	 * 
@@ -71,16 +249,33 @@ public class ChartLoader {
 	 * @param callback the handler to be called
 	 */
 	public void loadApi(Runnable callback) {
-		String[] packagesArray = new String[packages.length];
-		for (int i = 0; i < packages.length; i++) {
-			packagesArray[i] = packages[i].getName();
-		}
-		ApiLoaderOptions options = ApiLoaderOptions.create();
-		options.setPackages(packagesArray);
-		if (language != null) {
-			options.setLanguage(language);
+		loadApi(callback, null);
+	}
+
+	/**
+	 * Loads requested API libraries and calls an handler after finished, or an error handler if the loader script
+	 * fails or the load times out.
+	 * 
+	 * @param callback the handler to be called
+	 * @param errorHandler the handler to be called on failure, can be null
+	 * @see ApiLoader#setTimeout(int)
+	 */
+	public void loadApi(Runnable callback, ApiLoaderErrorHandler errorHandler) {
+		if (defaultLoader == null) {
+			defaultLoader = this;
 		}
-		ApiLoader.loadApi(version, callback, options);
+		load(callback, errorHandler);
+	}
+
+	/**
+	 * Sets the URL of the directory the chart library is served from, such as a CDN edge or a versioned path.
+	 * The loader script is fetched from loader.js under this URL.
+	 * Must be set before {@link #loadApi(Runnable)} is called for the first time in the application.
+	 * 
+	 * @param baseUrl the base URL, or null for {@link ApiLoader#DEFAULT_BASE_URL}
+	 */
+	public void setBaseUrl(String baseUrl) {
+		this.baseUrl = baseUrl;
 	}
 
 	/**
@@ -93,6 +288,33 @@ public class ChartLoader {
 		this.language = language;
 	}
 
+	/**
+	 * Sets the full URL of the loader script, overriding the base URL.
+	 * Must be set before {@link #loadApi(Runnable)} is called for the first time in the application.
+	 * 
+	 * @param loaderUrl the loader script URL, or null to derive it from the base URL
+	 */
+	public void setLoaderUrl(String loaderUrl) {
+		this.loaderUrl = loaderUrl;
+	}
+
+	/**
+	 * Loads the chart library from a local mirror, so charts can be loaded without network access. The directory must
+	 * replicate the layout of {@link ApiLoader#DEFAULT_BASE_URL}, with a loader.js that resolves package scripts from
+	 * the mirror itself. Relative paths are resolved against the host page.
+	 * Must be set before {@link #loadApi(Runnable)} is called for the first time in the application.
+	 * 
+	 * @param directory the mirror directory, absolute or relative to the host page
+	 */
+	public void setMirror(String directory) {
+		String url = directory;
+		if (!url.matches("^[a-zA-Z][a-zA-Z0-9+.-]*:.*") && !url.startsWith("/")) {
+			url = GWT.getHostPageBaseURL() + url;
+		}
+		setBaseUrl(url);
+		setLoaderUrl(null);
+	}
+
 	/**
 	 * Sets the packages for loading
 	 * Must be set before {@link #loadApi(Runnable)} is called.
@@ -103,6 +325,26 @@ public class ChartLoader {
 		this.packages = packages;
 	}
 
+	/**
+	 * Enables the persistent cache of the chart library scripts, so returning visits load them from Cache Storage
+	 * instead of the network. The service worker shipped with the module can be used:
+	 * <code>GWT.getModuleBaseForStaticFiles() + "charts-sw.js"</code>, provided it's allowed to control the host page.
+	 * The scope must be given explicitly and kept narrow, so the worker doesn't take over pages controlled by a service
+	 * worker of the application.
+	 * Must be set before {@link #loadApi(Runnable)} is called for the first time in the application.
+	 * 
+	 * @param scriptCacheUrl the service worker URL, or null to disable the cache
+	 * @param scope the scope to register the worker with, such as the path of the host page
+	 * @see ApiLoader#setScriptCacheUrl(String, String)
+	 */
+	public void setScriptCacheUrl(String scriptCacheUrl, String scope) {
+		if (scriptCacheUrl != null && scope == null) {
+			throw new IllegalArgumentException("A script cache needs an explicit scope");
+		}
+		this.scriptCacheUrl = scriptCacheUrl;
+		this.scriptCacheScope = scriptCacheUrl != null ? scope : null;
+	}
+
 	/**
 	 * Sets the api version for loading
 	 * Must be set before {@link #loadApi(Runnable)} is called.
@@ -113,4 +355,22 @@ public class ChartLoader {
 		this.version = version;
 	}
 
+	void load(Runnable callback, ApiLoaderErrorHandler errorHandler) {
+		String[] packagesArray = new String[packages.length];
+		for (int i = 0; i < packages.length; i++) {
+			packagesArray[i] = packages[i].getName();
+		}
+		ApiLoaderOptions options = ApiLoaderOptions.create();
+		options.setPackages(packagesArray);
+		if (language != null) {
+			options.setLanguage(language);
+		}
+		// Only used by the request that injects the loader script
+		ApiLoader apiLoader = ApiLoader.get();
+		apiLoader.setBaseUrl(baseUrl);
+		apiLoader.setLoaderUrl(loaderUrl);
+		apiLoader.setScriptCacheUrl(scriptCacheUrl, scriptCacheScope);
+		ApiLoader.loadApi(version, callback, errorHandler, options);
+	}
+
 }
@@ -19,87 +19,87 @@ public enum ChartType {
 	/**
 	 * Annotation chart.
 	 */
-	ANNOTATION("Annotation"),
+	ANNOTATION("Annotation", ChartPackage.ANNOTATIONCHART),
 	/**
 	 * Area chart.
 	 */
-	AREA("AreaChart"),
+	AREA("AreaChart", ChartPackage.CORECHART),
 	/**
 	 * Bar chart.
 	 */
-	BAR("BarChart"),
+	BAR("BarChart", ChartPackage.CORECHART),
 	/**
 	 * Bubble chart.
 	 */
-	BUBBLE("BubbleChart"),
+	BUBBLE("BubbleChart", ChartPackage.CORECHART),
 	/**
 	 * Annotation chart.
 	 */
-	CALENDAR("Calendar"),
+	CALENDAR("Calendar", ChartPackage.CALENDAR),
 	/**
 	 * Candlestick chart.
 	 */
-	CANDLESTICK("CandlestickChart"),
+	CANDLESTICK("CandlestickChart", ChartPackage.CORECHART),
 	/**
 	 * Column chart.
 	 */
-	COLUMN("ColumnChart"),
+	COLUMN("ColumnChart", ChartPackage.CORECHART),
 	/**
 	 * Combo chart, a mix of lines, bars, and area charts.
 	 */
-	COMBO("ComboChart"),
+	COMBO("ComboChart", ChartPackage.CORECHART),
 	/**
 	 * Gauge chart.
 	 */
-	GAUGE("Gauge"),
+	GAUGE("Gauge", ChartPackage.GAUGE),
 	/**
 	 * Geo chart.
 	 */
-	GEO_CHART("GeoChart"),
+	GEO_CHART("GeoChart", ChartPackage.GEOCHART),
 	/**
 	 * Histogram.
 	 */
-	HISTOGRAM("Histogram"),
+	HISTOGRAM("Histogram", ChartPackage.CORECHART),
 	/**
 	 * Line chart.
 	 */
-	LINE("LineChart"),
+	LINE("LineChart", ChartPackage.CORECHART),
 	/**
 	 * Map.
 	 */
-	MAP("Map"),
+	MAP("Map", ChartPackage.MAP),
 	/**
 	 * Org chart.
 	 */
-	ORGCHART("OrgChart"),
+	ORGCHART("OrgChart", ChartPackage.ORGCHART),
 	/**
 	 * Pie chart.
 	 */
-	PIE("PieChart"),
+	PIE("PieChart", ChartPackage.CORECHART),
 	/**
 	 * Sankey chart.
 	 */
-	SANKEY("Sankey"),
+	SANKEY("Sankey", ChartPackage.SANKEY),
 	/**
 	 * Scatter chart.
 	 */
-	SCATTER("ScatterChart"),
+	SCATTER("ScatterChart", ChartPackage.CORECHART),
 	/**
 	 * Stepped area chart.
 	 */
-	STEPPED_AREA("SteppedAreaChart"),
+	STEPPED_AREA("SteppedAreaChart", ChartPackage.CORECHART),
 	/**
 	 * Table.
 	 */
-	TABLE("Table"),
+	TABLE("Table", ChartPackage.TABLE),
 	/**
 	 * Timeline.
 	 */
-	TIMELINE("Timeline"),
+	TIMELINE("Timeline", ChartPackage.TIMELINE),
 	/**
 	 * Tree map.
 	 */
-	TREE_MAP("TreeMap");
+	TREE_MAP("TreeMap", ChartPackage.TREEMAP);
 
 	/**
 	 * Get a ChartType by providing its name.
@@ -117,9 +117,20 @@ public enum ChartType {
 	}
 
 	private final String name;
+	private final ChartPackage chartPackage;
 
-	private ChartType(String name) {
+	private ChartType(String name, ChartPackage chartPackage) {
 		this.name = name;
+		this.chartPackage = chartPackage;
+	}
+
+	/**
+	 * Get the package that must be loaded to draw this ChartType.
+	 * 
+	 * @return the package
+	 */
+	public ChartPackage getChartPackage() {
+		return chartPackage;
 	}
 
 	/**
@@ -12,34 +12,63 @@
  */
 package com.googlecode.gwt.charts.client;
 
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.user.client.DOM;
 import com.google.gwt.user.client.ui.RequiresResize;
 import com.google.gwt.user.client.ui.Widget;
 
+import com.googlecode.gwt.charts.client.apiloader.ApiLoaderErrorHandler;
+import com.googlecode.gwt.charts.client.apiloader.ApiLoaderException;
 import com.googlecode.gwt.charts.client.event.Event;
 import com.googlecode.gwt.charts.client.event.EventHandler;
+import com.googlecode.gwt.charts.client.event.CommitEvent;
+import com.googlecode.gwt.charts.client.event.CommitHandler;
 import com.googlecode.gwt.charts.client.event.HandlerRef;
 import com.googlecode.gwt.charts.client.options.Options;
+import com.googlecode.gwt.charts.client.util.ArrayHelper;
 
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  * This class is used as a widget wrapper for all chart types.
  * Supports automatically resizing via {@link RequiresResize}, which means that all parents
  * must implement {@link com.google.gwt.user.client.ui.ProvidesResize} for this to work.
  * It also supports attach/detach funcionality.
+ * Widgets that declare their {@link ChartPackage} can be created before the package is loaded: the first draw loads
+ * it on demand through {@link ChartLoader#loadPackage(ChartPackage, Runnable, ApiLoaderErrorHandler)}. Until then,
+ * handlers and selections are queued and applied with the first draw, while methods that need the chart itself throw
+ * an {@link IllegalStateException}.
  * 
  * @param <T> the chart options type
  */
 public abstract class ChartWidget<T extends Options> extends Widget implements RequiresResize {
+	/**
+	 * The chart object, null while the chart package is being loaded.
+	 * 
+	 * @deprecated use {@link #getChartObject()}, which tells a chart waiting for its package apart from a missing one
+	 */
+	@Deprecated
 	protected ChartObject chartObject;
 	private DataSource data;
 	private Options options;
 	private HashMap<HandlerRef, EventHandler> eventMap;
+	// Handler references returned to the caller, mapped to the listeners registered on the current chart object
+	private HashMap<HandlerRef, HandlerRef> listenerMap;
 	private boolean unloaded;
 	private boolean pending;
+	// Views redraw when their table is committed
+	private final CommitListener commitListener = new CommitListener(new CommitHandler() {
+
+		@Override
+		public void onCommit(CommitEvent event) {
+			redraw();
+		}
+	});
+	private JsArray<Selection> selection;
 
 	/**
 	 * Creates a new ChartWidget.
@@ -47,16 +76,21 @@ public abstract class ChartWidget<T extends Options> extends Widget implements R
 	public ChartWidget() {
 		super();
 		Element chartDiv = DOM.createDiv();
-		chartObject = createChartObject(chartDiv);
 		setElement(chartDiv);
 		eventMap = new HashMap<HandlerRef, EventHandler>();
+		listenerMap = new HashMap<HandlerRef, HandlerRef>();
+		if (isPackageLoaded()) {
+			chartObject = createChartObject(chartDiv);
+		}
 	}
 
 	/**
 	 * Clears the chart, and releases all of its allocated resources.
 	 */
 	public void clearChart() {
-		chartObject.clearChart();
+		if (chartObject != null) {
+			chartObject.clearChart();
+		}
 	}
 
 	/**
@@ -83,6 +117,9 @@ public abstract class ChartWidget<T extends Options> extends Widget implements R
 	public void draw(DataSource data, T options) {
 		this.data = data;
 		this.options = options;
+		if (isAttached()) {
+			commitListener.listen(data);
+		}
 		redraw();
 	}
 
@@ -92,7 +129,18 @@ public abstract class ChartWidget<T extends Options> extends Widget implements R
 	 * @param event the event object to fire
 	 */
 	public void fireEvent(Event event) {
-		chartObject.trigger(event.getEventName(), event.getProperties());
+		if (chartObject != null) {
+			chartObject.trigger(event.getEventName(), event.getProperties());
+		}
+	}
+
+	/**
+	 * Returns the package this chart belongs to, which is loaded on demand on the first draw if needed.
+	 * 
+	 * @return the chart package, or null if the package must be loaded before the chart is created
+	 */
+	public ChartPackage getChartPackage() {
+		return null;
 	}
 
 	@Override
@@ -129,7 +177,10 @@ public abstract class ChartWidget<T extends Options> extends Widget implements R
 	 */
 	public void removeAllHandlers() {
 		eventMap.clear();
-		chartObject.removeAllListeners();
+		listenerMap.clear();
+		if (chartObject != null) {
+			chartObject.removeAllListeners();
+		}
 	}
 
 	/**
@@ -139,7 +190,10 @@ public abstract class ChartWidget<T extends Options> extends Widget implements R
 	 */
 	public void removeHandler(HandlerRef handlerRef) {
 		eventMap.remove(handlerRef);
-		chartObject.removeListener(handlerRef);
+		HandlerRef listenerRef = listenerMap.remove(handlerRef);
+		if (chartObject != null && listenerRef != null) {
+			chartObject.removeListener(listenerRef);
+		}
 	}
 
 	/**
@@ -151,39 +205,125 @@ public abstract class ChartWidget<T extends Options> extends Widget implements R
 	 * @return the new handler reference. Can be used for removing by calling {@link #removeHandler(HandlerRef)}.
 	 */
 	protected final <H extends EventHandler> HandlerRef addHandler(H handler) {
-		HandlerRef handlerRef = chartObject.addListener(handler.getEventName(), handler);
+		HandlerRef handlerRef;
+		if (chartObject != null) {
+			handlerRef = chartObject.addListener(handler.getEventName(), handler);
+			listenerMap.put(handlerRef, handlerRef);
+		} else {
+			// Registered when the chart object is created
+			handlerRef = JavaScriptObject.createObject().cast();
+		}
 		eventMap.put(handlerRef, handler);
 		return handlerRef;
 	}
 
 	protected abstract ChartObject createChartObject(Element parent);
 
+	/**
+	 * Returns the chart object, failing if it doesn't exist yet. Widgets without a {@link #getChartPackage()} create
+	 * their chart object in the constructor, so it always exists for them.
+	 * 
+	 * @return the chart object
+	 * @throws IllegalStateException if the chart package is still being loaded
+	 */
+	protected ChartObject getChartObject() {
+		if (chartObject == null) {
+			throw new IllegalStateException(
+					"The chart is created once its package is loaded, draw it and wait for the ready event first");
+		}
+		return chartObject;
+	}
+
+	/**
+	 * Returns the chart selection, or the selection waiting for the first draw while the chart package is loaded.
+	 * 
+	 * @return an array of selected objects
+	 */
+	protected final JsArray<Selection> getChartSelection() {
+		if (chartObject == null) {
+			return selection != null ? selection : JavaScriptObject.createArray().<JsArray<Selection>> cast();
+		}
+		return chartObject.getSelection();
+	}
+
 	@Override
 	protected void onLoad() {
+		commitListener.listen(data);
 		if (!unloaded) {
 			return;
 		}
 		unloaded = false;
-		recreate();
+		if (chartObject != null) {
+			recreate();
+		}
 		redraw();
 	}
 
 	@Override
 	protected void onUnload() {
 		this.unloaded = true;
+		commitListener.listen(null);
 	}
 
 	protected void recreate() {
 		chartObject = createChartObject(getElement());
-		for (EventHandler eventHandler : eventMap.values()) {
-			chartObject.addListener(eventHandler.getEventName(), eventHandler);
+		listenerMap.clear();
+		for (Map.Entry<HandlerRef, EventHandler> entry : eventMap.entrySet()) {
+			EventHandler eventHandler = entry.getValue();
+			listenerMap.put(entry.getKey(), chartObject.addListener(eventHandler.getEventName(), eventHandler));
 		}
 	}
 
 	protected void redrawNow() {
+		if (chartObject == null) {
+			if (data == null) {
+				pending = false;
+				return;
+			}
+			// Queue the draw until the chart package is loaded
+			ChartLoader.loadPackage(getChartPackage(), new Runnable() {
+
+				@Override
+				public void run() {
+					if (chartObject == null) {
+						recreate();
+					}
+					redrawNow();
+				}
+			}, new ApiLoaderErrorHandler() {
+
+				@Override
+				public void onError(ApiLoaderException exception) {
+					// Next redraw tries again
+					pending = false;
+				}
+			});
+			return;
+		}
 		if (data != null) {
 			chartObject.draw(data, options);
 		}
+		if (selection != null) {
+			chartObject.setSelection(selection);
+		}
 		pending = false;
 	}
+
+	/**
+	 * Selects data entries in the chart. The selection is kept and applied again after each draw, including the first
+	 * one made once the chart package is loaded.
+	 * 
+	 * @param selection the selected objects
+	 */
+	protected final void setChartSelection(Selection... selection) {
+		this.selection = ArrayHelper.createArray(selection);
+		if (chartObject != null) {
+			chartObject.setSelection(this.selection);
+		}
+	}
+
+	private boolean isPackageLoaded() {
+		ChartPackage chartPackage = getChartPackage();
+		return chartPackage == null || ChartLoader.isLoaded(chartPackage);
+	}
 }
@@ -134,10 +134,22 @@ public class ChartWrapper<T extends Options> extends Widget implements RequiresR
 
 	/**
 	 * Draws the chart. You must call this method after any changes that you make to the chart or data to show the
-	 * changes.
+	 * changes. If the package of a known {@link ChartType} isn't loaded yet, it is loaded on demand first.
 	 */
 	public void draw() {
-		chartWrapperObject.draw();
+		ChartType chartType = ChartType.findByName(getChartType());
+		if (chartType == null || ChartLoader.isLoaded(chartType.getChartPackage())) {
+			chartWrapperObject.draw();
+			return;
+		}
+		// Failures are reported by the error event of the wrapper on the next draw
+		ChartLoader.loadPackage(chartType.getChartPackage(), new Runnable() {
+
+			@Override
+			public void run() {
+				chartWrapperObject.draw();
+			}
+		}, null);
 	}
 
 	/**
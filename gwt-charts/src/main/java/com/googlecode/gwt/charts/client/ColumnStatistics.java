@@ -0,0 +1,280 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+import com.google.gwt.core.client.JsArrayNumber;
+import com.google.gwt.core.client.JsArrayString;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Statistics of a single DataTable column, kept up to date by {@link DataTableStatistics}. Number, date and datetime
+ * columns have a minimum, maximum and sum, date values in milliseconds since the epoch. Distinct values are tracked
+ * while there are few of them, for number, date, datetime and string columns.<br>
+ * All getters are constant time, except after removing the current minimum or maximum, when the next call to
+ * {@link #getMin()} or {@link #getMax()} rescans the column.
+ */
+public class ColumnStatistics {
+	private final DataTable dataTable;
+	private final int columnIndex;
+	private final ColumnType type;
+	private final boolean numeric;
+	private final int distinctLimit;
+	private int count;
+	private int nullCount;
+	private double sum;
+	private double min;
+	private double max;
+	private boolean rangeValid;
+	private Map<Object, Integer> distinct;
+
+	ColumnStatistics(DataTable dataTable, int columnIndex, int distinctLimit) {
+		this.dataTable = dataTable;
+		this.columnIndex = columnIndex;
+		this.distinctLimit = distinctLimit;
+		type = dataTable.getColumnType(columnIndex);
+		numeric = type == ColumnType.NUMBER || type == ColumnType.DATE || type == ColumnType.DATETIME;
+		if (!numeric && type != ColumnType.STRING) {
+			throw new IllegalArgumentException("Statistics are not supported for " + type.getName() + " columns");
+		}
+		rescan();
+	}
+
+	/**
+	 * Returns the index of the column.
+	 * 
+	 * @return the column index
+	 */
+	public int getColumnIndex() {
+		return columnIndex;
+	}
+
+	/**
+	 * Returns the number of non null values.
+	 * 
+	 * @return the number of values
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the distinct non null values of the column, as Double values for number, date and datetime columns and
+	 * String values for string columns.
+	 * 
+	 * @return the distinct values, or null if there are more than the distinct values limit
+	 */
+	public Set<Object> getDistinctValues() {
+		return distinct == null ? null : Collections.unmodifiableSet(distinct.keySet());
+	}
+
+	/**
+	 * Returns the largest value of a number, date or datetime column.
+	 * 
+	 * @return the largest value, or NaN if there are no values
+	 */
+	public double getMax() {
+		checkRange();
+		return max;
+	}
+
+	/**
+	 * Returns the mean value of a number, date or datetime column.
+	 * 
+	 * @return the mean value, or NaN if there are no values
+	 */
+	public double getMean() {
+		return numeric && count > 0 ? sum / count : Double.NaN;
+	}
+
+	/**
+	 * Returns the smallest value of a number, date or datetime column.
+	 * 
+	 * @return the smallest value, or NaN if there are no values
+	 */
+	public double getMin() {
+		checkRange();
+		return min;
+	}
+
+	/**
+	 * Returns the number of null values.
+	 * 
+	 * @return the number of null values
+	 */
+	public int getNullCount() {
+		return nullCount;
+	}
+
+	/**
+	 * Returns the sum of the values of a number, date or datetime column.
+	 * 
+	 * @return the sum, or NaN for string columns
+	 */
+	public double getSum() {
+		return numeric ? sum : Double.NaN;
+	}
+
+	/**
+	 * Checks whether distinct values are still tracked, that is whether there are no more than the distinct values
+	 * limit.
+	 * 
+	 * @return true if {@link #getDistinctValues()} is available
+	 */
+	public boolean isDistinctTracked() {
+		return distinct != null;
+	}
+
+	void add(int fromRow, int toRow) {
+		if (numeric) {
+			JsArrayNumber values = readNumbers(fromRow, toRow);
+			for (int i = 0; i < values.length(); i++) {
+				addNumber(values.get(i));
+			}
+		} else {
+			JsArrayString values = dataTable.getColumnStrings(columnIndex, fromRow, toRow);
+			for (int i = 0; i < values.length(); i++) {
+				addValue(values.get(i));
+			}
+		}
+	}
+
+	void remove(int fromRow, int toRow) {
+		if (numeric) {
+			JsArrayNumber values = readNumbers(fromRow, toRow);
+			for (int i = 0; i < values.length(); i++) {
+				removeNumber(values.get(i));
+			}
+		} else {
+			JsArrayString values = dataTable.getColumnStrings(columnIndex, fromRow, toRow);
+			for (int i = 0; i < values.length(); i++) {
+				removeValue(values.get(i));
+			}
+		}
+	}
+
+	void rescan() {
+		count = 0;
+		nullCount = 0;
+		sum = 0;
+		min = Double.NaN;
+		max = Double.NaN;
+		rangeValid = true;
+		distinct = new HashMap<Object, Integer>();
+		add(0, dataTable.getNumberOfRows() - 1);
+	}
+
+	private void addNumber(double value) {
+		if (Double.isNaN(value)) {
+			nullCount++;
+			return;
+		}
+		count++;
+		sum += value;
+		if (rangeValid) {
+			if (Double.isNaN(min) || value < min) {
+				min = value;
+			}
+			if (Double.isNaN(max) || value > max) {
+				max = value;
+			}
+		}
+		addDistinct(value);
+	}
+
+	private void addDistinct(Object value) {
+		if (distinct == null) {
+			return;
+		}
+		Integer occurrences = distinct.get(value);
+		distinct.put(value, occurrences == null ? 1 : occurrences + 1);
+		if (distinct.size() > distinctLimit) {
+			// Too many to be useful, stop tracking until the next rescan
+			distinct = null;
+		}
+	}
+
+	private void addValue(String value) {
+		if (value == null) {
+			nullCount++;
+			return;
+		}
+		count++;
+		addDistinct(value);
+	}
+
+	private void checkRange() {
+		if (rangeValid) {
+			return;
+		}
+		min = Double.NaN;
+		max = Double.NaN;
+		JsArrayNumber values = readNumbers(0, dataTable.getNumberOfRows() - 1);
+		for (int i = 0; i < values.length(); i++) {
+			double value = values.get(i);
+			if (!Double.isNaN(value)) {
+				if (Double.isNaN(min) || value < min) {
+					min = value;
+				}
+				if (Double.isNaN(max) || value > max) {
+					max = value;
+				}
+			}
+		}
+		rangeValid = true;
+	}
+
+	private JsArrayNumber readNumbers(int fromRow, int toRow) {
+		if (type == ColumnType.NUMBER) {
+			return dataTable.getColumnNumbers(columnIndex, fromRow, toRow);
+		}
+		return dataTable.getColumnMillis(columnIndex, fromRow, toRow);
+	}
+
+	private void removeDistinct(Object value) {
+		if (distinct == null) {
+			return;
+		}
+		Integer occurrences = distinct.get(value);
+		if (occurrences == null || occurrences <= 1) {
+			distinct.remove(value);
+		} else {
+			distinct.put(value, occurrences - 1);
+		}
+	}
+
+	private void removeNumber(double value) {
+		if (Double.isNaN(value)) {
+			nullCount--;
+			return;
+		}
+		count--;
+		sum -= value;
+		if (value == min || value == max) {
+			rangeValid = false;
+		}
+		removeDistinct(value);
+	}
+
+	private void removeValue(String value) {
+		if (value == null) {
+			nullCount--;
+			return;
+		}
+		count--;
+		removeDistinct(value);
+	}
+}
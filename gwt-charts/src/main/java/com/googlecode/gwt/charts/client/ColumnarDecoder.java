@@ -0,0 +1,210 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsonUtils;
+
+/**
+ * Decodes the compact columnar payloads written by <code>com.googlecode.gwt.charts.server.ColumnarEncoder</code>, from
+ * the gwt-charts-server module. Float64 and delta blocks are decoded straight from base64 into typed arrays, without
+ * parsing a number per cell, and string columns are expanded from their dictionary.<br>
+ * The result is either a DataTable, built in a single pass, or a {@link TypedArrayTable} that keeps the decoded buffers
+ * as they are for reading from application code. A TypedArrayTable is read-only and can't be drawn: charts need the
+ * DataTable copy made by {@link TypedArrayTable#toDataTable()}, so decode straight into a DataTable for data that is
+ * drawn in full.
+ * The browser must support typed arrays.
+ */
+public class ColumnarDecoder {
+
+	/**
+	 * Decodes a parsed payload into a DataTable, with its formatted values and properties.
+	 * 
+	 * @param payload the parsed payload
+	 * @return a new DataTable
+	 */
+	public static DataTable decode(JavaScriptObject payload) {
+		JavaScriptObject columns = decodeColumns(payload);
+		if (columns == null) {
+			throw new IllegalArgumentException("Not a valid columnar payload");
+		}
+		return DataTable.create(toDataLiteral(columns));
+	}
+
+	/**
+	 * Decodes a payload into a DataTable, with its formatted values and properties.
+	 * 
+	 * @param payload the payload text
+	 * @return a new DataTable
+	 */
+	public static DataTable decode(String payload) {
+		return decode(JsonUtils.safeEval(payload));
+	}
+
+	/**
+	 * Decodes a parsed payload into a typed array backed table, for reading from application code. Only number, date,
+	 * datetime and string columns are supported, and formatted values and properties are left out.
+	 * 
+	 * @param payload the parsed payload
+	 * @return a new table
+	 */
+	public static TypedArrayTable decodeTypedArrayTable(JavaScriptObject payload) {
+		JavaScriptObject columns = decodeColumns(payload);
+		if (columns == null) {
+			throw new IllegalArgumentException("Not a valid columnar payload");
+		}
+		TypedArrayTable table = toTypedArrayTable(columns);
+		if (table == null) {
+			throw new IllegalArgumentException("Typed array tables can't hold boolean or time of day columns");
+		}
+		return table;
+	}
+
+	/**
+	 * Decodes a payload into a typed array backed table. Only number, date, datetime and string columns are supported,
+	 * and formatted values and properties are left out.
+	 * 
+	 * @param payload the payload text
+	 * @return a new table
+	 */
+	public static TypedArrayTable decodeTypedArrayTable(String payload) {
+		return decodeTypedArrayTable(JsonUtils.safeEval(payload));
+	}
+
+	static native JavaScriptObject decodeColumns(JavaScriptObject payload) /*-{
+		var columns = @com.googlecode.gwt.charts.client.ColumnarDecoder::startColumns(Lcom/google/gwt/core/client/JavaScriptObject;)(payload);
+		if (columns == null) {
+			return null;
+		}
+		while (columns.cols.length < payload.cols.length) {
+			if (!@com.googlecode.gwt.charts.client.ColumnarDecoder::decodeNextColumn(Lcom/google/gwt/core/client/JavaScriptObject;Lcom/google/gwt/core/client/JavaScriptObject;)(payload, columns)) {
+				return null;
+			}
+		}
+		return columns;
+	}-*/;
+
+	/**
+	 * Decodes the next column of a payload into the columns returned by {@link #startColumns(JavaScriptObject)}, so
+	 * that large payloads can be decoded a column at a time. Returns false if the column data doesn't match the number
+	 * of rows or its encoding is unknown.
+	 */
+	static native boolean decodeNextColumn(JavaScriptObject payload, JavaScriptObject columns) /*-{
+		var rowCount = payload.rows;
+		var littleEndian = new $wnd.Uint8Array(new $wnd.Uint16Array([ 1 ]).buffer)[0] == 1;
+		var bytes = function(base64, size) {
+			var text = $wnd.atob(base64);
+			if (text.length != rowCount * size) {
+				return null;
+			}
+			var array = new $wnd.Uint8Array(text.length);
+			for (var i = 0; i < text.length; i++) {
+				array[i] = text.charCodeAt(i);
+			}
+			return array.buffer;
+		};
+		var col = payload.cols[columns.cols.length];
+		var data = null;
+		var buffer, view, i;
+		if (col.enc == 'f64') {
+			buffer = bytes(col.data, 8);
+			if (buffer && littleEndian) {
+				data = new $wnd.Float64Array(buffer);
+			} else if (buffer) {
+				view = new $wnd.DataView(buffer);
+				data = new $wnd.Float64Array(rowCount);
+				for (i = 0; i < rowCount; i++) {
+					data[i] = view.getFloat64(i * 8, true);
+				}
+			}
+		} else if (col.enc == 'delta') {
+			buffer = bytes(col.data, 4);
+			if (buffer) {
+				view = new $wnd.DataView(buffer);
+				data = new $wnd.Float64Array(rowCount);
+				var value = col.start;
+				for (i = 0; i < rowCount; i++) {
+					value += view.getInt32(i * 4, true);
+					data[i] = value;
+				}
+			}
+		} else if (col.enc == 'dict' && col.data.length == rowCount) {
+			data = new Array(rowCount);
+			for (i = 0; i < rowCount; i++) {
+				var key = col.data[i];
+				data[i] = key < 0 ? null : col.dict[key];
+			}
+		}
+		if (data == null) {
+			return false;
+		}
+		var column = {
+			type : col.type
+		};
+		var names = [ 'label', 'id', 'role', 'pattern', 'p' ];
+		for (var k = 0; k < names.length; k++) {
+			if (col[names[k]] != null) {
+				column[names[k]] = col[names[k]];
+			}
+		}
+		columns.cols.push(column);
+		columns.values.push(data);
+		columns.f.push(col.f || null);
+		columns.cp.push(col.cp || null);
+		return true;
+	}-*/;
+
+	/**
+	 * Returns true once all the columns of a payload were decoded by {@link #decodeNextColumn}.
+	 */
+	static native boolean isDecoded(JavaScriptObject payload, JavaScriptObject columns) /*-{
+		return columns.cols.length == payload.cols.length;
+	}-*/;
+
+	/**
+	 * Returns the columns of a payload with none decoded yet, or null if the payload is not in the columnar format.
+	 */
+	static native JavaScriptObject startColumns(JavaScriptObject payload) /*-{
+		if (!payload || payload.format != 'columnar' || payload.version != 1) {
+			return null;
+		}
+		return {
+			rows : payload.rows,
+			p : payload.p,
+			cols : [],
+			values : [],
+			f : [],
+			cp : []
+		};
+	}-*/;
+
+	private static native DataLiteral toDataLiteral(JavaScriptObject columns) /*-{
+		var literal = @com.googlecode.gwt.charts.client.DataTableBuilder::assemble(Lcom/google/gwt/core/client/JsArray;Lcom/google/gwt/core/client/JsArray;Lcom/google/gwt/core/client/JsArray;Lcom/google/gwt/core/client/JsArray;I)(columns.cols, columns.values, columns.f, columns.cp, columns.rows);
+		if (columns.p) {
+			literal.p = columns.p;
+		}
+		return literal;
+	}-*/;
+
+	private static native TypedArrayTable toTypedArrayTable(JavaScriptObject columns) /*-{
+		var table = @com.googlecode.gwt.charts.client.TypedArrayTable::create(I)(columns.rows);
+		for (var j = 0; j < columns.cols.length; j++) {
+			var type = columns.cols[j].type;
+			if (type != 'number' && type != 'date' && type != 'datetime' && type != 'string') {
+				return null;
+			}
+			table.addColumn(type, columns.cols[j].label, columns.values[j]);
+		}
+		return table;
+	}-*/;
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+import com.googlecode.gwt.charts.client.event.CommitHandler;
+import com.googlecode.gwt.charts.client.event.HandlerRef;
+
+/**
+ * Keeps a commit handler registered on the table underlying the data drawn by a widget, so that views redraw when
+ * their table is committed through a {@link DataTableBatch}. The handler moves along when the widget draws data from
+ * another table.
+ */
+public class CommitListener {
+	private final CommitHandler handler;
+	private DataTable dataTable;
+	private HandlerRef handlerRef;
+
+	/**
+	 * Creates a listener, not registered on any table yet.
+	 * 
+	 * @param handler the handler to call on each commit
+	 */
+	public CommitListener(CommitHandler handler) {
+		this.handler = handler;
+	}
+
+	/**
+	 * Registers the handler on the table underlying the given data, removing it from the previous table if that is a
+	 * different one.
+	 * 
+	 * @param dataSource the drawn data, or null to remove the handler
+	 */
+	public void listen(DataSource dataSource) {
+		DataTable table = dataSource != null ? dataSource.getUnderlyingTable() : null;
+		if (table == dataTable) {
+			return;
+		}
+		if (handlerRef != null) {
+			dataTable.removeHandler(handlerRef);
+			handlerRef = null;
+		}
+		dataTable = table;
+		if (table != null) {
+			handlerRef = table.addCommitHandler(handler);
+		}
+	}
+}
@@ -59,6 +59,92 @@ public class DataSource extends JavaScriptObject {
 		return this.getColumnLabel(columnIndex);
 	}-*/;
 
+	/**
+	 * Returns the values of a date or datetime column as milliseconds since the epoch, read in a single pass without
+	 * creating java Date objects. Values of a timeofday column are returned as milliseconds since midnight. Null cells
+	 * are returned as NaN.
+	 * 
+	 * @param columnIndex the column position
+	 * @return the column values, one per row
+	 */
+	public final JsArrayNumber getColumnMillis(int columnIndex) {
+		return getColumnMillis(columnIndex, 0, getNumberOfRows() - 1);
+	}
+
+	/**
+	 * Returns the values of a date or datetime column for a range of rows as milliseconds since the epoch, read in a
+	 * single pass without creating java Date objects. Values of a timeofday column are returned as milliseconds since
+	 * midnight. Null cells are returned as NaN.
+	 * 
+	 * @param columnIndex the column position
+	 * @param fromRow the first row to read
+	 * @param toRow the last row to read, inclusive
+	 * @return the column values, one per row
+	 */
+	public final native JsArrayNumber getColumnMillis(int columnIndex, int fromRow, int toRow) /*-{
+		var millis = new Array(Math.max(toRow - fromRow + 1, 0));
+		for (var i = fromRow; i <= toRow; i++) {
+			var v = this.getValue(i, columnIndex);
+			// Time of day values are [hours, minutes, seconds, milliseconds] arrays
+			millis[i - fromRow] = v == null ? NaN : v.getTime ? v.getTime()
+					: ((v[0] * 60 + v[1]) * 60 + v[2]) * 1000 + (v[3] || 0);
+		}
+		return millis;
+	}-*/;
+
+	/**
+	 * Returns which cells of a column are null, read in a single pass.
+	 * 
+	 * @param columnIndex the column position
+	 * @return true for each null cell, one per row
+	 */
+	public final JsArrayBoolean getColumnNulls(int columnIndex) {
+		return getColumnNulls(columnIndex, 0, getNumberOfRows() - 1);
+	}
+
+	/**
+	 * Returns which cells of a column are null for a range of rows, read in a single pass.
+	 * 
+	 * @param columnIndex the column position
+	 * @param fromRow the first row to read
+	 * @param toRow the last row to read, inclusive
+	 * @return true for each null cell, one per row
+	 */
+	public final native JsArrayBoolean getColumnNulls(int columnIndex, int fromRow, int toRow) /*-{
+		var nulls = new Array(Math.max(toRow - fromRow + 1, 0));
+		for (var i = fromRow; i <= toRow; i++) {
+			nulls[i - fromRow] = this.getValue(i, columnIndex) == null;
+		}
+		return nulls;
+	}-*/;
+
+	/**
+	 * Returns the values of a number column, read in a single pass. Null cells are returned as NaN.
+	 * 
+	 * @param columnIndex the column position
+	 * @return the column values, one per row
+	 */
+	public final JsArrayNumber getColumnNumbers(int columnIndex) {
+		return getColumnNumbers(columnIndex, 0, getNumberOfRows() - 1);
+	}
+
+	/**
+	 * Returns the values of a number column for a range of rows, read in a single pass. Null cells are returned as NaN.
+	 * 
+	 * @param columnIndex the column position
+	 * @param fromRow the first row to read
+	 * @param toRow the last row to read, inclusive
+	 * @return the column values, one per row
+	 */
+	public final native JsArrayNumber getColumnNumbers(int columnIndex, int fromRow, int toRow) /*-{
+		var numbers = new Array(Math.max(toRow - fromRow + 1, 0));
+		for (var i = fromRow; i <= toRow; i++) {
+			var v = this.getValue(i, columnIndex);
+			numbers[i - fromRow] = v == null ? NaN : v;
+		}
+		return numbers;
+	}-*/;
+
 	/**
 	 * Returns the formatting pattern used to format the values of the specified column. columnIndex should be a number
 	 * greater than or equal to zero, and less than the number of columns as returned by the getNumberOfColumns()
@@ -177,6 +263,32 @@ public class DataSource extends JavaScriptObject {
 		return RoleType.findByName(getColumnRoleString(columnIndex));
 	}
 
+	/**
+	 * Returns the values of a string column, read in a single pass.
+	 * 
+	 * @param columnIndex the column position
+	 * @return the column values, one per row
+	 */
+	public final JsArrayString getColumnStrings(int columnIndex) {
+		return getColumnStrings(columnIndex, 0, getNumberOfRows() - 1);
+	}
+
+	/**
+	 * Returns the values of a string column for a range of rows, read in a single pass.
+	 * 
+	 * @param columnIndex the column position
+	 * @param fromRow the first row to read
+	 * @param toRow the last row to read, inclusive
+	 * @return the column values, one per row
+	 */
+	public final native JsArrayString getColumnStrings(int columnIndex, int fromRow, int toRow) /*-{
+		var strings = new Array(Math.max(toRow - fromRow + 1, 0));
+		for (var i = fromRow; i <= toRow; i++) {
+			strings[i - fromRow] = this.getValue(i, columnIndex);
+		}
+		return strings;
+	}-*/;
+
 	/**
 	 * Returns the type of a given column specified by the column index. columnIndex should be a number greater than or
 	 * equal to zero, and less than the number of columns as returned by the getNumberOfColumns() method.
@@ -277,6 +389,32 @@ public class DataSource extends JavaScriptObject {
 		return this.getFormattedValue(rowIndex, columnIndex);
 	}-*/;
 
+	/**
+	 * Returns the formatted values of a column, read in a single pass.
+	 * 
+	 * @param columnIndex the column position
+	 * @return the formatted values, one per row
+	 */
+	public final JsArrayString getFormattedValues(int columnIndex) {
+		return getFormattedValues(columnIndex, 0, getNumberOfRows() - 1);
+	}
+
+	/**
+	 * Returns the formatted values of a column for a range of rows, read in a single pass.
+	 * 
+	 * @param columnIndex the column position
+	 * @param fromRow the first row to read
+	 * @param toRow the last row to read, inclusive
+	 * @return the formatted values, one per row
+	 */
+	public final native JsArrayString getFormattedValues(int columnIndex, int fromRow, int toRow) /*-{
+		var formattedValues = new Array(Math.max(toRow - fromRow + 1, 0));
+		for (var i = fromRow; i <= toRow; i++) {
+			formattedValues[i - fromRow] = this.getFormattedValue(i, columnIndex);
+		}
+		return formattedValues;
+	}-*/;
+
 	/**
 	 * Returns the number of columns in the table.
 	 * 
@@ -495,6 +633,19 @@ public class DataSource extends JavaScriptObject {
 		return this.getTableProperty(name);
 	}-*/;
 
+	/**
+	 * Returns the table holding the data: the table itself, or the table at the root of a view created with
+	 * {@link DataView#create(DataSource)} or {@link DataView#createFromJson(DataSource, String)}.
+	 * 
+	 * @return the underlying table, or null if it is unknown
+	 */
+	public final native DataTable getUnderlyingTable() /*-{
+		if (this instanceof $wnd.google.visualization.DataTable) {
+			return this;
+		}
+		return this.__gwtChartsTable || null;
+	}-*/;
+
 	/**
 	 * Returns the value of the cell at the given row and column indexes.
 	 * 
@@ -518,6 +669,20 @@ public class DataSource extends JavaScriptObject {
 		return DateHelper.getDate(jsDate);
 	}
 
+	/**
+	 * Returns the value of a date or datetime cell as milliseconds since the epoch, without creating a java Date.
+	 * The value of a timeofday cell is returned as milliseconds since midnight.
+	 * 
+	 * @param rowIndex should be a number greater than or equal to zero, and less than the number of rows
+	 * @param columnIndex should be a number greater than or equal to zero, and less than the number of columns
+	 * @return value of the specified cell, or NaN if the cell is null
+	 */
+	public final native double getValueMillis(int rowIndex, int columnIndex) /*-{
+		var v = this.getValue(rowIndex, columnIndex);
+		// Time of day values are [hours, minutes, seconds, milliseconds] arrays
+		return v == null ? NaN : v.getTime ? v.getTime() : ((v[0] * 60 + v[1]) * 60 + v[2]) * 1000 + (v[3] || 0);
+	}-*/;
+
 	/**
 	 * Returns the value of the cell at the given row and column indexes.
 	 * 
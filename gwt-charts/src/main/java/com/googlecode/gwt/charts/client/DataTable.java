@@ -16,9 +16,14 @@ import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.core.client.JsArray;
 import com.google.gwt.core.client.JsArrayInteger;
 import com.google.gwt.core.client.JsArrayMixed;
+import com.google.gwt.core.client.JsArrayNumber;
+import com.google.gwt.core.client.JsArrayUtils;
 
+import com.googlecode.gwt.charts.client.event.CommitHandler;
+import com.googlecode.gwt.charts.client.event.HandlerRef;
 import com.googlecode.gwt.charts.client.util.ArrayHelper;
 import com.googlecode.gwt.charts.client.util.DateHelper;
+import com.googlecode.gwt.charts.shared.ColumnarTable;
 
 import java.util.Date;
 
@@ -45,6 +50,16 @@ public class DataTable extends DataSource {
 		return new $wnd.google.visualization.DataTable();
 	}-*/;
 
+	/**
+	 * Creates a DataTable holding the data of a columnar table, converted in a single pass.
+	 * 
+	 * @param columnarTable a table built in java, possibly on the server
+	 * @return an object used to hold the data passed into a visualization.
+	 */
+	public static DataTable create(ColumnarTable columnarTable) {
+		return new DataTableBuilder(columnarTable).build();
+	}
+
 	/**
 	 * Creates a DataTable object used to hold the data passed into a visualization.
 	 * 
@@ -138,6 +153,19 @@ public class DataTable extends DataSource {
 		return this.addColumn(dataColumn);
 	}-*/;
 
+	/**
+	 * Adds a handler for the commit event, fired after the changes of a {@link DataTableBatch} are applied.
+	 * 
+	 * @param handler the commit handler
+	 * @return a reference for removing this handler with {@link #removeHandler(HandlerRef)}
+	 */
+	public final native HandlerRef addCommitHandler(CommitHandler handler) /*-{
+		var callback = function(properties) {
+			handler.@com.googlecode.gwt.charts.client.event.EventHandler::dispatch(Lcom/googlecode/gwt/charts/client/Properties;)(properties);
+		};
+		return $wnd.google.visualization.events.addListener(this, 'commit', callback);
+	}-*/;
+
 	/**
 	 * Adds a new, empty row to the end of the table.
 	 * 
@@ -194,6 +222,63 @@ public class DataTable extends DataSource {
 		return this.addRows(rowArray);
 	}-*/;
 
+	/**
+	 * Adds new rows of numbers to the data table. Each inner array holds the values of one row, one per column, and is
+	 * handed to the table without boxing or per-cell type checks. NaN values are stored as null cells.
+	 * 
+	 * @param rows the values of the new rows
+	 * @return the index of the last added row
+	 */
+	public final int addRows(double[][] rows) {
+		return addRows(ArrayHelper.nullifyNaN(ArrayHelper.createArray(rows)));
+	}
+
+	/**
+	 * Adds new rows to a data table whose first column is a date or datetime column and whose remaining columns are
+	 * numbers, as is usual for time series. Both arrays are handed to the table without conversion in compiled mode.
+	 * NaN values are stored as null cells.
+	 * 
+	 * @param xMillis the first column values, in milliseconds since the epoch
+	 * @param ys the values of the remaining columns, one array per row
+	 * @return the index of the last added row
+	 */
+	public final int addRows(double[] xMillis, double[][] ys) {
+		if (xMillis.length != ys.length) {
+			throw new IllegalArgumentException("Got " + xMillis.length + " x values and " + ys.length + " rows");
+		}
+		return addRows(JsArrayUtils.readOnlyJsArray(xMillis), ArrayHelper.createArray(ys));
+	}
+
+	/**
+	 * Adds new rows to a data table whose first column is a date or datetime column and whose remaining columns are
+	 * numbers, as is usual for time series. NaN values are stored as null cells. Each long value is converted in java,
+	 * so {@link #addRows(double[], double[][])} is faster for large tables.
+	 * 
+	 * @param xMillis the first column values, in milliseconds since the epoch
+	 * @param ys the values of the remaining columns, one array per row
+	 * @return the index of the last added row
+	 */
+	public final int addRows(long[] xMillis, double[][] ys) {
+		if (xMillis.length != ys.length) {
+			throw new IllegalArgumentException("Got " + xMillis.length + " x values and " + ys.length + " rows");
+		}
+		JsArrayNumber jsMillis = JavaScriptObject.createArray().cast();
+		for (int i = 0; i < xMillis.length; i++) {
+			jsMillis.set(i, xMillis[i]);
+		}
+		return addRows(jsMillis, ArrayHelper.createArray(ys));
+	}
+
+	/**
+	 * Starts recording changes to be applied to this table all at once. Charts and dashboards drawing this table are
+	 * redrawn once when the batch is committed.
+	 * 
+	 * @return a new batch
+	 */
+	public final DataTableBatch beginBatch() {
+		return new DataTableBatch(this);
+	}
+
 	/**
 	 * Returns a clone of the data table. The result is a deep copy of the data table except for the cell properties,
 	 * row properties, table properties and column properties, which are shallow copies; this means that non-primitive
@@ -205,6 +290,16 @@ public class DataTable extends DataSource {
 		return this.clone();
 	}-*/;
 
+	/**
+	 * Creates a writer that appends rows to this table, checking each value against the column types of the table as
+	 * they are when the writer is created.
+	 * 
+	 * @return a new row writer
+	 */
+	public final DataTableRowWriter createRowWriter() {
+		return new DataTableRowWriter(this);
+	}
+
 	/**
 	 * Returns a sorted version of the table without modifying the order of the underlying data. To permanently sort the
 	 * underlying data, call sort().
@@ -350,6 +445,15 @@ public class DataTable extends DataSource {
 		this.removeColumns(columnIndex, numberOfColumns);
 	}-*/;
 
+	/**
+	 * Removes a handler added to this table.
+	 * 
+	 * @param handlerRef the reference returned when the handler was added
+	 */
+	public final native void removeHandler(HandlerRef handlerRef) /*-{
+		$wnd.google.visualization.events.removeListener(handlerRef);
+	}-*/;
+
 	/**
 	 * Removes the row at the specified index.
 	 * 
@@ -563,6 +667,19 @@ public class DataTable extends DataSource {
 		this.setCell(rowIndex, columnIndex, value, formattedValue, properties);
 	}-*/;
 
+	/**
+	 * Sets the value and formatted value of a date or datetime cell from milliseconds since the epoch, without creating a
+	 * java Date.
+	 * 
+	 * @param rowIndex should be a number with a valid row index.
+	 * @param columnIndex should be a number greater than or equal to zero, and less than the number of columns
+	 * @param millis the value assigned to the specified cell, or NaN for a null value
+	 * @param formattedValue is a string with the value formatted as a string, or null
+	 */
+	public final native void setCellMillis(int rowIndex, int columnIndex, double millis, String formattedValue) /*-{
+		this.setCell(rowIndex, columnIndex, millis !== millis ? null : new Date(millis), formattedValue);
+	}-*/;
+
 	/**
 	 * Set the value of a cell to null.
 	 * 
@@ -589,6 +706,33 @@ public class DataTable extends DataSource {
 		this.setColumnLabel(columnIndex, label);
 	}-*/;
 
+	/**
+	 * Sets the values of a date or datetime column from milliseconds since the epoch, starting at the first row, in a
+	 * single pass. Rows are added to the table when there are more values than rows.
+	 * 
+	 * @param columnIndex should be a number greater than or equal to zero, and less than the number of columns
+	 * @param millis the column values, NaN for null values
+	 */
+	public final void setColumnMillis(int columnIndex, double[] millis) {
+		setColumnMillis(columnIndex, JsArrayUtils.readOnlyJsArray(millis));
+	}
+
+	/**
+	 * Sets the values of a date or datetime column from milliseconds since the epoch, starting at the first row, in a
+	 * single pass. Rows are added to the table when there are more values than rows. Each long value is converted in
+	 * java, so {@link #setColumnMillis(int, double[])} is faster for large tables.
+	 * 
+	 * @param columnIndex should be a number greater than or equal to zero, and less than the number of columns
+	 * @param millis the column values
+	 */
+	public final void setColumnMillis(int columnIndex, long[] millis) {
+		JsArrayNumber jsMillis = JavaScriptObject.createArray().cast();
+		for (int i = 0; i < millis.length; i++) {
+			jsMillis.set(i, millis[i]);
+		}
+		setColumnMillis(columnIndex, jsMillis);
+	}
+
 	/**
 	 * Sets multiple cell properties. Some visualizations support row, column, or cell properties to modify their
 	 * display or behavior; see the visualization documentation to see what properties are supported.
@@ -993,6 +1137,19 @@ public class DataTable extends DataSource {
 		this.setValue(rowIndex, columnIndex, value);
 	}-*/;
 
+	/**
+	 * Sets the value of a date or datetime cell from milliseconds since the epoch, without creating a java Date. In
+	 * addition to overwriting any existing cell value, this method will also clear out any formatted value and
+	 * properties for the cell.
+	 * 
+	 * @param rowIndex should be a number greater than or equal to zero, and less than the number of rows
+	 * @param columnIndex should be a number greater than or equal to zero, and less than the number of columns
+	 * @param millis the value assigned to the specified cell, or NaN for a null value
+	 */
+	public final native void setValueMillis(int rowIndex, int columnIndex, double millis) /*-{
+		this.setValue(rowIndex, columnIndex, millis !== millis ? null : new Date(millis));
+	}-*/;
+
 	/**
 	 * Sets the value of a cell. In addition to overwriting any existing cell value, this method will also clear out any
 	 * formatted value and properties for the cell.
@@ -1067,6 +1224,19 @@ public class DataTable extends DataSource {
 		return this.addColumn(type, label, id);
 	}-*/;
 
+	private final native int addRows(JsArrayNumber xMillis, JsArray<JsArrayNumber> ys) /*-{
+		var rows = new Array(xMillis.length);
+		for (var i = 0; i < rows.length; i++) {
+			var row = [ new Date(xMillis[i]) ];
+			var y = ys[i];
+			for (var j = 0; j < y.length; j++) {
+				row.push(y[j] !== y[j] ? null : y[j]);
+			}
+			rows[i] = row;
+		}
+		return this.addRows(rows);
+	}-*/;
+
 	private final native void insertColumn(int columnIndex, String type) /*-{
 		this.insertColumn(columnIndex, type);
 	}-*/;
@@ -1092,6 +1262,17 @@ public class DataTable extends DataSource {
 		this.setCell(rowIndex, columnIndex, value, formattedValue, properties);
 	}-*/;
 
+	private final native void setColumnMillis(int columnIndex, JsArrayNumber millis) /*-{
+		var missing = millis.length - this.getNumberOfRows();
+		if (missing > 0) {
+			this.addRows(missing);
+		}
+		for (var i = 0; i < millis.length; i++) {
+			var v = millis[i];
+			this.setValue(i, columnIndex, v == null || v !== v ? null : new Date(v));
+		}
+	}-*/;
+
 	private final native void setValue(int rowIndex, int columnIndex, JavaScriptObject value) /*-{
 		this.setValue(rowIndex, columnIndex, value);
 	}-*/;
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayMixed;
+
+/**
+ * Records changes to the cells of a {@link DataTable} and applies them all in a single native pass when
+ * {@link #commit()} is called. After applying the changes the table fires a
+ * {@link com.googlecode.gwt.charts.client.event.CommitEvent}, which chart widgets and dashboards drawing the table use
+ * to redraw once per commit instead of once per change.<br>
+ * Changes are applied in the order they were recorded. The batch can be reused after a commit.
+ * 
+ * @see DataTable#beginBatch()
+ */
+public class DataTableBatch {
+	private static final int SET_VALUE = 0;
+	private static final int SET_CELL = 1;
+	private static final int SET_FORMATTED_VALUE = 2;
+	private static final int SET_PROPERTY = 3;
+	private static final int SET_VALUE_MILLIS = 4;
+	private static final int SET_CELL_MILLIS = 5;
+	// Each change takes five entries: operation, row index, column index, value and formatted value or property name
+	private static final int STRIDE = 5;
+
+	private final DataTable dataTable;
+	private JsArrayMixed changes;
+
+	DataTableBatch(DataTable dataTable) {
+		this.dataTable = dataTable;
+		changes = JavaScriptObject.createArray().cast();
+	}
+
+	/**
+	 * Discards all the changes recorded since the last commit.
+	 */
+	public void clear() {
+		changes = JavaScriptObject.createArray().cast();
+	}
+
+	/**
+	 * Applies all the recorded changes to the table and fires a commit event, even if there were no changes.
+	 */
+	public void commit() {
+		JsArrayMixed committed = changes;
+		changes = JavaScriptObject.createArray().cast();
+		apply(dataTable, committed, STRIDE);
+	}
+
+	/**
+	 * Returns the number of changes recorded since the last commit.
+	 * 
+	 * @return the number of pending changes
+	 */
+	public int getSize() {
+		return changes.length() / STRIDE;
+	}
+
+	/**
+	 * Records a change to the value and formatted value of a cell.
+	 * 
+	 * @param rowIndex should be a number with a valid row index.
+	 * @param columnIndex should be a number greater than or equal to zero, and less than the number of columns
+	 * @param value the value assigned to the specified cell
+	 * @param formattedValue is a string with the value formatted as a string
+	 * @return this batch
+	 */
+	public DataTableBatch setCell(int rowIndex, int columnIndex, boolean value, String formattedValue) {
+		record(SET_CELL, rowIndex, columnIndex);
+		changes.push(value);
+		changes.push(formattedValue);
+		return this;
+	}
+
+	/**
+	 * Records a change to the value and formatted value of a cell.
+	 * 
+	 * @param rowIndex should be a number with a valid row index.
+	 * @param columnIndex should be a number greater than or equal to zero, and less than the number of columns
+	 * @param value the value assigned to the specified cell
+	 * @param formattedValue is a string with the value formatted as a string
+	 * @return this batch
+	 */
+	public DataTableBatch setCell(int rowIndex, int columnIndex, double value, String formattedValue) {
+		record(SET_CELL, rowIndex, columnIndex);
+		changes.push(value);
+		changes.push(formattedValue);
+		return this;
+	}
+
+	/**
+	 * Records a change to the value and formatted value of a cell.
+	 * 
+	 * @param rowIndex should be a number with a valid row index.
+	 * @param columnIndex should be a number greater than or equal to zero, and less than the number of columns
+	 * @param value the value assigned to the specified cell
+	 * @param formattedValue is a string with the value formatted as a string
+	 * @return this batch
+	 */
+	public DataTableBatch setCell(int rowIndex, int columnIndex, String value, String formattedValue) {
+		record(SET_CELL, rowIndex, columnIndex);
+		changes.push(value);
+		changes.push(formattedValue);
+		return this;
+	}
+
+	/**
+	 * Records a change to the value and formatted value of a date or datetime cell.
+	 * 
+	 * @param rowIndex should be a number with a valid row index.
+	 * @param columnIndex should be a number greater than or equal to zero, and less than the number of columns
+	 * @param millis the value assigned to the specified cell in milliseconds since the epoch, or NaN for a null value
+	 * @param formattedValue is a string with the value formatted as a string
+	 * @return this batch
+	 */
+	public DataTableBatch setCellMillis(int rowIndex, int columnIndex, double millis, String formattedValue) {
+		record(SET_CELL_MILLIS, rowIndex, columnIndex);
+		changes.push(millis);
+		changes.push(formattedValue);
+		return this;
+	}
+
+	/**
+	 * Records a change to the formatted value of a cell.
+	 * 
+	 * @param rowIndex should be a number with a valid row index.
+	 * @param columnIndex should be a number greater than or equal to zero, and less than the number of columns
+	 * @param formattedValue is a string with the value formatted as a string
+	 * @return this batch
+	 */
+	public DataTableBatch setFormattedValue(int rowIndex, int columnIndex, String formattedValue) {
+		record(SET_FORMATTED_VALUE, rowIndex, columnIndex);
+		changes.push((String) null);
+		changes.push(formattedValue);
+		return this;
+	}
+
+	/**
+	 * Records a change to a cell property.
+	 * 
+	 * @param rowIndex should be a number with a valid row index.
+	 * @param columnIndex should be a number greater than or equal to zero, and less than the number of columns
+	 * @param name the property name
+	 * @param value the property value
+	 * @return this batch
+	 */
+	public DataTableBatch setProperty(int rowIndex, int columnIndex, String name, boolean value) {
+		record(SET_PROPERTY, rowIndex, columnIndex);
+		changes.push(value);
+		changes.push(name);
+		return this;
+	}
+
+	/**
+	 * Records a change to a cell property.
+	 * 
+	 * @param rowIndex should be a number with a valid row index.
+	 * @param columnIndex should be a number greater than or equal to zero, and less than the number of columns
+	 * @param name the property name
+	 * @param value the property value
+	 * @return this batch
+	 */
+	public DataTableBatch setProperty(int rowIndex, int columnIndex, String name, double value) {
+		record(SET_PROPERTY, rowIndex, columnIndex);
+		changes.push(value);
+		changes.push(name);
+		return this;
+	}
+
+	/**
+	 * Records a change to a cell property.
+	 * 
+	 * @param rowIndex should be a number with a valid row index.
+	 * @param columnIndex should be a number greater than or equal to zero, and less than the number of columns
+	 * @param name the property name
+	 * @param value the property value
+	 * @return this batch
+	 */
+	public DataTableBatch setProperty(int rowIndex, int columnIndex, String name, String value) {
+		record(SET_PROPERTY, rowIndex, columnIndex);
+		changes.push(value);
+		changes.push(name);
+		return this;
+	}
+
+	/**
+	 * Records a change to the value of a cell, which also clears its formatted value and properties.
+	 * 
+	 * @param rowIndex should be a number with a valid row index.
+	 * @param columnIndex should be a number greater than or equal to zero, and less than the number of columns
+	 * @param value the value assigned to the specified cell
+	 * @return this batch
+	 */
+	public DataTableBatch setValue(int rowIndex, int columnIndex, boolean value) {
+		record(SET_VALUE, rowIndex, columnIndex);
+		changes.push(value);
+		changes.push((String) null);
+		return this;
+	}
+
+	/**
+	 * Records a change to the value of a cell, which also clears its formatted value and properties.
+	 * 
+	 * @param rowIndex should be a number with a valid row index.
+	 * @param columnIndex should be a number greater than or equal to zero, and less than the number of columns
+	 * @param value the value assigned to the specified cell
+	 * @return this batch
+	 */
+	public DataTableBatch setValue(int rowIndex, int columnIndex, double value) {
+		record(SET_VALUE, rowIndex, columnIndex);
+		changes.push(value);
+		changes.push((String) null);
+		return this;
+	}
+
+	/**
+	 * Records a change to the value of a cell, which also clears its formatted value and properties.
+	 * 
+	 * @param rowIndex should be a number with a valid row index.
+	 * @param columnIndex should be a number greater than or equal to zero, and less than the number of columns
+	 * @param value the value assigned to the specified cell
+	 * @return this batch
+	 */
+	public DataTableBatch setValue(int rowIndex, int columnIndex, String value) {
+		record(SET_VALUE, rowIndex, columnIndex);
+		changes.push(value);
+		changes.push((String) null);
+		return this;
+	}
+
+	/**
+	 * Records a change to the value of a date or datetime cell, which also clears its formatted value and properties.
+	 * 
+	 * @param rowIndex should be a number with a valid row index.
+	 * @param columnIndex should be a number greater than or equal to zero, and less than the number of columns
+	 * @param millis the value assigned to the specified cell in milliseconds since the epoch, or NaN for a null value
+	 * @return this batch
+	 */
+	public DataTableBatch setValueMillis(int rowIndex, int columnIndex, double millis) {
+		record(SET_VALUE_MILLIS, rowIndex, columnIndex);
+		changes.push(millis);
+		changes.push((String) null);
+		return this;
+	}
+
+	/**
+	 * Records a change of a cell to null, which also clears its formatted value and properties.
+	 * 
+	 * @param rowIndex should be a number with a valid row index.
+	 * @param columnIndex should be a number greater than or equal to zero, and less than the number of columns
+	 * @return this batch
+	 */
+	public DataTableBatch setValueNull(int rowIndex, int columnIndex) {
+		record(SET_VALUE, rowIndex, columnIndex);
+		changes.push((String) null);
+		changes.push((String) null);
+		return this;
+	}
+
+	private void record(int operation, int rowIndex, int columnIndex) {
+		changes.push(operation);
+		changes.push(rowIndex);
+		changes.push(columnIndex);
+	}
+
+	private static native void apply(DataTable dataTable, JsArrayMixed changes, int stride) /*-{
+		for (var k = 0; k < changes.length; k += stride) {
+			var row = changes[k + 1];
+			var column = changes[k + 2];
+			var value = changes[k + 3];
+			var text = changes[k + 4];
+			switch (changes[k]) {
+			case @com.googlecode.gwt.charts.client.DataTableBatch::SET_VALUE:
+				dataTable.setValue(row, column, value);
+				break;
+			case @com.googlecode.gwt.charts.client.DataTableBatch::SET_CELL:
+				dataTable.setCell(row, column, value, text);
+				break;
+			case @com.googlecode.gwt.charts.client.DataTableBatch::SET_FORMATTED_VALUE:
+				dataTable.setFormattedValue(row, column, text);
+				break;
+			case @com.googlecode.gwt.charts.client.DataTableBatch::SET_PROPERTY:
+				dataTable.setProperty(row, column, text, value);
+				break;
+			case @com.googlecode.gwt.charts.client.DataTableBatch::SET_VALUE_MILLIS:
+				dataTable.setValue(row, column, value !== value ? null : new Date(value));
+				break;
+			case @com.googlecode.gwt.charts.client.DataTableBatch::SET_CELL_MILLIS:
+				dataTable.setCell(row, column, value !== value ? null : new Date(value), text);
+				break;
+			}
+		}
+		$wnd.google.visualization.events.trigger(dataTable, 'commit', {
+			changes : changes.length / stride
+		});
+	}-*/;
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+/**
+ * Used for receiving a {@link DataTable} that was built from data fetched in the background.
+ */
+public interface DataTableCallback {
+
+	/**
+	 * Called when either the data or the chart library could not be loaded, or when the data is not a valid
+	 * DataTable.
+	 * 
+	 * @param reason the reason of the failure
+	 */
+	void onFailure(Throwable reason);
+
+	/**
+	 * Called with the new DataTable once both the data and the chart library are loaded.
+	 * 
+	 * @param dataTable the new DataTable
+	 */
+	void onSuccess(DataTable dataTable);
+}
@@ -0,0 +1,434 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayString;
+import com.google.gwt.core.client.JsonUtils;
+import com.google.gwt.core.client.Scheduler;
+
+import com.googlecode.gwt.charts.shared.ColumnarTable;
+
+/**
+ * Builds a DataTable in time-boxed chunks with {@link Scheduler#scheduleIncremental(Scheduler.RepeatingCommand)}, so
+ * that loading a large table doesn't freeze the page. Each chunk adds rows until the time budget, 8 ms by default, is
+ * used up, then yields to the browser:
+ * 
+ * <pre>
+ * DataTableLoader loader = DataTableLoader.fromCsv(csv, true, ColumnType.DATETIME, ColumnType.NUMBER);
+ * loader.setProgressHandler(progressHandler);
+ * loader.start(new DataTableCallback() {
+ * 	public void onSuccess(DataTable dataTable) {
+ * 		chart.draw(dataTable, options);
+ * 	}
+ * 
+ * 	public void onFailure(Throwable reason) {
+ * 		...
+ * 	}
+ * });
+ * </pre>
+ * 
+ * The chart library must be loaded before the loader is started. A loader can only be started once.
+ */
+public class DataTableLoader {
+	/**
+	 * The default time budget of a chunk, in milliseconds.
+	 */
+	public static final int DEFAULT_TIME_BUDGET = 8;
+
+	private JavaScriptObject source;
+	private String json;
+	private JavaScriptObject payload;
+	private JavaScriptObject columns;
+	private int timeBudget = DEFAULT_TIME_BUDGET;
+	private DataTableProgressHandler progressHandler;
+	private DataTable dataTable;
+	private boolean started;
+	private boolean cancelled;
+	private boolean finished;
+
+	/**
+	 * Creates a loader for the columns of a builder, with their formatted values and properties.
+	 * 
+	 * @param builder the builder holding the columns
+	 * @return a new loader
+	 */
+	public static DataTableLoader fromBuilder(DataTableBuilder builder) {
+		return new DataTableLoader(builder.createRowSource());
+	}
+
+	/**
+	 * Creates a loader for a columnar table, with its formatted values and properties.
+	 * 
+	 * @param table the table to load
+	 * @return a new loader
+	 */
+	public static DataTableLoader fromColumnarTable(ColumnarTable table) {
+		return fromBuilder(new DataTableBuilder(table));
+	}
+
+	/**
+	 * Creates a loader for comma separated values, one row per line, with double quotes around values that contain
+	 * commas, quotes or line breaks. The text is parsed as the rows are added. Empty or invalid values are read as
+	 * null, date and datetime values are parsed with Date.parse(), boolean values are "true" or "false", and time of day
+	 * values have the form "hh:mm[:ss[.sss]]".
+	 * 
+	 * @param csv the comma separated values
+	 * @param hasHeader true if the first line holds the column labels
+	 * @param types the type of each column
+	 * @return a new loader
+	 */
+	public static DataTableLoader fromCsv(String csv, boolean hasHeader, ColumnType... types) {
+		JsArrayString typeNames = JavaScriptObject.createArray().cast();
+		for (ColumnType type : types) {
+			typeNames.push(type.getName());
+		}
+		return new DataTableLoader(createCsvSource(csv, hasHeader, typeNames));
+	}
+
+	/**
+	 * Creates a loader for a DataTable JSON literal, as returned by {@link DataTable#toJSON()}, or for a columnar
+	 * payload decoded by {@link ColumnarDecoder}. Nothing is parsed before the loader is started: the text is parsed in
+	 * the first chunk, columnar values are then decoded a column at a time, as many columns per chunk as the time budget
+	 * allows, and the rows are added in chunks. Parsing can't be split, so the first chunk takes as long as JSON.parse
+	 * does on the whole text and overruns the time budget for large texts, as does a chunk decoding a single large
+	 * column. Invalid JSON or columnar data is reported to the callback.
+	 * 
+	 * @param json the JSON text
+	 * @return a new loader
+	 */
+	public static DataTableLoader fromJson(String json) {
+		DataTableLoader loader = new DataTableLoader(null);
+		loader.json = json;
+		return loader;
+	}
+
+	private DataTableLoader(JavaScriptObject source) {
+		this.source = source;
+	}
+
+	/**
+	 * Stops adding rows. The callback is not called afterwards.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Returns the number of rows added so far.
+	 * 
+	 * @return the number of rows
+	 */
+	public int getNumberOfRows() {
+		return dataTable == null ? 0 : dataTable.getNumberOfRows();
+	}
+
+	/**
+	 * Returns the time budget of a chunk.
+	 * 
+	 * @return the time budget, in milliseconds
+	 */
+	public int getTimeBudget() {
+		return timeBudget;
+	}
+
+	/**
+	 * Returns true if the loader was started and is neither finished nor cancelled.
+	 * 
+	 * @return true if rows are still being added
+	 */
+	public boolean isRunning() {
+		return started && !finished && !cancelled;
+	}
+
+	/**
+	 * Sets the handler called after each chunk.
+	 * 
+	 * @param progressHandler the handler, or null
+	 */
+	public void setProgressHandler(DataTableProgressHandler progressHandler) {
+		this.progressHandler = progressHandler;
+	}
+
+	/**
+	 * Sets the longest time a chunk should keep the browser busy. A chunk checks the time every few rows, so it can
+	 * slightly overrun the budget.
+	 * 
+	 * @param timeBudget the time budget, in milliseconds
+	 */
+	public void setTimeBudget(int timeBudget) {
+		if (timeBudget <= 0) {
+			throw new IllegalArgumentException("Time budget must be positive");
+		}
+		this.timeBudget = timeBudget;
+	}
+
+	/**
+	 * Starts adding rows. The callback is given the table once all rows are added, or the reason of the failure if a
+	 * chunk or the progress handler throws an exception.
+	 * 
+	 * @param callback the callback
+	 */
+	public void start(final DataTableCallback callback) {
+		if (started) {
+			throw new IllegalStateException("Loader was already started");
+		}
+		started = true;
+		Scheduler.get().scheduleIncremental(new Scheduler.RepeatingCommand() {
+			@Override
+			public boolean execute() {
+				if (cancelled) {
+					return false;
+				}
+				try {
+					if (source == null) {
+						prepareSource();
+						return true;
+					}
+					if (dataTable == null) {
+						dataTable = createDataTable(source);
+					}
+					finished = addRows(dataTable, source, timeBudget);
+					if (progressHandler != null) {
+						progressHandler.onProgress(dataTable.getNumberOfRows(), finished ? 1 : getProgress(source));
+					}
+				} catch (Throwable e) {
+					finished = true;
+					callback.onFailure(e);
+					return false;
+				}
+				if (cancelled) {
+					return false;
+				}
+				if (finished) {
+					callback.onSuccess(dataTable);
+				}
+				return !finished;
+			}
+		});
+	}
+
+	private static native boolean addRows(DataTable dataTable, JavaScriptObject source, int timeBudget) /*-{
+		var end = new Date().getTime() + timeBudget;
+		var rows = [];
+		var row;
+		while ((row = source.next()) != null) {
+			rows.push(row);
+			if (rows.length == 64) {
+				dataTable.addRows(rows);
+				rows = [];
+				if (new Date().getTime() >= end) {
+					return false;
+				}
+			}
+		}
+		if (rows.length > 0) {
+			dataTable.addRows(rows);
+		}
+		return true;
+	}-*/;
+
+	private static native JavaScriptObject createColumnarSource(JavaScriptObject columns) /*-{
+		var source = @com.googlecode.gwt.charts.client.DataTableBuilder::createRowSource(Lcom/google/gwt/core/client/JsArray;Lcom/google/gwt/core/client/JsArray;Lcom/google/gwt/core/client/JsArray;Lcom/google/gwt/core/client/JsArray;I)(columns.cols, columns.values, columns.f, columns.cp, columns.rows);
+		source.p = columns.p;
+		return source;
+	}-*/;
+
+	private static native JavaScriptObject createCsvSource(String csv, boolean hasHeader, JsArrayString types) /*-{
+		var position = 0;
+		var length = csv.length;
+		var delimiters = /[,"\r\n]/g;
+		// Reads the fields of the next line, or returns null at the end of the text
+		var readLine = function() {
+			if (position >= length) {
+				return null;
+			}
+			var fields = [];
+			var field = '';
+			while (true) {
+				var ch = csv.charAt(position);
+				if (ch == '"' && field.length == 0) {
+					var close = position + 1;
+					while (true) {
+						var quote = csv.indexOf('"', close);
+						if (quote < 0) {
+							throw new Error('Unterminated quoted value at ' + position);
+						}
+						field += csv.substring(close, quote);
+						if (csv.charAt(quote + 1) == '"') {
+							field += '"';
+							close = quote + 2;
+						} else {
+							position = quote + 1;
+							break;
+						}
+					}
+					continue;
+				}
+				if (position >= length || ch == '\n' || ch == '\r') {
+					fields.push(field);
+					if (ch == '\r' && csv.charAt(position + 1) == '\n') {
+						position++;
+					}
+					position++;
+					return fields;
+				}
+				if (ch == ',') {
+					fields.push(field);
+					field = '';
+				} else {
+					delimiters.lastIndex = position;
+					var next = delimiters.exec(csv);
+					var stop = next ? next.index : length;
+					field += csv.substring(position, stop);
+					position = stop;
+					continue;
+				}
+				position++;
+			}
+		};
+		var parse = function(type, text) {
+			if (text.length == 0) {
+				return null;
+			}
+			switch (type) {
+			case 'number':
+				// Unlike parseFloat, Number rejects trailing garbage such as "12abc"
+				var number = Number(text);
+				return number === number ? number : null;
+			case 'boolean':
+				return text == 'true';
+			case 'date':
+			case 'datetime':
+				var millis = Date.parse(text);
+				return millis === millis ? new Date(millis) : null;
+			case 'timeofday':
+				var parts = text.split(/[:.]/);
+				return [ +parts[0], +parts[1], +(parts[2] || 0), +(parts[3] || 0) ];
+			default:
+				return text;
+			}
+		};
+		var cols = [];
+		var labels = hasHeader ? readLine() || [] : [];
+		for (var j = 0; j < types.length; j++) {
+			cols.push({
+				type : types[j],
+				label : labels[j] || ''
+			});
+		}
+		return {
+			cols : cols,
+			next : function() {
+				var fields;
+				do {
+					fields = readLine();
+				} while (fields != null && fields.length == 1 && fields[0].length == 0);
+				if (fields == null) {
+					return null;
+				}
+				var c = new Array(types.length);
+				for (var j = 0; j < types.length; j++) {
+					c[j] = {
+						v : j < fields.length ? parse(types[j], fields[j]) : null
+					};
+				}
+				return c;
+			},
+			progress : function() {
+				return length > 0 ? position / length : 1;
+			}
+		};
+	}-*/;
+
+	private static native DataTable createDataTable(JavaScriptObject source) /*-{
+		var literal = {
+			cols : source.cols
+		};
+		if (source.p) {
+			literal.p = source.p;
+		}
+		return new $wnd.google.visualization.DataTable(literal);
+	}-*/;
+
+	private static native JavaScriptObject createLiteralSource(JavaScriptObject literal) /*-{
+		var cols = literal.cols || [];
+		var rows = literal.rows || [];
+		var dates = [];
+		for (var j = 0; j < cols.length; j++) {
+			if (cols[j].type == 'date' || cols[j].type == 'datetime') {
+				dates.push(j);
+			}
+		}
+		var i = 0;
+		return {
+			cols : cols,
+			p : literal.p,
+			next : function() {
+				if (i >= rows.length) {
+					return null;
+				}
+				var c = rows[i++].c;
+				// Turns the "Date(year, month, ...)" strings of the JSON form into dates
+				for (var k = 0; k < dates.length; k++) {
+					var cell = c[dates[k]];
+					var match = cell && typeof cell.v == 'string' && /^Date\(([\d,\s]*)\)$/.exec(cell.v);
+					if (match) {
+						var a = match[1].split(',');
+						cell.v = new Date(+a[0], +a[1], +(a[2] || 1), +(a[3] || 0), +(a[4] || 0), +(a[5] || 0),
+								+(a[6] || 0));
+					}
+				}
+				return c;
+			},
+			progress : function() {
+				return rows.length > 0 ? i / rows.length : 1;
+			}
+		};
+	}-*/;
+
+	private static native double getProgress(JavaScriptObject source) /*-{
+		return source.progress();
+	}-*/;
+
+	private void prepareSource() {
+		// Parsing the JSON text can't be split and takes the first chunk whatever its length
+		if (json != null) {
+			payload = JsonUtils.safeEval(json);
+			json = null;
+			return;
+		}
+		if (columns == null) {
+			columns = ColumnarDecoder.startColumns(payload);
+			if (columns == null) {
+				source = createLiteralSource(payload);
+				payload = null;
+				return;
+			}
+		}
+		// Decodes at least one column per chunk, then as many as the time budget allows
+		double end = Duration.currentTimeMillis() + timeBudget;
+		while (!ColumnarDecoder.isDecoded(payload, columns)) {
+			if (!ColumnarDecoder.decodeNextColumn(payload, columns)) {
+				throw new IllegalArgumentException("Not a valid columnar payload");
+			}
+			if (Duration.currentTimeMillis() >= end) {
+				return;
+			}
+		}
+		source = createColumnarSource(columns);
+		payload = null;
+		columns = null;
+	}
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+/**
+ * Used for following the progress of a {@link DataTableLoader}.
+ */
+public interface DataTableProgressHandler {
+
+	/**
+	 * Called after each chunk of rows is added to the table.
+	 * 
+	 * @param rowCount the number of rows added so far
+	 * @param fraction the fraction of the source consumed so far, from 0 to 1
+	 */
+	void onProgress(int rowCount, double fraction);
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayMixed;
+import com.google.gwt.core.client.JsDate;
+
+/**
+ * Appends rows to a {@link DataTable} one typed value at a time, without boxing the values into java objects. The
+ * column types of the table are read once when the writer is created and each value is checked against them. Rows are
+ * buffered and only added to the table, in a single call, when {@link #flush()} is called.
+ * 
+ * <pre>
+ * DataTableRowWriter writer = dataTable.createRowWriter();
+ * for (Sample sample : samples) {
+ * 	writer.addDate(sample.getTime()).add(sample.getValue()).endRow();
+ * }
+ * writer.flush();
+ * </pre>
+ */
+public class DataTableRowWriter {
+	private final DataTable dataTable;
+	private final ColumnType[] columnTypes;
+	private JsArray<JsArrayMixed> rows;
+	private JsArrayMixed row;
+	private int columnIndex;
+
+	DataTableRowWriter(DataTable dataTable) {
+		this.dataTable = dataTable;
+		columnTypes = new ColumnType[dataTable.getNumberOfColumns()];
+		for (int i = 0; i < columnTypes.length; i++) {
+			columnTypes[i] = dataTable.getColumnType(i);
+		}
+		rows = JavaScriptObject.createArray().cast();
+		row = JavaScriptObject.createArray().cast();
+	}
+
+	/**
+	 * Sets the value of the next cell of a boolean column.
+	 * 
+	 * @param value the cell value
+	 * @return this writer
+	 */
+	public DataTableRowWriter add(boolean value) {
+		checkColumn(ColumnType.BOOLEAN, null);
+		row.set(columnIndex++, value);
+		return this;
+	}
+
+	/**
+	 * Sets the value of the next cell of a number column.
+	 * 
+	 * @param value the cell value, NaN for a null cell
+	 * @return this writer
+	 */
+	public DataTableRowWriter add(double value) {
+		checkColumn(ColumnType.NUMBER, null);
+		if (Double.isNaN(value)) {
+			row.set(columnIndex++, (String) null);
+		} else {
+			row.set(columnIndex++, value);
+		}
+		return this;
+	}
+
+	/**
+	 * Sets the value of the next cell of a string column.
+	 * 
+	 * @param value the cell value
+	 * @return this writer
+	 */
+	public DataTableRowWriter add(String value) {
+		checkColumn(ColumnType.STRING, null);
+		row.set(columnIndex++, value);
+		return this;
+	}
+
+	/**
+	 * Sets the value of the next cell of a date or datetime column.
+	 * 
+	 * @param millis the cell value in milliseconds since the epoch, NaN for a null cell
+	 * @return this writer
+	 */
+	public DataTableRowWriter addDate(double millis) {
+		checkColumn(ColumnType.DATE, ColumnType.DATETIME);
+		if (Double.isNaN(millis)) {
+			row.set(columnIndex++, (String) null);
+		} else {
+			row.set(columnIndex++, JsDate.create(millis));
+		}
+		return this;
+	}
+
+	/**
+	 * Sets the value of the next cell of a date or datetime column.
+	 * 
+	 * @param millis the cell value in milliseconds since the epoch
+	 * @return this writer
+	 */
+	public DataTableRowWriter addDate(long millis) {
+		checkColumn(ColumnType.DATE, ColumnType.DATETIME);
+		row.set(columnIndex++, JsDate.create(millis));
+		return this;
+	}
+
+	/**
+	 * Sets the next cell to null, whatever its column type.
+	 * 
+	 * @return this writer
+	 */
+	public DataTableRowWriter addNull() {
+		checkColumn(null, null);
+		row.set(columnIndex++, (String) null);
+		return this;
+	}
+
+	/**
+	 * Ends the current row, which must have a value for every column, and starts a new one.
+	 * 
+	 * @return this writer
+	 */
+	public DataTableRowWriter endRow() {
+		if (columnIndex != columnTypes.length) {
+			throw new IllegalStateException("Row has " + columnIndex + " cells, expected " + columnTypes.length);
+		}
+		rows.push(row);
+		row = JavaScriptObject.createArray().cast();
+		columnIndex = 0;
+		return this;
+	}
+
+	/**
+	 * Adds all the rows ended so far to the table.
+	 * 
+	 * @return the index of the last added row, or -1 if there were no rows to add
+	 */
+	public int flush() {
+		if (rows.length() == 0) {
+			return -1;
+		}
+		int lastRow = dataTable.addRows(rows);
+		rows = JavaScriptObject.createArray().cast();
+		return lastRow;
+	}
+
+	/**
+	 * Returns the number of rows ended but not yet added to the table.
+	 * 
+	 * @return the number of pending rows
+	 */
+	public int getPendingRows() {
+		return rows.length();
+	}
+
+	private void checkColumn(ColumnType type, ColumnType alternativeType) {
+		if (columnIndex >= columnTypes.length) {
+			throw new IllegalStateException("Row already has a value for all " + columnTypes.length + " columns");
+		}
+		ColumnType columnType = columnTypes[columnIndex];
+		if (type != null && columnType != type && columnType != alternativeType) {
+			throw new IllegalStateException("Column " + columnIndex + " is of type " + columnType.getName()
+					+ ", not " + type.getName());
+		}
+	}
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayMixed;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps statistics of some columns of a DataTable up to date as rows are added, changed or removed through this class,
+ * so that ranges and distinct values can be read without scanning the table.<br>
+ * Changes made directly on the underlying table are not seen until {@link #rescan()} is called.
+ * 
+ * <pre>
+ * DataTableStatistics statistics = new DataTableStatistics(dataTable, 1);
+ * statistics.addRow(row);
+ * viewWindow.setMin(statistics.getColumn(1).getMin());
+ * </pre>
+ */
+public class DataTableStatistics {
+	/**
+	 * The number of distinct values above which a column stops tracking them, unless another limit is given.
+	 */
+	public static final int DEFAULT_DISTINCT_LIMIT = 100;
+
+	private final DataTable dataTable;
+	private final Map<Integer, ColumnStatistics> columns = new HashMap<Integer, ColumnStatistics>();
+
+	/**
+	 * Starts tracking statistics for the given columns, scanning them once.
+	 * 
+	 * @param dataTable the table
+	 * @param columnIndexes the number, date, datetime or string columns to track
+	 */
+	public DataTableStatistics(DataTable dataTable, int... columnIndexes) {
+		this(dataTable, columnIndexes, DEFAULT_DISTINCT_LIMIT);
+	}
+
+	/**
+	 * Starts tracking statistics for the given columns, scanning them once.
+	 * 
+	 * @param dataTable the table
+	 * @param columnIndexes the number, date, datetime or string columns to track
+	 * @param distinctLimit the number of distinct values above which a column stops tracking them
+	 */
+	public DataTableStatistics(DataTable dataTable, int[] columnIndexes, int distinctLimit) {
+		this.dataTable = dataTable;
+		for (int columnIndex : columnIndexes) {
+			columns.put(columnIndex, new ColumnStatistics(dataTable, columnIndex, distinctLimit));
+		}
+	}
+
+	/**
+	 * Adds a row to the table, as {@link DataTable#addRow(JsArrayMixed)}.
+	 * 
+	 * @param cellArray the row values
+	 * @return the index of the new row
+	 */
+	public int addRow(JsArrayMixed cellArray) {
+		int rowIndex = dataTable.addRow(cellArray);
+		for (ColumnStatistics column : columns.values()) {
+			column.add(rowIndex, rowIndex);
+		}
+		return rowIndex;
+	}
+
+	/**
+	 * Adds rows to the table, as {@link DataTable#addRows(JsArray)}.
+	 * 
+	 * @param <E> an array of column values
+	 * @param rowArray the new rows
+	 * @return the index of the last added row
+	 */
+	public <E extends JsArrayMixed> int addRows(JsArray<E> rowArray) {
+		int lastRow = dataTable.addRows(rowArray);
+		for (ColumnStatistics column : columns.values()) {
+			column.add(lastRow - rowArray.length() + 1, lastRow);
+		}
+		return lastRow;
+	}
+
+	/**
+	 * Returns the statistics of a column.
+	 * 
+	 * @param columnIndex the column index
+	 * @return the column statistics, or null if the column is not tracked
+	 */
+	public ColumnStatistics getColumn(int columnIndex) {
+		return columns.get(columnIndex);
+	}
+
+	/**
+	 * Returns the underlying table.
+	 * 
+	 * @return the underlying table
+	 */
+	public DataTable getDataTable() {
+		return dataTable;
+	}
+
+	/**
+	 * Removes a row from the table, as {@link DataTable#removeRow(int)}.
+	 * 
+	 * @param rowIndex the row to remove
+	 */
+	public void removeRow(int rowIndex) {
+		removeRows(rowIndex, 1);
+	}
+
+	/**
+	 * Removes rows from the table, as {@link DataTable#removeRows(int, int)}.
+	 * 
+	 * @param rowIndex the first row to remove
+	 * @param numberOfRows the number of rows to remove
+	 */
+	public void removeRows(int rowIndex, int numberOfRows) {
+		for (ColumnStatistics column : columns.values()) {
+			column.remove(rowIndex, rowIndex + numberOfRows - 1);
+		}
+		dataTable.removeRows(rowIndex, numberOfRows);
+	}
+
+	/**
+	 * Recomputes the statistics of all tracked columns from the table, after it was changed directly.
+	 */
+	public void rescan() {
+		for (ColumnStatistics column : columns.values()) {
+			column.rescan();
+		}
+	}
+
+	/**
+	 * Sets the value of a cell, as {@link DataTable#setValue(int, int, double)}.
+	 * 
+	 * @param rowIndex the row index
+	 * @param columnIndex the column index
+	 * @param value the new value
+	 */
+	public void setValue(int rowIndex, int columnIndex, double value) {
+		ColumnStatistics column = columns.get(columnIndex);
+		if (column != null) {
+			column.remove(rowIndex, rowIndex);
+		}
+		dataTable.setValue(rowIndex, columnIndex, value);
+		if (column != null) {
+			column.add(rowIndex, rowIndex);
+		}
+	}
+
+	/**
+	 * Sets the value of a cell, as {@link DataTable#setValue(int, int, String)}.
+	 * 
+	 * @param rowIndex the row index
+	 * @param columnIndex the column index
+	 * @param value the new value
+	 */
+	public void setValue(int rowIndex, int columnIndex, String value) {
+		ColumnStatistics column = columns.get(columnIndex);
+		if (column != null) {
+			column.remove(rowIndex, rowIndex);
+		}
+		dataTable.setValue(rowIndex, columnIndex, value);
+		if (column != null) {
+			column.add(rowIndex, rowIndex);
+		}
+	}
+
+	/**
+	 * Sets the value of a date or datetime cell, as {@link DataTable#setValueMillis(int, int, double)}.
+	 * 
+	 * @param rowIndex the row index
+	 * @param columnIndex the column index
+	 * @param millis the new value in milliseconds since the epoch, or NaN for a null value
+	 */
+	public void setValueMillis(int rowIndex, int columnIndex, double millis) {
+		ColumnStatistics column = columns.get(columnIndex);
+		if (column != null) {
+			column.remove(rowIndex, rowIndex);
+		}
+		dataTable.setValueMillis(rowIndex, columnIndex, millis);
+		if (column != null) {
+			column.add(rowIndex, rowIndex);
+		}
+	}
+
+	/**
+	 * Sets a cell to null, as {@link DataTable#setValueNull(int, int)}.
+	 * 
+	 * @param rowIndex the row index
+	 * @param columnIndex the column index
+	 */
+	public void setValueNull(int rowIndex, int columnIndex) {
+		ColumnStatistics column = columns.get(columnIndex);
+		if (column != null) {
+			column.remove(rowIndex, rowIndex);
+		}
+		dataTable.setValueNull(rowIndex, columnIndex);
+		if (column != null) {
+			column.add(rowIndex, rowIndex);
+		}
+	}
+}
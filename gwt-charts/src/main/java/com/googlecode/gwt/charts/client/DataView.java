@@ -57,7 +57,11 @@ public class DataView extends DataSource {
 	 * @return a new DataView
 	 */
 	public static native DataView create(DataSource dataSource) /*-{
-		return new $wnd.google.visualization.DataView(dataSource);
+		var view = new $wnd.google.visualization.DataView(dataSource);
+		// Views don't expose their table, which is the one firing commit events
+		view.__gwtChartsTable = dataSource instanceof $wnd.google.visualization.DataTable ? dataSource
+				: dataSource.__gwtChartsTable || null;
+		return view;
 	}-*/;
 
 	/**
@@ -72,7 +76,10 @@ public class DataView extends DataSource {
 	 * @return a new DataView
 	 */
 	public static native DataView createFromJson(DataSource dataSource, String json) /*-{
-		return $wnd.google.visualization.DataView.fromJSON(dataSource, json);
+		var view = $wnd.google.visualization.DataView.fromJSON(dataSource, json);
+		view.__gwtChartsTable = dataSource instanceof $wnd.google.visualization.DataTable ? dataSource
+				: dataSource.__gwtChartsTable || null;
+		return view;
 	}-*/;
 
 	protected DataView() {
@@ -101,6 +108,30 @@ public class DataView extends DataSource {
 		return this.getTableRowIndex(viewRowIndex);
 	}-*/;
 
+	/**
+	 * Returns the indexes in the underlying table (or view) of all the rows in this view, in a single call.
+	 * 
+	 * @return the underlying row indexes, one per row of this view
+	 */
+	public final JsArrayInteger getTableRowIndexes() {
+		return getTableRowIndexes(0, getNumberOfRows() - 1);
+	}
+
+	/**
+	 * Returns the indexes in the underlying table (or view) of a range of rows in this view, in a single call.
+	 * 
+	 * @param fromViewRow the first view row
+	 * @param toViewRow the last view row, inclusive
+	 * @return the underlying row indexes, one per view row
+	 */
+	public final native JsArrayInteger getTableRowIndexes(int fromViewRow, int toViewRow) /*-{
+		var indexes = new Array(Math.max(toViewRow - fromViewRow + 1, 0));
+		for (var i = fromViewRow; i <= toViewRow; i++) {
+			indexes[i - fromViewRow] = this.getTableRowIndex(i);
+		}
+		return indexes;
+	}-*/;
+
 	/**
 	 * Returns the index in this view that maps to a given column specified by its index in the underlying table (or
 	 * view). If more than one such index exists, returns the first (smallest) one. If no such index exists (the
@@ -0,0 +1,362 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayMixed;
+import com.google.gwt.core.client.JsArrayString;
+import com.google.gwt.core.client.JsArrayUtils;
+
+/**
+ * A DataTable in which a key column identifies each row, indexed so that rows can be updated or removed by key without
+ * scanning the table. Keys are the string form of the key column values and must be unique, any string can be used,
+ * including names such as "__proto__".<br>
+ * The index is kept up to date by the methods of this class. Rows added, removed or reordered directly on the
+ * underlying table must be followed by {@link #reindex()}.
+ * 
+ * <pre>
+ * KeyedDataTable regions = new KeyedDataTable(dataTable, 0);
+ * regions.upsert("US-CA", 42);
+ * regions.removeByKey("US-NV");
+ * </pre>
+ */
+public class KeyedDataTable {
+	private final DataTable dataTable;
+	private final int keyColumn;
+	private JavaScriptObject index;
+
+	/**
+	 * Creates a keyed table, indexing the rows the table already has.
+	 * 
+	 * @param dataTable the table
+	 * @param keyColumn the index of the key column
+	 * @throws IllegalArgumentException if the table has duplicate keys
+	 */
+	public KeyedDataTable(DataTable dataTable, int keyColumn) {
+		this.dataTable = dataTable;
+		this.keyColumn = keyColumn;
+		reindex();
+	}
+
+	/**
+	 * Checks whether a row has the given key.
+	 * 
+	 * @param key the row key
+	 * @return true if the key is in the table
+	 */
+	public boolean containsKey(String key) {
+		return getRowIndex(index, key) >= 0;
+	}
+
+	/**
+	 * Returns the underlying table.
+	 * 
+	 * @return the underlying table
+	 */
+	public DataTable getDataTable() {
+		return dataTable;
+	}
+
+	/**
+	 * Returns the key of a row.
+	 * 
+	 * @param rowIndex the row index
+	 * @return the row key
+	 */
+	public String getKey(int rowIndex) {
+		return getKey(dataTable, rowIndex, keyColumn);
+	}
+
+	/**
+	 * Returns the index of the key column.
+	 * 
+	 * @return the key column index
+	 */
+	public int getKeyColumn() {
+		return keyColumn;
+	}
+
+	/**
+	 * Returns the index of the row with the given key.
+	 * 
+	 * @param key the row key
+	 * @return the row index, or -1 if no row has that key
+	 */
+	public int getRowIndex(String key) {
+		return getRowIndex(index, key);
+	}
+
+	/**
+	 * Returns a selection of the rows with the given keys, for restoring a selection saved with
+	 * {@link #getSelectionKeys(JsArray)} after the rows were reordered. Keys no longer in the table are skipped.
+	 * 
+	 * @param keys the row keys
+	 * @return a selection of whole rows
+	 */
+	public JsArray<Selection> getSelection(JsArrayString keys) {
+		return createSelection(index, keys);
+	}
+
+	/**
+	 * Returns the keys of the selected rows, which unlike row indexes survive sorting and row removals. Selected
+	 * columns are ignored.
+	 * 
+	 * @param selection a chart selection
+	 * @return the keys of the selected rows
+	 */
+	public JsArrayString getSelectionKeys(JsArray<Selection> selection) {
+		return getSelectionKeys(dataTable, selection, keyColumn);
+	}
+
+	/**
+	 * Inserts rows at the given position, as {@link DataTable#insertRows(int, JsArray)}, and updates the index.
+	 * 
+	 * @param <E> an array of column values
+	 * @param rowIndex the position of the first new row
+	 * @param rowArray the new rows
+	 * @throws IllegalArgumentException if a new row has a key already in the table, the table is left unchanged
+	 */
+	public <E extends JsArrayMixed> void insertRows(int rowIndex, JsArray<E> rowArray) {
+		String duplicate = findDuplicate(index, rowArray, keyColumn);
+		if (duplicate != null) {
+			throw new IllegalArgumentException("Duplicate key \"" + duplicate + "\"");
+		}
+		dataTable.insertRows(rowIndex, rowArray);
+		reindex();
+	}
+
+	/**
+	 * Removes the row with the given key, keeping the order of the other rows. The rows after the removed one are
+	 * reindexed.
+	 * 
+	 * @param key the row key
+	 * @return true if a row was removed
+	 */
+	public boolean removeByKey(String key) {
+		return removeByKey(key, false);
+	}
+
+	/**
+	 * Removes the row with the given key. When moveLastRow is true, the last row of the table is moved into the place
+	 * of the removed one, which keeps the removal constant time but changes the row order. The moved cells keep their
+	 * formatted values, which are then set explicitly on the new row until its values are changed.
+	 * 
+	 * @param key the row key
+	 * @param moveLastRow true to move the last row into the place of the removed one
+	 * @return true if a row was removed
+	 */
+	public boolean removeByKey(String key, boolean moveLastRow) {
+		if (moveLastRow) {
+			return moveLastRow(dataTable, index, key, keyColumn);
+		}
+		return removeByKey(dataTable, index, key, keyColumn);
+	}
+
+	/**
+	 * Removes rows, as {@link DataTable#removeRows(int, int)}, and updates the index.
+	 * 
+	 * @param rowIndex the first row to remove
+	 * @param numberOfRows the number of rows to remove
+	 */
+	public void removeRows(int rowIndex, int numberOfRows) {
+		dataTable.removeRows(rowIndex, numberOfRows);
+		reindex();
+	}
+
+	/**
+	 * Rebuilds the index from the key column, in a single pass. Needed only after rows are added, removed or reordered
+	 * directly on the underlying table.
+	 * 
+	 * @throws IllegalArgumentException if the table has duplicate keys, the previous index is kept
+	 */
+	public void reindex() {
+		JavaScriptObject newIndex = JavaScriptObject.createObject();
+		String duplicate = buildIndex(dataTable, newIndex, keyColumn);
+		if (duplicate != null) {
+			throw new IllegalArgumentException("Duplicate key \"" + duplicate + "\"");
+		}
+		index = newIndex;
+	}
+
+	/**
+	 * Sorts the rows by the given column, as {@link DataTable#sort(int)}, and updates the index.
+	 * 
+	 * @param columnIndex the column to sort by
+	 */
+	public void sort(int columnIndex) {
+		dataTable.sort(columnIndex);
+		reindex();
+	}
+
+	/**
+	 * Sorts the rows by the given columns, as {@link DataTable#sort(JsArray)}, and updates the index.
+	 * 
+	 * @param sortColumns the columns to sort by
+	 */
+	public void sort(JsArray<SortColumn> sortColumns) {
+		dataTable.sort(sortColumns);
+		reindex();
+	}
+
+	/**
+	 * Updates the row with the given key, or adds it at the end of the table if there is none, for tables whose
+	 * columns other than the key are numbers.
+	 * 
+	 * @param key the row key
+	 * @param values the values of the columns other than the key column, in column order. NaN for null values
+	 * @return the index of the updated or added row
+	 */
+	public int upsert(String key, double... values) {
+		return upsert(key, JsArrayUtils.readOnlyJsArray(values).<JsArrayMixed> cast());
+	}
+
+	/**
+	 * Updates the row with the given key, or adds it at the end of the table if there is none. A key of a number key
+	 * column is converted to a number first, so "1.0" updates the row whose key is "1".
+	 * 
+	 * @param key the row key
+	 * @param values the values of the columns other than the key column, in column order
+	 * @return the index of the updated or added row
+	 */
+	public int upsert(String key, JsArrayMixed values) {
+		return upsert(dataTable, index, key, keyColumn, values);
+	}
+
+	private static native String buildIndex(DataTable dataTable, JavaScriptObject index, int keyColumn) /*-{
+		var rowCount = dataTable.getNumberOfRows();
+		for (var i = 0; i < rowCount; i++) {
+			// Prefixed, so keys never clash with the names inherited from Object.prototype
+			var key = String(dataTable.getValue(i, keyColumn));
+			if (index.hasOwnProperty('$' + key)) {
+				return key;
+			}
+			index['$' + key] = i;
+		}
+		return null;
+	}-*/;
+
+	private static native JsArray<Selection> createSelection(JavaScriptObject index, JsArrayString keys) /*-{
+		var selection = [];
+		for (var i = 0; i < keys.length; i++) {
+			if (index.hasOwnProperty('$' + keys[i])) {
+				selection.push({
+					row : index['$' + keys[i]],
+					column : null
+				});
+			}
+		}
+		return selection;
+	}-*/;
+
+	private static native String findDuplicate(JavaScriptObject index, JsArray<?> rowArray, int keyColumn) /*-{
+		var added = {};
+		for (var i = 0; i < rowArray.length; i++) {
+			var cell = rowArray[i][keyColumn];
+			// Cells are either values or {v: value, f: formattedValue} objects
+			if (cell != null && typeof cell == 'object' && !(cell instanceof Date)) {
+				cell = cell.v;
+			}
+			var key = String(cell);
+			if (index.hasOwnProperty('$' + key) || added.hasOwnProperty('$' + key)) {
+				return key;
+			}
+			added['$' + key] = true;
+		}
+		return null;
+	}-*/;
+
+	private static native String getKey(DataTable dataTable, int rowIndex, int keyColumn) /*-{
+		return String(dataTable.getValue(rowIndex, keyColumn));
+	}-*/;
+
+	private static native int getRowIndex(JavaScriptObject index, String key) /*-{
+		return index.hasOwnProperty('$' + key) ? index['$' + key] : -1;
+	}-*/;
+
+	private static native JsArrayString getSelectionKeys(DataTable dataTable, JsArray<Selection> selection,
+			int keyColumn) /*-{
+		var keys = [];
+		for (var i = 0; i < selection.length; i++) {
+			if (selection[i].row != null) {
+				keys.push(String(dataTable.getValue(selection[i].row, keyColumn)));
+			}
+		}
+		return keys;
+	}-*/;
+
+	private static native boolean moveLastRow(DataTable dataTable, JavaScriptObject index, String key, int keyColumn) /*-{
+		if (!index.hasOwnProperty('$' + key)) {
+			return false;
+		}
+		var row = index['$' + key];
+		var last = dataTable.getNumberOfRows() - 1;
+		if (row != last) {
+			var columnCount = dataTable.getNumberOfColumns();
+			for (var j = 0; j < columnCount; j++) {
+				dataTable.setCell(row, j, dataTable.getValue(last, j), dataTable.getFormattedValue(last, j),
+						dataTable.getProperties(last, j));
+			}
+			dataTable.setRowProperties(row, dataTable.getRowProperties(last));
+			index['$' + String(dataTable.getValue(row, keyColumn))] = row;
+		}
+		dataTable.removeRow(last);
+		delete index['$' + key];
+		return true;
+	}-*/;
+
+	private static native boolean removeByKey(DataTable dataTable, JavaScriptObject index, String key, int keyColumn) /*-{
+		if (!index.hasOwnProperty('$' + key)) {
+			return false;
+		}
+		var row = index['$' + key];
+		dataTable.removeRow(row);
+		delete index['$' + key];
+		var rowCount = dataTable.getNumberOfRows();
+		for (var i = row; i < rowCount; i++) {
+			index['$' + String(dataTable.getValue(i, keyColumn))] = i;
+		}
+		return true;
+	}-*/;
+
+	private static native int upsert(DataTable dataTable, JavaScriptObject index, String key, int keyColumn,
+			JsArrayMixed values) /*-{
+		if (dataTable.getColumnType(keyColumn) == 'number') {
+			// Indexed as the key column value reads back, "1.0" is the key of the row "1"
+			key = String(+key);
+		}
+		var columnCount = dataTable.getNumberOfColumns();
+		if (index.hasOwnProperty('$' + key)) {
+			var row = index['$' + key];
+			for (var j = 0, k = 0; j < columnCount; j++) {
+				if (j != keyColumn) {
+					var v = values[k++];
+					dataTable.setValue(row, j, v !== v ? null : v);
+				}
+			}
+			return row;
+		}
+		var cells = new Array(columnCount);
+		for (var j = 0, k = 0; j < columnCount; j++) {
+			if (j == keyColumn) {
+				cells[j] = dataTable.getColumnType(keyColumn) == 'number' ? +key : key;
+			} else {
+				var v = values[k++];
+				cells[j] = v !== v ? null : v;
+			}
+		}
+		var added = dataTable.addRow(cells);
+		index['$' + key] = added;
+		return added;
+	}-*/;
+}
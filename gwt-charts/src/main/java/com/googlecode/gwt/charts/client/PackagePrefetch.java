@@ -0,0 +1,147 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+import com.googlecode.gwt.charts.client.apiloader.ApiLoader;
+import com.googlecode.gwt.charts.client.apiloader.ApiLoaderErrorHandler;
+import com.googlecode.gwt.charts.client.apiloader.ApiLoaderException;
+
+/**
+ * A pending prefetch of chart packages, created by {@link ChartLoader#prefetch(ChartPackage...)}.<br>
+ * Packages are loaded one at a time. Before each one the prefetch waits for the browser to be idle (using
+ * requestIdleCallback when available) and for the loader to have no load in progress, so a chart drawn in the
+ * meantime only waits for the package being prefetched, not for the whole set.
+ */
+public class PackagePrefetch {
+	// Polling delay when requestIdleCallback is not available
+	private static final int FALLBACK_DELAY_MS = 250;
+
+	private final ChartPackage[] packages;
+	private JavaScriptObject idleHandle;
+	private boolean canceled;
+	private boolean started;
+	private boolean done;
+
+	private static native void cancelIdle(JavaScriptObject handle) /*-{
+		if (handle.timer != null) {
+			$wnd.clearTimeout(handle.timer);
+		} else {
+			$wnd.cancelIdleCallback(handle.idle);
+		}
+	}-*/;
+
+	PackagePrefetch(ChartPackage[] packages) {
+		this.packages = packages;
+	}
+
+	/**
+	 * Cancels the prefetch. The package being loaded, if any, will still finish loading, since a load can't be
+	 * aborted.
+	 */
+	public void cancel() {
+		canceled = true;
+		if (idleHandle != null) {
+			cancelIdle(idleHandle);
+			idleHandle = null;
+		}
+	}
+
+	/**
+	 * Checks if the prefetch was canceled.
+	 * 
+	 * @return true if canceled
+	 */
+	public boolean isCanceled() {
+		return canceled;
+	}
+
+	/**
+	 * Checks if the prefetch is over, either because all packages are loaded or because the load failed.
+	 * 
+	 * @return true if done
+	 */
+	public boolean isDone() {
+		return done;
+	}
+
+	/**
+	 * Checks if the load of the first package was started.
+	 * 
+	 * @return true if started
+	 */
+	public boolean isStarted() {
+		return started;
+	}
+
+	void schedule() {
+		if (!canceled) {
+			idleHandle = requestIdle(FALLBACK_DELAY_MS);
+		}
+	}
+
+	private void onIdle() {
+		idleHandle = null;
+		if (canceled) {
+			return;
+		}
+		if (!ApiLoader.get().isIdle() || ChartLoader.hasPendingPackages()) {
+			// Don't compete with loads needed to draw charts
+			schedule();
+			return;
+		}
+		ChartPackage missingPackage = null;
+		for (ChartPackage chartPackage : packages) {
+			if (!ChartLoader.isLoaded(chartPackage)) {
+				missingPackage = chartPackage;
+				break;
+			}
+		}
+		if (missingPackage == null) {
+			done = true;
+			return;
+		}
+		started = true;
+		// One package per load, the next one waits for idle time again
+		ChartLoader loader = ChartLoader.createOnDemandLoader(missingPackage);
+		loader.load(new Runnable() {
+
+			@Override
+			public void run() {
+				schedule();
+			}
+		}, new ApiLoaderErrorHandler() {
+
+			@Override
+			public void onError(ApiLoaderException exception) {
+				done = true;
+			}
+		});
+	}
+
+	private native JavaScriptObject requestIdle(int fallbackDelay) /*-{
+		var prefetch = this;
+		var callback = $entry(function() {
+			prefetch.@com.googlecode.gwt.charts.client.PackagePrefetch::onIdle()();
+		});
+		if ($wnd.requestIdleCallback) {
+			return {
+				idle : $wnd.requestIdleCallback(callback)
+			};
+		}
+		return {
+			timer : $wnd.setTimeout(callback, fallbackDelay)
+		};
+	}-*/;
+}
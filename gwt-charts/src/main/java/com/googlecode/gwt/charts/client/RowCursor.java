@@ -0,0 +1,185 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+import com.google.gwt.core.client.JsArrayMixed;
+
+/**
+ * A reusable cursor for reading the rows of a {@link DataSource} from java. Rows are fetched in chunks, so the number
+ * of native calls and of arrays created depends on the number of chunks rather than on the number of cells. Date and
+ * datetime values are read as milliseconds since the epoch.
+ * 
+ * <pre>
+ * RowCursor cursor = new RowCursor(dataView);
+ * while (cursor.next()) {
+ * 	if (!cursor.isNull(1)) {
+ * 		total += cursor.getDouble(1);
+ * 	}
+ * }
+ * </pre>
+ * 
+ * The cursor reads a snapshot of each chunk, so changes to the data source are only seen from the next chunk on.
+ */
+public class RowCursor {
+	/**
+	 * The number of rows fetched at a time when no chunk size is given.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 512;
+
+	private final DataSource dataSource;
+	private final int chunkSize;
+	private int numberOfColumns;
+	private int numberOfRows;
+	private JsArrayMixed chunk;
+	private int chunkStart;
+	private int chunkRows;
+	private int rowIndex;
+	private int offset;
+
+	/**
+	 * Creates a cursor over all the rows of a data source, positioned before the first row.
+	 * 
+	 * @param dataSource the table or view to read
+	 */
+	public RowCursor(DataSource dataSource) {
+		this(dataSource, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Creates a cursor over all the rows of a data source, positioned before the first row.
+	 * 
+	 * @param dataSource the table or view to read
+	 * @param chunkSize the number of rows fetched at a time
+	 */
+	public RowCursor(DataSource dataSource, int chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("Chunk size must be positive");
+		}
+		this.dataSource = dataSource;
+		this.chunkSize = chunkSize;
+		reset();
+	}
+
+	/**
+	 * Returns the value of a boolean column in the current row.
+	 * 
+	 * @param columnIndex the column position
+	 * @return the cell value, false if null
+	 */
+	public boolean getBoolean(int columnIndex) {
+		return chunk.getBoolean(offset + columnIndex);
+	}
+
+	/**
+	 * Returns the value of a number column in the current row.
+	 * 
+	 * @param columnIndex the column position
+	 * @return the cell value, NaN if null
+	 */
+	public double getDouble(int columnIndex) {
+		return getNumber(chunk, offset + columnIndex);
+	}
+
+	/**
+	 * Returns the value of a date or datetime column in the current row.
+	 * 
+	 * @param columnIndex the column position
+	 * @return the cell value in milliseconds since the epoch, NaN if null
+	 */
+	public double getMillis(int columnIndex) {
+		return getNumber(chunk, offset + columnIndex);
+	}
+
+	/**
+	 * Returns the index of the current row in the data source.
+	 * 
+	 * @return the current row index, or -1 before the first call to {@link #next()}
+	 */
+	public int getRowIndex() {
+		return rowIndex;
+	}
+
+	/**
+	 * Returns the value of a string column in the current row.
+	 * 
+	 * @param columnIndex the column position
+	 * @return the cell value, or null
+	 */
+	public String getString(int columnIndex) {
+		return chunk.getString(offset + columnIndex);
+	}
+
+	/**
+	 * Checks whether a cell of the current row is null.
+	 * 
+	 * @param columnIndex the column position
+	 * @return true if the cell is null
+	 */
+	public boolean isNull(int columnIndex) {
+		return isNull(chunk, offset + columnIndex);
+	}
+
+	/**
+	 * Moves the cursor to the next row, fetching the next chunk of rows if needed.
+	 * 
+	 * @return true if there is a next row, false once all rows have been read
+	 */
+	public boolean next() {
+		if (rowIndex + 1 >= numberOfRows) {
+			return false;
+		}
+		rowIndex++;
+		if (chunk == null || rowIndex >= chunkStart + chunkRows) {
+			chunkStart = rowIndex;
+			chunkRows = Math.min(chunkSize, numberOfRows - rowIndex);
+			chunk = fetch(dataSource, chunkStart, chunkRows, numberOfColumns);
+		}
+		offset = (rowIndex - chunkStart) * numberOfColumns;
+		return true;
+	}
+
+	/**
+	 * Positions the cursor before the first row again, picking up any change to the number of rows or columns of the
+	 * data source.
+	 */
+	public void reset() {
+		numberOfColumns = dataSource.getNumberOfColumns();
+		numberOfRows = dataSource.getNumberOfRows();
+		chunk = null;
+		chunkStart = 0;
+		chunkRows = 0;
+		rowIndex = -1;
+		offset = 0;
+	}
+
+	private static native JsArrayMixed fetch(DataSource dataSource, int fromRow, int rowCount, int columnCount) /*-{
+		var values = new Array(rowCount * columnCount);
+		var k = 0;
+		for (var i = fromRow; i < fromRow + rowCount; i++) {
+			for (var j = 0; j < columnCount; j++) {
+				var v = dataSource.getValue(i, j);
+				values[k++] = v != null && typeof v.getTime == 'function' ? v.getTime() : v;
+			}
+		}
+		return values;
+	}-*/;
+
+	private static native double getNumber(JsArrayMixed values, int index) /*-{
+		var v = values[index];
+		return v == null ? NaN : v;
+	}-*/;
+
+	private static native boolean isNull(JsArrayMixed values, int index) /*-{
+		return values[index] == null;
+	}-*/;
+}
@@ -0,0 +1,566 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayInteger;
+import com.google.gwt.core.client.JsArrayNumber;
+import com.google.gwt.core.client.JsArrayString;
+import com.google.gwt.core.client.JsArrayUtils;
+import com.google.gwt.core.client.JsDate;
+import com.google.gwt.typedarrays.shared.Float64Array;
+
+import java.util.Date;
+
+/**
+ * A read-only table whose columns are backed directly by typed arrays, such as Float64Array buffers decoded from the
+ * network. The buffers are kept as they are and cells are only created when a value is read, so reading a large
+ * numeric series from application code costs no more memory than its buffer. Date and datetime columns hold
+ * milliseconds since the epoch, and NaN values are read as null. getValueMillis, getColumnRange, getFilteredRows and
+ * getSortedRows read the milliseconds without creating a Date per row.<br>
+ * This is not a {@link DataSource}: charts, controls and DataViews only read google.visualization.DataTable and
+ * DataView objects, so they can't draw it. To display the data, draw a DataTable returned by {@link #toDataTable()},
+ * which copies every value into one cell object per row and column. That copy costs as much memory as building the
+ * DataTable directly, so only make it for the rows and columns that are drawn, with
+ * {@link #toDataTable(int, int, int...)}.
+ */
+public class TypedArrayTable extends JavaScriptObject {
+
+	/**
+	 * Creates an empty table with a fixed number of rows. Every column added must have that many values.
+	 * 
+	 * @param numberOfRows the number of rows
+	 * @return a new table
+	 */
+	public static native TypedArrayTable create(int numberOfRows) /*-{
+		var cols = [];
+		var formatters = {};
+		var value = function(col, rowIndex) {
+			var v = col.data[rowIndex];
+			if (v == null || v !== v) {
+				return null;
+			}
+			return col.type == 'date' || col.type == 'datetime' ? new Date(v) : v;
+		};
+		return {
+			addColumn : function(type, label, data) {
+				cols.push({
+					type : type,
+					label : label || '',
+					data : data
+				});
+				return cols.length - 1;
+			},
+			getNumberOfRows : function() {
+				return numberOfRows;
+			},
+			getNumberOfColumns : function() {
+				return cols.length;
+			},
+			getColumnIndex : function(columnLabel) {
+				for (var j = 0; j < cols.length; j++) {
+					if (cols[j].label == columnLabel) {
+						return j;
+					}
+				}
+				return -1;
+			},
+			getColumnLabel : function(columnIndex) {
+				return cols[columnIndex].label;
+			},
+			getColumnRange : function(columnIndex) {
+				var col = cols[columnIndex];
+				var min = null;
+				var max = null;
+				for (var i = 0; i < numberOfRows; i++) {
+					var v = col.data[i];
+					if (v != null && v === v) {
+						if (min == null || v < min) {
+							min = v;
+						}
+						if (max == null || v > max) {
+							max = v;
+						}
+					}
+				}
+				var dates = col.type == 'date' || col.type == 'datetime';
+				return {
+					min : dates && min != null ? new Date(min) : min,
+					max : dates && max != null ? new Date(max) : max
+				};
+			},
+			getColumnType : function(columnIndex) {
+				return cols[columnIndex].type;
+			},
+			getColumnData : function(columnIndex) {
+				return cols[columnIndex].data;
+			},
+			getDistinctValues : function(columnIndex) {
+				var seen = {};
+				var distinct = [];
+				var hasNull = false;
+				for (var i = 0; i < numberOfRows; i++) {
+					var v = cols[columnIndex].data[i];
+					// NaN and null are both read as null, so they make a single entry
+					if (v == null || v !== v) {
+						if (!hasNull) {
+							hasNull = true;
+							distinct.push(null);
+						}
+					} else if (!Object.prototype.hasOwnProperty.call(seen, v)) {
+						seen[v] = true;
+						distinct.push(value(cols[columnIndex], i));
+					}
+				}
+				return distinct.sort(function(a, b) {
+					return a == null ? -1 : b == null ? 1 : a < b ? -1 : a > b ? 1 : 0;
+				});
+			},
+			getFilteredRows : function(filters) {
+				// Date bounds are turned into milliseconds once, so no Date is created or converted per row
+				var number = function(f, name) {
+					return f[name] == null || cols[f.column].type == 'string' ? f[name] : +f[name];
+				};
+				var bounds = new Array(filters.length);
+				for (var k = 0; k < filters.length; k++) {
+					bounds[k] = {
+						data : cols[filters[k].column].data,
+						exact : filters[k].hasOwnProperty('value'),
+						value : number(filters[k], 'value'),
+						minValue : number(filters[k], 'minValue'),
+						maxValue : number(filters[k], 'maxValue')
+					};
+				}
+				var rows = [];
+				for (var i = 0; i < numberOfRows; i++) {
+					var match = true;
+					for (var k = 0; k < bounds.length && match; k++) {
+						var f = bounds[k];
+						var v = f.data[i];
+						if (v !== v) {
+							v = null;
+						}
+						if (f.exact) {
+							match = v == null ? f.value == null : v == f.value;
+						} else {
+							match = v != null && (f.minValue == null || v >= f.minValue)
+									&& (f.maxValue == null || v <= f.maxValue);
+						}
+					}
+					if (match) {
+						rows.push(i);
+					}
+				}
+				return rows;
+			},
+			getFormattedValue : function(rowIndex, columnIndex) {
+				var col = cols[columnIndex];
+				var v = value(col, rowIndex);
+				if (v == null) {
+					return '';
+				}
+				var visualization = $wnd.google && $wnd.google.visualization;
+				if (col.type == 'number' && visualization && visualization.NumberFormat) {
+					formatters.number = formatters.number || new visualization.NumberFormat();
+					return formatters.number.formatValue(v);
+				}
+				if (col.type != 'string' && col.type != 'number' && visualization && visualization.DateFormat) {
+					formatters[col.type] = formatters[col.type] || new visualization.DateFormat({
+						formatType : col.type == 'date' ? 'medium' : 'short'
+					});
+					return formatters[col.type].formatValue(v);
+				}
+				return String(v);
+			},
+			getSortedRows : function(sortColumns) {
+				var sorts = [].concat(sortColumns);
+				var rows = new Array(numberOfRows);
+				for (var i = 0; i < numberOfRows; i++) {
+					rows[i] = i;
+				}
+				return rows.sort(function(a, b) {
+					for (var k = 0; k < sorts.length; k++) {
+						var sort = typeof sorts[k] == 'number' ? {
+							column : sorts[k]
+						} : sorts[k];
+						var data = cols[sort.column].data;
+						var x = data[a];
+						var y = data[b];
+						var c = x == y ? 0 : x == null || x !== x ? -1 : y == null || y !== y ? 1 : x < y ? -1 : 1;
+						if (c != 0) {
+							return sort.desc ? -c : c;
+						}
+					}
+					return a - b;
+				});
+			},
+			getValue : function(rowIndex, columnIndex) {
+				return value(cols[columnIndex], rowIndex);
+			},
+			toDataTable : function(rowIndex, rowCount, columnIndexes) {
+				// Copies all the rows and columns by default
+				rowIndex = rowIndex || 0;
+				rowCount = rowCount == null ? numberOfRows - rowIndex : rowCount;
+				if (!columnIndexes || columnIndexes.length == 0) {
+					columnIndexes = [];
+					for (var j = 0; j < cols.length; j++) {
+						columnIndexes.push(j);
+					}
+				}
+				var copied = new Array(columnIndexes.length);
+				var literalCols = new Array(columnIndexes.length);
+				for (var k = 0; k < columnIndexes.length; k++) {
+					copied[k] = cols[columnIndexes[k]];
+					literalCols[k] = {
+						type : copied[k].type,
+						label : copied[k].label
+					};
+				}
+				var rows = new Array(rowCount);
+				for (var i = 0; i < rowCount; i++) {
+					var c = new Array(copied.length);
+					for (var k = 0; k < copied.length; k++) {
+						c[k] = {
+							v : value(copied[k], rowIndex + i)
+						};
+					}
+					rows[i] = {
+						c : c
+					};
+				}
+				return new $wnd.google.visualization.DataTable({
+					cols : literalCols,
+					rows : rows
+				});
+			}
+		};
+	}-*/;
+
+	protected TypedArrayTable() {
+	}
+
+	/**
+	 * Adds a number, date or datetime column backed by the given typed array, which is used without copying when typed
+	 * arrays are supported natively.
+	 * 
+	 * @param type the column type, one of NUMBER, DATE or DATETIME
+	 * @param label the column label
+	 * @param values the column values, date values in milliseconds since the epoch
+	 * @return the index of the new column
+	 */
+	public final int addColumn(ColumnType type, String label, Float64Array values) {
+		checkColumn(type, values.length());
+		if (values instanceof JavaScriptObject) {
+			return addColumn(type.getName(), label, (JavaScriptObject) values);
+		}
+		JsArrayNumber copy = JavaScriptObject.createArray().cast();
+		for (int i = 0; i < values.length(); i++) {
+			copy.set(i, values.get(i));
+		}
+		return addColumn(type.getName(), label, copy);
+	}
+
+	/**
+	 * Adds a number, date or datetime column backed by the given array.
+	 * 
+	 * @param type the column type, one of NUMBER, DATE or DATETIME
+	 * @param label the column label
+	 * @param values the column values, date values in milliseconds since the epoch
+	 * @return the index of the new column
+	 */
+	public final int addColumn(ColumnType type, String label, JsArrayNumber values) {
+		checkColumn(type, values.length());
+		return addColumn(type.getName(), label, values);
+	}
+
+	/**
+	 * Adds a string column backed by the given array.
+	 * 
+	 * @param label the column label
+	 * @param values the column values
+	 * @return the index of the new column
+	 */
+	public final int addColumn(String label, JsArrayString values) {
+		if (values.length() != getNumberOfRows()) {
+			throw new IllegalArgumentException("Column has " + values.length() + " values, expected "
+					+ getNumberOfRows());
+		}
+		return addColumn(ColumnType.STRING.getName(), label, values);
+	}
+
+	/**
+	 * Returns the index of the first column with the given label.
+	 * 
+	 * @param label the column label
+	 * @return the column index, or -1 if no column has that label
+	 */
+	public final native int getColumnIndex(String label) /*-{
+		return this.getColumnIndex(label);
+	}-*/;
+
+	/**
+	 * Returns the label of a column.
+	 * 
+	 * @param columnIndex the column position
+	 * @return the column label
+	 */
+	public final native String getColumnLabel(int columnIndex) /*-{
+		return this.getColumnLabel(columnIndex);
+	}-*/;
+
+	/**
+	 * Returns the array backing a number, date or datetime column, without copying it. Date values are in milliseconds
+	 * since the epoch and null cells are NaN. Changes to the array are seen by the table.
+	 * 
+	 * @param columnIndex the column position
+	 * @return the column values, one per row
+	 */
+	public final native JsArrayNumber getColumnNumbers(int columnIndex) /*-{
+		return this.getColumnData(columnIndex);
+	}-*/;
+
+	/**
+	 * Returns the minimal and maximal values of a column, which are null if the column has no values.
+	 * 
+	 * @param columnIndex the column position
+	 * @return an object with the minimal and maximal values
+	 */
+	public final native ColumnRange getColumnRange(int columnIndex) /*-{
+		return this.getColumnRange(columnIndex);
+	}-*/;
+
+	/**
+	 * Returns the array backing a string column, without copying it. Changes to the array are seen by the table.
+	 * 
+	 * @param columnIndex the column position
+	 * @return the column values, one per row
+	 */
+	public final native JsArrayString getColumnStrings(int columnIndex) /*-{
+		return this.getColumnData(columnIndex);
+	}-*/;
+
+	/**
+	 * Returns the type of a column.
+	 * 
+	 * @param columnIndex the column position
+	 * @return the column type
+	 */
+	public final ColumnType getColumnType(int columnIndex) {
+		return ColumnType.findByName(getColumnTypeString(columnIndex));
+	}
+
+	/**
+	 * Returns the unique values of a date or datetime column in ascending order, null first if the column has null
+	 * cells.
+	 * 
+	 * @param columnIndex the column position
+	 * @return the unique values
+	 */
+	public final native JsArray<JsDate> getDistinctValuesDate(int columnIndex) /*-{
+		return this.getDistinctValues(columnIndex);
+	}-*/;
+
+	/**
+	 * Returns the unique values of a number column in ascending order, null first if the column has null cells.
+	 * 
+	 * @param columnIndex the column position
+	 * @return the unique values
+	 */
+	public final native JsArrayNumber getDistinctValuesNumber(int columnIndex) /*-{
+		return this.getDistinctValues(columnIndex);
+	}-*/;
+
+	/**
+	 * Returns the unique values of a string column in ascending order, null first if the column has null cells.
+	 * 
+	 * @param columnIndex the column position
+	 * @return the unique values
+	 */
+	public final native JsArrayString getDistinctValuesString(int columnIndex) /*-{
+		return this.getDistinctValues(columnIndex);
+	}-*/;
+
+	/**
+	 * Returns the indexes of the rows that match all of the given filters, in ascending order. Date filter values are
+	 * compared as milliseconds.
+	 * 
+	 * @param filters the filters
+	 * @return the matching row indexes
+	 */
+	public final native JsArrayNumber getFilteredRows(JsArray<RowFilter> filters) /*-{
+		return this.getFilteredRows(filters);
+	}-*/;
+
+	/**
+	 * Returns the formatted value of a cell, using the chart library formatters when the library is loaded.
+	 * 
+	 * @param rowIndex the row position
+	 * @param columnIndex the column position
+	 * @return the formatted value, or an empty string for a null cell
+	 */
+	public final native String getFormattedValue(int rowIndex, int columnIndex) /*-{
+		return this.getFormattedValue(rowIndex, columnIndex);
+	}-*/;
+
+	/**
+	 * Returns the number of columns.
+	 * 
+	 * @return the number of columns
+	 */
+	public final native int getNumberOfColumns() /*-{
+		return this.getNumberOfColumns();
+	}-*/;
+
+	/**
+	 * Returns the number of rows.
+	 * 
+	 * @return the number of rows
+	 */
+	public final native int getNumberOfRows() /*-{
+		return this.getNumberOfRows();
+	}-*/;
+
+	/**
+	 * Returns the row indexes sorted by the values of a column, in ascending order. Null values come first.
+	 * 
+	 * @param columnIndex the column to sort by
+	 * @return the sorted row indexes
+	 */
+	public final native JsArrayInteger getSortedRows(int columnIndex) /*-{
+		return this.getSortedRows(columnIndex);
+	}-*/;
+
+	/**
+	 * Returns the row indexes sorted by several columns. Null values come first in ascending order.
+	 * 
+	 * @param sortColumns the columns to sort by, and their order
+	 * @return the sorted row indexes
+	 */
+	public final native JsArrayInteger getSortedRows(JsArray<SortColumn> sortColumns) /*-{
+		return this.getSortedRows(sortColumns);
+	}-*/;
+
+	/**
+	 * Returns the value of a date or datetime cell.
+	 * 
+	 * @param rowIndex the row position
+	 * @param columnIndex the column position
+	 * @return the cell value, or null if the cell is null
+	 */
+	public final Date getValueDate(int rowIndex, int columnIndex) {
+		double millis = getValueMillis(rowIndex, columnIndex);
+		return Double.isNaN(millis) ? null : new Date((long) millis);
+	}
+
+	/**
+	 * Returns the value of a date or datetime cell as milliseconds since the epoch, without creating a Date.
+	 * 
+	 * @param rowIndex the row position
+	 * @param columnIndex the column position
+	 * @return the cell value, or NaN if the cell is null
+	 */
+	public final native double getValueMillis(int rowIndex, int columnIndex) /*-{
+		var v = this.getColumnData(columnIndex)[rowIndex];
+		return v == null ? NaN : v;
+	}-*/;
+
+	/**
+	 * Returns the value of a number cell.
+	 * 
+	 * @param rowIndex the row position
+	 * @param columnIndex the column position
+	 * @return the cell value, or NaN if the cell is null
+	 */
+	public final native double getValueNumber(int rowIndex, int columnIndex) /*-{
+		var v = this.getColumnData(columnIndex)[rowIndex];
+		return v == null ? NaN : v;
+	}-*/;
+
+	/**
+	 * Returns the value of a string cell.
+	 * 
+	 * @param rowIndex the row position
+	 * @param columnIndex the column position
+	 * @return the cell value
+	 */
+	public final native String getValueString(int rowIndex, int columnIndex) /*-{
+		return this.getColumnData(columnIndex)[rowIndex];
+	}-*/;
+
+	/**
+	 * Checks if a cell is null. NaN values of number, date and datetime columns are null cells.
+	 * 
+	 * @param rowIndex the row position
+	 * @param columnIndex the column position
+	 * @return true if null, false otherwise
+	 */
+	public final native boolean isValueNull(int rowIndex, int columnIndex) /*-{
+		return this.getValue(rowIndex, columnIndex) == null;
+	}-*/;
+
+	/**
+	 * Creates a DataTable holding a copy of the values of this table, in a single pass over the buffers. This is the
+	 * table to give to charts, controls or DataViews, which can't read this table.
+	 * 
+	 * @return a new DataTable
+	 */
+	public final DataTable toDataTable() {
+		return toDataTable(0, getNumberOfRows());
+	}
+
+	/**
+	 * Creates a DataTable holding a copy of a range of rows of this table, for charts that only draw part of a large
+	 * series. Only the copied rows and columns get cell objects.
+	 * 
+	 * @param rowIndex the position of the first row copied
+	 * @param numberOfRows the number of rows copied
+	 * @param columnIndexes the positions of the columns copied, in the order of the DataTable columns, or none to copy
+	 *        all the columns
+	 * @return a new DataTable
+	 */
+	public final DataTable toDataTable(int rowIndex, int numberOfRows, int... columnIndexes) {
+		if (rowIndex < 0 || numberOfRows < 0 || rowIndex + numberOfRows > getNumberOfRows()) {
+			throw new IllegalArgumentException("Rows " + rowIndex + " to " + (rowIndex + numberOfRows)
+					+ " are out of the " + getNumberOfRows() + " rows of the table");
+		}
+		for (int columnIndex : columnIndexes) {
+			if (columnIndex < 0 || columnIndex >= getNumberOfColumns()) {
+				throw new IllegalArgumentException("Column " + columnIndex + " is out of the "
+						+ getNumberOfColumns() + " columns of the table");
+			}
+		}
+		return toDataTable(rowIndex, numberOfRows, JsArrayUtils.readOnlyJsArray(columnIndexes));
+	}
+
+	private final void checkColumn(ColumnType type, int length) {
+		if (type != ColumnType.NUMBER && type != ColumnType.DATE && type != ColumnType.DATETIME) {
+			throw new IllegalArgumentException("Typed array columns can't be of type " + type.getName());
+		}
+		if (length != getNumberOfRows()) {
+			throw new IllegalArgumentException("Column has " + length + " values, expected " + getNumberOfRows());
+		}
+	}
+
+	private final native int addColumn(String type, String label, JavaScriptObject values) /*-{
+		return this.addColumn(type, label, values);
+	}-*/;
+
+	private final native String getColumnTypeString(int columnIndex) /*-{
+		return this.getColumnType(columnIndex);
+	}-*/;
+
+	private final native DataTable toDataTable(int rowIndex, int numberOfRows, JsArrayInteger columnIndexes) /*-{
+		return this.toDataTable(rowIndex, numberOfRows, columnIndexes);
+	}-*/;
+}
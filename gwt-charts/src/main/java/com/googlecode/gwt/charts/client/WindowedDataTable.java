@@ -0,0 +1,258 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayInteger;
+import com.google.gwt.core.client.JsArrayMixed;
+import com.google.gwt.core.client.JsArrayNumber;
+import com.google.gwt.core.client.JsArrayUtils;
+
+/**
+ * A sliding window over a stream of rows, for live time series that keep only the last rows or the last minutes of
+ * data.<br>
+ * Rows are appended at the end of an underlying DataTable, in order. Evicting a row only moves the start of the
+ * window: evicted rows stay at the head of the table and are removed in a single
+ * {@link DataTable#removeRows(int, int)} call once as many rows as the capacity are waiting. Appending and evicting
+ * therefore cost O(1) amortized, nothing is removed when the window is drawn, and the table never holds more than
+ * twice the capacity.<br>
+ * Charts draw the DataView returned by {@link #getDataView()}, which shows the contiguous range of rows of the window,
+ * oldest first.<br>
+ * Time based eviction reads the first column, which should be a date, datetime or number column holding milliseconds
+ * since the epoch, and assumes rows are appended in time order.
+ * 
+ * <pre>
+ * DataTable columns = DataTable.create();
+ * columns.addColumn(ColumnType.DATETIME, "Time");
+ * columns.addColumn(ColumnType.NUMBER, "Load");
+ * WindowedDataTable window = new WindowedDataTable(columns, 3600);
+ * window.setMaxAge(5 * 60 * 1000);
+ * ...
+ * window.append(System.currentTimeMillis(), load);
+ * chart.draw(window.getDataView(), options);
+ * </pre>
+ */
+public class WindowedDataTable {
+	private final DataTable dataTable;
+	private final int capacity;
+	private final double[] times;
+	private int start;
+	private int size;
+	private int evicted;
+	private double maxAge = Double.NaN;
+	private DataView dataView;
+
+	/**
+	 * Creates an empty window.
+	 * 
+	 * @param dataTable a table defining the columns of the window. It must have no rows, and holds the rows of the
+	 *        window
+	 * @param capacity the maximum number of rows kept, older rows are evicted
+	 */
+	public WindowedDataTable(DataTable dataTable, int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive");
+		}
+		if (dataTable.getNumberOfRows() != 0) {
+			throw new IllegalArgumentException("The table must have no rows");
+		}
+		this.dataTable = dataTable;
+		this.capacity = capacity;
+		times = new double[capacity];
+	}
+
+	/**
+	 * Appends a row to a window whose first column is a date or datetime column and whose other columns are numbers.
+	 * The oldest row is evicted when the window is full, and rows older than the maximum age, if any, are evicted too.
+	 * 
+	 * @param millis the first column value in milliseconds since the epoch
+	 * @param values the values of the other columns, NaN for null values
+	 */
+	public void append(double millis, double... values) {
+		if (size == capacity) {
+			evict(1);
+		}
+		addRow(dataTable, millis, JsArrayUtils.readOnlyJsArray(values));
+		appended(millis);
+	}
+
+	/**
+	 * Appends a row. The oldest row is evicted when the window is full, and rows older than the maximum age, if any,
+	 * are evicted too.
+	 * 
+	 * @param cells the row values, one per column, as accepted by {@link DataTable#addRow(JsArrayMixed)}
+	 */
+	public void append(JsArrayMixed cells) {
+		if (size == capacity) {
+			evict(1);
+		}
+		appended(addRow(dataTable, cells));
+	}
+
+	/**
+	 * Removes all the rows of the window.
+	 */
+	public void clear() {
+		if (dataTable.getNumberOfRows() > 0) {
+			dataTable.removeRows(0, dataTable.getNumberOfRows());
+		}
+		start = 0;
+		size = 0;
+		evicted = 0;
+		updateView();
+	}
+
+	/**
+	 * Removes the given number of rows, oldest first.
+	 * 
+	 * @param count the number of rows to remove
+	 */
+	public void evict(int count) {
+		count = Math.min(count, size);
+		if (count <= 0) {
+			return;
+		}
+		start = (start + count) % capacity;
+		size -= count;
+		evicted += count;
+		if (evicted >= capacity) {
+			dataTable.removeRows(0, evicted);
+			evicted = 0;
+			// The rows the view showed moved, a chart redrawing it must not read past the end of the table
+			updateView();
+		}
+	}
+
+	/**
+	 * Removes the rows whose first column is older than the given time.
+	 * 
+	 * @param millis the oldest time kept, in milliseconds since the epoch
+	 */
+	public void evictBefore(double millis) {
+		int count = 0;
+		while (count < size && times[(start + count) % capacity] < millis) {
+			count++;
+		}
+		evict(count);
+	}
+
+	/**
+	 * Returns the maximum number of rows kept.
+	 * 
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the table holding the rows of the window, for changing its formatting. Its first rows may be evicted rows
+	 * not removed yet, see {@link #getFirstRowIndex()}: draw {@link #getDataView()} instead.
+	 * 
+	 * @return the underlying table
+	 */
+	public DataTable getDataTable() {
+		return dataTable;
+	}
+
+	/**
+	 * Returns a view showing the rows of the window, oldest first, for drawing. The same view is returned on every
+	 * call, updated to the current rows of the window. Rows appended or evicted afterwards only show up in the view on
+	 * the next call, or when the evicted rows are removed from the table or the window is cleared, which update the
+	 * view so that it never shows rows the table doesn't have anymore.
+	 * 
+	 * @return the view of the window
+	 */
+	public DataView getDataView() {
+		if (dataView == null) {
+			dataView = DataView.create(dataTable);
+		}
+		updateView();
+		return dataView;
+	}
+
+	/**
+	 * Returns the index in the underlying table of the oldest row of the window.
+	 * 
+	 * @return the index of the first row of the window
+	 */
+	public int getFirstRowIndex() {
+		return evicted;
+	}
+
+	/**
+	 * Returns the maximum age of the rows kept.
+	 * 
+	 * @return the maximum age in milliseconds, or NaN if rows are only evicted by count
+	 */
+	public double getMaxAge() {
+		return maxAge;
+	}
+
+	/**
+	 * Returns the number of rows in the window.
+	 * 
+	 * @return the number of rows
+	 */
+	public int getNumberOfRows() {
+		return size;
+	}
+
+	/**
+	 * Sets the maximum age of the rows kept, relative to the newest row. Older rows are evicted when a row is appended.
+	 * 
+	 * @param maxAge the maximum age in milliseconds, or NaN to only evict by count
+	 */
+	public void setMaxAge(double maxAge) {
+		this.maxAge = maxAge;
+		if (!Double.isNaN(maxAge) && size > 0) {
+			evictBefore(times[(start + size - 1) % capacity] - maxAge);
+		}
+	}
+
+	private void appended(double millis) {
+		times[(start + size) % capacity] = millis;
+		size++;
+		if (!Double.isNaN(maxAge)) {
+			evictBefore(millis - maxAge);
+		}
+	}
+
+	private void updateView() {
+		if (dataView == null) {
+			return;
+		}
+		if (size > 0) {
+			dataView.setRows(evicted, evicted + size - 1);
+		} else {
+			dataView.setRows(JavaScriptObject.createArray().<JsArrayInteger> cast());
+		}
+	}
+
+	private static native void addRow(DataTable dataTable, double millis, JsArrayNumber values) /*-{
+		var type = dataTable.getColumnType(0);
+		var row = [ type == 'date' || type == 'datetime' ? new Date(millis) : millis ];
+		for (var j = 0; j < values.length; j++) {
+			var v = values[j];
+			row.push(v !== v ? null : v);
+		}
+		dataTable.addRow(row);
+	}-*/;
+
+	private static native double addRow(DataTable dataTable, JsArrayMixed cells) /*-{
+		var rowIndex = dataTable.addRow(cells);
+		// Returns the time used for eviction
+		var time = dataTable.getValue(rowIndex, 0);
+		return time == null ? NaN : typeof time == 'number' ? time : time.getTime ? time.getTime() : NaN;
+	}-*/;
+}
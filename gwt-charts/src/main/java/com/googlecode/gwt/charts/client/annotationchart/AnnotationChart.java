@@ -16,6 +16,7 @@ import com.google.gwt.core.client.JsArray;
 import com.google.gwt.dom.client.Element;
 
 import com.googlecode.gwt.charts.client.ChartObject;
+import com.googlecode.gwt.charts.client.ChartPackage;
 import com.googlecode.gwt.charts.client.ChartWidget;
 import com.googlecode.gwt.charts.client.DateRange;
 import com.googlecode.gwt.charts.client.Selection;
@@ -70,6 +71,11 @@ public class AnnotationChart extends ChartWidget<AnnotationChartOptions> {
 		return addHandler(handler);
 	}
 
+	@Override
+	public ChartPackage getChartPackage() {
+		return ChartPackage.ANNOTATIONCHART;
+	}
+
 	/**
 	 * Returns an array of selected objects, each one describing a data element in the underlying table used to create
 	 * the
@@ -82,7 +88,7 @@ public class AnnotationChart extends ChartWidget<AnnotationChartOptions> {
 	 * @return an array of selected objects
 	 */
 	public JsArray<Selection> getSelection() {
-		return chartObject.getSelection();
+		return getChartSelection();
 	}
 
 	/**
@@ -92,7 +98,7 @@ public class AnnotationChart extends ChartWidget<AnnotationChartOptions> {
 	 * @return an object with start and end
 	 */
 	public final DateRange getVisibleChartRange() {
-		return chartObject.getVisibleChartRange();
+		return getChartObject().getVisibleChartRange();
 	}
 
 	/**
@@ -102,7 +108,7 @@ public class AnnotationChart extends ChartWidget<AnnotationChartOptions> {
 	 * @param columnIndexes
 	 */
 	public void hideDataColumns(int... columnIndexes) {
-		chartObject.hideDataColumns(ArrayHelper.createArray(columnIndexes));
+		getChartObject().hideDataColumns(ArrayHelper.createArray(columnIndexes));
 	}
 
 	/**
@@ -113,7 +119,7 @@ public class AnnotationChart extends ChartWidget<AnnotationChartOptions> {
 	 * @param end set to null to include everything from start to the last date
 	 */
 	public void setVisibleChartRange(Date start, Date end) {
-		chartObject.setVisibleChartRange(DateHelper.getJsDate(start), DateHelper.getJsDate(end));
+		getChartObject().setVisibleChartRange(DateHelper.getJsDate(start), DateHelper.getJsDate(end));
 	}
 
 	/**
@@ -123,7 +129,7 @@ public class AnnotationChart extends ChartWidget<AnnotationChartOptions> {
 	 * @param columnIndexes
 	 */
 	public void showDataColumns(int... columnIndexes) {
-		chartObject.showDataColumns(ArrayHelper.createArray(columnIndexes));
+		getChartObject().showDataColumns(ArrayHelper.createArray(columnIndexes));
 	}
 
 	@Override
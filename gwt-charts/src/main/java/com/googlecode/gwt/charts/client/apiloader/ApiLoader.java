@@ -16,23 +16,64 @@
 package com.googlecode.gwt.charts.client.apiloader;
 
 import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayString;
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.ScriptElement;
+import com.google.gwt.http.client.URL;
+import com.google.gwt.user.client.Timer;
 
-import java.util.Vector;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * A wrapper for the <a href="https://developers.google.com/loader/">Google Loader/a>.
+ * There is a single loader per application: the loader script is injected only once and each distinct set of
+ * packages is requested only once per version and language. Requests made while a load is in flight are merged into
+ * the next pending load or queued behind the in-flight one.
+ * Completion of the loader script is driven by its load and error events, polling is only kept as a fallback for
+ * browsers that don't fire them.
  */
 public class ApiLoader {
-	private static final int SCHEDULE_DELAY_MS = 10;
+	private static final int FALLBACK_POLL_DELAY_MS = 250;
 
-	private static String HOSTNAME = "www.gstatic.com";
+	private static final int DEFAULT_TIMEOUT_MS = 30000;
+
+	/**
+	 * The default location of the chart library.
+	 */
+	public static final String DEFAULT_BASE_URL = "https://www.gstatic.com/charts";
+
+	private static final String LOADER_SCRIPT = "loader.js";
+
+	// Id of the loader script added early by the preload linker
+	private static final String LOADER_SCRIPT_ID = "gwt-charts-loader";
+
+	private static ApiLoader instance;
+
+	/**
+	 * Returns the application wide loader.
+	 *
+	 * @return the shared ApiLoader instance
+	 */
+	public static ApiLoader get() {
+		if (instance == null) {
+			instance = new ApiLoader(DEFAULT_TIMEOUT_MS);
+		}
+		return instance;
+	}
 
 	/**
 	 * Launches an API load request.
-	 * 
+	 *
 	 * @param version the API version to load
 	 * @param onLoad a callback that will be invoked when the API is finished
 	 *        loaded. Do not make any calls into the API being loaded until
@@ -41,33 +82,33 @@ public class ApiLoader {
 	 */
 	public static void loadApi(final String version, Runnable onLoad,
 			ApiLoaderOptions optionalSettings) {
-		ApiLoader loader = new ApiLoader();
+		loadApi(version, onLoad, null, optionalSettings);
+	}
 
-		// Set the onLoad callback into the
+	/**
+	 * Launches an API load request.
+	 *
+	 * @param version the API version to load
+	 * @param onLoad a callback that will be invoked when the API is finished
+	 *        loaded. Do not make any calls into the API being loaded until
+	 *        this call returns.
+	 * @param onError a handler that will be invoked if the loader script fails or if the
+	 *        load does not complete within the timeout, can be null.
+	 * @param optionalSettings an object containing additional settings.
+	 * @see #setTimeout(int)
+	 */
+	public static void loadApi(final String version, Runnable onLoad, ApiLoaderErrorHandler onError,
+			ApiLoaderOptions optionalSettings) {
 		assert (onLoad != null);
 		ApiLoaderOptions settings = optionalSettings;
 		if (settings == null) {
 			settings = ApiLoaderOptions.create();
 		}
-		settings.setCallback(onLoad);
-		final ApiLoaderOptions copyOfSettings = settings;
-
-		// Define a Runnable that will run the actual load.
-		Runnable apiLoad = new Runnable() {
-
-			@Override
-			public void run() {
-				loadApi(version, copyOfSettings);
-			}
-		};
+		get().request(version, settings, onLoad, onError);
+	}
 
-		if (loader.loaded) {
-			// jsapi is finished loading, start the individual API load now.
-			apiLoad.run();
-		} else {
-			// Defer the load until jsapi is finished.
-			loader.queuedApiLoads.add(apiLoad);
-		}
+	static String createKey(String version, String language) {
+		return version + "|" + language;
 	}
 
 	/**
@@ -77,85 +118,632 @@ public class ApiLoader {
 		$wnd.google.charts.load(version, settings);
 	}-*/;
 
-	// NativeCreateCallback already ran, or someone injected the API outside of
-	// this program.
-	private boolean alreadyInjected = false;
-	// Set to true if the init(key) method has been called.
-	private boolean initialized = false;
+	/**
+	 * Checks if the preload linker already called google.charts.load() for these packages, version and language.
+	 */
+	private static native boolean isPreloaded(String version, String language, JsArrayString packages) /*-{
+		var preload = $wnd.gwtChartsPreload;
+		if (!preload || preload.version != version || (preload.language || null) != (language || null)) {
+			return false;
+		}
+		for (var i = 0; i < packages.length; i++) {
+			if (preload.packages.indexOf(packages[i]) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}-*/;
+
+	/**
+	 * Waits for the google.charts.load() calls already made, instead of making a new one.
+	 */
+	private static native void waitForLoad(JavaScriptObject settings) /*-{
+		$wnd.google.charts.setOnLoadCallback(settings.callback);
+	}-*/;
+
+	private static List<String> toList(JsArrayString array) {
+		List<String> list = new ArrayList<String>();
+		if (array != null) {
+			for (int i = 0; i < array.length(); i++) {
+				list.add(array.get(i));
+			}
+		}
+		return list;
+	}
+
+	// True once the loader script has been added to the page, or someone injected the API outside of this program.
+	private boolean injected = false;
 
-	// True if the JavaScript __gwt_charts_AjaxLoader_onLoad callback has already run.
-	// This function is registered on the window in createCallback()
+	// True if google.charts.load is available.
 	private boolean loaded = false;
 
-	private Vector<Runnable> queuedApiLoads = new Vector<Runnable>();
+	// The URL the loader script was injected from.
+	private String loaderUrl;
+
+	// Where to inject the loader script from, kept out of the options given to google.charts.load().
+	private String baseUrl;
+	private String customLoaderUrl;
+	private String scriptCacheUrl;
+	private String scriptCacheScope;
+
+	// The injected loader script, until it finishes loading or fails.
+	private ScriptElement script;
+
+	// Fails queued loads if the loader script takes too long.
+	private Timer scriptTimer;
+
+	// Fails the current load if its callback takes too long.
+	private Timer loadTimer;
+
+	private int timeout;
+
+	private final LoadMetrics metrics = new LoadMetrics();
+
+	// The google.charts.load() call currently waiting for its callback.
+	private PackageLoad currentLoad;
+
+	// Loads waiting for the loader script or for the current load to finish.
+	private final LinkedList<PackageLoad> queuedLoads = new LinkedList<PackageLoad>();
+
+	// Packages already loaded, by version and language.
+	private final Map<String, Set<String>> loadedPackages = new HashMap<String, Set<String>>();
+
+	private int requestCount;
+	private int scriptInjectionCount;
+	private int loadCallCount;
+	private int mergedRequestCount;
+	private int cachedRequestCount;
 
 	/**
 	 * Initialize the API without specifying a key.
+	 *
+	 * @deprecated the loader is shared by the whole application, use {@link #get()} instead. This constructor only
+	 *             starts loading the loader script of the shared loader, without the script cache, and the new
+	 *             instance is not used for loading.
 	 */
+	@Deprecated
 	public ApiLoader() {
-		if (initialized == true) {
-			return;
-		}
-		boolean alreadyLoaded = injectJsApi();
+		this(DEFAULT_TIMEOUT_MS);
+		get().preload();
+	}
 
-		// In IE, the above script can execute immediately if its already in the
-		// cache, so don't touch the loaded variable unless we bypassed loading
-		// the script completely
-		if (alreadyLoaded) {
-			loaded = true;
+	// Creates a loader of its own, only get() and the tests need one
+	ApiLoader(int timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Returns the number of milliseconds to wait for the loader script or a package load before failing.
+	 *
+	 * @return the timeout in milliseconds
+	 */
+	public int getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * Returns the number of requests that were answered without loading anything, because their packages had already
+	 * been loaded.
+	 *
+	 * @return the number of requests served from already loaded packages
+	 */
+	public int getCachedRequestCount() {
+		return cachedRequestCount;
+	}
+
+	/**
+	 * Returns the base URL of the chart library.
+	 *
+	 * @return the base URL, or null for {@link #DEFAULT_BASE_URL}
+	 */
+	public String getBaseUrl() {
+		return baseUrl;
+	}
+
+	/**
+	 * Returns the URL the loader script was injected from.
+	 *
+	 * @return the loader URL, or null if the script was not injected by this loader
+	 */
+	public String getLoaderUrl() {
+		return loaderUrl;
+	}
+
+	/**
+	 * Returns the timestamps recorded while loading the loader script and the packages.
+	 *
+	 * @return the load metrics
+	 */
+	public LoadMetrics getLoadMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Returns the number of google.charts.load() calls made so far.
+	 *
+	 * @return the number of google.charts.load() calls
+	 */
+	public int getLoadCallCount() {
+		return loadCallCount;
+	}
+
+	/**
+	 * Returns the number of requests that were merged into a pending or in-flight load instead of causing a new one.
+	 *
+	 * @return the number of merged requests
+	 */
+	public int getMergedRequestCount() {
+		return mergedRequestCount;
+	}
+
+	/**
+	 * Returns the total number of load requests received.
+	 *
+	 * @return the number of load requests
+	 */
+	public int getRequestCount() {
+		return requestCount;
+	}
+
+	/**
+	 * Returns the scope the script cache service worker is registered with.
+	 *
+	 * @return the scope, or null if the script cache is disabled
+	 */
+	public String getScriptCacheScope() {
+		return scriptCacheScope;
+	}
+
+	/**
+	 * Returns the URL of the service worker caching the chart library scripts.
+	 *
+	 * @return the service worker URL, or null if the script cache is disabled
+	 */
+	public String getScriptCacheUrl() {
+		return scriptCacheUrl;
+	}
+
+	/**
+	 * Returns the number of times the loader script was added to the page. Should never be greater than one.
+	 *
+	 * @return the number of script injections
+	 */
+	public int getScriptInjectionCount() {
+		return scriptInjectionCount;
+	}
+
+	/**
+	 * Checks if the loader is idle, with no load in progress or waiting.
+	 *
+	 * @return true if nothing is being loaded
+	 */
+	public boolean isIdle() {
+		return currentLoad == null && queuedLoads.isEmpty();
+	}
+
+	/**
+	 * Checks if the given packages were already loaded for the specified version and language.
+	 *
+	 * @param version the API version
+	 * @param language the language, or null for the default one
+	 * @param packages the package names
+	 * @return true if all packages are loaded
+	 */
+	public boolean isLoaded(String version, String language, Collection<String> packages) {
+		Set<String> loadedSet = loadedPackages.get(createKey(version, language));
+		return loadedSet != null && loadedSet.containsAll(packages);
+	}
+
+	/**
+	 * Sets the URL of the directory the chart library is served from, for instance a CDN or a local mirror of
+	 * https://www.gstatic.com/charts. The loader script is fetched from loader.js under this URL unless a loader URL
+	 * is set. Has no effect once the loader script was injected.
+	 *
+	 * @param baseUrl the base URL, or null for {@link #DEFAULT_BASE_URL}
+	 */
+	public void setBaseUrl(String baseUrl) {
+		this.baseUrl = baseUrl;
+	}
+
+	/**
+	 * Sets the full URL of the loader script, for instance a versioned path with a long cache lifetime. Takes
+	 * precedence over the base URL. Has no effect once the loader script was injected.
+	 *
+	 * @param loaderUrl the loader script URL, or null to derive it from the base URL
+	 */
+	public void setLoaderUrl(String loaderUrl) {
+		this.customLoaderUrl = loaderUrl;
+	}
+
+	/**
+	 * Enables the persistent cache of the chart library scripts, served by the given service worker. The module ships
+	 * one as charts-sw.js in its public folder. The worker serves the loader and package scripts from Cache Storage,
+	 * keyed by library release, language and packages, and revalidates them in the background, so returning visits
+	 * don't wait on the network. The scripts of older releases are dropped once a newer one is fetched. Has no effect
+	 * once the loader script was injected.<br>
+	 * A page is controlled by the registration with the longest matching scope, so the scope should be as narrow as
+	 * possible, for instance the path of the host page itself, and must not be the scope of a service worker the
+	 * application already has. Applications with their own service worker should not use this method, but import
+	 * charts-sw.js into their worker instead, as described in that file.
+	 *
+	 * @param scriptCacheUrl the service worker URL, or null to disable the cache
+	 * @param scope the scope to register the worker with, required with a service worker URL
+	 */
+	public void setScriptCacheUrl(String scriptCacheUrl, String scope) {
+		if (scriptCacheUrl != null && scope == null) {
+			throw new IllegalArgumentException("A script cache needs an explicit scope");
 		}
-		initialized = true;
+		this.scriptCacheUrl = scriptCacheUrl;
+		this.scriptCacheScope = scriptCacheUrl != null ? scope : null;
 	}
 
-	private native boolean isLoaded() /*-{
-		return ($wnd['google'] && $wnd.google['charts'] && $wnd.google.charts['load']);
+	/**
+	 * Sets the number of milliseconds to wait for the loader script or a package load before failing the pending
+	 * requests with a timeout. Zero or a negative value disables the timeout.
+	 *
+	 * @param timeout the timeout in milliseconds, the default is 30 seconds
+	 */
+	public void setTimeout(int timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Called back when the jsapi is finished loaded. It must kick of any API
+	 * loads that have been queued while waiting on jsapi to finish loading.
+	 */
+	protected void onLoadCallback() {
+		loaded = true;
+		script = null;
+		cancelScriptTimer();
+		metrics.record(LoadPhase.LOADER_READY, null);
+		startNextLoad();
+	}
+
+	private native void addScriptHandlers(ScriptElement element) /*-{
+		var loader = this;
+		element.onload = $entry(function() {
+			loader.@com.googlecode.gwt.charts.client.apiloader.ApiLoader::onScriptLoad()();
+		});
+		element.onerror = $entry(function() {
+			loader.@com.googlecode.gwt.charts.client.apiloader.ApiLoader::onScriptError()();
+		});
 	}-*/;
 
+	private void cancelLoadTimer() {
+		if (loadTimer != null) {
+			loadTimer.cancel();
+			loadTimer = null;
+		}
+	}
+
+	private void cancelScriptTimer() {
+		if (scriptTimer != null) {
+			scriptTimer.cancel();
+			scriptTimer = null;
+		}
+	}
+
+	private void fail(PackageLoad load, ApiLoaderException exception) {
+		load.setFinished(true);
+		metrics.record(LoadPhase.LOAD_FAILED, load.getTiming());
+		for (ApiLoaderErrorHandler errorHandler : load.getErrorHandlers()) {
+			errorHandler.onError(exception);
+		}
+	}
+
+	private void failQueuedLoads(ApiLoaderException exception) {
+		List<PackageLoad> failedLoads = new ArrayList<PackageLoad>(queuedLoads);
+		queuedLoads.clear();
+		for (PackageLoad load : failedLoads) {
+			fail(load, exception);
+		}
+	}
+
+	/**
+	 * Finishes a load whose packages are all loaded already, without calling google.charts.load(). The callbacks
+	 * still run asynchronously, like for any other load.
+	 *
+	 * @param load the package load
+	 */
+	private void finishLoaded(final PackageLoad load) {
+		cachedRequestCount += load.getCallbacks().size();
+		load.setFinished(true);
+		if (load.getTiming() != null) {
+			metrics.record(LoadPhase.PACKAGES_LOADED, load.getTiming());
+		}
+		Scheduler.get().scheduleFinally(new Scheduler.ScheduledCommand() {
+
+			@Override
+			public void execute() {
+				for (Runnable callback : load.getCallbacks()) {
+					ExceptionHelper.runProtected(callback);
+				}
+			}
+		});
+	}
+
 	/**
-	 * Adds a script element to the DOM that loads the API Loader main script "jsapi".
-	 * 
+	 * Adds a script element to the DOM that loads the API Loader main script, from the configured location.
+	 *
 	 * @returns <code>true</code> if the API has already been loaded. Otherwise,
 	 *          returns <code>false</code>, meaning that the application should
 	 *          wait for a callback.
 	 */
-	private boolean injectJsApi() {
-		if (alreadyInjected) {
-			return true;
+	private boolean injectJsApi(PackageLoad load) {
+		if (injected) {
+			return loaded;
+		}
+		injected = true;
+		if (scriptCacheUrl != null && load != null) {
+			registerScriptCache(load);
 		}
-		alreadyInjected = true;
 		if (isLoaded()) {
+			metrics.record(LoadPhase.LOADER_READY, null);
 			return true;
 		}
 		Document doc = Document.get();
-		String src = "https://" + HOSTNAME + "/charts/loader.js";
-		ScriptElement script = doc.createScriptElement();
-		script.setSrc(src);
-		script.setType("text/javascript");
-		doc.getBody().appendChild(script);
-		
+		Element preloaded = doc.getElementById(LOADER_SCRIPT_ID);
+		if (preloaded != null) {
+			// Already added by the preload linker, wait for it instead of adding another one
+			script = preloaded.cast();
+			loaderUrl = script.getSrc();
+			addScriptHandlers(script);
+		} else {
+			loaderUrl = resolveLoaderUrl();
+			script = doc.createScriptElement();
+			addScriptHandlers(script);
+			script.setSrc(loaderUrl);
+			script.setType("text/javascript");
+			doc.getBody().appendChild(script);
+			scriptInjectionCount++;
+		}
+		metrics.record(LoadPhase.SCRIPT_INJECTED, null);
+
+		// Fallback for browsers that don't fire the script load event
 		Scheduler.get().scheduleFixedDelay(new Scheduler.RepeatingCommand() {
 			@Override
 			public boolean execute() {
+				if (loaded || script == null) {
+					return false;
+				}
 				if (isLoaded()) {
 					onLoadCallback();
 					return false;
 				}
 				return true;
 			}
-		}, SCHEDULE_DELAY_MS);
-		
+		}, FALLBACK_POLL_DELAY_MS);
+
 		return false;
 	}
 
-	/**
-	 * Called back when the jsapi is finished loaded. It must kick of any API
-	 * loads that have been queued while waiting on jsapi to finish loading.
-	 */
-	protected void onLoadCallback() {
-		loaded = true;
-		for (Runnable r : queuedApiLoads) {
-			r.run();
+	private native boolean isLoaded() /*-{
+		return !!($wnd['google'] && $wnd.google['charts'] && $wnd.google.charts['load']);
+	}-*/;
+
+	private void onPackagesLoaded(PackageLoad load) {
+		if (currentLoad == load) {
+			cancelLoadTimer();
+		}
+		Set<String> loadedSet = loadedPackages.get(load.getKey());
+		if (loadedSet == null) {
+			loadedSet = new HashSet<String>();
+			loadedPackages.put(load.getKey(), loadedSet);
 		}
-		queuedApiLoads.clear();
+		loadedSet.addAll(load.getPackages());
+		if (currentLoad == load) {
+			currentLoad = null;
+		}
+		// Start the next load before running the callbacks, so a failing callback can't stall the queue
+		startNextLoad();
+		if (load.isFinished()) {
+			// Already reported as failed
+			return;
+		}
+		load.setFinished(true);
+		metrics.record(LoadPhase.PACKAGES_LOADED, load.getTiming());
+		for (Runnable callback : load.getCallbacks()) {
+			ExceptionHelper.runProtected(callback);
+		}
+	}
+
+	private void onPackagesTimeout(PackageLoad load) {
+		if (currentLoad != load) {
+			return;
+		}
+		loadTimer = null;
+		currentLoad = null;
+		startNextLoad();
+		fail(load, new ApiLoaderException("Timed out loading packages " + load.getPackages(), true));
+	}
+
+	private void onScriptError() {
+		if (loaded) {
+			return;
+		}
+		// Allow the next request to try again
+		if (script != null) {
+			script.removeFromParent();
+			script = null;
+		}
+		injected = false;
+		cancelScriptTimer();
+		failQueuedLoads(new ApiLoaderException("Failed to load the chart loader script from " + loaderUrl, false));
+	}
+
+	private void onScriptLoad() {
+		if (loaded) {
+			return;
+		}
+		if (isLoaded()) {
+			onLoadCallback();
+		} else {
+			onScriptError();
+		}
+	}
+
+	private void onScriptTimeout() {
+		scriptTimer = null;
+		if (!loaded) {
+			// The script may still arrive later, so it is left in place for the next requests
+			failQueuedLoads(new ApiLoaderException("Timed out loading the chart loader script", true));
+		}
+	}
+
+	private void registerScriptCache(PackageLoad load) {
+		String loaderDirectory = resolveLoaderUrl();
+		loaderDirectory = loaderDirectory.substring(0, loaderDirectory.lastIndexOf('/') + 1);
+		// The packages are part of the worker URL, so a different set installs a new worker that drops the old cache
+		List<String> packages = new ArrayList<String>(load.getPackages());
+		Collections.sort(packages);
+		StringBuilder cacheUrl = new StringBuilder(scriptCacheUrl);
+		cacheUrl.append(scriptCacheUrl.indexOf('?') < 0 ? '?' : '&');
+		cacheUrl.append("version=").append(URL.encodeQueryString(load.getVersion()));
+		if (load.getLanguage() != null) {
+			cacheUrl.append("&language=").append(URL.encodeQueryString(load.getLanguage()));
+		}
+		for (String name : packages) {
+			cacheUrl.append("&package=").append(URL.encodeQueryString(name));
+		}
+		cacheUrl.append("&base=").append(URL.encodeQueryString(loaderDirectory));
+		registerServiceWorker(cacheUrl.toString(), scriptCacheScope);
+	}
+
+	private native void registerServiceWorker(String url, String scope) /*-{
+		var serviceWorker = $wnd.navigator.serviceWorker;
+		if (serviceWorker) {
+			// Not waited for, the scripts are cached from the next visit on
+			serviceWorker.register(url, {
+				scope : scope
+			})['catch'](function(e) {
+				if ($wnd.console) {
+					$wnd.console.warn('Chart script cache not available: ' + e);
+				}
+			});
+		}
+	}-*/;
+
+	private void preload() {
+		if (injectJsApi(null)) {
+			loaded = true;
+		}
+	}
+
+	void request(String version, ApiLoaderOptions settings, Runnable onLoad,
+			ApiLoaderErrorHandler onError) {
+		requestCount++;
+		String language = settings.getLanguage();
+		List<String> packages = toList(settings.getPackages());
+		String key = createKey(version, language);
+
+		if (loaded && currentLoad == null && queuedLoads.isEmpty() && isLoaded(version, language, packages)) {
+			PackageLoad load = new PackageLoad(version, language, settings);
+			load.addPackages(packages);
+			load.addCallback(onLoad, onError);
+			// No timing, it would only record that nothing was loaded
+			finishLoaded(load);
+			return;
+		}
+		if (currentLoad != null && currentLoad.getKey().equals(key) && currentLoad.containsAll(packages)) {
+			mergedRequestCount++;
+			currentLoad.addCallback(onLoad, onError);
+			return;
+		}
+		for (PackageLoad queuedLoad : queuedLoads) {
+			if (queuedLoad.getKey().equals(key)) {
+				mergedRequestCount++;
+				queuedLoad.addPackages(packages);
+				queuedLoad.addCallback(onLoad, onError);
+				return;
+			}
+		}
+
+		PackageLoad load = new PackageLoad(version, language, settings);
+		load.addPackages(packages);
+		load.addCallback(onLoad, onError);
+		load.setTiming(metrics.createTiming(version, language, load.getPackages()));
+		queuedLoads.add(load);
+		if (injectJsApi(load)) {
+			loaded = true;
+			startNextLoad();
+		} else {
+			startScriptTimer();
+		}
+	}
+
+	private String resolveLoaderUrl() {
+		if (customLoaderUrl != null) {
+			return customLoaderUrl;
+		}
+		String base = baseUrl != null ? baseUrl : DEFAULT_BASE_URL;
+		return base.endsWith("/") ? base + LOADER_SCRIPT : base + "/" + LOADER_SCRIPT;
+	}
+
+	private void startLoadTimer(final PackageLoad load) {
+		cancelLoadTimer();
+		if (timeout <= 0) {
+			return;
+		}
+		loadTimer = new Timer() {
+
+			@Override
+			public void run() {
+				onPackagesTimeout(load);
+			}
+		};
+		loadTimer.schedule(timeout);
+	}
+
+	private void startNextLoad() {
+		if (!loaded) {
+			return;
+		}
+		while (currentLoad == null && !queuedLoads.isEmpty()) {
+			final PackageLoad load = queuedLoads.removeFirst();
+			if (isLoaded(load.getVersion(), load.getLanguage(), load.getPackages())) {
+				finishLoaded(load);
+				continue;
+			}
+			currentLoad = load;
+			ApiLoaderOptions settings = load.getSettings();
+			settings.setPackages(load.getPackages().toArray(new String[load.getPackages().size()]));
+			settings.setCallback(new Runnable() {
+
+				@Override
+				public void run() {
+					onPackagesLoaded(load);
+				}
+			});
+			startLoadTimer(load);
+			metrics.record(LoadPhase.LOAD_CALLED, load.getTiming());
+			try {
+				if (isPreloaded(load.getVersion(), load.getLanguage(), settings.getPackages())) {
+					// Already requested by the preload linker, loading them again would be a second network round trip
+					waitForLoad(settings);
+				} else {
+					loadCallCount++;
+					loadApi(load.getVersion(), settings);
+				}
+			} catch (RuntimeException e) {
+				cancelLoadTimer();
+				currentLoad = null;
+				fail(load, new ApiLoaderException("Failed to load packages " + load.getPackages() + ": "
+						+ e.getMessage(), false));
+			}
+		}
+	}
+
+	private void startScriptTimer() {
+		if (scriptTimer != null || timeout <= 0) {
+			return;
+		}
+		scriptTimer = new Timer() {
+
+			@Override
+			public void run() {
+				onScriptTimeout();
+			}
+		};
+		scriptTimer.schedule(timeout);
 	}
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client.apiloader;
+
+/**
+ * Describes why a load request failed.
+ */
+public class ApiLoaderException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	private boolean timeout;
+
+	/**
+	 * Creates a new exception.
+	 * 
+	 * @param message the failure description
+	 * @param timeout true if the request failed because it did not complete in time
+	 */
+	public ApiLoaderException(String message, boolean timeout) {
+		super(message);
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Checks if the request failed because it did not complete in time.
+	 * 
+	 * @return true for timeouts, false for script or load errors
+	 */
+	public boolean isTimeout() {
+		return timeout;
+	}
+}
@@ -21,6 +21,24 @@ public class ApiLoaderOptions extends JavaScriptObject {
 	protected ApiLoaderOptions() {
 	}
 
+	/**
+	 * Returns the language in which to localize the API's UI controls.
+	 * 
+	 * @return the language or null if not set
+	 */
+	public final native String getLanguage() /*-{
+		return this.language;
+	}-*/;
+
+	/**
+	 * Returns the packages to be read in along with the core API.
+	 * 
+	 * @return the packages or null if not set
+	 */
+	public final native JsArrayString getPackages() /*-{
+		return this.packages;
+	}-*/;
+
 	/**
 	 * The base domain from which to load the API.
 	 * 
@@ -37,9 +55,10 @@ public class ApiLoaderOptions extends JavaScriptObject {
 	 * @param onLoad
 	 */
 	public final native void setCallback(Runnable onLoad) /*-{
-		this.callback = function() {
+		// Entered like any event, so commands scheduled by the callback run when it returns
+		this.callback = $entry(function() {
 			@com.googlecode.gwt.charts.client.apiloader.ExceptionHelper::runProtected(Ljava/lang/Runnable;)(onLoad);
-		}
+		});
 	}-*/;
 
 	/**
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client.apiloader;
+
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.core.client.GWT;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Timestamps of the chart library load, recorded by {@link ApiLoader}. All timestamps are in milliseconds since the
+ * epoch, phases that were not reached are NaN.<br>
+ * Every phase is also marked through the browser Performance API when available, as "gwt-charts:" followed by the
+ * phase name and the packages, together with "gwt-charts:loader" and "gwt-charts:load:" measures for the loader script
+ * and each package load.
+ */
+public class LoadMetrics {
+	private static final String MARK_PREFIX = "gwt-charts:";
+
+	private double scriptInjectedTime = Double.NaN;
+	private double loaderReadyTime = Double.NaN;
+	private final List<PackageLoadTiming> packageLoads = new ArrayList<PackageLoadTiming>();
+	private final List<LoadMetricsListener> listeners = new ArrayList<LoadMetricsListener>();
+	private boolean performanceMarks = true;
+
+	private static String join(Set<String> packages) {
+		StringBuilder sb = new StringBuilder();
+		for (String name : packages) {
+			if (sb.length() > 0) {
+				sb.append(',');
+			}
+			sb.append(name);
+		}
+		return sb.toString();
+	}
+
+	private static native void mark(String name) /*-{
+		var performance = $wnd.performance;
+		if (performance && performance.mark) {
+			performance.mark(name);
+		}
+	}-*/;
+
+	private static native void measure(String name, String startMark, String endMark) /*-{
+		var performance = $wnd.performance;
+		if (performance && performance.measure) {
+			try {
+				performance.measure(name, startMark, endMark);
+			} catch (e) {
+				// Start mark missing
+			}
+		}
+	}-*/;
+
+	LoadMetrics() {
+	}
+
+	/**
+	 * Adds a listener notified of every phase from now on.
+	 * 
+	 * @param listener the listener
+	 */
+	public void addListener(LoadMetricsListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Returns the time spent loading the loader script.
+	 * 
+	 * @return the duration in milliseconds, or NaN if the script was not injected by ApiLoader or is not loaded yet
+	 */
+	public double getLoaderDuration() {
+		return loaderReadyTime - scriptInjectedTime;
+	}
+
+	/**
+	 * Returns when google.charts.load became available.
+	 * 
+	 * @return the timestamp
+	 */
+	public double getLoaderReadyTime() {
+		return loaderReadyTime;
+	}
+
+	/**
+	 * Returns the timings of every package load, in request order. Requests merged into a pending load share its
+	 * timing. Requests answered right away from already loaded packages are not recorded, they are only counted by
+	 * {@link ApiLoader#getCachedRequestCount()}.
+	 * 
+	 * @return the package load timings
+	 */
+	public List<PackageLoadTiming> getPackageLoads() {
+		return Collections.unmodifiableList(packageLoads);
+	}
+
+	/**
+	 * Returns when the loader script was added to the page.
+	 * 
+	 * @return the timestamp
+	 */
+	public double getScriptInjectedTime() {
+		return scriptInjectedTime;
+	}
+
+	/**
+	 * Checks if phases are marked through the browser Performance API.
+	 * 
+	 * @return true if enabled, the default
+	 */
+	public boolean isPerformanceMarks() {
+		return performanceMarks;
+	}
+
+	/**
+	 * Removes a listener.
+	 * 
+	 * @param listener the listener
+	 */
+	public void removeListener(LoadMetricsListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Enables or disables marking phases through the browser Performance API.
+	 * 
+	 * @param performanceMarks true to enable
+	 */
+	public void setPerformanceMarks(boolean performanceMarks) {
+		this.performanceMarks = performanceMarks;
+	}
+
+	PackageLoadTiming createTiming(String version, String language, Set<String> packages) {
+		PackageLoadTiming packageLoad = new PackageLoadTiming(version, language, packages, Duration.currentTimeMillis());
+		packageLoads.add(packageLoad);
+		return packageLoad;
+	}
+
+	void record(LoadPhase phase, PackageLoadTiming packageLoad) {
+		double time = Duration.currentTimeMillis();
+		switch (phase) {
+			case SCRIPT_INJECTED:
+				scriptInjectedTime = time;
+				break;
+			case LOADER_READY:
+				loaderReadyTime = time;
+				break;
+			case LOAD_CALLED:
+				packageLoad.setLoadCallTime(time);
+				break;
+			case PACKAGES_LOADED:
+				packageLoad.setLoadedTime(time);
+				break;
+			case LOAD_FAILED:
+				packageLoad.setFailedTime(time);
+				break;
+		}
+		if (performanceMarks) {
+			String markName = MARK_PREFIX + phase.getName();
+			if (packageLoad != null) {
+				markName += ":" + join(packageLoad.getPackages());
+			}
+			mark(markName);
+			if (phase == LoadPhase.LOADER_READY) {
+				measure(MARK_PREFIX + "loader", MARK_PREFIX + LoadPhase.SCRIPT_INJECTED.getName(), markName);
+			} else if (phase == LoadPhase.PACKAGES_LOADED) {
+				String packages = join(packageLoad.getPackages());
+				measure(MARK_PREFIX + "load:" + packages, MARK_PREFIX + LoadPhase.LOAD_CALLED.getName() + ":"
+						+ packages, markName);
+			}
+		}
+		for (LoadMetricsListener listener : new ArrayList<LoadMetricsListener>(listeners)) {
+			// Called while a load is in progress, a failing listener must not interrupt it
+			try {
+				listener.onLoadPhase(phase, time, packageLoad);
+			} catch (RuntimeException e) {
+				GWT.reportUncaughtException(e);
+			}
+		}
+	}
+}
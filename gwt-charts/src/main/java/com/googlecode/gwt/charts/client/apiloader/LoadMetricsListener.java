@@ -0,0 +1,29 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client.apiloader;
+
+/**
+ * Listener notified of every load phase recorded by {@link LoadMetrics}, for instance to report them to a monitoring
+ * service.
+ */
+public interface LoadMetricsListener {
+
+	/**
+	 * Called when a load phase is reached.
+	 * 
+	 * @param phase the phase
+	 * @param time the time of the phase, in milliseconds since the epoch
+	 * @param packageLoad the package load the phase belongs to, or null for the loader script phases
+	 */
+	void onLoadPhase(LoadPhase phase, double time, PackageLoadTiming packageLoad);
+}
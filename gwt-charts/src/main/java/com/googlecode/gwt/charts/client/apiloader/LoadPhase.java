@@ -0,0 +1,54 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client.apiloader;
+
+/**
+ * The phases of loading the chart library, as reported to a {@link LoadMetricsListener}.
+ */
+public enum LoadPhase {
+	/**
+	 * The loader script was added to the page.
+	 */
+	SCRIPT_INJECTED("script-injected"),
+	/**
+	 * The loader script finished loading and google.charts.load is available.
+	 */
+	LOADER_READY("loader-ready"),
+	/**
+	 * google.charts.load was called for a set of packages.
+	 */
+	LOAD_CALLED("load-called"),
+	/**
+	 * The callback of google.charts.load was called, the packages are ready to use.
+	 */
+	PACKAGES_LOADED("packages-loaded"),
+	/**
+	 * A set of packages failed to load, or did not load in time.
+	 */
+	LOAD_FAILED("load-failed");
+
+	private final String name;
+
+	private LoadPhase(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Get the name of the LoadPhase, as used for Performance API marks.
+	 * 
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2012 Rui Afonso
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client.apiloader;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A single google.charts.load() call for a given version and language, together with all the callbacks waiting on
+ * it. Requests for the same version and language that arrive before the call is started are merged into it.
+ */
+class PackageLoad {
+	private final String version;
+	private final String language;
+	private final ApiLoaderOptions settings;
+	private final Set<String> packages = new LinkedHashSet<String>();
+	private final List<Runnable> callbacks = new ArrayList<Runnable>();
+	private final List<ApiLoaderErrorHandler> errorHandlers = new ArrayList<ApiLoaderErrorHandler>();
+	private boolean finished;
+	private PackageLoadTiming timing;
+
+	PackageLoad(String version, String language, ApiLoaderOptions settings) {
+		this.version = version;
+		this.language = language;
+		this.settings = settings;
+	}
+
+	void addCallback(Runnable callback, ApiLoaderErrorHandler errorHandler) {
+		callbacks.add(callback);
+		if (errorHandler != null) {
+			errorHandlers.add(errorHandler);
+		}
+	}
+
+	void addPackages(Collection<String> packages) {
+		this.packages.addAll(packages);
+	}
+
+	boolean containsAll(Collection<String> packages) {
+		return this.packages.containsAll(packages);
+	}
+
+	List<Runnable> getCallbacks() {
+		return callbacks;
+	}
+
+	List<ApiLoaderErrorHandler> getErrorHandlers() {
+		return errorHandlers;
+	}
+
+	String getKey() {
+		return ApiLoader.createKey(version, language);
+	}
+
+	String getLanguage() {
+		return language;
+	}
+
+	Set<String> getPackages() {
+		return packages;
+	}
+
+	ApiLoaderOptions getSettings() {
+		return settings;
+	}
+
+	PackageLoadTiming getTiming() {
+		return timing;
+	}
+
+	String getVersion() {
+		return version;
+	}
+
+	boolean isFinished() {
+		return finished;
+	}
+
+	void setFinished(boolean finished) {
+		this.finished = finished;
+	}
+
+	void setTiming(PackageLoadTiming timing) {
+		this.timing = timing;
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client.apiloader;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Timestamps of a single google.charts.load() call, in milliseconds since the epoch. Timestamps of phases that were
+ * not reached are NaN.
+ */
+public class PackageLoadTiming {
+	private final String version;
+	private final String language;
+	private final Set<String> packages;
+	private final double requestTime;
+	private double loadCallTime = Double.NaN;
+	private double loadedTime = Double.NaN;
+	private double failedTime = Double.NaN;
+
+	PackageLoadTiming(String version, String language, Set<String> packages, double requestTime) {
+		this.version = version;
+		this.language = language;
+		this.packages = Collections.unmodifiableSet(packages);
+		this.requestTime = requestTime;
+	}
+
+	/**
+	 * Returns when the load failed.
+	 * 
+	 * @return the timestamp
+	 */
+	public double getFailedTime() {
+		return failedTime;
+	}
+
+	/**
+	 * Returns the language of the load.
+	 * 
+	 * @return the language, or null for the default one
+	 */
+	public String getLanguage() {
+		return language;
+	}
+
+	/**
+	 * Returns when google.charts.load() was called.
+	 * 
+	 * @return the timestamp
+	 */
+	public double getLoadCallTime() {
+		return loadCallTime;
+	}
+
+	/**
+	 * Returns the time between the google.charts.load() call and its callback.
+	 * 
+	 * @return the duration in milliseconds, or NaN if the packages are not loaded
+	 */
+	public double getLoadDuration() {
+		return loadedTime - loadCallTime;
+	}
+
+	/**
+	 * Returns when the packages were reported as loaded.
+	 * 
+	 * @return the timestamp
+	 */
+	public double getLoadedTime() {
+		return loadedTime;
+	}
+
+	/**
+	 * Returns the packages of the load.
+	 * 
+	 * @return the package names
+	 */
+	public Set<String> getPackages() {
+		return packages;
+	}
+
+	/**
+	 * Returns when the first request for this load was made.
+	 * 
+	 * @return the timestamp
+	 */
+	public double getRequestTime() {
+		return requestTime;
+	}
+
+	/**
+	 * Returns the time between the first request and the packages being loaded, including the time spent waiting for
+	 * the loader script and for previous loads.
+	 * 
+	 * @return the duration in milliseconds, or NaN if the packages are not loaded
+	 */
+	public double getTotalDuration() {
+		return loadedTime - requestTime;
+	}
+
+	/**
+	 * Returns the API version of the load.
+	 * 
+	 * @return the version
+	 */
+	public String getVersion() {
+		return version;
+	}
+
+	/**
+	 * Checks if the load failed.
+	 * 
+	 * @return true if the load failed
+	 */
+	public boolean isFailed() {
+		return !Double.isNaN(failedTime);
+	}
+
+	/**
+	 * Checks if the packages are loaded.
+	 * 
+	 * @return true if the packages are loaded
+	 */
+	public boolean isLoaded() {
+		return !Double.isNaN(loadedTime);
+	}
+
+	void setFailedTime(double failedTime) {
+		this.failedTime = failedTime;
+	}
+
+	void setLoadCallTime(double loadCallTime) {
+		this.loadCallTime = loadCallTime;
+	}
+
+	void setLoadedTime(double loadedTime) {
+		this.loadedTime = loadedTime;
+	}
+}
@@ -20,9 +20,17 @@ import com.google.gwt.dom.client.Element;
 import com.google.gwt.user.client.DOM;
 import com.google.gwt.user.client.ui.Widget;
 
+import com.googlecode.gwt.charts.client.ChartLoader;
+import com.googlecode.gwt.charts.client.ChartPackage;
+import com.googlecode.gwt.charts.client.ChartType;
 import com.googlecode.gwt.charts.client.ChartWrapper;
 import com.googlecode.gwt.charts.client.ChartWrapperObject;
+import com.googlecode.gwt.charts.client.CommitListener;
 import com.googlecode.gwt.charts.client.DataSource;
+import com.googlecode.gwt.charts.client.apiloader.ApiLoaderErrorHandler;
+import com.googlecode.gwt.charts.client.apiloader.ApiLoaderException;
+import com.googlecode.gwt.charts.client.event.CommitEvent;
+import com.googlecode.gwt.charts.client.event.CommitHandler;
 import com.googlecode.gwt.charts.client.event.ErrorEvent;
 import com.googlecode.gwt.charts.client.event.ErrorHandler;
 import com.googlecode.gwt.charts.client.event.HandlerRef;
@@ -30,15 +38,29 @@ import com.googlecode.gwt.charts.client.event.ReadyEvent;
 import com.googlecode.gwt.charts.client.event.ReadyHandler;
 import com.googlecode.gwt.charts.client.util.ChartHelper;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Represents a collection of collaborating controls and charts that share the same underlying data.
+ * The controls package must be loaded before creating a dashboard, the packages of the bound charts are loaded on
+ * demand before each draw.
  */
 public class Dashboard extends Widget {
 	private DashboardObject dashboardObject;
 	private Object data;
 	private boolean pending;
+	// Views redraw when their table is committed
+	private final CommitListener commitListener = new CommitListener(new CommitHandler() {
+
+		@Override
+		public void onCommit(CommitEvent event) {
+			redraw();
+		}
+	});
+	private List<ChartWrapper<?>> chartWrappers = new ArrayList<ChartWrapper<?>>();
 
 	/**
 	 * Creates a Dashboard.
@@ -90,6 +112,7 @@ public class Dashboard extends Widget {
 	 * @param chartWrapper
 	 */
 	public void bind(ControlWrapper<?, ?> controlWrapper, ChartWrapper<?> chartWrapper) {
+		chartWrappers.add(chartWrapper);
 		dashboardObject.bind(controlWrapper.getObject(), chartWrapper.getObject());
 	}
 
@@ -111,6 +134,7 @@ public class Dashboard extends Widget {
 		for (ChartWrapper<?> chartWrapper : chartWrappers) {
 			chartWrapperArray.push(chartWrapper.getObject());
 		}
+		this.chartWrappers.addAll(chartWrappers);
 		dashboardObject.bind(controlWrapperArray, chartWrapperArray);
 	}
 
@@ -121,27 +145,42 @@ public class Dashboard extends Widget {
 	 */
 	public void draw(DataSource dataSource) {
 		this.data = dataSource;
+		if (isAttached()) {
+			commitListener.listen(dataSource);
+		}
 		redraw();
 	}
 
 	/**
-	 * Draws the dashboard.
+	 * Draws the dashboard. The dashboard is drawn right away if the packages of the bound charts are loaded, otherwise
+	 * once they are.
 	 * 
 	 * @param dataArray an array following the syntax of {@link ChartHelper#arrayToDataTable(JsArrayMixed)}
 	 */
 	public void draw(JsArrayMixed dataArray) {
 		this.data = dataArray;
-		dashboardObject.draw(dataArray);
+		commitListener.listen(null);
+		if (getMissingPackages().isEmpty()) {
+			dashboardObject.draw(dataArray);
+		} else {
+			redraw();
+		}
 	}
 
 	/**
-	 * Draws the dashboard.
+	 * Draws the dashboard. The dashboard is drawn right away if the packages of the bound charts are loaded, otherwise
+	 * once they are.
 	 * 
 	 * @param json a JSON representation of a DataTable
 	 */
 	public void draw(String json) {
 		this.data = json;
-		dashboardObject.draw(json);
+		commitListener.listen(null);
+		if (getMissingPackages().isEmpty()) {
+			dashboardObject.draw(json);
+		} else {
+			redraw();
+		}
 	}
 
 	/**
@@ -177,7 +216,22 @@ public class Dashboard extends Widget {
 		});
 	}
 
+	@Override
+	protected void onLoad() {
+		commitListener.listen(data instanceof DataSource ? (DataSource) data : null);
+	}
+
+	@Override
+	protected void onUnload() {
+		commitListener.listen(null);
+	}
+
 	protected void redrawNow() {
+		Set<ChartPackage> packages = getMissingPackages();
+		if (!packages.isEmpty()) {
+			loadPackages(packages);
+			return;
+		}
 		if (data instanceof DataSource) {
 			dashboardObject.draw((DataSource) data);
 		} else if (data instanceof JsArrayMixed) {
@@ -187,4 +241,39 @@ public class Dashboard extends Widget {
 		}
 		pending = false;
 	}
+
+	private Set<ChartPackage> getMissingPackages() {
+		Set<ChartPackage> packages = new LinkedHashSet<ChartPackage>();
+		for (ChartWrapper<?> chartWrapper : chartWrappers) {
+			ChartType chartType = ChartType.findByName(chartWrapper.getChartType());
+			if (chartType != null && !ChartLoader.isLoaded(chartType.getChartPackage())) {
+				packages.add(chartType.getChartPackage());
+			}
+		}
+		return packages;
+	}
+
+	private void loadPackages(Set<ChartPackage> packages) {
+		// Packages requested together are merged into one load, the draw is replayed once all of them are in
+		final int[] remaining = { packages.size() };
+		for (ChartPackage chartPackage : packages) {
+			ChartLoader.loadPackage(chartPackage, new Runnable() {
+
+				@Override
+				public void run() {
+					remaining[0]--;
+					if (remaining[0] == 0) {
+						redrawNow();
+					}
+				}
+			}, new ApiLoaderErrorHandler() {
+
+				@Override
+				public void onError(ApiLoaderException exception) {
+					// Next redraw tries again
+					pending = false;
+				}
+			});
+		}
+	}
 }
@@ -38,7 +38,7 @@ public class BarChart extends CoreChartWidget<BarChartOptions> {
 	 * @return a third dataset representing the diff
 	 */
 	public DataSource computeDiff(DataSource oldData, DataSource newData) {
-		return chartObject.computeDiff(oldData, newData);
+		return getChartObject().computeDiff(oldData, newData);
 	}
 
 	@Override
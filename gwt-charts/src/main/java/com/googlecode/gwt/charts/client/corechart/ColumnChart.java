@@ -38,7 +38,7 @@ public class ColumnChart extends CoreChartWidget<ColumnChartOptions> {
 	 * @return a third dataset representing the diff
 	 */
 	public DataSource computeDiff(DataSource oldData, DataSource newData) {
-		return chartObject.computeDiff(oldData, newData);
+		return getChartObject().computeDiff(oldData, newData);
 	}
 
 	@Override
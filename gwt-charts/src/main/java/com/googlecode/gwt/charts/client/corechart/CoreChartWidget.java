@@ -16,6 +16,7 @@ import com.google.gwt.core.client.JsArray;
 import com.google.gwt.user.client.ui.RequiresResize;
 
 import com.googlecode.gwt.charts.client.ChartLayoutInterface;
+import com.googlecode.gwt.charts.client.ChartPackage;
 import com.googlecode.gwt.charts.client.ChartWidget;
 import com.googlecode.gwt.charts.client.Selection;
 import com.googlecode.gwt.charts.client.event.AnimationFinishHandler;
@@ -26,7 +27,6 @@ import com.googlecode.gwt.charts.client.event.OnMouseOverHandler;
 import com.googlecode.gwt.charts.client.event.ReadyHandler;
 import com.googlecode.gwt.charts.client.event.SelectHandler;
 import com.googlecode.gwt.charts.client.options.Options;
-import com.googlecode.gwt.charts.client.util.ArrayHelper;
 
 /**
  * This class is used as a widget wrapper for core chart types.
@@ -37,8 +37,6 @@ import com.googlecode.gwt.charts.client.util.ArrayHelper;
  * @param <T> the chart options type
  */
 public abstract class CoreChartWidget<T extends Options> extends ChartWidget<T> {
-	private JsArray<Selection> selection;
-
 	/**
 	 * Creates a new CoreChartWidget.
 	 */
@@ -113,7 +111,12 @@ public abstract class CoreChartWidget<T extends Options> extends ChartWidget<T>
 	 * @return a ChartLayoutInterface
 	 */
 	public ChartLayoutInterface getChartLayoutInterface() {
-		return chartObject.getChartLayoutInterface();
+		return getChartObject().getChartLayoutInterface();
+	}
+
+	@Override
+	public ChartPackage getChartPackage() {
+		return ChartPackage.CORECHART;
 	}
 
 	/**
@@ -128,7 +131,7 @@ public abstract class CoreChartWidget<T extends Options> extends ChartWidget<T>
 	 * @return an array of selected objects
 	 */
 	public JsArray<Selection> getSelection() {
-		return chartObject.getSelection();
+		return getChartSelection();
 	}
 
 	/**
@@ -146,16 +149,7 @@ public abstract class CoreChartWidget<T extends Options> extends ChartWidget<T>
 	 * @param selection
 	 */
 	public void setSelection(Selection... selection) {
-		this.selection = ArrayHelper.createArray(selection);
-		chartObject.setSelection(this.selection);
-	}
-
-	@Override
-	protected void redrawNow() {
-		super.redrawNow();
-		if (selection != null) {
-			chartObject.setSelection(selection);
-		}
+		setChartSelection(selection);
 	}
 
 }
@@ -15,6 +15,7 @@ package com.googlecode.gwt.charts.client.corechart;
 import com.google.gwt.dom.client.Element;
 
 import com.googlecode.gwt.charts.client.ChartObject;
+import com.googlecode.gwt.charts.client.ChartPackage;
 import com.googlecode.gwt.charts.client.DataSource;
 
 /**
@@ -37,7 +38,12 @@ public class MaterialBar extends CoreChartWidget<BarChartOptions> {
 	 * @return a third dataset representing the diff
 	 */
 	public DataSource computeDiff(DataSource oldData, DataSource newData) {
-		return chartObject.computeDiff(oldData, newData);
+		return getChartObject().computeDiff(oldData, newData);
+	}
+
+	@Override
+	public ChartPackage getChartPackage() {
+		return ChartPackage.BAR;
 	}
 
 	@Override
@@ -37,7 +37,7 @@ public class PieChart extends CoreChartWidget<PieChartOptions> {
 	 * @return a third dataset representing the diff
 	 */
 	public DataSource computeDiff(DataSource oldData, DataSource newData) {
-		return chartObject.computeDiff(oldData, newData);
+		return getChartObject().computeDiff(oldData, newData);
 	}
 
 	@Override
@@ -39,7 +39,7 @@ public class ScatterChart extends CoreChartWidget<ScatterChartOptions> {
 	 * @return a third dataset representing the diff
 	 */
 	public DataSource computeDiff(DataSource oldData, DataSource newData) {
-		return chartObject.computeDiff(oldData, newData);
+		return getChartObject().computeDiff(oldData, newData);
 	}
 
 	@Override
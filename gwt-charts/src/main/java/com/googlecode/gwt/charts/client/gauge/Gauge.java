@@ -15,6 +15,7 @@ package com.googlecode.gwt.charts.client.gauge;
 import com.google.gwt.dom.client.Element;
 
 import com.googlecode.gwt.charts.client.ChartObject;
+import com.googlecode.gwt.charts.client.ChartPackage;
 import com.googlecode.gwt.charts.client.ChartWidget;
 
 /**
@@ -29,6 +30,11 @@ public class Gauge extends ChartWidget<GaugeOptions> {
 		super();
 	}
 
+	@Override
+	public ChartPackage getChartPackage() {
+		return ChartPackage.GAUGE;
+	}
+
 	@Override
 	protected native ChartObject createChartObject(Element container) /*-{
 		return new $wnd.google.visualization.Gauge(container);
@@ -16,6 +16,7 @@ import com.google.gwt.core.client.JsArray;
 import com.google.gwt.dom.client.Element;
 
 import com.googlecode.gwt.charts.client.ChartObject;
+import com.googlecode.gwt.charts.client.ChartPackage;
 import com.googlecode.gwt.charts.client.ChartWidget;
 import com.googlecode.gwt.charts.client.Selection;
 import com.googlecode.gwt.charts.client.event.ErrorHandler;
@@ -23,7 +24,6 @@ import com.googlecode.gwt.charts.client.event.HandlerRef;
 import com.googlecode.gwt.charts.client.event.ReadyHandler;
 import com.googlecode.gwt.charts.client.event.RegionClickHandler;
 import com.googlecode.gwt.charts.client.event.SelectHandler;
-import com.googlecode.gwt.charts.client.util.ArrayHelper;
 
 /**
  * A geochart is a map of a country, a continent, or a region with areas identified in one of three ways:
@@ -34,8 +34,6 @@ import com.googlecode.gwt.charts.client.util.ArrayHelper;
  * </ul>
  */
 public class GeoChart extends ChartWidget<GeoChartOptions> {
-	private JsArray<Selection> selection;
-
 	/**
 	 * Creates a new chart widget.
 	 */
@@ -83,6 +81,11 @@ public class GeoChart extends ChartWidget<GeoChartOptions> {
 		return addHandler(handler);
 	}
 
+	@Override
+	public ChartPackage getChartPackage() {
+		return ChartPackage.GEOCHART;
+	}
+
 	/**
 	 * Returns an array of selected objects, each one describing a data element in the underlying table used to create
 	 * the
@@ -95,7 +98,7 @@ public class GeoChart extends ChartWidget<GeoChartOptions> {
 	 * @return an array of selected objects
 	 */
 	public JsArray<Selection> getSelection() {
-		return chartObject.getSelection();
+		return getChartSelection();
 	}
 
 	/**
@@ -122,8 +125,7 @@ public class GeoChart extends ChartWidget<GeoChartOptions> {
 	 * @param selection
 	 */
 	public void setSelection(Selection... selection) {
-		this.selection = ArrayHelper.createArray(selection);
-		chartObject.setSelection(this.selection);
+		setChartSelection(selection);
 	}
 
 	@Override
@@ -131,12 +133,4 @@ public class GeoChart extends ChartWidget<GeoChartOptions> {
 		return new $wnd.google.visualization.GeoChart(container);
 	}-*/;
 
-	@Override
-	protected void redrawNow() {
-		super.redrawNow();
-		if (selection != null) {
-			chartObject.setSelection(selection);
-		}
-	}
-
 }
@@ -16,13 +16,13 @@ import com.google.gwt.core.client.JsArray;
 import com.google.gwt.dom.client.Element;
 
 import com.googlecode.gwt.charts.client.ChartObject;
+import com.googlecode.gwt.charts.client.ChartPackage;
 import com.googlecode.gwt.charts.client.ChartWidget;
 import com.googlecode.gwt.charts.client.Selection;
 import com.googlecode.gwt.charts.client.event.ErrorHandler;
 import com.googlecode.gwt.charts.client.event.HandlerRef;
 import com.googlecode.gwt.charts.client.event.SelectHandler;
 import com.googlecode.gwt.charts.client.geochart.GeoChart;
-import com.googlecode.gwt.charts.client.util.ArrayHelper;
 
 /**
  * The Google Map Chart displays a map using the Google Maps API. Data values are displayed as markers on the map. Data
@@ -32,8 +32,6 @@ import com.googlecode.gwt.charts.client.util.ArrayHelper;
  * If you want your maps to be line drawings rather than satellite imagery, use a {@link GeoChart} instead.
  */
 public class Map extends ChartWidget<MapOptions> {
-	private JsArray<Selection> selection;
-
 	/**
 	 * Creates a new chart widget.
 	 */
@@ -61,6 +59,11 @@ public class Map extends ChartWidget<MapOptions> {
 		return addHandler(handler);
 	}
 
+	@Override
+	public ChartPackage getChartPackage() {
+		return ChartPackage.MAP;
+	}
+
 	/**
 	 * Returns an array of selected objects, each one describing a data element in the underlying table used to create
 	 * the
@@ -73,7 +76,7 @@ public class Map extends ChartWidget<MapOptions> {
 	 * @return an array of selected objects
 	 */
 	public JsArray<Selection> getSelection() {
-		return chartObject.getSelection();
+		return getChartSelection();
 	}
 
 	/**
@@ -91,20 +94,11 @@ public class Map extends ChartWidget<MapOptions> {
 	 * @param selection
 	 */
 	public void setSelection(Selection... selection) {
-		this.selection = ArrayHelper.createArray(selection);
-		chartObject.setSelection(this.selection);
+		setChartSelection(selection);
 	}
 
 	@Override
 	protected native ChartObject createChartObject(Element container) /*-{
 		return new $wnd.google.visualization.Map(container);
 	}-*/;
-
-	@Override
-	protected void redrawNow() {
-		super.redrawNow();
-		if (selection != null) {
-			chartObject.setSelection(selection);
-		}
-	}
 }
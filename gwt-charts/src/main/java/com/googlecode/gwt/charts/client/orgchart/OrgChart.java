@@ -17,6 +17,7 @@ import com.google.gwt.core.client.JsArrayInteger;
 import com.google.gwt.dom.client.Element;
 
 import com.googlecode.gwt.charts.client.ChartObject;
+import com.googlecode.gwt.charts.client.ChartPackage;
 import com.googlecode.gwt.charts.client.ChartWidget;
 import com.googlecode.gwt.charts.client.Selection;
 import com.googlecode.gwt.charts.client.event.CollapseHandler;
@@ -25,15 +26,12 @@ import com.googlecode.gwt.charts.client.event.OnMouseOutHandler;
 import com.googlecode.gwt.charts.client.event.OnMouseOverHandler;
 import com.googlecode.gwt.charts.client.event.ReadyHandler;
 import com.googlecode.gwt.charts.client.event.SelectHandler;
-import com.googlecode.gwt.charts.client.util.ArrayHelper;
 
 /**
  * Org charts are diagrams of a hierarchy of nodes, commonly used to portray superior/subordinate relationships in an
  * organization. A family tree is a type of org chart.<br>
  */
 public class OrgChart extends ChartWidget<OrgChartOptions> {
-	private JsArray<Selection> selection;
-
 	/**
 	 * Creates a new chart widget.
 	 */
@@ -98,7 +96,12 @@ public class OrgChart extends ChartWidget<OrgChartOptions> {
 	 * @param collapsed whether to collapse or expand the row, where true means collapse.
 	 */
 	public void collapse(int row, boolean collapsed) {
-		chartObject.collapse(row, collapsed);
+		getChartObject().collapse(row, collapsed);
+	}
+
+	@Override
+	public ChartPackage getChartPackage() {
+		return ChartPackage.ORGCHART;
 	}
 
 	/**
@@ -108,7 +111,7 @@ public class OrgChart extends ChartWidget<OrgChartOptions> {
 	 * @return an array of indexes
 	 */
 	public JsArrayInteger getChildrenIndexes(int row) {
-		return chartObject.getChildrenIndexes(row);
+		return getChartObject().getChildrenIndexes(row);
 	}
 
 	/**
@@ -117,7 +120,7 @@ public class OrgChart extends ChartWidget<OrgChartOptions> {
 	 * @return an array of indexes
 	 */
 	public JsArrayInteger getCollapsedNodes() {
-		return chartObject.getCollapsedNodes();
+		return getChartObject().getCollapsedNodes();
 	}
 
 	/**
@@ -132,7 +135,7 @@ public class OrgChart extends ChartWidget<OrgChartOptions> {
 	 * @return an array of selected objects
 	 */
 	public JsArray<Selection> getSelection() {
-		return chartObject.getSelection();
+		return getChartSelection();
 	}
 
 	/**
@@ -150,20 +153,11 @@ public class OrgChart extends ChartWidget<OrgChartOptions> {
 	 * @param selection
 	 */
 	public void setSelection(Selection... selection) {
-		this.selection = ArrayHelper.createArray(selection);
-		chartObject.setSelection(this.selection);
+		setChartSelection(selection);
 	}
 
 	@Override
 	protected native ChartObject createChartObject(Element container) /*-{
 		return new $wnd.google.visualization.OrgChart(container);
 	}-*/;
-
-	@Override
-	protected void redrawNow() {
-		super.redrawNow();
-		if (selection != null) {
-			chartObject.setSelection(selection);
-		}
-	}
 }
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client.orgchart;
+
+/**
+ * Creates an org chart inside the orgchart code splitting point of
+ * {@link com.googlecode.gwt.charts.client.AsyncChartFactory#createOrgChart}. Everything only referenced from
+ * {@link #create()}, such as the chart and its options, stays in the orgchart fragment.
+ * 
+ * @param <T> the chart type
+ */
+public interface OrgChartCreator<T> {
+
+	/**
+	 * Creates the chart, called once its code and its package are loaded.
+	 * 
+	 * @return the new chart
+	 */
+	T create();
+}
@@ -17,6 +17,7 @@ import com.google.gwt.dom.client.Element;
 
 import com.googlecode.gwt.charts.client.ChartLayoutInterface;
 import com.googlecode.gwt.charts.client.ChartObject;
+import com.googlecode.gwt.charts.client.ChartPackage;
 import com.googlecode.gwt.charts.client.ChartWidget;
 import com.googlecode.gwt.charts.client.Selection;
 import com.googlecode.gwt.charts.client.event.ErrorHandler;
@@ -25,14 +26,11 @@ import com.googlecode.gwt.charts.client.event.OnMouseOutHandler;
 import com.googlecode.gwt.charts.client.event.OnMouseOverHandler;
 import com.googlecode.gwt.charts.client.event.ReadyHandler;
 import com.googlecode.gwt.charts.client.event.SelectHandler;
-import com.googlecode.gwt.charts.client.util.ArrayHelper;
 
 /**
  * Annotation charts are interactive time series line charts that support annotations.
  */
 public class Sankey extends ChartWidget<SankeyOptions> {
-	private JsArray<Selection> selection;
-
 	/**
 	 * Creates a new chart widget.
 	 */
@@ -97,7 +95,12 @@ public class Sankey extends ChartWidget<SankeyOptions> {
 	 * @return a ChartLayoutInterface
 	 */
 	public ChartLayoutInterface getChartLayoutInterface() {
-		return chartObject.getChartLayoutInterface();
+		return getChartObject().getChartLayoutInterface();
+	}
+
+	@Override
+	public ChartPackage getChartPackage() {
+		return ChartPackage.SANKEY;
 	}
 
 	/**
@@ -112,7 +115,7 @@ public class Sankey extends ChartWidget<SankeyOptions> {
 	 * @return an array of selected objects
 	 */
 	public JsArray<Selection> getSelection() {
-		return chartObject.getSelection();
+		return getChartSelection();
 	}
 
 	/**
@@ -130,20 +133,11 @@ public class Sankey extends ChartWidget<SankeyOptions> {
 	 * @param selection
 	 */
 	public void setSelection(Selection... selection) {
-		this.selection = ArrayHelper.createArray(selection);
-		chartObject.setSelection(this.selection);
+		setChartSelection(selection);
 	}
 
 	@Override
 	protected native ChartObject createChartObject(Element container) /*-{
 		return new $wnd.google.visualization.Sankey(container);
 	}-*/;
-
-	@Override
-	protected void redrawNow() {
-		super.redrawNow();
-		if (selection != null) {
-			chartObject.setSelection(selection);
-		}
-	}
 }
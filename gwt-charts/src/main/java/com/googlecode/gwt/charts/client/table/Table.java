@@ -16,6 +16,7 @@ import com.google.gwt.core.client.JsArray;
 import com.google.gwt.dom.client.Element;
 
 import com.googlecode.gwt.charts.client.ChartObject;
+import com.googlecode.gwt.charts.client.ChartPackage;
 import com.googlecode.gwt.charts.client.ChartWidget;
 import com.googlecode.gwt.charts.client.Selection;
 import com.googlecode.gwt.charts.client.event.HandlerRef;
@@ -23,7 +24,6 @@ import com.googlecode.gwt.charts.client.event.PageHandler;
 import com.googlecode.gwt.charts.client.event.ReadyHandler;
 import com.googlecode.gwt.charts.client.event.SelectHandler;
 import com.googlecode.gwt.charts.client.event.SortHandler;
-import com.googlecode.gwt.charts.client.util.ArrayHelper;
 
 /**
  * A table that can be sorted and paged. Table cells can be formatted using format strings, or by directly inserting
@@ -32,8 +32,6 @@ import com.googlecode.gwt.charts.client.util.ArrayHelper;
  * remains fixed as the user scrolls. The table fires a number of events corresponding to user interaction.
  */
 public class Table extends ChartWidget<TableOptions> {
-	private JsArray<Selection> selection;
-
 	/**
 	 * Creates a new chart widget.
 	 */
@@ -81,6 +79,11 @@ public class Table extends ChartWidget<TableOptions> {
 		return addHandler(handler);
 	}
 
+	@Override
+	public ChartPackage getChartPackage() {
+		return ChartPackage.TABLE;
+	}
+
 	/**
 	 * Returns an array of selected objects, each one describing a data element in the underlying table used to create
 	 * the
@@ -93,7 +96,7 @@ public class Table extends ChartWidget<TableOptions> {
 	 * @return an array of selected objects
 	 */
 	public JsArray<Selection> getSelection() {
-		return chartObject.getSelection();
+		return getChartSelection();
 	}
 
 	/**
@@ -107,7 +110,7 @@ public class Table extends ChartWidget<TableOptions> {
 	 * @return information about the current sort state
 	 */
 	public TableSortInfo getSortInfo() {
-		return chartObject.getSortInfo();
+		return getChartObject().getSortInfo();
 	}
 
 	/**
@@ -125,20 +128,11 @@ public class Table extends ChartWidget<TableOptions> {
 	 * @param selection
 	 */
 	public void setSelection(Selection... selection) {
-		this.selection = ArrayHelper.createArray(selection);
-		chartObject.setSelection(this.selection);
+		setChartSelection(selection);
 	}
 
 	@Override
 	protected native ChartObject createChartObject(Element container) /*-{
 		return new $wnd.google.visualization.Table(container);
 	}-*/;
-
-	@Override
-	protected void redrawNow() {
-		super.redrawNow();
-		if (selection != null) {
-			chartObject.setSelection(selection);
-		}
-	}
 }
@@ -15,6 +15,7 @@ package com.googlecode.gwt.charts.client.timeline;
 import com.google.gwt.dom.client.Element;
 
 import com.googlecode.gwt.charts.client.ChartObject;
+import com.googlecode.gwt.charts.client.ChartPackage;
 import com.googlecode.gwt.charts.client.ChartWidget;
 import com.googlecode.gwt.charts.client.event.ErrorHandler;
 import com.googlecode.gwt.charts.client.event.HandlerRef;
@@ -75,6 +76,11 @@ public class Timeline extends ChartWidget<TimelineOptions> {
 		return addHandler(handler);
 	}
 
+	@Override
+	public ChartPackage getChartPackage() {
+		return ChartPackage.TIMELINE;
+	}
+
 	@Override
 	protected native ChartObject createChartObject(Element container) /*-{
 		return new $wnd.google.visualization.Timeline(container);
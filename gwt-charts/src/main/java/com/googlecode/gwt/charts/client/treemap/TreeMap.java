@@ -16,6 +16,7 @@ import com.google.gwt.core.client.JsArray;
 import com.google.gwt.dom.client.Element;
 
 import com.googlecode.gwt.charts.client.ChartObject;
+import com.googlecode.gwt.charts.client.ChartPackage;
 import com.googlecode.gwt.charts.client.ChartWidget;
 import com.googlecode.gwt.charts.client.Selection;
 import com.googlecode.gwt.charts.client.event.HandlerRef;
@@ -24,7 +25,6 @@ import com.googlecode.gwt.charts.client.event.OnMouseOverHandler;
 import com.googlecode.gwt.charts.client.event.ReadyHandler;
 import com.googlecode.gwt.charts.client.event.RollUpHandler;
 import com.googlecode.gwt.charts.client.event.SelectHandler;
-import com.googlecode.gwt.charts.client.util.ArrayHelper;
 
 /**
  * A visual representation of a data tree, where each node can have zero or more children, and one parent (except for
@@ -38,8 +38,6 @@ import com.googlecode.gwt.charts.client.util.ArrayHelper;
  * have leaf nodes with names too long to show, the name will be truncated with an ellipsis (...).
  */
 public class TreeMap extends ChartWidget<TreeMapOptions> {
-	private JsArray<Selection> selection;
-
 	/**
 	 * Creates a new chart widget.
 	 */
@@ -97,11 +95,16 @@ public class TreeMap extends ChartWidget<TreeMapOptions> {
 		return addHandler(handler);
 	}
 
+	@Override
+	public ChartPackage getChartPackage() {
+		return ChartPackage.TREEMAP;
+	}
+
 	/**
 	 * Returns the maximum possible depth for the current view.
 	 */
 	public void getMaxPossibleDepth() {
-		chartObject.getMaxPossibleDepth();
+		getChartObject().getMaxPossibleDepth();
 	}
 
 	/**
@@ -116,7 +119,7 @@ public class TreeMap extends ChartWidget<TreeMapOptions> {
 	 * @return an array of selected objects
 	 */
 	public JsArray<Selection> getSelection() {
-		return chartObject.getSelection();
+		return getChartSelection();
 	}
 
 	/**
@@ -124,7 +127,7 @@ public class TreeMap extends ChartWidget<TreeMapOptions> {
 	 * automatically when the user right-clicks a node.
 	 */
 	public void goUpAndDraw() {
-		chartObject.goUpAndDraw();
+		getChartObject().goUpAndDraw();
 	}
 
 	/**
@@ -142,20 +145,11 @@ public class TreeMap extends ChartWidget<TreeMapOptions> {
 	 * @param selection
 	 */
 	public void setSelection(Selection... selection) {
-		this.selection = ArrayHelper.createArray(selection);
-		chartObject.setSelection(this.selection);
+		setChartSelection(selection);
 	}
 
 	@Override
 	protected native ChartObject createChartObject(Element container) /*-{
 		return new $wnd.google.visualization.TreeMap(container);
 	}-*/;
-
-	@Override
-	protected void redrawNow() {
-		super.redrawNow();
-		if (selection != null) {
-			chartObject.setSelection(selection);
-		}
-	}
 }
@@ -1,5 +1,6 @@
 package com.googlecode.gwt.charts.client.util;
 
+import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.core.client.JsArray;
 import com.google.gwt.core.client.JsArrayBoolean;
@@ -59,6 +60,24 @@ public class ArrayHelper {
 		return jsArray;
 	}
 
+	/**
+	 * Converts a two-dimensional java double array into a javascript array of arrays. In compiled mode the java arrays
+	 * are used as they are, without copying, so they must not be modified while the result is in use.
+	 * 
+	 * @param array the array containing values
+	 * @return a corresponding JsArray of JsArrayNumber
+	 */
+	public static JsArray<JsArrayNumber> createArray(double[][] array) {
+		if (GWT.isScript()) {
+			return reinterpret(array);
+		}
+		JsArray<JsArrayNumber> jsArray = JavaScriptObject.createArray().cast();
+		for (int i = 0; i < array.length; i++) {
+			jsArray.set(i, createArray(array[i]));
+		}
+		return jsArray;
+	}
+
 	/**
 	 * Converts a java object array into a javascript array (JsArray).
 	 * 
@@ -114,22 +133,7 @@ public class ArrayHelper {
 	public static JsArrayMixed createArray(Object... array) {
 		JsArrayMixed jsArray = JavaScriptObject.createArray().cast();
 		for (int i = 0; i < array.length; i++) {
-			Object object = array[i];
-			if (object == null) {
-				jsArray.set(i, (String) null);
-			} else if (object instanceof Integer) {
-				arraySet(jsArray, i, ((Integer) object).intValue());
-			} else if (object instanceof Double) {
-				arraySet(jsArray, i, ((Double) object).doubleValue());
-			} else if (object instanceof String) {
-				arraySet(jsArray, i, (String) object);
-			} else if (object instanceof Date) {
-				jsArray.set(i, DateHelper.getJsDate((Date) object));
-			} else if (object instanceof JavaScriptObject) {
-				jsArray.set(i, (JavaScriptObject) object);
-			} else {
-				throw new RuntimeException("invalid value type");
-			}
+			set(jsArray, i, array[i]);
 		}
 		return jsArray;
 	}
@@ -148,6 +152,33 @@ public class ArrayHelper {
 		return jsArray;
 	}
 
+	/**
+	 * Replaces the NaN values of rows of numbers with null. Rows holding NaN are copied, the others are kept as they
+	 * are, so the given rows are never modified.
+	 * 
+	 * @param rows the rows of numbers
+	 * @return the rows with null instead of NaN
+	 */
+	public static native JsArray<JsArrayMixed> nullifyNaN(JsArray<JsArrayNumber> rows) /*-{
+		var result = new Array(rows.length);
+		for (var i = 0; i < rows.length; i++) {
+			var row = rows[i];
+			for (var j = 0; j < row.length; j++) {
+				if (row[j] !== row[j]) {
+					row = row.slice();
+					for (var k = j; k < row.length; k++) {
+						if (row[k] !== row[k]) {
+							row[k] = null;
+						}
+					}
+					break;
+				}
+			}
+			result[i] = row;
+		}
+		return result;
+	}-*/;
+
 	private static final native void arraySet(JsArrayMixed array, int index, double value) /*-{
 		array[index] = value;
 	}-*/;
@@ -159,4 +190,30 @@ public class ArrayHelper {
 	private static final native void arraySet(JsArrayMixed array, int index, String value) /*-{
 		array[index] = value;
 	}-*/;
+
+	private static final native JsArray<JsArrayNumber> reinterpret(double[][] array) /*-{
+		return array;
+	}-*/;
+
+	private static void set(JsArrayMixed jsArray, int i, Object object) {
+		if (object == null) {
+			jsArray.set(i, (String) null);
+		} else if (object instanceof Double) {
+			arraySet(jsArray, i, ((Double) object).doubleValue());
+		} else if (object instanceof String) {
+			arraySet(jsArray, i, (String) object);
+		} else if (object instanceof Integer) {
+			arraySet(jsArray, i, ((Integer) object).intValue());
+		} else if (object instanceof Date) {
+			jsArray.set(i, DateHelper.getJsDate((Date) object));
+		} else if (object instanceof Boolean) {
+			jsArray.set(i, ((Boolean) object).booleanValue());
+		} else if (object instanceof Number) {
+			arraySet(jsArray, i, ((Number) object).doubleValue());
+		} else if (object instanceof JavaScriptObject) {
+			jsArray.set(i, (JavaScriptObject) object);
+		} else {
+			throw new RuntimeException("invalid value type");
+		}
+	}
 }
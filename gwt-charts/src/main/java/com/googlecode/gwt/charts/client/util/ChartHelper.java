@@ -13,7 +13,10 @@
 package com.googlecode.gwt.charts.client.util;
 
 import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
 import com.google.gwt.core.client.JsArrayMixed;
+import com.google.gwt.core.client.JsArrayNumber;
+import com.google.gwt.core.client.JsArrayString;
 
 import com.googlecode.gwt.charts.client.ChartWrapperSpec;
 import com.googlecode.gwt.charts.client.DataTable;
@@ -69,18 +72,32 @@ public class ChartHelper {
 	 * 
 	 * @param array A two-dimensional array, where each row represents a row in the data table.<br>
 	 *        The data types of each column are interpreted automatically from the data given.<br>
-	 *        If a cell has no value, specify a null or empty value as appropriate.
+	 *        If a cell has no value, specify a null or empty value as appropriate.<br>
+	 *        Every cell is converted from its java object, for numeric rows
+	 *        {@link #arrayToDataTable(String[], double[][])} avoids the boxing.
 	 * @param firstRowIsData if true, all rows are assumed to be data.
 	 * @return a new DataTable.
 	 */
 	public static final DataTable arrayToDataTable(Object[][] array, boolean firstRowIsData) {
 		JsArrayMixed jsTopArray = JavaScriptObject.createArray().cast();
-		for (Object[] objects : array) {
-			jsTopArray.push(ArrayHelper.createArray(objects));
+		for (int i = 0; i < array.length; i++) {
+			jsTopArray.set(i, ArrayHelper.createArray(array[i]));
 		}
 		return arrayToDataTable(jsTopArray, firstRowIsData);
 	}
 
+	/**
+	 * This method takes in a header and a 2-dimensional array of numbers and converts them to a DataTable. The numbers
+	 * are handed over without boxing or per-cell type checks. NaN values are read as null cells.
+	 * 
+	 * @param labels the column labels.
+	 * @param rows A two-dimensional array, where each row represents a row in the data table.
+	 * @return a new DataTable.
+	 */
+	public static final DataTable arrayToDataTable(String[] labels, double[][] rows) {
+		return arrayToDataTable(ArrayHelper.createArray(labels), ArrayHelper.createArray(rows));
+	}
+
 	/**
 	 * This method creates a chart in a single call. The advantage of using this method is that it requires slightly
 	 * less code, and you can serialize and save visualizations as text strings for reuse. This method does not return a
@@ -103,4 +120,8 @@ public class ChartHelper {
 		return $wnd.google.visualization.drawChart(jsonLiteral);
 	}-*/;
 
+	private static final native DataTable arrayToDataTable(JsArrayString labels, JsArray<JsArrayNumber> rows) /*-{
+		return $wnd.google.visualization.arrayToDataTable([ labels ].concat(
+				@com.googlecode.gwt.charts.client.util.ArrayHelper::nullifyNaN(Lcom/google/gwt/core/client/JsArray;)(rows)));
+	}-*/;
 }
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.linker;
+
+import com.google.gwt.core.ext.LinkerContext;
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.UnableToCompleteException;
+import com.google.gwt.core.ext.linker.AbstractLinker;
+import com.google.gwt.core.ext.linker.ArtifactSet;
+import com.google.gwt.core.ext.linker.ConfigurationProperty;
+import com.google.gwt.core.ext.linker.EmittedArtifact;
+import com.google.gwt.core.ext.linker.LinkerOrder;
+import com.google.gwt.core.ext.linker.LinkerOrder.Order;
+import com.google.gwt.core.ext.linker.Shardable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Linker that lets the browser fetch the chart library in parallel with the GWT bootstrap, instead of waiting for the
+ * compiled code to run {@link com.googlecode.gwt.charts.client.apiloader.ApiLoader}.<br>
+ * It prepends preconnect and preload hints for the loader script to the module's nocache.js. When packages are
+ * configured, the loader script is also added right away and the packages are requested as soon as it is loaded;
+ * ApiLoader then reuses that script, and waits for that request instead of calling google.charts.load() again for the
+ * same packages, version and language. The same hints are written to charts-preload.html, for pasting into a static
+ * host page.<br>
+ * Enable it in the application module with:
+ * 
+ * <pre>
+ * &lt;add-linker name="chartspreload" /&gt;
+ * &lt;extend-configuration-property name="charts.preload.packages" value="corechart" /&gt;
+ * </pre>
+ * 
+ * The loader URL, version and language must match the ones used by the application's
+ * {@link com.googlecode.gwt.charts.client.ChartLoader}.
+ */
+@LinkerOrder(Order.POST)
+@Shardable
+public class ChartsPreloadLinker extends AbstractLinker {
+	/**
+	 * Id of the loader script element added by the linker, looked up by ApiLoader before adding its own.
+	 */
+	public static final String LOADER_SCRIPT_ID = "gwt-charts-loader";
+
+	/**
+	 * Name of the window variable describing the packages requested by the linker, read by ApiLoader to skip loading
+	 * them a second time.
+	 */
+	public static final String PRELOAD_VARIABLE = "gwtChartsPreload";
+
+	private static final String LOADER_URL_PROPERTY = "charts.preload.loaderUrl";
+	private static final String VERSION_PROPERTY = "charts.preload.version";
+	private static final String LANGUAGE_PROPERTY = "charts.preload.language";
+	private static final String PACKAGES_PROPERTY = "charts.preload.packages";
+
+	private static final String DEFAULT_LOADER_URL = "https://www.gstatic.com/charts/loader.js";
+	private static final String DEFAULT_VERSION = "current";
+	private static final String HTML_FILE = "charts-preload.html";
+
+	private static String getOrigin(String url) {
+		int schemeEnd = url.indexOf("//");
+		if (schemeEnd < 0) {
+			return null;
+		}
+		int pathStart = url.indexOf('/', schemeEnd + 2);
+		return pathStart < 0 ? url : url.substring(0, pathStart);
+	}
+
+	private static String getValue(LinkerContext context, String name, String defaultValue) {
+		List<String> values = getValues(context, name);
+		return values.isEmpty() ? defaultValue : values.get(0);
+	}
+
+	private static List<String> getValues(LinkerContext context, String name) {
+		List<String> values = new ArrayList<String>();
+		for (ConfigurationProperty property : context.getConfigurationProperties()) {
+			if (property.getName().equals(name)) {
+				for (String value : property.getValues()) {
+					if (value != null && value.trim().length() > 0) {
+						values.add(value.trim());
+					}
+				}
+			}
+		}
+		return values;
+	}
+
+	private static String toJsString(String value) {
+		StringBuilder sb = new StringBuilder("'");
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '\'':
+				case '\\':
+					sb.append('\\').append(c);
+					break;
+				case '<':
+					// Keeps the string from closing a surrounding script element
+					sb.append("\\x3c");
+					break;
+				case '\n':
+					sb.append("\\n");
+					break;
+				case '\r':
+					sb.append("\\r");
+					break;
+				default:
+					sb.append(c);
+			}
+		}
+		return sb.append('\'').toString();
+	}
+
+	private static String toHtmlAttribute(String value) {
+		return value.replace("&", "&amp;").replace("\"", "&quot;").replace("<", "&lt;");
+	}
+
+	@Override
+	public String getDescription() {
+		return "Chart library preload hints";
+	}
+
+	@Override
+	public ArtifactSet link(TreeLogger logger, LinkerContext context, ArtifactSet artifacts, boolean onePermutation)
+			throws UnableToCompleteException {
+		if (onePermutation) {
+			return artifacts;
+		}
+		String loaderUrl = getValue(context, LOADER_URL_PROPERTY, DEFAULT_LOADER_URL);
+		String version = getValue(context, VERSION_PROPERTY, DEFAULT_VERSION);
+		String language = getValue(context, LANGUAGE_PROPERTY, null);
+		List<String> packages = getValues(context, PACKAGES_PROPERTY);
+
+		ArtifactSet result = new ArtifactSet(artifacts);
+		String nocacheFile = context.getModuleName() + ".nocache.js";
+		String prelude = createPrelude(loaderUrl, version, language, packages);
+		for (EmittedArtifact artifact : artifacts.find(EmittedArtifact.class)) {
+			if (nocacheFile.equals(artifact.getPartialPath())) {
+				String contents = read(logger, artifact);
+				result.remove(artifact);
+				result.add(emitString(logger, prelude + contents, nocacheFile));
+			}
+		}
+		result.add(emitString(logger, createHtml(loaderUrl), HTML_FILE));
+		return result;
+	}
+
+	private String createHtml(String loaderUrl) {
+		StringBuilder sb = new StringBuilder();
+		String origin = getOrigin(loaderUrl);
+		if (origin != null) {
+			sb.append("<link rel=\"preconnect\" href=\"").append(toHtmlAttribute(origin)).append("\">\n");
+		}
+		sb.append("<link rel=\"preload\" as=\"script\" href=\"").append(toHtmlAttribute(loaderUrl)).append("\">\n");
+		return sb.toString();
+	}
+
+	private String createPrelude(String loaderUrl, String version, String language, List<String> packages) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("(function(){");
+		sb.append("var d=document,h=d.getElementsByTagName('head')[0];");
+		sb.append("if(!h||d.getElementById(").append(toJsString(LOADER_SCRIPT_ID)).append("))return;");
+		sb.append("function l(r,u){var e=d.createElement('link');e.rel=r;e.href=u;if(r=='preload')e.as='script';");
+		sb.append("h.appendChild(e);}");
+		String origin = getOrigin(loaderUrl);
+		if (origin != null) {
+			sb.append("l('preconnect',").append(toJsString(origin)).append(");");
+		}
+		sb.append("l('preload',").append(toJsString(loaderUrl)).append(");");
+		if (!packages.isEmpty()) {
+			sb.append("var s=d.createElement('script');s.id=").append(toJsString(LOADER_SCRIPT_ID));
+			sb.append(";s.async=true;s.src=").append(toJsString(loaderUrl)).append(";");
+			sb.append("var o={packages:[");
+			for (int i = 0; i < packages.size(); i++) {
+				if (i > 0) {
+					sb.append(',');
+				}
+				sb.append(toJsString(packages.get(i)));
+			}
+			sb.append("]};");
+			if (language != null) {
+				sb.append("o.language=").append(toJsString(language)).append(";");
+			}
+			sb.append("window.").append(PRELOAD_VARIABLE).append("={version:").append(toJsString(version));
+			sb.append(",language:").append(language != null ? toJsString(language) : "null");
+			sb.append(",packages:o.packages};");
+			sb.append("s.addEventListener('load',function(){var g=window.google;");
+			sb.append("if(g&&g.charts&&g.charts.load)g.charts.load(").append(toJsString(version)).append(",o);});");
+			sb.append("h.appendChild(s);");
+		}
+		sb.append("})();\n");
+		return sb.toString();
+	}
+
+	private String read(TreeLogger logger, EmittedArtifact artifact) throws UnableToCompleteException {
+		InputStream in = artifact.getContents(logger);
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int count;
+			while ((count = in.read(buffer)) != -1) {
+				out.write(buffer, 0, count);
+			}
+			return out.toString("UTF-8");
+		} catch (IOException e) {
+			logger.log(TreeLogger.ERROR, "Unable to read " + artifact.getPartialPath(), e);
+			throw new UnableToCompleteException();
+		} finally {
+			try {
+				in.close();
+			} catch (IOException e) {
+				// Ignore
+			}
+		}
+	}
+}
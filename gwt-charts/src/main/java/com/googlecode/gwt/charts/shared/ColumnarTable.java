@@ -0,0 +1,624 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.shared;
+
+import com.googlecode.gwt.charts.client.ColumnType;
+import com.googlecode.gwt.charts.client.RoleType;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A table of chart data stored by column in java arrays, usable both in GWT client code and in a plain JVM, for
+ * instance to build chart data on the server.<br>
+ * String columns are stored as String arrays and all other columns as double arrays, with NaN for null values: date
+ * and datetime values are milliseconds since the epoch, time of day values are milliseconds since midnight and boolean
+ * values are 0 or 1. Each column can also hold formatted values, properties and cell properties, whose values are
+ * strings.<br>
+ * On the client, {@link com.googlecode.gwt.charts.client.DataTable#create(ColumnarTable)} converts it into a DataTable
+ * in a single pass.<br>
+ * The table can be sent over GWT-RPC, where {@link ColumnarTable_CustomFieldSerializer} writes each column as a run of
+ * primitive values.
+ */
+public class ColumnarTable implements Serializable {
+	private static final long serialVersionUID = 1L;
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * The storage and metadata of a single column.
+	 */
+	private static class Column implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private ColumnType type;
+		private String label;
+		private String id;
+		private RoleType role;
+		private String pattern;
+		private double[] numbers;
+		private String[] strings;
+		private String[] formattedValues;
+		private Map<String, String> properties;
+		private Map<Integer, Map<String, String>> cellProperties;
+	}
+
+	private final List<Column> columns = new ArrayList<Column>();
+	private Map<String, String> tableProperties;
+	private int numberOfRows;
+	private int capacity;
+
+	/**
+	 * Creates an empty table.
+	 */
+	public ColumnarTable() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty table with room for the given number of rows.
+	 * 
+	 * @param capacity the initial row capacity
+	 */
+	public ColumnarTable(int capacity) {
+		this.capacity = Math.max(capacity, 1);
+	}
+
+	/**
+	 * Adds a column.
+	 * 
+	 * @param type the column type
+	 * @param label the column label
+	 * @return the index of the new column
+	 */
+	public int addColumn(ColumnType type, String label) {
+		return addColumn(type, label, null);
+	}
+
+	/**
+	 * Adds a column.
+	 * 
+	 * @param type the column type
+	 * @param label the column label
+	 * @param id the column id
+	 * @return the index of the new column
+	 */
+	public int addColumn(ColumnType type, String label, String id) {
+		Column column = new Column();
+		column.type = type;
+		column.label = label;
+		column.id = id;
+		if (type == ColumnType.STRING) {
+			column.strings = new String[capacity];
+		} else {
+			column.numbers = newNumbers(capacity);
+		}
+		columns.add(column);
+		return columns.size() - 1;
+	}
+
+	/**
+	 * Adds a row with null values.
+	 * 
+	 * @return the index of the new row
+	 */
+	public int addRow() {
+		return addRows(1);
+	}
+
+	/**
+	 * Adds rows with null values.
+	 * 
+	 * @param count the number of rows to add
+	 * @return the index of the last added row
+	 */
+	public int addRows(int count) {
+		numberOfRows += count;
+		if (numberOfRows > capacity) {
+			capacity = Math.max(numberOfRows, capacity * 2);
+		}
+		return numberOfRows - 1;
+	}
+
+	/**
+	 * Returns the value of a boolean cell.
+	 * 
+	 * @param rowIndex the row index
+	 * @param columnIndex the column index
+	 * @return the cell value, false if null
+	 */
+	public boolean getBoolean(int rowIndex, int columnIndex) {
+		double value = getNumber(rowIndex, columnIndex);
+		return !Double.isNaN(value) && value != 0;
+	}
+
+	/**
+	 * Returns the properties of a cell.
+	 * 
+	 * @param rowIndex the row index
+	 * @param columnIndex the column index
+	 * @return the cell properties, or null if there are none
+	 */
+	public Map<String, String> getCellProperties(int rowIndex, int columnIndex) {
+		Map<Integer, Map<String, String>> cellProperties = columns.get(columnIndex).cellProperties;
+		return cellProperties == null ? null : cellProperties.get(rowIndex);
+	}
+
+	/**
+	 * Returns the cell properties of a column, keyed by row index. The map is the one backing the column, so changes to
+	 * it are seen by the table.
+	 * 
+	 * @param columnIndex the column index
+	 * @return the cell properties, or null if no cell of the column has properties
+	 */
+	public Map<Integer, Map<String, String>> getCellProperties(int columnIndex) {
+		return columns.get(columnIndex).cellProperties;
+	}
+
+	/**
+	 * Returns the id of a column.
+	 * 
+	 * @param columnIndex the column index
+	 * @return the column id, or null
+	 */
+	public String getColumnId(int columnIndex) {
+		return columns.get(columnIndex).id;
+	}
+
+	/**
+	 * Returns the label of a column.
+	 * 
+	 * @param columnIndex the column index
+	 * @return the column label, or null
+	 */
+	public String getColumnLabel(int columnIndex) {
+		return columns.get(columnIndex).label;
+	}
+
+	/**
+	 * Returns the format pattern of a column.
+	 * 
+	 * @param columnIndex the column index
+	 * @return the column pattern, or null
+	 */
+	public String getColumnPattern(int columnIndex) {
+		return columns.get(columnIndex).pattern;
+	}
+
+	/**
+	 * Returns the properties of a column.
+	 * 
+	 * @param columnIndex the column index
+	 * @return the column properties, or null if there are none
+	 */
+	public Map<String, String> getColumnProperties(int columnIndex) {
+		return columns.get(columnIndex).properties;
+	}
+
+	/**
+	 * Returns the role of a column.
+	 * 
+	 * @param columnIndex the column index
+	 * @return the column role, or null
+	 */
+	public RoleType getColumnRole(int columnIndex) {
+		return columns.get(columnIndex).role;
+	}
+
+	/**
+	 * Returns the type of a column.
+	 * 
+	 * @param columnIndex the column index
+	 * @return the column type
+	 */
+	public ColumnType getColumnType(int columnIndex) {
+		return columns.get(columnIndex).type;
+	}
+
+	/**
+	 * Returns the formatted value of a cell.
+	 * 
+	 * @param rowIndex the row index
+	 * @param columnIndex the column index
+	 * @return the formatted value, or null
+	 */
+	public String getFormattedValue(int rowIndex, int columnIndex) {
+		String[] formattedValues = columns.get(columnIndex).formattedValues;
+		return formattedValues == null || rowIndex >= formattedValues.length ? null : formattedValues[rowIndex];
+	}
+
+	/**
+	 * Returns the formatted values of a column, as an array of the table length. This is the array backing the column
+	 * when it has exactly the table length, as after {@link #setFormattedValues(int, String[])}, and a trimmed copy
+	 * otherwise, so it must not be modified.
+	 * 
+	 * @param columnIndex the column index
+	 * @return the formatted values, or null if the column has none
+	 */
+	public String[] getFormattedValues(int columnIndex) {
+		String[] formattedValues = columns.get(columnIndex).formattedValues;
+		if (formattedValues == null || formattedValues.length == numberOfRows) {
+			return formattedValues;
+		}
+		return resize(formattedValues, numberOfRows);
+	}
+
+	/**
+	 * Returns the value of a date or datetime cell.
+	 * 
+	 * @param rowIndex the row index
+	 * @param columnIndex the column index
+	 * @return the cell value in milliseconds since the epoch, NaN if null
+	 */
+	public double getMillis(int rowIndex, int columnIndex) {
+		return getNumber(rowIndex, columnIndex);
+	}
+
+	/**
+	 * Returns the value of a number cell.
+	 * 
+	 * @param rowIndex the row index
+	 * @param columnIndex the column index
+	 * @return the cell value, NaN if null
+	 */
+	public double getNumber(int rowIndex, int columnIndex) {
+		checkRow(rowIndex);
+		double[] numbers = columns.get(columnIndex).numbers;
+		return rowIndex < numbers.length ? numbers[rowIndex] : Double.NaN;
+	}
+
+	/**
+	 * Returns the number of columns.
+	 * 
+	 * @return the number of columns
+	 */
+	public int getNumberOfColumns() {
+		return columns.size();
+	}
+
+	/**
+	 * Returns the number of rows.
+	 * 
+	 * @return the number of rows
+	 */
+	public int getNumberOfRows() {
+		return numberOfRows;
+	}
+
+	/**
+	 * Returns the values of a column stored as numbers, that is any column but string columns, as an array of the
+	 * table length. This is the array backing the column when it has exactly the table length, as after
+	 * {@link #setNumbers(int, double[])}, and a trimmed copy otherwise, so it must not be modified.
+	 * 
+	 * @param columnIndex the column index
+	 * @return the column values
+	 */
+	public double[] getNumbers(int columnIndex) {
+		Column column = columns.get(columnIndex);
+		checkNumbers(column);
+		return column.numbers.length == numberOfRows ? column.numbers : resize(column.numbers, numberOfRows);
+	}
+
+	/**
+	 * Returns the value of a string cell.
+	 * 
+	 * @param rowIndex the row index
+	 * @param columnIndex the column index
+	 * @return the cell value, or null
+	 */
+	public String getString(int rowIndex, int columnIndex) {
+		checkRow(rowIndex);
+		String[] strings = columns.get(columnIndex).strings;
+		return rowIndex < strings.length ? strings[rowIndex] : null;
+	}
+
+	/**
+	 * Returns the values of a string column, as an array of the table length. This is the array backing the column when
+	 * it has exactly the table length, as after {@link #setStrings(int, String[])}, and a trimmed copy otherwise, so it
+	 * must not be modified.
+	 * 
+	 * @param columnIndex the column index
+	 * @return the column values
+	 */
+	public String[] getStrings(int columnIndex) {
+		Column column = columns.get(columnIndex);
+		checkStrings(column);
+		return column.strings.length == numberOfRows ? column.strings : resize(column.strings, numberOfRows);
+	}
+
+	/**
+	 * Returns the table properties.
+	 * 
+	 * @return the table properties, or null if there are none
+	 */
+	public Map<String, String> getTableProperties() {
+		return tableProperties;
+	}
+
+	/**
+	 * Checks whether a cell is null.
+	 * 
+	 * @param rowIndex the row index
+	 * @param columnIndex the column index
+	 * @return true if the cell is null
+	 */
+	public boolean isNull(int rowIndex, int columnIndex) {
+		if (columns.get(columnIndex).type == ColumnType.STRING) {
+			return getString(rowIndex, columnIndex) == null;
+		}
+		return Double.isNaN(getNumber(rowIndex, columnIndex));
+	}
+
+	/**
+	 * Sets the value of a boolean cell.
+	 * 
+	 * @param rowIndex the row index
+	 * @param columnIndex the column index
+	 * @param value the cell value
+	 */
+	public void setBoolean(int rowIndex, int columnIndex, boolean value) {
+		setNumber(rowIndex, columnIndex, value ? 1 : 0);
+	}
+
+	/**
+	 * Sets a cell property.
+	 * 
+	 * @param rowIndex the row index
+	 * @param columnIndex the column index
+	 * @param name the property name
+	 * @param value the property value
+	 */
+	public void setCellProperty(int rowIndex, int columnIndex, String name, String value) {
+		checkRow(rowIndex);
+		Column column = columns.get(columnIndex);
+		if (column.cellProperties == null) {
+			column.cellProperties = new HashMap<Integer, Map<String, String>>();
+		}
+		Map<String, String> properties = column.cellProperties.get(rowIndex);
+		if (properties == null) {
+			properties = new LinkedHashMap<String, String>();
+			column.cellProperties.put(rowIndex, properties);
+		}
+		properties.put(name, value);
+	}
+
+	/**
+	 * Sets the id of a column.
+	 * 
+	 * @param columnIndex the column index
+	 * @param id the column id
+	 */
+	public void setColumnId(int columnIndex, String id) {
+		columns.get(columnIndex).id = id;
+	}
+
+	/**
+	 * Sets the label of a column.
+	 * 
+	 * @param columnIndex the column index
+	 * @param label the column label
+	 */
+	public void setColumnLabel(int columnIndex, String label) {
+		columns.get(columnIndex).label = label;
+	}
+
+	/**
+	 * Sets the format pattern of a column.
+	 * 
+	 * @param columnIndex the column index
+	 * @param pattern the column pattern
+	 */
+	public void setColumnPattern(int columnIndex, String pattern) {
+		columns.get(columnIndex).pattern = pattern;
+	}
+
+	/**
+	 * Sets a column property.
+	 * 
+	 * @param columnIndex the column index
+	 * @param name the property name
+	 * @param value the property value
+	 */
+	public void setColumnProperty(int columnIndex, String name, String value) {
+		Column column = columns.get(columnIndex);
+		if (column.properties == null) {
+			column.properties = new LinkedHashMap<String, String>();
+		}
+		column.properties.put(name, value);
+	}
+
+	/**
+	 * Sets the role of a column.
+	 * 
+	 * @param columnIndex the column index
+	 * @param role the column role
+	 */
+	public void setColumnRole(int columnIndex, RoleType role) {
+		columns.get(columnIndex).role = role;
+	}
+
+	/**
+	 * Sets the formatted value of a cell.
+	 * 
+	 * @param rowIndex the row index
+	 * @param columnIndex the column index
+	 * @param formattedValue the formatted value, or null
+	 */
+	public void setFormattedValue(int rowIndex, int columnIndex, String formattedValue) {
+		checkRow(rowIndex);
+		Column column = columns.get(columnIndex);
+		if (column.formattedValues == null) {
+			column.formattedValues = new String[capacity];
+		} else if (rowIndex >= column.formattedValues.length) {
+			column.formattedValues = resize(column.formattedValues, capacity);
+		}
+		column.formattedValues[rowIndex] = formattedValue;
+	}
+
+	/**
+	 * Sets the formatted values of a column. The array is used as it is, without copying.
+	 * 
+	 * @param columnIndex the column index
+	 * @param formattedValues the formatted values, one per row, or null to remove them
+	 */
+	public void setFormattedValues(int columnIndex, String[] formattedValues) {
+		checkLength(formattedValues == null ? numberOfRows : formattedValues.length);
+		columns.get(columnIndex).formattedValues = formattedValues;
+	}
+
+	/**
+	 * Sets the value of a date or datetime cell.
+	 * 
+	 * @param rowIndex the row index
+	 * @param columnIndex the column index
+	 * @param millis the cell value in milliseconds since the epoch, NaN for null
+	 */
+	public void setMillis(int rowIndex, int columnIndex, double millis) {
+		setNumber(rowIndex, columnIndex, millis);
+	}
+
+	/**
+	 * Sets a cell to null.
+	 * 
+	 * @param rowIndex the row index
+	 * @param columnIndex the column index
+	 */
+	public void setNull(int rowIndex, int columnIndex) {
+		if (columns.get(columnIndex).type == ColumnType.STRING) {
+			setString(rowIndex, columnIndex, null);
+		} else {
+			setNumber(rowIndex, columnIndex, Double.NaN);
+		}
+	}
+
+	/**
+	 * Sets the value of a number cell.
+	 * 
+	 * @param rowIndex the row index
+	 * @param columnIndex the column index
+	 * @param value the cell value, NaN for null
+	 */
+	public void setNumber(int rowIndex, int columnIndex, double value) {
+		checkRow(rowIndex);
+		Column column = columns.get(columnIndex);
+		checkNumbers(column);
+		if (rowIndex >= column.numbers.length) {
+			column.numbers = resize(column.numbers, capacity);
+		}
+		column.numbers[rowIndex] = value;
+	}
+
+	/**
+	 * Sets the values of a column stored as numbers, that is any column but string columns. The array is used as it
+	 * is, without copying.
+	 * 
+	 * @param columnIndex the column index
+	 * @param values the column values, one per row, NaN for null
+	 */
+	public void setNumbers(int columnIndex, double[] values) {
+		checkLength(values.length);
+		Column column = columns.get(columnIndex);
+		checkNumbers(column);
+		column.numbers = values;
+	}
+
+	/**
+	 * Sets the value of a string cell.
+	 * 
+	 * @param rowIndex the row index
+	 * @param columnIndex the column index
+	 * @param value the cell value, or null
+	 */
+	public void setString(int rowIndex, int columnIndex, String value) {
+		checkRow(rowIndex);
+		Column column = columns.get(columnIndex);
+		checkStrings(column);
+		if (rowIndex >= column.strings.length) {
+			column.strings = resize(column.strings, capacity);
+		}
+		column.strings[rowIndex] = value;
+	}
+
+	/**
+	 * Sets the values of a string column. The array is used as it is, without copying.
+	 * 
+	 * @param columnIndex the column index
+	 * @param values the column values, one per row
+	 */
+	public void setStrings(int columnIndex, String[] values) {
+		checkLength(values.length);
+		Column column = columns.get(columnIndex);
+		checkStrings(column);
+		column.strings = values;
+	}
+
+	/**
+	 * Sets a table property.
+	 * 
+	 * @param name the property name
+	 * @param value the property value
+	 */
+	public void setTableProperty(String name, String value) {
+		if (tableProperties == null) {
+			tableProperties = new LinkedHashMap<String, String>();
+		}
+		tableProperties.put(name, value);
+	}
+
+	private void checkLength(int length) {
+		if (length != numberOfRows) {
+			throw new IllegalArgumentException("Got " + length + " values for " + numberOfRows + " rows");
+		}
+	}
+
+	private void checkNumbers(Column column) {
+		if (column.numbers == null) {
+			throw new IllegalArgumentException("Column of type " + column.type.getName() + " has no number values");
+		}
+	}
+
+	private void checkRow(int rowIndex) {
+		if (rowIndex < 0 || rowIndex >= numberOfRows) {
+			throw new IndexOutOfBoundsException("Row " + rowIndex + " out of " + numberOfRows);
+		}
+	}
+
+	private void checkStrings(Column column) {
+		if (column.strings == null) {
+			throw new IllegalArgumentException("Column of type " + column.type.getName() + " has no string values");
+		}
+	}
+
+	private static double[] newNumbers(int length) {
+		double[] numbers = new double[length];
+		for (int i = 0; i < length; i++) {
+			numbers[i] = Double.NaN;
+		}
+		return numbers;
+	}
+
+	private static double[] resize(double[] numbers, int length) {
+		double[] resized = newNumbers(length);
+		System.arraycopy(numbers, 0, resized, 0, Math.min(numbers.length, length));
+		return resized;
+	}
+
+	private static String[] resize(String[] strings, int length) {
+		String[] resized = new String[length];
+		System.arraycopy(strings, 0, resized, 0, Math.min(strings.length, length));
+		return resized;
+	}
+}
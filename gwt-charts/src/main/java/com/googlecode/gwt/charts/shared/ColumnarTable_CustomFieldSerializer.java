@@ -0,0 +1,199 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.shared;
+
+import com.google.gwt.user.client.rpc.CustomFieldSerializer;
+import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.client.rpc.SerializationStreamReader;
+import com.google.gwt.user.client.rpc.SerializationStreamWriter;
+
+import com.googlecode.gwt.charts.client.ColumnType;
+import com.googlecode.gwt.charts.client.RoleType;
+
+import java.util.Map;
+
+/**
+ * GWT-RPC serializer for {@link ColumnarTable}. Each column is written as a run of primitive doubles or strings, not as
+ * a graph of cell objects, and is read back into a fresh array that the table adopts. On the client, the received
+ * table can then be turned into a DataTable with
+ * {@link com.googlecode.gwt.charts.client.DataTable#create(ColumnarTable)}, which uses those arrays without copying.
+ */
+public class ColumnarTable_CustomFieldSerializer extends CustomFieldSerializer<ColumnarTable> {
+
+	/**
+	 * Reads the columns and properties of a table created by {@link #instantiate(SerializationStreamReader)}.
+	 * 
+	 * @param streamReader the stream to read from
+	 * @param instance the table to fill
+	 * @throws SerializationException if the stream can't be read
+	 */
+	public static void deserialize(SerializationStreamReader streamReader, ColumnarTable instance)
+			throws SerializationException {
+		int rowCount = instance.getNumberOfRows();
+		int columnCount = streamReader.readInt();
+		for (int j = 0; j < columnCount; j++) {
+			ColumnType type = ColumnType.findByName(streamReader.readString());
+			if (type == null) {
+				throw new SerializationException("Unknown column type");
+			}
+			instance.addColumn(type, streamReader.readString(), streamReader.readString());
+			String role = streamReader.readString();
+			if (role != null) {
+				instance.setColumnRole(j, RoleType.findByName(role));
+			}
+			instance.setColumnPattern(j, streamReader.readString());
+			int propertyCount = streamReader.readInt();
+			for (int k = 0; k < propertyCount; k++) {
+				instance.setColumnProperty(j, streamReader.readString(), streamReader.readString());
+			}
+
+			if (type == ColumnType.STRING) {
+				instance.setStrings(j, readStrings(streamReader, rowCount));
+			} else {
+				double[] numbers = new double[rowCount];
+				for (int i = 0; i < rowCount; i++) {
+					numbers[i] = streamReader.readDouble();
+				}
+				instance.setNumbers(j, numbers);
+			}
+			if (streamReader.readBoolean()) {
+				instance.setFormattedValues(j, readStrings(streamReader, rowCount));
+			}
+			int cellCount = streamReader.readInt();
+			for (int c = 0; c < cellCount; c++) {
+				int rowIndex = streamReader.readInt();
+				propertyCount = streamReader.readInt();
+				for (int k = 0; k < propertyCount; k++) {
+					instance.setCellProperty(rowIndex, j, streamReader.readString(), streamReader.readString());
+				}
+			}
+		}
+		int propertyCount = streamReader.readInt();
+		for (int k = 0; k < propertyCount; k++) {
+			instance.setTableProperty(streamReader.readString(), streamReader.readString());
+		}
+	}
+
+	/**
+	 * Reads the number of rows and creates a table with that many rows.
+	 * 
+	 * @param streamReader the stream to read from
+	 * @return a new table, without columns
+	 * @throws SerializationException if the stream can't be read
+	 */
+	public static ColumnarTable instantiate(SerializationStreamReader streamReader) throws SerializationException {
+		int rowCount = streamReader.readInt();
+		ColumnarTable table = new ColumnarTable(rowCount);
+		if (rowCount > 0) {
+			table.addRows(rowCount);
+		}
+		return table;
+	}
+
+	/**
+	 * Writes a table.
+	 * 
+	 * @param streamWriter the stream to write to
+	 * @param instance the table to write
+	 * @throws SerializationException if the stream can't be written
+	 */
+	public static void serialize(SerializationStreamWriter streamWriter, ColumnarTable instance)
+			throws SerializationException {
+		int rowCount = instance.getNumberOfRows();
+		int columnCount = instance.getNumberOfColumns();
+		streamWriter.writeInt(rowCount);
+		streamWriter.writeInt(columnCount);
+		for (int j = 0; j < columnCount; j++) {
+			ColumnType type = instance.getColumnType(j);
+			streamWriter.writeString(type.getName());
+			streamWriter.writeString(instance.getColumnLabel(j));
+			streamWriter.writeString(instance.getColumnId(j));
+			RoleType role = instance.getColumnRole(j);
+			streamWriter.writeString(role != null ? role.getName() : null);
+			streamWriter.writeString(instance.getColumnPattern(j));
+			writeProperties(streamWriter, instance.getColumnProperties(j));
+
+			if (type == ColumnType.STRING) {
+				writeStrings(streamWriter, instance.getStrings(j));
+			} else {
+				double[] numbers = instance.getNumbers(j);
+				for (int i = 0; i < rowCount; i++) {
+					streamWriter.writeDouble(numbers[i]);
+				}
+			}
+			String[] formattedValues = instance.getFormattedValues(j);
+			streamWriter.writeBoolean(formattedValues != null);
+			if (formattedValues != null) {
+				writeStrings(streamWriter, formattedValues);
+			}
+			Map<Integer, Map<String, String>> cellProperties = instance.getCellProperties(j);
+			streamWriter.writeInt(cellProperties != null ? cellProperties.size() : 0);
+			if (cellProperties != null) {
+				for (Map.Entry<Integer, Map<String, String>> entry : cellProperties.entrySet()) {
+					streamWriter.writeInt(entry.getKey());
+					writeProperties(streamWriter, entry.getValue());
+				}
+			}
+		}
+		writeProperties(streamWriter, instance.getTableProperties());
+	}
+
+	private static String[] readStrings(SerializationStreamReader streamReader, int length)
+			throws SerializationException {
+		String[] strings = new String[length];
+		for (int i = 0; i < length; i++) {
+			strings[i] = streamReader.readString();
+		}
+		return strings;
+	}
+
+	private static void writeProperties(SerializationStreamWriter streamWriter, Map<String, String> properties)
+			throws SerializationException {
+		streamWriter.writeInt(properties != null ? properties.size() : 0);
+		if (properties != null) {
+			for (Map.Entry<String, String> entry : properties.entrySet()) {
+				streamWriter.writeString(entry.getKey());
+				streamWriter.writeString(entry.getValue());
+			}
+		}
+	}
+
+	private static void writeStrings(SerializationStreamWriter streamWriter, String[] strings)
+			throws SerializationException {
+		for (int i = 0; i < strings.length; i++) {
+			streamWriter.writeString(strings[i]);
+		}
+	}
+
+	@Override
+	public void deserializeInstance(SerializationStreamReader streamReader, ColumnarTable instance)
+			throws SerializationException {
+		deserialize(streamReader, instance);
+	}
+
+	@Override
+	public boolean hasCustomInstantiateInstance() {
+		return true;
+	}
+
+	@Override
+	public ColumnarTable instantiateInstance(SerializationStreamReader streamReader) throws SerializationException {
+		return instantiate(streamReader);
+	}
+
+	@Override
+	public void serializeInstance(SerializationStreamWriter streamWriter, ColumnarTable instance)
+			throws SerializationException {
+		serialize(streamWriter, instance);
+	}
+}
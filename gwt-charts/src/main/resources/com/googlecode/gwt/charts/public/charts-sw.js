@@ -0,0 +1,158 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+/*
+ * Service worker caching the chart library scripts and styles, registered by ApiLoader when a script cache URL and
+ * scope are set. Requests under the "base" directories are answered from Cache Storage when possible and revalidated
+ * in the background (stale-while-revalidate). A version label such as 'current' resolves to a numbered release, whose
+ * number is the first directory of the versioned resource URLs: those are cached per release, language and packages,
+ * and once a resource of a new release is fetched the caches of the older releases are removed, so a rolling label
+ * doesn't keep every release it pointed to. The unversioned loader script has a cache of its own. Caches for other
+ * languages or packages are removed when the worker activates.
+ * 
+ * Applications with their own service worker should not register this one on an overlapping scope, since only one
+ * worker controls a page. They can import it instead, after declaring the configuration normally passed as query
+ * parameters:
+ * 
+ * self.gwtChartsScriptCache = { version: 'current', language: null, packages: [ 'corechart' ], bases: [] };
+ * importScripts('charts-sw.js');
+ * 
+ * Imported, it only adds its fetch and activate handlers and leaves skipWaiting and clients.claim to the host worker.
+ * Only responses readable by the worker (CORS or same origin) are cached; opaque responses can hide errors and would
+ * be replayed as they are.
+ */
+var CACHE_PREFIX = 'gwt-charts-';
+
+(function() {
+	var imported = !!self.gwtChartsScriptCache;
+	var config = self.gwtChartsScriptCache;
+	if (!imported) {
+		var params = new URL(self.location.href).searchParams;
+		config = {
+			version: params.get('version'),
+			language: params.get('language'),
+			packages: params.getAll('package'),
+			bases: params.getAll('base')
+		};
+	}
+	var packages = (config.packages || []).slice().sort();
+	// Release caches are named CACHE_PREFIX + language + packages + '@' + release
+	var cachePrefix = CACHE_PREFIX + (config.language || 'default') + '-' + packages.join('+') + '@';
+	var loaderCacheName = cachePrefix + 'loader';
+	var bases = config.bases && config.bases.length > 0 ? config.bases : [ 'https://www.gstatic.com/charts/' ];
+
+	// Returns the name of the cache for a URL, or null if the URL is not a chart resource
+	function getCacheName(url) {
+		for (var i = 0; i < bases.length; i++) {
+			if (url.indexOf(bases[i]) === 0) {
+				var release = /^(\d+(?:\.\d+)*)\//.exec(url.substring(bases[i].length));
+				return release ? cachePrefix + release[1] : loaderCacheName;
+			}
+		}
+		return null;
+	}
+
+	function deleteCaches(filter) {
+		return caches.keys().then(function(keys) {
+			return Promise.all(keys.filter(function(key) {
+				return key.indexOf(CACHE_PREFIX) === 0 && filter(key);
+			}).map(function(key) {
+				return caches['delete'](key);
+			}));
+		});
+	}
+
+	// Compares two release numbers such as '45' and '45.2' part by part
+	function compareReleases(a, b) {
+		var partsA = a.split('.');
+		var partsB = b.split('.');
+		for (var i = 0; i < Math.max(partsA.length, partsB.length); i++) {
+			var difference = (+partsA[i] || 0) - (+partsB[i] || 0);
+			if (difference !== 0) {
+				return difference;
+			}
+		}
+		return 0;
+	}
+
+	// Removes the caches of the releases older than the given one
+	function pruneReleases(release) {
+		return deleteCaches(function(key) {
+			return key.indexOf(cachePrefix) === 0 && key !== loaderCacheName
+					&& compareReleases(key.substring(cachePrefix.length), release) < 0;
+		});
+	}
+
+	function fetchAndCache(cache, request) {
+		var corsRequest = request.mode === 'no-cors' ? new Request(request.url, {
+			mode: 'cors',
+			credentials: 'omit'
+		}) : request;
+		return fetch(corsRequest).then(function(response) {
+			if (response.ok && response.type !== 'opaque') {
+				cache.put(request, response.clone());
+			}
+			return response;
+		}, function(error) {
+			if (corsRequest === request) {
+				throw error;
+			}
+			// The server doesn't allow CORS, serve the request as it was made without caching it
+			return fetch(request);
+		});
+	}
+
+	if (!imported) {
+		self.addEventListener('install', function(event) {
+			event.waitUntil(self.skipWaiting());
+		});
+	}
+
+	self.addEventListener('activate', function(event) {
+		event.waitUntil(deleteCaches(function(key) {
+			return key.indexOf(cachePrefix) !== 0;
+		}).then(function() {
+			if (!imported) {
+				return self.clients.claim();
+			}
+		}));
+	});
+
+	self.addEventListener('fetch', function(event) {
+		var request = event.request;
+		var cacheName = request.method === 'GET' ? getCacheName(request.url) : null;
+		if (!cacheName) {
+			return;
+		}
+		event.respondWith(caches.open(cacheName).then(function(cache) {
+			return cache.match(request).then(function(cached) {
+				var network = fetchAndCache(cache, request);
+				if (cached) {
+					event.waitUntil(network['catch'](function() {
+						// Offline, keep the cached copy
+					}));
+					return cached;
+				}
+				if (cacheName !== loaderCacheName) {
+					// A resource missing from its release cache is usually the first one of a new release
+					event.waitUntil(network.then(function() {
+						return pruneReleases(cacheName.substring(cachePrefix.length));
+					}, function() {
+						// Offline, nothing was cached
+					}));
+				}
+				return network;
+			});
+		}));
+	});
+})();
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.junit.client.GWTTestCase;
+
+import java.util.Date;
+
+/**
+ * Builds the same time series with {@link DataTableBuilder} and with {@link DataTable#addRow(Object...)}, running the
+ * compiled code of both, boxing and native calls included, in the HtmlUnit browser of the gwt-test profile. The tables
+ * are stand-ins, see {@link VisualizationStandIn}, which copy the cells of a literal the same way as added rows. Not
+ * part of the tests, run with:
+ * 
+ * <pre>
+ * mvn -Pgwt-test test -Dgwt.test.includes=**&#47;*GwtBenchmark.java
+ * </pre>
+ * 
+ * The average times are written to the browser console, which the build log shows.
+ */
+public class DataTableBuilderGwtBenchmark extends GWTTestCase {
+	private static final int ROWS = 2000;
+	private static final int ITERATIONS = 5;
+
+	private double[] times;
+	private double[] loads;
+	private String[] hosts;
+
+	private static native void log(String message) /*-{
+		$wnd.console.log(message);
+	}-*/;
+
+	@Override
+	public String getModuleName() {
+		return "com.googlecode.gwt.charts.ChartsTest";
+	}
+
+	public void testBuilderAgainstAddRow() {
+		DataTable byRows = addRows();
+		DataTable byColumns = build();
+		assertEquals(byRows.getNumberOfRows(), byColumns.getNumberOfRows());
+		for (int i = 0; i < ROWS; i += ROWS / 10) {
+			assertEquals(byRows.getValueDate(i, 0), byColumns.getValueDate(i, 0));
+			assertEquals(byRows.getValueNumber(i, 1), byColumns.getValueNumber(i, 1));
+			assertEquals(byRows.getValueString(i, 2), byColumns.getValueString(i, 2));
+		}
+
+		double addRowMillis = 0;
+		double builderMillis = 0;
+		for (int k = 0; k < ITERATIONS; k++) {
+			double start = Duration.currentTimeMillis();
+			addRows();
+			addRowMillis += Duration.currentTimeMillis() - start;
+			start = Duration.currentTimeMillis();
+			build();
+			builderMillis += Duration.currentTimeMillis() - start;
+		}
+		log(ROWS + " rows, addRow(Object...): " + addRowMillis / ITERATIONS + " ms, DataTableBuilder: "
+				+ builderMillis / ITERATIONS + " ms");
+	}
+
+	@Override
+	protected void gwtSetUp() {
+		VisualizationStandIn.define();
+		// One sample per second with a load and a host name out of 8
+		times = new double[ROWS];
+		loads = new double[ROWS];
+		hosts = new String[ROWS];
+		for (int i = 0; i < ROWS; i++) {
+			times[i] = 1356998400000.0 + i * 1000;
+			loads[i] = Math.round(Math.abs(Math.sin(i / 60.0)) * 10000) / 100.0;
+			hosts[i] = "host-" + i % 8;
+		}
+	}
+
+	private DataTable addRows() {
+		DataTable dataTable = DataTable.create();
+		dataTable.addColumn(ColumnType.DATETIME, "Time");
+		dataTable.addColumn(ColumnType.NUMBER, "Load");
+		dataTable.addColumn(ColumnType.STRING, "Host");
+		for (int i = 0; i < ROWS; i++) {
+			dataTable.addRow(new Date((long) times[i]), loads[i], hosts[i]);
+		}
+		return dataTable;
+	}
+
+	private DataTable build() {
+		return new DataTableBuilder().addDateTimeColumn("Time", times).addNumberColumn("Load", loads)
+				.addStringColumn("Host", hosts).build();
+	}
+}
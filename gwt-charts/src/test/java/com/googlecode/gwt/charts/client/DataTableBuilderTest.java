@@ -0,0 +1,107 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Assembles data literals with the script of {@link DataTableBuilder}, and checks that building a large table from
+ * whole columns gives the same cells as adding it row by row. {@link DataTableBuilderGwtBenchmark} times both.
+ */
+public class DataTableBuilderTest {
+	private static JsniScript script;
+
+	@BeforeClass
+	public static void setUpScript() {
+		script = new JsniScript();
+		script.defineDataTable();
+		script.define("com.googlecode.gwt.charts.client.DataTableBuilder", "createRowSource");
+		script.define("com.googlecode.gwt.charts.client.DataTableBuilder", "assemble");
+		// The columns of a monitoring time series, one sample per second with a load and a host name out of 8
+		script.eval("function sampleColumns(rowCount) {"
+				+ "  var times = new Array(rowCount);"
+				+ "  var loads = new Array(rowCount);"
+				+ "  var hosts = new Array(rowCount);"
+				+ "  for (var i = 0; i < rowCount; i++) {"
+				+ "    times[i] = 1356998400000 + i * 1000;"
+				+ "    loads[i] = Math.round(Math.abs(Math.sin(i / 60)) * 10000) / 100;"
+				+ "    hosts[i] = 'host-' + i % 8;"
+				+ "  }"
+				+ "  return [times, loads, hosts];"
+				+ "}"
+				+ "function byColumns(values) {"
+				+ "  var cols = [{type: 'datetime', label: 'Time'}, {type: 'number', label: 'Load'},"
+				+ "      {type: 'string', label: 'Host'}];"
+				+ "  var literal = assemble(cols, values, [null, null, null], [null, null, null], values[0].length);"
+				+ "  return new $wnd.google.visualization.DataTable(literal);"
+				+ "}"
+				// What DataTable.addRow(Object...) hands to the library for each row, without the Java side boxing
+				+ "function byRows(values) {"
+				+ "  var table = new $wnd.google.visualization.DataTable();"
+				+ "  table.addColumn('datetime', 'Time');"
+				+ "  table.addColumn('number', 'Load');"
+				+ "  table.addColumn('string', 'Host');"
+				+ "  for (var i = 0; i < values[0].length; i++) {"
+				+ "    table.addRow([new Date(values[0][i]), values[1][i], values[2][i]]);"
+				+ "  }"
+				+ "  return table;"
+				+ "}"
+				+ "function differingCell(a, b) {"
+				+ "  for (var i = 0; i < a.getNumberOfRows(); i++) {"
+				+ "    for (var j = 0; j < a.getNumberOfColumns(); j++) {"
+				+ "      var x = a.getValue(i, j);"
+				+ "      var y = b.getValue(i, j);"
+				+ "      if ((x instanceof Date ? x.getTime() : x) !== (y instanceof Date ? y.getTime() : y)) {"
+				+ "        return i + ',' + j;"
+				+ "      }"
+				+ "    }"
+				+ "  }"
+				+ "  return a.getNumberOfRows() == b.getNumberOfRows() ? null : 'rows';"
+				+ "}");
+	}
+
+	@AfterClass
+	public static void tearDownScript() {
+		script.close();
+	}
+
+	@Test
+	public void testCellTypes() {
+		Object json = script.eval("JSON.stringify(assemble("
+				+ "  [{type: 'datetime'}, {type: 'boolean'}, {type: 'timeofday'}, {type: 'number'}, {type: 'string'}],"
+				+ "  [[0, NaN], [1, 0], [3723004, null], [1.5, NaN], ['a', null]],"
+				+ "  [null, null, null, ['1.50', null], null],"
+				+ "  [null, null, null, null, {1: {className: 'warn'}}],"
+				+ "  2).rows)");
+		assertEquals("[{\"c\":[{\"v\":\"1970-01-01T00:00:00.000Z\"},{\"v\":true},{\"v\":[1,2,3,4]},"
+				+ "{\"v\":1.5,\"f\":\"1.50\"},{\"v\":\"a\"}]},"
+				+ "{\"c\":[{\"v\":null},{\"v\":false},{\"v\":null},{\"v\":null},{\"v\":null,\"p\":{\"className\":\"warn\"}}]}]",
+				json);
+	}
+
+	@Test
+	public void testEmpty() {
+		assertEquals("{\"cols\":[{\"type\":\"number\"}],\"rows\":[]}",
+				script.eval("JSON.stringify(assemble([{type: 'number'}], [[]], [null], [null], 0))"));
+	}
+
+	@Test
+	public void testLargeTable() {
+		script.eval("var values = sampleColumns(200000);");
+		assertEquals(null, script.eval("differingCell(byColumns(values), byRows(values))"));
+	}
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.user.client.Timer;
+
+import com.googlecode.gwt.charts.client.apiloader.ApiLoaderErrorHandler;
+import com.googlecode.gwt.charts.client.apiloader.ApiLoaderException;
+import com.googlecode.gwt.charts.client.query.QueryCallback;
+import com.googlecode.gwt.charts.client.query.QueryResponse;
+
+/**
+ * Fetches the data sources served by the ChartsTest module through {@link ChartBootstrap}, with a chart loader whose
+ * load finishes or fails after the responses are received, and the stand-in DataTable and QueryResponse.
+ */
+public class GwtTestChartBootstrap extends GWTTestCase {
+	private static final int LOAD_DELAY_MS = 500;
+	private static final int TEST_DELAY_MS = 10000;
+
+	/**
+	 * Finishes the load of the chart library after a delay, or fails it.
+	 */
+	private static class DelayedLoader extends ChartLoader {
+		private final boolean fail;
+
+		DelayedLoader(boolean fail) {
+			super(ChartPackage.CORECHART);
+			this.fail = fail;
+		}
+
+		@Override
+		public void loadApi(final Runnable callback, final ApiLoaderErrorHandler errorHandler) {
+			new Timer() {
+
+				@Override
+				public void run() {
+					if (fail) {
+						errorHandler.onError(new ApiLoaderException("Loader script failed", false));
+					} else {
+						callback.run();
+					}
+				}
+			}.schedule(LOAD_DELAY_MS);
+		}
+	}
+
+	@Override
+	public String getModuleName() {
+		return "com.googlecode.gwt.charts.ChartsTest";
+	}
+
+	@Override
+	protected void gwtSetUp() {
+		VisualizationStandIn.define();
+	}
+
+	public void testDataTableReportsLoadFailure() {
+		ChartBootstrap bootstrap = new ChartBootstrap(new DelayedLoader(true));
+		bootstrap.fetchDataTable(GWT.getModuleBaseURL() + "datasource.js", new DataTableCallback() {
+
+			@Override
+			public void onFailure(Throwable reason) {
+				assertTrue(reason instanceof ApiLoaderException);
+				finishTest();
+			}
+
+			@Override
+			public void onSuccess(DataTable dataTable) {
+				fail("The chart library didn't load");
+			}
+		});
+		delayTestFinish(TEST_DELAY_MS);
+	}
+
+	public void testQueryParsedOnceLoaded() {
+		ChartBootstrap bootstrap = new ChartBootstrap(new DelayedLoader(false));
+		bootstrap.fetchQuery(GWT.getModuleBaseURL() + "datasource.js", "select A, B", new QueryCallback() {
+
+			@Override
+			public void onResponse(QueryResponse queryResponse) {
+				assertFalse(queryResponse.isError());
+				DataTable dataTable = queryResponse.getDataTable();
+				assertEquals(2, dataTable.getNumberOfRows());
+				assertEquals("host-1", dataTable.getValueString(1, 0));
+				assertEquals(2, dataTable.getValueNumber(1, 1), 0);
+				finishTest();
+			}
+		});
+		delayTestFinish(TEST_DELAY_MS);
+	}
+
+	public void testQueryReportsInvalidResponse() {
+		ChartBootstrap bootstrap = new ChartBootstrap(new DelayedLoader(false));
+		// A script that is not a datasource response
+		bootstrap.fetchQuery(GWT.getModuleBaseURL() + "loader.js", null, new QueryCallback() {
+
+			@Override
+			public void onResponse(QueryResponse queryResponse) {
+				assertTrue(queryResponse.isError());
+				assertEquals("Invalid response", queryResponse.getMessage());
+				finishTest();
+			}
+		});
+		delayTestFinish(TEST_DELAY_MS);
+	}
+
+	public void testQueryReportsLoadFailure() {
+		// No error handler is set, the failure goes to the query callback
+		ChartBootstrap bootstrap = new ChartBootstrap(new DelayedLoader(true));
+		bootstrap.fetchQuery(GWT.getModuleBaseURL() + "datasource.js", null, new QueryCallback() {
+
+			@Override
+			public void onResponse(QueryResponse queryResponse) {
+				assertTrue(queryResponse.isError());
+				assertEquals("Chart library failed to load", queryResponse.getMessage());
+				assertEquals("Loader script failed", queryResponse.getDetailedMessage());
+				assertEquals("other", queryResponse.getReasons().get(0));
+				assertNull(queryResponse.getDataTable());
+				finishTest();
+			}
+		});
+		delayTestFinish(TEST_DELAY_MS);
+	}
+
+	public void testQueryReportsMissingDataSource() {
+		ChartBootstrap bootstrap = new ChartBootstrap(new DelayedLoader(false));
+		bootstrap.fetchQuery(GWT.getModuleBaseURL() + "missing.js", null, new QueryCallback() {
+
+			@Override
+			public void onResponse(QueryResponse queryResponse) {
+				assertTrue(queryResponse.isError());
+				assertEquals("Request failed", queryResponse.getMessage());
+				assertTrue(queryResponse.getDetailedMessage().startsWith("404"));
+				finishTest();
+			}
+		});
+		delayTestFinish(TEST_DELAY_MS);
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+import com.googlecode.gwt.charts.client.event.CommitEvent;
+import com.googlecode.gwt.charts.client.event.CommitHandler;
+
+/**
+ * Commits {@link DataTableBatch} changes to the stand-in DataTable, and checks that a {@link CommitListener} follows
+ * the table it is given.
+ */
+public class GwtTestDataTableBatch extends GWTTestCase {
+	private int commits;
+
+	private static DataTable createTable() {
+		DataTable dataTable = DataTable.create();
+		dataTable.addColumn(ColumnType.STRING, "Host");
+		dataTable.addColumn(ColumnType.NUMBER, "Load");
+		dataTable.addColumn(ColumnType.DATETIME, "Time");
+		dataTable.addRows(2);
+		return dataTable;
+	}
+
+	@Override
+	public String getModuleName() {
+		return "com.googlecode.gwt.charts.ChartsTest";
+	}
+
+	@Override
+	protected void gwtSetUp() {
+		VisualizationStandIn.define();
+		commits = 0;
+	}
+
+	public void testCommitAppliesChanges() {
+		DataTable dataTable = createTable();
+		DataTableBatch batch = dataTable.beginBatch();
+		batch.setValue(0, 0, "a").setValue(0, 1, 5).setFormattedValue(0, 1, "five").setProperty(0, 0, "style", "bold");
+		batch.setCell(1, 0, "b", "B").setValueMillis(0, 2, 1000).setCellMillis(1, 2, Double.NaN, "none");
+		assertEquals(7, batch.getSize());
+		batch.commit();
+
+		assertEquals(0, batch.getSize());
+		assertEquals("a", dataTable.getValueString(0, 0));
+		assertEquals("bold", dataTable.getPropertyString(0, 0, "style"));
+		assertEquals(5, dataTable.getValueNumber(0, 1), 0);
+		assertEquals("five", dataTable.getFormattedValue(0, 1));
+		assertEquals(1000, dataTable.getValueMillis(0, 2), 0);
+		assertEquals("b", dataTable.getValueString(1, 0));
+		assertEquals("B", dataTable.getFormattedValue(1, 0));
+		assertTrue(dataTable.isValueNull(1, 2));
+		assertEquals("none", dataTable.getFormattedValue(1, 2));
+	}
+
+	public void testCommitListenerFollowsTable() {
+		DataTable first = createTable();
+		DataTable second = createTable();
+		CommitListener listener = new CommitListener(new CommitHandler() {
+
+			@Override
+			public void onCommit(CommitEvent event) {
+				commits++;
+			}
+		});
+
+		listener.listen(first);
+		first.beginBatch().setValue(0, 1, 1).commit();
+		assertEquals(1, commits);
+
+		listener.listen(second);
+		first.beginBatch().commit();
+		assertEquals(1, commits);
+		second.beginBatch().commit();
+		assertEquals(2, commits);
+
+		listener.listen(null);
+		second.beginBatch().commit();
+		assertEquals(2, commits);
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+/**
+ * Checks the index of {@link KeyedDataTable} against the stand-in DataTable.
+ */
+public class GwtTestKeyedDataTable extends GWTTestCase {
+
+	@Override
+	public String getModuleName() {
+		return "com.googlecode.gwt.charts.ChartsTest";
+	}
+
+	@Override
+	protected void gwtSetUp() {
+		VisualizationStandIn.define();
+	}
+
+	public void testMoveLastRowKeepsFormattedValues() {
+		DataTable dataTable = DataTable.create();
+		dataTable.addColumn(ColumnType.STRING, "Region");
+		dataTable.addColumn(ColumnType.NUMBER, "Sales");
+		dataTable.addRow("US-CA", 1.0);
+		dataTable.addRow("US-NV", 2.0);
+		dataTable.addRow("US-OR", 3.0);
+		dataTable.setCell(2, 1, 3.0, "three");
+		KeyedDataTable regions = new KeyedDataTable(dataTable, 0);
+
+		assertTrue(regions.removeByKey("US-CA", true));
+		assertEquals(2, dataTable.getNumberOfRows());
+		assertFalse(regions.containsKey("US-CA"));
+		assertEquals(0, regions.getRowIndex("US-OR"));
+		assertEquals(1, regions.getRowIndex("US-NV"));
+		assertEquals(3.0, dataTable.getValueNumber(0, 1), 0);
+		assertEquals("three", dataTable.getFormattedValue(0, 1));
+		assertEquals("2", dataTable.getFormattedValue(1, 1));
+	}
+
+	public void testRemoveByKeyKeepsOrder() {
+		DataTable dataTable = DataTable.create();
+		dataTable.addColumn(ColumnType.STRING, "Region");
+		dataTable.addColumn(ColumnType.NUMBER, "Sales");
+		KeyedDataTable regions = new KeyedDataTable(dataTable, 0);
+		regions.upsert("US-CA", 1);
+		regions.upsert("US-NV", 2);
+		regions.upsert("US-OR", 3);
+
+		assertTrue(regions.removeByKey("US-CA"));
+		assertFalse(regions.removeByKey("US-CA"));
+		assertEquals("US-NV", regions.getKey(0));
+		assertEquals(0, regions.getRowIndex("US-NV"));
+		assertEquals(1, regions.getRowIndex("US-OR"));
+	}
+
+	public void testUpsertNumberKey() {
+		DataTable dataTable = DataTable.create();
+		dataTable.addColumn(ColumnType.NUMBER, "Id");
+		dataTable.addColumn(ColumnType.NUMBER, "Count");
+		KeyedDataTable counts = new KeyedDataTable(dataTable, 0);
+
+		assertEquals(0, counts.upsert("1", 5));
+		assertEquals(0, counts.upsert("1.0", 6));
+		assertEquals(1, dataTable.getNumberOfRows());
+		assertEquals("1", counts.getKey(0));
+		assertEquals(6, dataTable.getValueNumber(0, 1), 0);
+
+		// The index built from the table finds the same key
+		counts.reindex();
+		assertEquals(0, counts.upsert("1.00", 7));
+		assertEquals(1, dataTable.getNumberOfRows());
+		assertEquals(7, dataTable.getValueNumber(0, 1), 0);
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+/**
+ * Checks the rows shown by the view of {@link WindowedDataTable} against the stand-in DataTable and DataView.
+ */
+public class GwtTestWindowedDataTable extends GWTTestCase {
+	private static final int CAPACITY = 100;
+
+	private static WindowedDataTable createWindow() {
+		DataTable dataTable = DataTable.create();
+		dataTable.addColumn(ColumnType.NUMBER, "Time");
+		dataTable.addColumn(ColumnType.NUMBER, "Load");
+		return new WindowedDataTable(dataTable, CAPACITY);
+	}
+
+	/**
+	 * Reads every cell of a view the way a chart does when it draws it, and checks the times are consecutive.
+	 */
+	private static void assertRows(DataView view, int firstTime, int rowCount) {
+		assertEquals(rowCount, view.getNumberOfRows());
+		for (int i = 0; i < view.getNumberOfRows(); i++) {
+			assertEquals(firstTime + i, view.getValueNumber(i, 0), 0);
+			assertEquals((firstTime + i) % 10, view.getValueNumber(i, 1), 0);
+		}
+	}
+
+	@Override
+	public String getModuleName() {
+		return "com.googlecode.gwt.charts.ChartsTest";
+	}
+
+	@Override
+	protected void gwtSetUp() {
+		VisualizationStandIn.define();
+	}
+
+	public void testClearEmptiesTheView() {
+		WindowedDataTable window = createWindow();
+		for (int time = 0; time < 3 * CAPACITY / 2; time++) {
+			window.append(time, time % 10);
+		}
+		DataView view = window.getDataView();
+		window.clear();
+		assertEquals(0, window.getDataTable().getNumberOfRows());
+		assertRows(view, 0, 0);
+	}
+
+	public void testEvictedRowsStayUntilCompaction() {
+		WindowedDataTable window = createWindow();
+		for (int time = 0; time < CAPACITY + 10; time++) {
+			window.append(time, time % 10);
+		}
+		assertEquals(CAPACITY, window.getNumberOfRows());
+		assertEquals(10, window.getFirstRowIndex());
+		assertEquals(CAPACITY + 10, window.getDataTable().getNumberOfRows());
+		assertRows(window.getDataView(), 10, CAPACITY);
+	}
+
+	public void testMaxAgeEvictsOldRows() {
+		WindowedDataTable window = createWindow();
+		window.setMaxAge(5);
+		for (int time = 0; time < 20; time++) {
+			window.append(time, time % 10);
+		}
+		assertRows(window.getDataView(), 14, 6);
+	}
+
+	public void testRedrawAfterCompaction() {
+		WindowedDataTable window = createWindow();
+		for (int time = 0; time < 2 * CAPACITY - 1; time++) {
+			window.append(time, time % 10);
+		}
+		DataView view = window.getDataView();
+		assertEquals(CAPACITY - 1, window.getFirstRowIndex());
+		assertRows(view, CAPACITY - 1, CAPACITY);
+		// The next eviction removes the evicted rows from the table, the view is redrawn without being fetched again
+		window.append(2 * CAPACITY - 1, (2 * CAPACITY - 1) % 10);
+		assertEquals(CAPACITY, window.getDataTable().getNumberOfRows());
+		assertEquals(0, window.getFirstRowIndex());
+		assertRows(view, CAPACITY, CAPACITY - 1);
+		assertRows(window.getDataView(), CAPACITY, CAPACITY);
+	}
+}
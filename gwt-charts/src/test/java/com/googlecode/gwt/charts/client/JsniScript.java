@@ -0,0 +1,180 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Function;
+import org.mozilla.javascript.ScriptableObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs JSNI method bodies of the library in Rhino, so the client scripts can be tested without a browser. The bodies
+ * are read from the working tree sources, in <code>src/main/java</code> of the gwt-charts module or in the directory
+ * given by the <code>gwt-charts.sources</code> system property. <code>$wnd</code> is the global scope,
+ * which has typed arrays and an <code>atob</code> function, but no Google visualization library unless the stand-in
+ * DataTable is defined.<br>
+ * A script must be closed on the thread that created it.
+ */
+public class JsniScript {
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final String SOURCES_PROPERTY = "gwt-charts.sources";
+	private static final Pattern STATIC_CALL = Pattern.compile("@[\\w.$]+::(\\w+)\\([^)]*\\)");
+
+	private final Context context;
+	private final ScriptableObject scope;
+
+	/**
+	 * Creates a script scope on the current thread.
+	 */
+	public JsniScript() {
+		context = Context.enter();
+		context.setLanguageVersion(Context.VERSION_ES6);
+		scope = context.initStandardObjects();
+		eval("var $wnd = this;"
+				+ "$wnd.atob = function(text) {"
+				+ "  return String(new java.lang.String(java.util.Base64.getDecoder().decode(text), 'ISO-8859-1'));"
+				+ "};");
+	}
+
+	/**
+	 * Calls a global function.
+	 * 
+	 * @param name the function name
+	 * @param args the arguments, converted as by Rhino
+	 * @return the result, converted to a Java value when it is a primitive
+	 */
+	public Object call(String name, Object... args) {
+		Function function = (Function) scope.get(name, scope);
+		Object[] jsArgs = new Object[args.length];
+		for (int i = 0; i < args.length; i++) {
+			jsArgs[i] = Context.javaToJS(args[i], scope);
+		}
+		Object result = function.call(context, scope, scope, jsArgs);
+		return result instanceof ScriptableObject ? result : Context.jsToJava(result, Object.class);
+	}
+
+	/**
+	 * Exits the script context.
+	 */
+	public void close() {
+		Context.exit();
+	}
+
+	/**
+	 * Defines a global function with the body of a JSNI method, named after the method. The body must not reference
+	 * Java fields or instance methods. Static method references are replaced by the global function of the same name,
+	 * which must be defined as well.
+	 * 
+	 * @param className the name of the class declaring the method
+	 * @param methodName the method name, which must not be overloaded by another native method
+	 */
+	public void define(String className, String methodName) {
+		String source = readSource(className);
+		Matcher matcher = Pattern.compile("native\\s+[\\w.<>\\[\\]]+\\s+" + methodName + "\\(([^)]*)\\)\\s*/\\*-\\{")
+				.matcher(source);
+		if (!matcher.find()) {
+			throw new IllegalArgumentException("No native method " + methodName + " in " + className);
+		}
+		int end = source.indexOf("}-*/", matcher.end());
+		String body = STATIC_CALL.matcher(source.substring(matcher.end(), end)).replaceAll("$1");
+		if (body.contains("@com.")) {
+			throw new IllegalArgumentException("Native method " + methodName + " references Java members");
+		}
+		StringBuilder parameters = new StringBuilder();
+		for (String parameter : matcher.group(1).split(",")) {
+			String[] tokens = parameter.trim().split("\\s+");
+			if (tokens[0].length() > 0) {
+				if (parameters.length() > 0) {
+					parameters.append(',');
+				}
+				parameters.append(tokens[tokens.length - 1]);
+			}
+		}
+		eval("function " + methodName + "(" + parameters + ") {" + body + "}");
+	}
+
+	/**
+	 * Defines a stand-in for google.visualization.DataTable, which stores rows the way the library does, as an array of
+	 * <code>{c: [{v: value}]}</code> objects. It only has the methods that the tests use and doesn't check types.
+	 */
+	public void defineDataTable() {
+		eval("$wnd.google = {visualization: {DataTable: function(data) {"
+				+ "  this.cols = data ? data.cols : [];"
+				+ "  this.rows = data ? data.rows : [];"
+				+ "}}};"
+				+ "$wnd.google.visualization.DataTable.prototype = {"
+				+ "  addColumn: function(type, label) {"
+				+ "    this.cols.push({type: type, label: label || ''});"
+				+ "    return this.cols.length - 1;"
+				+ "  },"
+				+ "  addRow: function(cells) {"
+				+ "    var c = new Array(cells.length);"
+				+ "    for (var j = 0; j < cells.length; j++) {"
+				+ "      var v = cells[j];"
+				+ "      c[j] = v != null && typeof v == 'object' && !(v instanceof Date) && !Array.isArray(v) ? v : {v: v};"
+				+ "    }"
+				+ "    this.rows.push({c: c});"
+				+ "    return this.rows.length - 1;"
+				+ "  },"
+				+ "  getNumberOfColumns: function() {"
+				+ "    return this.cols.length;"
+				+ "  },"
+				+ "  getNumberOfRows: function() {"
+				+ "    return this.rows.length;"
+				+ "  },"
+				+ "  getValue: function(rowIndex, columnIndex) {"
+				+ "    var cell = this.rows[rowIndex].c[columnIndex];"
+				+ "    return cell == null ? null : cell.v;"
+				+ "  }"
+				+ "};");
+	}
+
+	/**
+	 * Evaluates a script in the global scope.
+	 * 
+	 * @param script the script
+	 * @return the result, converted to a Java value when it is a primitive
+	 */
+	public Object eval(String script) {
+		Object result = context.evaluateString(scope, script, "script", 1, null);
+		return result instanceof ScriptableObject ? result : Context.jsToJava(result, Object.class);
+	}
+
+	private static String readSource(String className) {
+		File file = new File(System.getProperty(SOURCES_PROPERTY, "src/main/java"), className.replace('.', '/')
+				+ ".java");
+		if (!file.isFile()) {
+			throw new IllegalArgumentException("No source for " + className + " at " + file.getAbsolutePath());
+		}
+		try {
+			InputStream in = new FileInputStream(file);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			for (int count = in.read(buffer); count > 0; count = in.read(buffer)) {
+				out.write(buffer, 0, count);
+			}
+			in.close();
+			return new String(out.toByteArray(), UTF_8);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a numeric series in Rhino from the Float64Array of a {@link TypedArrayTable} and from the DataTable copy made by
+ * {@link TypedArrayTable#toDataTable()}, and times making that copy. Run with <code>-prof gc</code> to compare the
+ * allocation of the copy as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class TypedArrayTableBenchmark {
+	@Param({ "1000000" })
+	public int rows;
+
+	private JsniScript script;
+
+	@Benchmark
+	public Object copy() {
+		return script.eval("table.toDataTable()");
+	}
+
+	@Benchmark
+	public Object readBuffer() {
+		return script.eval("sumValues(table)");
+	}
+
+	@Benchmark
+	public Object readCopy() {
+		return script.eval("sumValues(dataTable)");
+	}
+
+	@Setup
+	public void setUp() {
+		script = new JsniScript();
+		script.defineDataTable();
+		script.define("com.googlecode.gwt.charts.client.TypedArrayTable", "create");
+		script.eval("var data = new Float64Array(" + rows + ");"
+				+ "for (var i = 0; i < data.length; i++) {"
+				+ "  data[i] = Math.round(Math.abs(Math.sin(i / 60)) * 10000) / 100;"
+				+ "}"
+				+ "var table = create(data.length);"
+				+ "table.addColumn('number', 'Load', data);"
+				+ "var dataTable = table.toDataTable();"
+				+ "function sumValues(table) {"
+				+ "  var sum = 0;"
+				+ "  for (var i = 0; i < table.getNumberOfRows(); i++) {"
+				+ "    sum += table.getValue(i, 0);"
+				+ "  }"
+				+ "  return sum;"
+				+ "}");
+	}
+
+	@TearDown
+	public void tearDown() {
+		script.close();
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Reads tables created by the script of {@link TypedArrayTable}, and checks that a large series reads the same from
+ * its buffers as from the DataTable copy. {@link TypedArrayTableBenchmark} times both.
+ */
+public class TypedArrayTableTest {
+	private static JsniScript script;
+
+	@BeforeClass
+	public static void setUpScript() {
+		script = new JsniScript();
+		script.defineDataTable();
+		script.define("com.googlecode.gwt.charts.client.TypedArrayTable", "create");
+		script.eval("function sample() {"
+				+ "  var table = create(4);"
+				+ "  table.addColumn('datetime', 'Time', new Float64Array([3000, 1000, NaN, 2000]));"
+				+ "  table.addColumn('number', 'Load', new Float64Array([2.5, NaN, 1, 2.5]));"
+				+ "  table.addColumn('string', 'Host', ['b', 'a', null, 'b']);"
+				+ "  return table;"
+				+ "}"
+				+ "function times(value) {"
+				+ "  return value instanceof Date ? value.getTime() : value;"
+				+ "}"
+				+ "function sumValues(table, columnIndex) {"
+				+ "  var sum = 0;"
+				+ "  for (var i = 0; i < table.getNumberOfRows(); i++) {"
+				+ "    sum += table.getValue(i, columnIndex);"
+				+ "  }"
+				+ "  return sum;"
+				+ "}");
+	}
+
+	@AfterClass
+	public static void tearDownScript() {
+		script.close();
+	}
+
+	@Test
+	public void testBufferIsNotCopied() {
+		assertEquals(7.0, script.eval("var data = new Float64Array(2);"
+				+ "var table = create(2);"
+				+ "table.addColumn('number', null, data);"
+				+ "data[1] = 7;"
+				+ "table.getValue(1, 0)"));
+	}
+
+	@Test
+	public void testColumns() {
+		assertEquals("[1000,3000]", script.eval("var range = sample().getColumnRange(0);"
+				+ "JSON.stringify([times(range.min), times(range.max)])"));
+		assertEquals("[null,1,2.5]", script.eval("JSON.stringify(sample().getDistinctValues(1))"));
+		assertEquals("[null,\"a\",\"b\"]", script.eval("JSON.stringify(sample().getDistinctValues(2))"));
+		assertEquals("[null,1]", script.eval("var table = create(4);"
+				+ "table.addColumn('number', null, [NaN, null, 1, NaN]);"
+				+ "JSON.stringify(table.getDistinctValues(0))"));
+		assertEquals("[null,\"hasOwnProperty\",\"null\"]", script.eval("var table = create(3);"
+				+ "table.addColumn('string', null, ['null', null, 'hasOwnProperty']);"
+				+ "JSON.stringify(table.getDistinctValues(0))"));
+		assertEquals(2.0, script.eval("sample().getColumnIndex('Host')"));
+		assertEquals(-1.0, script.eval("sample().getColumnIndex('None')"));
+	}
+
+	@Test
+	public void testFilteredRows() {
+		assertEquals("[0,3]", script.eval("JSON.stringify(sample().getFilteredRows([{column: 1, value: 2.5}]))"));
+		assertEquals("[0,3]", script.eval("JSON.stringify(sample().getFilteredRows([{column: 2, value: 'b'}]))"));
+		assertEquals("[2]", script.eval("JSON.stringify(sample().getFilteredRows([{column: 2, value: null}]))"));
+		assertEquals("[3]", script.eval("JSON.stringify(sample().getFilteredRows("
+				+ "[{column: 0, value: new Date(2000)}]))"));
+		assertEquals("[0,3]", script.eval("JSON.stringify(sample().getFilteredRows("
+				+ "[{column: 0, minValue: new Date(1500)}, {column: 1, maxValue: 3}]))"));
+	}
+
+	@Test
+	public void testLargeSeries() {
+		script.eval("var data = new Float64Array(1000000);"
+				+ "for (var i = 0; i < data.length; i++) {"
+				+ "  data[i] = Math.round(Math.abs(Math.sin(i / 60)) * 10000) / 100;"
+				+ "}"
+				+ "var table = create(data.length);"
+				+ "table.addColumn('number', 'Load', data);");
+		assertEquals(script.eval("sumValues(table, 0)"), script.eval("sumValues(table.toDataTable(), 0)"));
+	}
+
+	@Test
+	public void testRangeCopy() {
+		assertEquals("[[\"a\",1000],[null,null]]", script.eval("var copy = sample().toDataTable(1, 2, [2, 0]);"
+				+ "var rows = [];"
+				+ "for (var i = 0; i < copy.getNumberOfRows(); i++) {"
+				+ "  rows.push([copy.getValue(i, 0), times(copy.getValue(i, 1))]);"
+				+ "}"
+				+ "JSON.stringify(rows)"));
+		assertEquals(4.0, script.eval("sample().toDataTable().getNumberOfRows()"));
+		assertEquals(3.0, script.eval("sample().toDataTable(0, 4, []).getNumberOfColumns()"));
+	}
+
+	@Test
+	public void testSortedRows() {
+		assertEquals("[2,1,3,0]", script.eval("JSON.stringify(sample().getSortedRows(0))"));
+		assertEquals("[0,3,2,1]", script.eval("JSON.stringify(sample().getSortedRows([{column: 1, desc: true}]))"));
+		assertEquals("[3,0,2,1]", script.eval("JSON.stringify(sample().getSortedRows("
+				+ "[{column: 1, desc: true}, {column: 0}]))"));
+	}
+
+	@Test
+	public void testValues() {
+		assertEquals("[[3000,2.5,\"b\"],[1000,null,\"a\"],[null,1,null],[2000,2.5,\"b\"]]", script.eval(
+				"var table = sample();"
+				+ "var rows = [];"
+				+ "for (var i = 0; i < table.getNumberOfRows(); i++) {"
+				+ "  rows.push([times(table.getValue(i, 0)), table.getValue(i, 1), table.getValue(i, 2)]);"
+				+ "}"
+				+ "JSON.stringify(rows)"));
+		assertEquals("2.5", script.eval("sample().getFormattedValue(0, 1)"));
+		assertEquals("", script.eval("sample().getFormattedValue(1, 1)"));
+		assertEquals("[{\"v\":1000},{\"v\":null},{\"v\":\"a\"}]", script.eval(
+				"var cells = sample().toDataTable().rows[1].c;"
+				+ "cells[0].v = times(cells[0].v);"
+				+ "JSON.stringify(cells)"));
+	}
+}
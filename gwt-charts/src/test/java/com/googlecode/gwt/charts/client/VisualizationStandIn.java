@@ -0,0 +1,241 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client;
+
+/**
+ * Installs stand-ins for google.visualization.DataTable, DataView, QueryResponse and events in the host page of the
+ * GwtTest* cases, which can't load the chart library. The tables store rows the way the library does, as an array of
+ * <code>{c: [{v: value, f: formattedValue, p: properties}], p: properties}</code> objects, check row and column
+ * indexes like it, and only have the methods that the tests use.
+ */
+public class VisualizationStandIn {
+
+	/**
+	 * Defines the stand-ins, replacing any previous ones.
+	 */
+	public static native void define() /*-{
+		var checkRow = function(source, rowIndex) {
+			if (!(rowIndex >= 0 && rowIndex < source.getNumberOfRows())) {
+				throw new Error('Invalid row index ' + rowIndex);
+			}
+		};
+		var toCell = function(v) {
+			return v != null && typeof v == 'object' && !v.getTime && v.length === undefined ? v : {
+				v : v
+			};
+		};
+		var DataTable = function(data) {
+			this.cols = data && data.cols ? data.cols : [];
+			this.rows = [];
+			this.p = data ? data.p : undefined;
+			// The cells of a literal are copied like the ones of added rows, as the library does
+			var rows = data && data.rows ? data.rows : [];
+			for (var i = 0; i < rows.length; i++) {
+				this.addRow(rows[i].c);
+				this.rows[i].p = rows[i].p;
+			}
+		};
+		DataTable.prototype = {
+			addColumn : function(type, label, id) {
+				this.cols.push(typeof type == 'object' ? type : {
+					type : type,
+					label : label || '',
+					id : id || ''
+				});
+				return this.cols.length - 1;
+			},
+			addRow : function(cells) {
+				var c = [];
+				for (var j = 0; j < this.cols.length; j++) {
+					c.push(toCell(cells && j < cells.length ? cells[j] : null));
+				}
+				this.rows.push({
+					c : c
+				});
+				return this.rows.length - 1;
+			},
+			addRows : function(rows) {
+				var count = typeof rows == 'number' ? rows : rows.length;
+				for (var i = 0; i < count; i++) {
+					this.addRow(typeof rows == 'number' ? null : rows[i]);
+				}
+				return this.rows.length - 1;
+			},
+			getColumnId : function(columnIndex) {
+				return this.cols[columnIndex].id || '';
+			},
+			getColumnLabel : function(columnIndex) {
+				return this.cols[columnIndex].label || '';
+			},
+			getColumnType : function(columnIndex) {
+				return this.cols[columnIndex].type;
+			},
+			getFormattedValue : function(rowIndex, columnIndex) {
+				checkRow(this, rowIndex);
+				var cell = this.rows[rowIndex].c[columnIndex];
+				return cell == null ? '' : cell.f != null ? cell.f : cell.v == null ? '' : String(cell.v);
+			},
+			getNumberOfColumns : function() {
+				return this.cols.length;
+			},
+			getNumberOfRows : function() {
+				return this.rows.length;
+			},
+			getProperty : function(rowIndex, columnIndex, name) {
+				return this.getProperties(rowIndex, columnIndex)[name];
+			},
+			getProperties : function(rowIndex, columnIndex) {
+				checkRow(this, rowIndex);
+				var cell = this.rows[rowIndex].c[columnIndex];
+				return cell == null || cell.p == null ? {} : cell.p;
+			},
+			getRowProperties : function(rowIndex) {
+				checkRow(this, rowIndex);
+				return this.rows[rowIndex].p || {};
+			},
+			getValue : function(rowIndex, columnIndex) {
+				checkRow(this, rowIndex);
+				var cell = this.rows[rowIndex].c[columnIndex];
+				return cell == null ? null : cell.v;
+			},
+			removeRow : function(rowIndex) {
+				this.removeRows(rowIndex, 1);
+			},
+			removeRows : function(rowIndex, numberOfRows) {
+				checkRow(this, rowIndex);
+				this.rows.splice(rowIndex, numberOfRows);
+			},
+			setCell : function(rowIndex, columnIndex, value, formattedValue, properties) {
+				checkRow(this, rowIndex);
+				this.rows[rowIndex].c[columnIndex] = {
+					v : value,
+					f : formattedValue,
+					p : properties
+				};
+			},
+			setFormattedValue : function(rowIndex, columnIndex, formattedValue) {
+				checkRow(this, rowIndex);
+				this.rows[rowIndex].c[columnIndex].f = formattedValue;
+			},
+			setProperty : function(rowIndex, columnIndex, name, value) {
+				checkRow(this, rowIndex);
+				var cell = this.rows[rowIndex].c[columnIndex];
+				cell.p = cell.p || {};
+				cell.p[name] = value;
+			},
+			setRowProperties : function(rowIndex, properties) {
+				checkRow(this, rowIndex);
+				this.rows[rowIndex].p = properties;
+			},
+			setValue : function(rowIndex, columnIndex, value) {
+				checkRow(this, rowIndex);
+				this.rows[rowIndex].c[columnIndex] = {
+					v : value
+				};
+			}
+		};
+		var DataView = function(source) {
+			this.source = source;
+			this.rows = null;
+		};
+		DataView.prototype = {
+			getColumnType : function(columnIndex) {
+				return this.source.getColumnType(columnIndex);
+			},
+			getNumberOfColumns : function() {
+				return this.source.getNumberOfColumns();
+			},
+			getNumberOfRows : function() {
+				return this.rows ? this.rows.length : this.source.getNumberOfRows();
+			},
+			getTableRowIndex : function(viewRowIndex) {
+				checkRow(this, viewRowIndex);
+				var rowIndex = this.rows ? this.rows[viewRowIndex] : viewRowIndex;
+				checkRow(this.source, rowIndex);
+				return rowIndex;
+			},
+			getValue : function(rowIndex, columnIndex) {
+				return this.source.getValue(this.getTableRowIndex(rowIndex), columnIndex);
+			},
+			setRows : function(min, max) {
+				if (typeof min == 'number') {
+					this.rows = [];
+					for (var i = min; i <= max; i++) {
+						this.rows.push(i);
+					}
+				} else {
+					this.rows = min.slice();
+				}
+			}
+		};
+		$wnd.google = $wnd.google || {};
+		var QueryResponse = function(response) {
+			this.response = response;
+		};
+		QueryResponse.prototype = {
+			getDataTable : function() {
+				return this.response.table ? new DataTable(this.response.table) : null;
+			},
+			getDetailedMessage : function() {
+				return this.response.errors ? this.response.errors[0].detailed_message : null;
+			},
+			getMessage : function() {
+				return this.response.errors ? this.response.errors[0].message : null;
+			},
+			getReasons : function() {
+				var reasons = [];
+				for (var i = 0; this.response.errors && i < this.response.errors.length; i++) {
+					reasons.push(this.response.errors[i].reason);
+				}
+				return reasons;
+			},
+			hasWarning : function() {
+				return this.response.status == 'warning';
+			},
+			isError : function() {
+				return this.response.status == 'error';
+			}
+		};
+		var listeners = [];
+		$wnd.google.visualization = {
+			DataTable : DataTable,
+			DataView : DataView,
+			QueryResponse : QueryResponse,
+			events : {
+				addListener : function(source, eventName, callback) {
+					var listener = {
+						source : source,
+						eventName : eventName,
+						callback : callback
+					};
+					listeners.push(listener);
+					return listener;
+				},
+				removeListener : function(listener) {
+					var i = listeners.indexOf(listener);
+					if (i >= 0) {
+						listeners.splice(i, 1);
+					}
+				},
+				trigger : function(source, eventName, properties) {
+					var called = listeners.slice();
+					for (var i = 0; i < called.length; i++) {
+						if (called[i].source === source && called[i].eventName == eventName) {
+							called[i].callback(properties);
+						}
+					}
+				}
+			}
+		};
+	}-*/;
+}
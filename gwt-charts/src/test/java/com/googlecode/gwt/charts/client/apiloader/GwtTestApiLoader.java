@@ -0,0 +1,128 @@
+/*
+ * Copyright 2012 Rui Afonso
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.googlecode.gwt.charts.client.apiloader;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.junit.client.GWTTestCase;
+
+/**
+ * Checks the request counters of {@link ApiLoader} against the stand-in loader script of the ChartsTest module. Each
+ * test uses a loader of its own.
+ */
+public class GwtTestApiLoader extends GWTTestCase {
+	private static final String VERSION = "current";
+	private static final int TEST_DELAY_MS = 10000;
+
+	private static native void defineLoader() /*-{
+		$wnd.google = {
+			charts : {
+				load : function(version, settings) {
+					$wnd.setTimeout(settings.callback, 0);
+				}
+			}
+		};
+	}-*/;
+
+	private static ApiLoaderOptions options(String... packages) {
+		ApiLoaderOptions options = ApiLoaderOptions.create();
+		options.setPackages(packages);
+		return options;
+	}
+
+	private static native void removeLoader() /*-{
+		delete $wnd.google;
+	}-*/;
+
+	@Override
+	public String getModuleName() {
+		return "com.googlecode.gwt.charts.ChartsTest";
+	}
+
+	public void testLoadedPackagesAnsweredWithoutLoading() {
+		defineLoader();
+		final ApiLoader loader = new ApiLoader(0);
+		loader.request(VERSION, options("corechart"), new Runnable() {
+
+			@Override
+			public void run() {
+				loader.request(VERSION, options("corechart"), new Runnable() {
+
+					@Override
+					public void run() {
+						assertEquals(2, loader.getRequestCount());
+						assertEquals(1, loader.getCachedRequestCount());
+						assertEquals(1, loader.getLoadCallCount());
+						// Only the load that called google.charts.load() is timed
+						assertEquals(1, loader.getLoadMetrics().getPackageLoads().size());
+						finishTest();
+					}
+				}, null);
+			}
+		}, null);
+		delayTestFinish(TEST_DELAY_MS);
+	}
+
+	public void testRequestsMergedIntoPendingLoads() {
+		defineLoader();
+		final ApiLoader loader = new ApiLoader(0);
+		final int[] remaining = { 4 };
+		Runnable onLoad = new Runnable() {
+
+			@Override
+			public void run() {
+				remaining[0]--;
+				if (remaining[0] == 0) {
+					assertEquals(2, loader.getLoadCallCount());
+					assertTrue(loader.isIdle());
+					finishTest();
+				}
+			}
+		};
+		// The first request starts a load, the second one is covered by it
+		loader.request(VERSION, options("corechart"), onLoad, null);
+		loader.request(VERSION, options("corechart"), onLoad, null);
+		// Both wait for the current load and go into the same queued one
+		loader.request(VERSION, options("table"), onLoad, null);
+		loader.request(VERSION, options("gauge"), onLoad, null);
+		assertEquals(4, loader.getRequestCount());
+		assertEquals(2, loader.getMergedRequestCount());
+		assertEquals(1, loader.getLoadCallCount());
+		delayTestFinish(TEST_DELAY_MS);
+	}
+
+	public void testScriptInjectedOnce() {
+		removeLoader();
+		final ApiLoader loader = new ApiLoader(0);
+		loader.setLoaderUrl(GWT.getModuleBaseURL() + "loader.js");
+		final int[] remaining = { 2 };
+		Runnable onLoad = new Runnable() {
+
+			@Override
+			public void run() {
+				remaining[0]--;
+				if (remaining[0] == 0) {
+					assertEquals(1, loader.getScriptInjectionCount());
+					assertEquals(1, loader.getLoadCallCount());
+					finishTest();
+				}
+			}
+		};
+		// Both requests wait for the loader script, the second one is merged into the load queued by the first
+		loader.request(VERSION, options("corechart"), onLoad, null);
+		loader.request(VERSION, options("table"), onLoad, null);
+		assertEquals(1, loader.getScriptInjectionCount());
+		assertEquals(1, loader.getMergedRequestCount());
+		assertEquals(0, loader.getLoadCallCount());
+		delayTestFinish(TEST_DELAY_MS);
+	}
+}
@@ -0,0 +1 @@
+google.visualization.Query.setResponse({"version":"0.6","reqId":"0","status":"ok","table":{"cols":[{"id":"A","label":"Host","type":"string"},{"id":"B","label":"Load","type":"number"}],"rows":[{"c":[{"v":"host-0"},{"v":1.5}]},{"c":[{"v":"host-1"},{"v":2}]}]}});